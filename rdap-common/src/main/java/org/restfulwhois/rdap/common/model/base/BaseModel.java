@@ -30,12 +30,12 @@
  */
 package org.restfulwhois.rdap.common.model.base;
 
-import java.util.Iterator;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 
+import org.apache.commons.lang.StringUtils;
 import org.restfulwhois.rdap.common.dto.BaseDto;
 import org.restfulwhois.rdap.common.model.Notice;
 
@@ -92,11 +92,10 @@ public class BaseModel {
     private List<Notice> notices;
 
     /**
-     * customProperties.
+     * customProperties, null until it is set or decoded.
      */
     @JsonIgnore
-    private Map<String, String> customProperties =
-            new LinkedHashMap<String, String>();
+    private Map<String, String> customProperties;
     /**
      * customPropertiesJsonVal.
      */
@@ -113,39 +112,29 @@ public class BaseModel {
      */
     @JsonAnySetter
     public void addCustomProperty(String key, String value) {
-        customProperties.put(key, value);
+        getCustomProperties().put(key, value);
     }
 
     /**
-     * get custom property.
+     * get custom properties with prefix, for serialization.
+     * <p>
+     * customProperties is used if not empty, otherwise
+     * customPropertiesJsonVal is decoded while it is serialized.
+     * </p>
      * 
      * @return customProperties.
      */
     @JsonAnyGetter
     public Map<String, String> getCustomPropertiesMap() {
-        Map<String, String> result = addCustomPrefixToMapKey(customProperties);
-        return result;
-    }
-
-    /**
-     * add custom prefix to map key.
-     * 
-     * @param customPropertiesMap
-     *            customPropertiesMap.
-     * @return map.
-     */
-    private Map<String, String> addCustomPrefixToMapKey(
-            Map<String, String> customPropertiesMap) {
-        Map<String, String> result = new LinkedHashMap<String, String>();
-        for (Iterator<Entry<String, String>> it =
-                customPropertiesMap.entrySet().iterator(); it.hasNext();) {
-            Entry<String, String> entry = it.next();
-            if (null != entry.getValue()) {
-                result.put(customPropertyPrefix + entry.getKey(),
-                        entry.getValue());
-            }
+        if (null != customProperties && !customProperties.isEmpty()) {
+            return new CustomPropertiesMap(customPropertyPrefix,
+                    customProperties);
+        }
+        if (StringUtils.isNotBlank(customPropertiesJsonVal)) {
+            return new CustomPropertiesMap(customPropertyPrefix,
+                    customPropertiesJsonVal);
         }
-        return result;
+        return Collections.emptyMap();
     }
 
     /**
@@ -302,6 +291,11 @@ public class BaseModel {
      * @return customProperties.
      */
     public Map<String, String> getCustomProperties() {
+        if (null == customProperties) {
+            customProperties =
+                    new LinkedHashMap<String, String>(new CustomPropertiesMap(
+                            "", customPropertiesJsonVal));
+        }
         return customProperties;
     }
 
@@ -34,6 +34,7 @@ import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 /**
  * base search class.
@@ -58,6 +59,18 @@ public class BaseSearchModel<T extends BaseModel> extends BaseModel {
     @JsonIgnore
     private TruncatedInfo truncatedInfo;
 
+    /**
+     * paging metadata, exists if there are more results.
+     */
+    @JsonProperty("paging_metadata")
+    private PagingMetadata pagingMetadata;
+
+    /**
+     * result stream, exists if results are written in streaming mode.
+     */
+    @JsonIgnore
+    private SearchResultStream<T> resultStream;
+
     /**
      * get truncatedInfo.
      * 
@@ -77,6 +90,25 @@ public class BaseSearchModel<T extends BaseModel> extends BaseModel {
         this.truncatedInfo = truncatedInfo;
     }
 
+    /**
+     * get pagingMetadata.
+     * 
+     * @return pagingMetadata.
+     */
+    public PagingMetadata getPagingMetadata() {
+        return pagingMetadata;
+    }
+
+    /**
+     * set pagingMetadata.
+     * 
+     * @param pagingMetadata
+     *            pagingMetadata.
+     */
+    public void setPagingMetadata(PagingMetadata pagingMetadata) {
+        this.pagingMetadata = pagingMetadata;
+    }
+
     /**
      * get searchResults.
      * 
@@ -96,6 +128,46 @@ public class BaseSearchModel<T extends BaseModel> extends BaseModel {
         this.searchResults = searchResults;
     }
 
+    /**
+     * get resultStream.
+     * 
+     * @return resultStream.
+     */
+    @JsonIgnore
+    public SearchResultStream<T> getResultStream() {
+        return resultStream;
+    }
+
+    /**
+     * set resultStream.
+     * 
+     * @param resultStream
+     *            resultStream.
+     */
+    public void setResultStream(SearchResultStream<T> resultStream) {
+        this.resultStream = resultStream;
+    }
+
+    /**
+     * check if results are written in streaming mode.
+     * 
+     * @return true if is, false if not.
+     */
+    @JsonIgnore
+    public boolean isStreaming() {
+        return null != resultStream;
+    }
+
+    /**
+     * get JSON name of search results, sub class should override it.
+     * 
+     * @return name.
+     */
+    @JsonIgnore
+    public String getSearchResultsName() {
+        return "searchResults";
+    }
+
     @Override
     public ModelType getObjectType() {
         return ModelType.SEARCH;
@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.model.base;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * <pre>
+ * read-only view of custom properties, with prefix added to keys.
+ * 
+ * Source is a map, or the raw JSON object of CUSTOM_PROPERTIES column which
+ * is parsed while entries are iterated, so no map is built when the view is
+ * serialized.
+ * Entry with null value is skipped; scalar value is converted to text, and
+ * object or array value is skipped. If JSON is invalid, iteration stops at
+ * the error.
+ * </pre>
+ * 
+ * @author jiashuo
+ * 
+ */
+public class CustomPropertiesMap extends AbstractMap<String, String> {
+    /**
+     * logger.
+     */
+    private static final Logger LOGGER = LoggerFactory
+            .getLogger(CustomPropertiesMap.class);
+    /**
+     * JSON factory, thread safe.
+     */
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    /**
+     * key prefix.
+     */
+    private final String prefix;
+    /**
+     * source map, null if source is JSON.
+     */
+    private final Map<String, String> source;
+    /**
+     * source JSON, null if source is map.
+     */
+    private final String json;
+
+    /**
+     * constructor with source map.
+     * 
+     * @param prefix
+     *            key prefix.
+     * @param source
+     *            source map, may be null.
+     */
+    public CustomPropertiesMap(String prefix, Map<String, String> source) {
+        super();
+        this.prefix = prefix;
+        if (null == source) {
+            this.source = Collections.emptyMap();
+        } else {
+            this.source = source;
+        }
+        this.json = null;
+    }
+
+    /**
+     * constructor with source JSON.
+     * 
+     * @param prefix
+     *            key prefix.
+     * @param json
+     *            JSON object, may be blank.
+     */
+    public CustomPropertiesMap(String prefix, String json) {
+        super();
+        this.prefix = prefix;
+        this.source = null;
+        this.json = json;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<Entry<String, String>>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                if (null != source) {
+                    return new MapEntryIterator();
+                }
+                return new JsonEntryIterator();
+            }
+
+            @Override
+            public int size() {
+                int size = 0;
+                for (Iterator<Entry<String, String>> it = iterator(); it
+                        .hasNext(); it.next()) {
+                    size++;
+                }
+                return size;
+            }
+        };
+    }
+
+    /**
+     * create entry with prefix added to key.
+     * 
+     * @param key
+     *            key.
+     * @param value
+     *            value.
+     * @return entry.
+     */
+    private Entry<String, String> createEntry(String key, String value) {
+        return new SimpleImmutableEntry<String, String>(prefix + key, value);
+    }
+
+    /**
+     * iterator of source map.
+     * 
+     * @author jiashuo
+     * 
+     */
+    private final class MapEntryIterator extends EntryIterator {
+        /**
+         * iterator of source.
+         */
+        private final Iterator<Entry<String, String>> it = source.entrySet()
+                .iterator();
+
+        @Override
+        protected Entry<String, String> readNext() {
+            while (it.hasNext()) {
+                Entry<String, String> entry = it.next();
+                if (null != entry.getValue()) {
+                    return createEntry(entry.getKey(), entry.getValue());
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * iterator which parses source JSON.
+     * 
+     * @author jiashuo
+     * 
+     */
+    private final class JsonEntryIterator extends EntryIterator {
+        /**
+         * parser, null if JSON is finished.
+         */
+        private JsonParser parser;
+
+        /**
+         * constructor.
+         */
+        JsonEntryIterator() {
+            super();
+            if (StringUtils.isBlank(json)) {
+                return;
+            }
+            try {
+                parser = JSON_FACTORY.createParser(json);
+                if (JsonToken.START_OBJECT != parser.nextToken()) {
+                    LOGGER.error("custom properties is not JSON object:{}",
+                            json);
+                    close();
+                }
+            } catch (IOException e) {
+                LOGGER.error("parse custom properties error:{}", e);
+                close();
+            }
+        }
+
+        @Override
+        protected Entry<String, String> readNext() {
+            try {
+                while (null != parser
+                        && JsonToken.FIELD_NAME == parser.nextToken()) {
+                    String key = parser.getCurrentName();
+                    JsonToken valueToken = parser.nextToken();
+                    if (valueToken.isScalarValue()
+                            && JsonToken.VALUE_NULL != valueToken) {
+                        return createEntry(key, parser.getText());
+                    }
+                    parser.skipChildren();
+                }
+            } catch (IOException e) {
+                LOGGER.error("parse custom properties error:{}", e);
+            }
+            close();
+            return null;
+        }
+
+        /**
+         * close parser.
+         */
+        private void close() {
+            if (null == parser) {
+                return;
+            }
+            try {
+                parser.close();
+            } catch (IOException e) {
+                LOGGER.debug("close parser error:{}", e.getMessage());
+            }
+            parser = null;
+        }
+    }
+
+    /**
+     * read-only iterator, which reads next entry in advance.
+     * 
+     * @author jiashuo
+     * 
+     */
+    private abstract static class EntryIterator implements
+            Iterator<Entry<String, String>> {
+        /**
+         * next entry, null if not read.
+         */
+        private Entry<String, String> next;
+        /**
+         * if there are no more entries.
+         */
+        private boolean finished;
+
+        /**
+         * read next entry.
+         * 
+         * @return entry, null if there are no more entries.
+         */
+        protected abstract Entry<String, String> readNext();
+
+        @Override
+        public boolean hasNext() {
+            if (null == next && !finished) {
+                next = readNext();
+                finished = null == next;
+            }
+            return null != next;
+        }
+
+        @Override
+        public Entry<String, String> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Entry<String, String> result = next;
+            next = null;
+            return result;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.model.base;
+
+import java.util.List;
+
+/**
+ * <pre>
+ * stream of search results, which are read in batches while response is
+ * written, instead of being held in memory together.
+ * Truncated info and paging metadata are known after the last batch is read,
+ * so listeners which need them must wait for onComplete.
+ * </pre>
+ * 
+ * @author jiashuo
+ * @param <T>
+ *            model of search results.
+ */
+public interface SearchResultStream<T extends BaseModel> {
+
+    /**
+     * read next batch of results, which are authorized and with inner
+     * objects.
+     * 
+     * @return results, empty if there are no more results.
+     */
+    List<T> nextBatch();
+
+    /**
+     * complete stream after the last batch is read: set paging metadata to
+     * search model, and notify listeners.
+     * 
+     * @param searchModel
+     *            search model which is written.
+     */
+    void complete(BaseSearchModel<T> searchModel);
+
+    /**
+     * add listener, listeners are notified in order of adding.
+     * 
+     * @param listener
+     *            listener.
+     */
+    void addListener(Listener listener);
+
+    /**
+     * listener of stream.
+     * 
+     * @author jiashuo
+     * 
+     */
+    interface Listener {
+        /**
+         * called for each batch before it is written.
+         * 
+         * @param results
+         *            results of batch.
+         */
+        void onBatch(List<? extends BaseModel> results);
+
+        /**
+         * called after the last batch is written.
+         * 
+         * @param searchModel
+         *            search model.
+         */
+        void onComplete(BaseSearchModel<?> searchModel);
+    }
+}
@@ -38,8 +38,9 @@ package org.restfulwhois.rdap.port43.server;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.restfulwhois.rdap.port43.service.ClearRateLimitMapTimer;
+import org.restfulwhois.rdap.port43.service.RateLimiter;
 import org.restfulwhois.rdap.port43.util.RdapProperties;
+import org.restfulwhois.rdap.port43.util.RestClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -114,7 +115,6 @@ public final class Main {
      *             Exception.
      */
     private static Server startServer() throws Exception {
-        ClearRateLimitMapTimer.schedule();
         Server serviceServer =
                 new Server(SERVICE_PORT, new ServiceServerInitializer());
         serviceServer.start();
@@ -135,8 +135,10 @@ public final class Main {
             LOGGER.info("shutdown server {}", server);
             server.shutdown();
         }
-        LOGGER.info("shutdown rate limit IP map clear timer...");
-        ClearRateLimitMapTimer.stop();
+        LOGGER.info("shutdown executors and http client...");
+        ServiceServerInitializer.shutdownServiceExecutor();
+        RateLimiter.shutdownCleanUpExecutor();
+        RestClient.getInstance().close();
         LOGGER.info("doShutdown end.");
     }
 
@@ -42,6 +42,8 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 
 import org.apache.commons.lang.StringUtils;
+import org.restfulwhois.rdap.port43.service.RateLimiter;
+import org.restfulwhois.rdap.port43.service.ResponseCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -55,6 +57,10 @@ public final class ManageServerHandler extends
      * shutdown command.
      */
     public static final String CMD_SHUTDOWN = "shutdown";
+    /**
+     * statistics command.
+     */
+    public static final String CMD_STATS = "stats";
     /**
      * logger.
      */
@@ -87,6 +93,24 @@ public final class ManageServerHandler extends
     protected void messageReceived(ChannelHandlerContext ctx, String msg)
             throws Exception {
         LOGGER.info("receive manage cmd:{}", msg);
+        if (StringUtils.equals(CMD_STATS, msg)) {
+            RateLimiter rateLimiter = RateLimiter.getInstance();
+            ResponseCache responseCache = ResponseCache.getInstance();
+            ChannelFuture future =
+                    ctx.writeAndFlush("accepted:"
+                            + rateLimiter.getAcceptedCount() + ",rejected:"
+                            + rateLimiter.getRejectedCount() + ",clients:"
+                            + rateLimiter.size() + ",cacheHits:"
+                            + responseCache.getHitCount() + ",cacheMisses:"
+                            + responseCache.getMissCount()
+                            + ",cacheEvictions:"
+                            + responseCache.getEvictionCount()
+                            + ",cacheEntries:" + responseCache.size()
+                            + ",cacheChars:" + responseCache.getTotalChars());
+            ctx.writeAndFlush(ManageServerInitializer.LINE_DELIMITER);
+            future.addListener(ChannelFutureListener.CLOSE);
+            return;
+        }
         if (StringUtils.isBlank(msg) || !StringUtils.equals(CMD_SHUTDOWN, msg)) {
             ChannelFuture future = ctx.writeAndFlush("wrong command:" + msg);
             future.addListener(ChannelFutureListener.CLOSE).channel().close();
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.port43.server;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.util.CharsetUtil;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+
+import org.restfulwhois.rdap.port43.service.RateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * rate limit handler, must be the first handler of service pipeline.
+ * <p>
+ * It checks client IP when connection is active, and writes 429 error and
+ * closes connection if exceed rate limit, before any decoding.
+ * </p>
+ * 
+ * @author jiashuo
+ * 
+ */
+@Sharable
+public class RateLimitHandler extends ChannelInboundHandlerAdapter {
+    /**
+     * rate limit msg.
+     */
+    public static final String ERROR_MSG_RATE_LIMIT =
+            "Exceed rate limit, please try some seconds later.";
+    /**
+     * logger.
+     */
+    private static final Logger LOGGER = LoggerFactory
+            .getLogger(RateLimitHandler.class);
+
+    /**
+     * rate limiter.
+     */
+    private final RateLimiter rateLimiter;
+
+    /**
+     * constructor.
+     * 
+     * @param rateLimiter
+     *            rateLimiter.
+     */
+    public RateLimitHandler(RateLimiter rateLimiter) {
+        super();
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) throws Exception {
+        String remoteAddr = getRemoteAddr(ctx.channel().remoteAddress());
+        if (rateLimiter.tryAcquire(remoteAddr)) {
+            ctx.fireChannelActive();
+            return;
+        }
+        LOGGER.debug("exceedRateLimit,return 429 error:{}", remoteAddr);
+        ctx.channel().config().setAutoRead(false);
+        ctx.writeAndFlush(
+                Unpooled.copiedBuffer(ERROR_MSG_RATE_LIMIT
+                        + ManageServerInitializer.LINE_DELIMITER,
+                        CharsetUtil.UTF_8)).addListener(
+                ChannelFutureListener.CLOSE);
+    }
+
+    /**
+     * get remote IP address.
+     * 
+     * @param socketAddress
+     *            socketAddress.
+     * @return IP address, null if not IP socket.
+     */
+    private String getRemoteAddr(SocketAddress socketAddress) {
+        if (socketAddress instanceof InetSocketAddress) {
+            return ((InetSocketAddress) socketAddress).getAddress()
+                    .getHostAddress();
+        }
+        return null;
+    }
+}
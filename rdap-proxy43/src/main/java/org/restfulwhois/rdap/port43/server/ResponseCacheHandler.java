@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.port43.server;
+
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+
+import org.apache.commons.lang.StringUtils;
+import org.restfulwhois.rdap.port43.service.CommandRequest;
+import org.restfulwhois.rdap.port43.service.ProxyService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * response cache handler, runs in IO thread before ServiceHandler.
+ * <p>
+ * It parses command once, writes cached response and closes connection if
+ * command is cached, and passes parsed CommandRequest to ServiceHandler if
+ * not.
+ * </p>
+ * 
+ * @author jiashuo
+ * 
+ */
+@Sharable
+public class ResponseCacheHandler extends ChannelInboundHandlerAdapter {
+    /**
+     * logger.
+     */
+    private static final Logger LOGGER = LoggerFactory
+            .getLogger(ResponseCacheHandler.class);
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg)
+            throws Exception {
+        if (!(msg instanceof String) || StringUtils.isBlank((String) msg)) {
+            ctx.fireChannelRead(msg);
+            return;
+        }
+        CommandRequest request = CommandRequest.parse((String) msg);
+        String response =
+                ProxyService.getInstance().getCachedResponse(request);
+        if (null == response) {
+            ctx.fireChannelRead(request);
+            return;
+        }
+        LOGGER.debug("response from cache, command:{}", msg);
+        ChannelFuture future = ctx.writeAndFlush(response);
+        ctx.writeAndFlush(ManageServerInitializer.LINE_DELIMITER);
+        future.addListener(ChannelFutureListener.CLOSE);
+    }
+}
@@ -39,7 +39,7 @@ import io.netty.channel.SimpleChannelInboundHandler;
 import java.net.InetSocketAddress;
 
 import org.apache.commons.lang.StringUtils;
-import org.restfulwhois.rdap.port43.service.ConnectionControlService;
+import org.restfulwhois.rdap.port43.service.CommandRequest;
 import org.restfulwhois.rdap.port43.service.ProxyService;
 import org.restfulwhois.rdap.port43.service.ServiceException;
 import org.slf4j.Logger;
@@ -47,22 +47,21 @@ import org.slf4j.LoggerFactory;
 
 /**
  * service handler.
+ * <p>
+ * Message is CommandRequest parsed by ResponseCacheHandler, or raw command
+ * string if it is blank.
+ * </p>
  * 
  * @author jiashuo
  * 
  */
 @Sharable
-public class ServiceHandler extends SimpleChannelInboundHandler<String> {
+public class ServiceHandler extends SimpleChannelInboundHandler<Object> {
 
     /**
      * start command.
      */
     public static final String CMD_START = "start";
-    /**
-     * rate limit msg.
-     */
-    private static final String ERROR_MSG_RATE_LIMIT =
-            "Exceed rate limit, please try some seconds later.";
     /**
      * logger.
      */
@@ -79,26 +78,25 @@ public class ServiceHandler extends SimpleChannelInboundHandler<String> {
      * @param ctx
      *            ctx.
      * @param request
-     *            request.
+     *            CommandRequest, or command string.
      */
-    public void messageReceived(ChannelHandlerContext ctx, String request) {
+    public void messageReceived(ChannelHandlerContext ctx, Object request) {
         InetSocketAddress socketAddress =
                 (InetSocketAddress) ctx.channel().remoteAddress();
         String remoteAddr = socketAddress.getAddress().getHostAddress();
         LOGGER.info("clientAddress:{}", remoteAddr);
         String response = StringUtils.EMPTY;
-        if (ConnectionControlService.exceedRateLimit(remoteAddr)) {
-            LOGGER.debug("exceedRateLimit,return 429 error.");
-            response = get429Response();
-            writeResponseAndcloseConnection(ctx, response);
-            return;
-        }
-        if (request.isEmpty()) {
+        if (!(request instanceof CommandRequest)
+                && StringUtils.isEmpty((String) request)) {
             response = "command can't be empty.";
         } else {
             ProxyService proxyService = ProxyService.getInstance();
             try {
-                response = proxyService.execute(request);
+                if (request instanceof CommandRequest) {
+                    response = proxyService.execute((CommandRequest) request);
+                } else {
+                    response = proxyService.execute((String) request);
+                }
             } catch (ServiceException e) {
                 response = e.getMessage();
             } catch (Exception e) {
@@ -109,15 +107,6 @@ public class ServiceHandler extends SimpleChannelInboundHandler<String> {
         writeResponseAndcloseConnection(ctx, response);
     }
 
-    /**
-     * get 429 error response.
-     * 
-     * @return string.
-     */
-    private String get429Response() {
-        return ERROR_MSG_RATE_LIMIT;
-    }
-
     /**
      * close connection.
      * 
@@ -135,7 +124,7 @@ public class ServiceHandler extends SimpleChannelInboundHandler<String> {
     }
 
     @Override
-    protected void channelRead0(ChannelHandlerContext arg0, String arg1)
+    protected void channelRead0(ChannelHandlerContext arg0, Object arg1)
             throws Exception {
         messageReceived(arg0, arg1);
     }
@@ -37,6 +37,11 @@ import io.netty.handler.codec.DelimiterBasedFrameDecoder;
 import io.netty.handler.codec.Delimiters;
 import io.netty.handler.codec.string.StringDecoder;
 import io.netty.handler.codec.string.StringEncoder;
+import io.netty.util.concurrent.DefaultEventExecutorGroup;
+import io.netty.util.concurrent.EventExecutorGroup;
+
+import org.restfulwhois.rdap.port43.service.RateLimiter;
+import org.restfulwhois.rdap.port43.util.RdapProperties;
 
 /**
  * service server initializer.
@@ -54,22 +59,65 @@ public class ServiceServerInitializer extends ChannelInitializer<SocketChannel>
      * encoder.
      */
     private static final StringEncoder ENCODER = new StringEncoder();
+    /**
+     * rate limit handler.
+     */
+    private static final RateLimitHandler RATE_LIMIT_HANDLER =
+            new RateLimitHandler(RateLimiter.getInstance());
+    /**
+     * response cache handler.
+     */
+    private static final ResponseCacheHandler RESPONSE_CACHE_HANDLER =
+            new ResponseCacheHandler();
     /**
      * service handler.
      */
     private static final ServiceHandler SERVICE_HANDLER = new ServiceHandler();
+    /**
+     * default service thread count.
+     */
+    private static final int DEFAULT_SERVICE_THREADS = 64;
+    /**
+     * executor for service handler, which requests RDAP server and blocks.
+     */
+    private static final EventExecutorGroup SERVICE_EXECUTOR =
+            new DefaultEventExecutorGroup(getServiceThreads());
+
+    /**
+     * get service thread count.
+     * 
+     * @return thread count.
+     */
+    private static int getServiceThreads() {
+        Integer serviceThreads = RdapProperties.getServiceThreads();
+        if (null == serviceThreads || serviceThreads <= 0) {
+            return DEFAULT_SERVICE_THREADS;
+        }
+        return serviceThreads;
+    }
+
+    /**
+     * shutdown executor of service handler.
+     */
+    public static void shutdownServiceExecutor() {
+        SERVICE_EXECUTOR.shutdownGracefully();
+    }
 
     @Override
     public void initChannel(SocketChannel ch) throws Exception {
         ChannelPipeline pipeline = ch.pipeline();
+        // reject client exceed rate limit before decoding,
+        pipeline.addLast(RATE_LIMIT_HANDLER);
         // Add the text line codec combination first,
         pipeline.addLast(new DelimiterBasedFrameDecoder(8192, Delimiters
                 .lineDelimiter()));
         // the encoder and decoder are static as these are sharable
         pipeline.addLast(DECODER);
         pipeline.addLast(ENCODER);
-        // and then business logic.
-        pipeline.addLast(SERVICE_HANDLER);
+        // cached response is written in IO thread,
+        pipeline.addLast(RESPONSE_CACHE_HANDLER);
+        // and then business logic, out of IO thread.
+        pipeline.addLast(SERVICE_EXECUTOR, SERVICE_HANDLER);
     }
 
 }
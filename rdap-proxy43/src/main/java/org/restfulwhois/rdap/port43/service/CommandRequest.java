@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.port43.service;
+
+import org.restfulwhois.rdap.port43.service.command.Command;
+import org.restfulwhois.rdap.port43.service.command.CommandParser;
+
+/**
+ * command request, which is parsed once in IO thread and passed to service
+ * handler.
+ * 
+ * @author jiashuo
+ * 
+ */
+public class CommandRequest {
+    /**
+     * command string.
+     */
+    private final String commandStr;
+
+    /**
+     * parsed command, null if command is invalid.
+     */
+    private final Command command;
+
+    /**
+     * constructor.
+     * 
+     * @param commandStr
+     *            commandStr.
+     * @param command
+     *            command, null if command is invalid.
+     */
+    public CommandRequest(String commandStr, Command command) {
+        super();
+        this.commandStr = commandStr;
+        this.command = command;
+    }
+
+    /**
+     * parse command string.
+     * 
+     * @param commandStr
+     *            commandStr.
+     * @return request, with null command if command is invalid.
+     */
+    public static CommandRequest parse(String commandStr) {
+        try {
+            return new CommandRequest(commandStr,
+                    CommandParser.parse(commandStr));
+        } catch (ServiceException e) {
+            return new CommandRequest(commandStr, null);
+        }
+    }
+
+    /**
+     * get commandStr.
+     * 
+     * @return commandStr.
+     */
+    public String getCommandStr() {
+        return commandStr;
+    }
+
+    /**
+     * get command.
+     * 
+     * @return command, null if command is invalid.
+     */
+    public Command getCommand() {
+        return command;
+    }
+}
@@ -35,10 +35,10 @@ import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.lang.StringUtils;
+import org.apache.http.HttpStatus;
 import org.restfulwhois.rdap.port43.service.command.AsQueryHandler;
 import org.restfulwhois.rdap.port43.service.command.Command;
 import org.restfulwhois.rdap.port43.service.command.CommandOption;
-import org.restfulwhois.rdap.port43.service.command.CommandParser;
 import org.restfulwhois.rdap.port43.service.command.DomainQueryHandler;
 import org.restfulwhois.rdap.port43.service.command.DomainSearchHandler;
 import org.restfulwhois.rdap.port43.service.command.EntityQueryHandler;
@@ -117,10 +117,27 @@ public class ProxyService {
      *             Exception.
      */
     public String execute(String commandStr) throws Exception {
+        return execute(CommandRequest.parse(commandStr));
+    }
+
+    /**
+     * main service method, for command which is already parsed.
+     * 
+     * @param request
+     *            request.
+     * @return query result.
+     * @throws Exception
+     *             Exception.
+     */
+    public String execute(CommandRequest request) throws Exception {
+        String commandStr = request.getCommandStr();
         LOGGER.info("receive query:{}", commandStr);
         String requestURI = StringUtils.EMPTY;
+        Command command = request.getCommand();
         try {
-            Command command = CommandParser.parse(commandStr);
+            if (null == command) {
+                throw new ServiceException("invalid command:" + commandStr);
+            }
             requestURI = generateRequestURI(command);
             if (StringUtils.isBlank(requestURI)) {
                 LOGGER.error("requestURI to RDAP server is blank.");
@@ -129,6 +146,7 @@ public class ProxyService {
         } catch (Exception e) {
             LOGGER.error("generateRequest URI for RDAP server error:{}", e);
             LOGGER.error("try to generate error 400 URI...");
+            command = null;
             requestURI = generateRequestURIForError();
         }
         RestResponse restResponse =
@@ -139,9 +157,29 @@ public class ProxyService {
         }
         Map jsonMap = JsonUtil.deserializateJsonToMap(restResponse);
         String result = ResponseFormater.format(jsonMap);
+        if (null != command
+                && HttpStatus.SC_OK == restResponse.getStatusCode()) {
+            ResponseCache.getInstance().put(command.getNormalizedKey(),
+                    result);
+        }
         return result;
     }
 
+    /**
+     * get cached response.
+     * 
+     * @param request
+     *            request.
+     * @return cached response, null if not cached or command is invalid.
+     */
+    public String getCachedResponse(CommandRequest request) {
+        ResponseCache responseCache = ResponseCache.getInstance();
+        if (!responseCache.isEnabled() || null == request.getCommand()) {
+            return null;
+        }
+        return responseCache.get(request.getCommand().getNormalizedKey());
+    }
+
     /**
      * generate request URI for error, this will return 400 error.
      * 
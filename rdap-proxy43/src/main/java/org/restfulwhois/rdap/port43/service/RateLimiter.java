@@ -0,0 +1,425 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.port43.service;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.restfulwhois.rdap.port43.util.RdapProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <pre>
+ * lock-free per-IP rate limiter.
+ * 
+ * Requirement from
+ * http://tools.ietf.org/html/draft-ietf-weirds-rdap-sec-06#section-3.3
+ * 
+ * Each IP has a token bucket, stored as one 'theoretical arrival time'
+ * (GCRA) updated by CAS: a request is allowed if now >= tat - (burst - 1) *
+ * interval, and then tat is moved forward by one interval. A bucket whose
+ * tat is not after now is full and can be dropped at any time.
+ * 
+ * Buckets are cleaned up out of IO thread, by clean up executor: full
+ * buckets are dropped periodically, and when IP count exceeds maxClients,
+ * IO thread only submits one clean up, which drops full buckets and then
+ * buckets with oldest tat, by threshold from sampled tats, so it does not
+ * scan all buckets again for each evicted one. Without executor, clean up
+ * runs in caller thread.
+ * </pre>
+ * 
+ * @author jiashuo
+ * 
+ */
+public class RateLimiter {
+    /**
+     * default max client count.
+     */
+    public static final int DEFAULT_MAX_CLIENTS = 100000;
+
+    /**
+     * sample size of tats, to find eviction threshold.
+     */
+    private static final int EVICTION_SAMPLE_SIZE = 1024;
+
+    /**
+     * max eviction rounds, before evicting buckets in hash order.
+     */
+    private static final int MAX_EVICTION_ROUNDS = 3;
+
+    /**
+     * seconds between periodic clean up.
+     */
+    private static final long CLEAN_UP_INTERVAL_SECONDS = 60;
+
+    /**
+     * logger.
+     */
+    private static final Logger LOGGER = LoggerFactory
+            .getLogger(RateLimiter.class);
+
+    /**
+     * clean up executor of instance.
+     */
+    private static final ScheduledExecutorService CLEAN_UP_EXECUTOR =
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread =
+                            new Thread(runnable, "rate-limiter-clean-up");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    /**
+     * instance configured by RdapProperties.
+     */
+    private static final RateLimiter INSTANCE = new RateLimiter(
+            getLongValue(RdapProperties.getMinSecondsAccessInterval(), -1),
+            getLongValue(RdapProperties.getRateLimitBurst(), 1),
+            (int) getLongValue(RdapProperties.getRateLimitMaxClients(),
+                    DEFAULT_MAX_CLIENTS), CLEAN_UP_EXECUTOR);
+
+    static {
+        CLEAN_UP_EXECUTOR.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                INSTANCE.cleanUp(System.currentTimeMillis());
+            }
+        }, CLEAN_UP_INTERVAL_SECONDS, CLEAN_UP_INTERVAL_SECONDS,
+                TimeUnit.SECONDS);
+    }
+
+    /**
+     * ip to theoretical arrival time.
+     */
+    private final ConcurrentMap<String, AtomicLong> buckets =
+            new ConcurrentHashMap<String, AtomicLong>();
+
+    /**
+     * true if clean up is submitted and not finished.
+     */
+    private final AtomicBoolean cleanUpPending = new AtomicBoolean(false);
+
+    /**
+     * random of sampling.
+     */
+    private final Random random = new Random();
+
+    /**
+     * accepted count.
+     */
+    private final AtomicLong acceptedCount = new AtomicLong(0);
+
+    /**
+     * rejected count.
+     */
+    private final AtomicLong rejectedCount = new AtomicLong(0);
+
+    /**
+     * min milliseconds between access, no limit if <= 0.
+     */
+    private final long intervalMillis;
+
+    /**
+     * max burst access.
+     */
+    private final long burst;
+
+    /**
+     * max client count.
+     */
+    private final int maxClients;
+
+    /**
+     * clean up executor, null if clean up runs in caller thread.
+     */
+    private final Executor cleanUpExecutor;
+
+    /**
+     * constructor, clean up runs in caller thread.
+     * 
+     * @param intervalMillis
+     *            min milliseconds between access, no limit if <= 0.
+     * @param burst
+     *            max burst access, at least 1.
+     * @param maxClients
+     *            max client count.
+     */
+    public RateLimiter(long intervalMillis, long burst, int maxClients) {
+        this(intervalMillis, burst, maxClients, null);
+    }
+
+    /**
+     * constructor.
+     * 
+     * @param intervalMillis
+     *            min milliseconds between access, no limit if <= 0.
+     * @param burst
+     *            max burst access, at least 1.
+     * @param maxClients
+     *            max client count.
+     * @param cleanUpExecutor
+     *            clean up executor, null if clean up runs in caller thread.
+     */
+    public RateLimiter(long intervalMillis, long burst, int maxClients,
+            Executor cleanUpExecutor) {
+        super();
+        this.intervalMillis = intervalMillis;
+        this.burst = Math.max(1, burst);
+        this.maxClients = Math.max(1, maxClients);
+        this.cleanUpExecutor = cleanUpExecutor;
+    }
+
+    /**
+     * get instance configured by RdapProperties.
+     * 
+     * @return instance.
+     */
+    public static RateLimiter getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * shutdown clean up executor of instance.
+     */
+    public static void shutdownCleanUpExecutor() {
+        CLEAN_UP_EXECUTOR.shutdownNow();
+    }
+
+    /**
+     * try to access.
+     * 
+     * @param ip
+     *            client ip.
+     * @return true if allowed, false if exceed rate limit.
+     */
+    public boolean tryAcquire(String ip) {
+        return tryAcquire(ip, System.currentTimeMillis());
+    }
+
+    /**
+     * try to access.
+     * 
+     * @param ip
+     *            client ip.
+     * @param nowMillis
+     *            current time in milliseconds.
+     * @return true if allowed, false if exceed rate limit.
+     */
+    public boolean tryAcquire(String ip, long nowMillis) {
+        if (intervalMillis <= 0 || null == ip) {
+            acceptedCount.incrementAndGet();
+            return true;
+        }
+        long tolerance = (burst - 1) * intervalMillis;
+        AtomicLong tat = buckets.get(ip);
+        if (null == tat) {
+            AtomicLong newTat = new AtomicLong(nowMillis + intervalMillis);
+            tat = buckets.putIfAbsent(ip, newTat);
+            if (null == tat) {
+                submitCleanUpIfFull(nowMillis);
+                acceptedCount.incrementAndGet();
+                return true;
+            }
+        }
+        while (true) {
+            long current = tat.get();
+            long next;
+            if (current <= nowMillis) {
+                next = nowMillis + intervalMillis;
+            } else if (nowMillis < current - tolerance) {
+                LOGGER.debug("exceed rate limit, ip:{}", ip);
+                rejectedCount.incrementAndGet();
+                return false;
+            } else {
+                next = current + intervalMillis;
+            }
+            if (tat.compareAndSet(current, next)) {
+                acceptedCount.incrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * submit clean up if exceed maxClients and no clean up is pending.
+     * 
+     * @param nowMillis
+     *            current time in milliseconds.
+     */
+    private void submitCleanUpIfFull(final long nowMillis) {
+        if (buckets.size() <= maxClients
+                || !cleanUpPending.compareAndSet(false, true)) {
+            return;
+        }
+        Runnable cleanUp = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    cleanUp(nowMillis);
+                } finally {
+                    cleanUpPending.set(false);
+                }
+            }
+        };
+        if (null == cleanUpExecutor) {
+            cleanUp.run();
+            return;
+        }
+        try {
+            cleanUpExecutor.execute(cleanUp);
+        } catch (RuntimeException e) {
+            cleanUpPending.set(false);
+            LOGGER.warn("submit rate limiter clean up error:{}",
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * drop full buckets, and then buckets with oldest tat if still exceed
+     * maxClients.
+     * 
+     * @param nowMillis
+     *            current time in milliseconds.
+     */
+    public void cleanUp(long nowMillis) {
+        Iterator<Entry<String, AtomicLong>> it =
+                buckets.entrySet().iterator();
+        while (it.hasNext()) {
+            Entry<String, AtomicLong> entry = it.next();
+            if (entry.getValue().get() <= nowMillis) {
+                buckets.remove(entry.getKey(), entry.getValue());
+            }
+        }
+        for (int round = 0; round < MAX_EVICTION_ROUNDS
+                && buckets.size() > maxClients; round++) {
+            evictOldest(buckets.size() - maxClients);
+        }
+        it = buckets.entrySet().iterator();
+        while (buckets.size() > maxClients && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+        LOGGER.debug("clean up rate limit buckets, size:{}", buckets.size());
+    }
+
+    /**
+     * evict buckets whose tat is not after threshold, which is estimated from
+     * sampled tats, so that about excess oldest buckets are evicted.
+     * 
+     * @param excess
+     *            count of buckets to evict.
+     */
+    private void evictOldest(int excess) {
+        long[] samples = new long[EVICTION_SAMPLE_SIZE];
+        int seen = 0;
+        for (AtomicLong tat : buckets.values()) {
+            // reservoir sampling.
+            int index = seen < samples.length ? seen : random.nextInt(seen + 1);
+            if (index < samples.length) {
+                samples[index] = tat.get();
+            }
+            seen++;
+        }
+        int count = Math.min(seen, samples.length);
+        if (count == 0) {
+            return;
+        }
+        Arrays.sort(samples, 0, count);
+        int rank = (int) Math.max(1, (long) excess * count / seen);
+        long threshold = samples[Math.min(rank, count) - 1];
+        Iterator<AtomicLong> it = buckets.values().iterator();
+        int evicted = 0;
+        while (evicted < excess && it.hasNext()) {
+            if (it.next().get() <= threshold) {
+                it.remove();
+                evicted++;
+            }
+        }
+    }
+
+    /**
+     * get accepted count.
+     * 
+     * @return accepted count.
+     */
+    public long getAcceptedCount() {
+        return acceptedCount.get();
+    }
+
+    /**
+     * get rejected count.
+     * 
+     * @return rejected count.
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * get client count, including full buckets not dropped yet.
+     * 
+     * @return client count.
+     */
+    public int size() {
+        return buckets.size();
+    }
+
+    /**
+     * get long value.
+     * 
+     * @param value
+     *            value.
+     * @param defaultValue
+     *            default value if value is null.
+     * @return long value.
+     */
+    private static long getLongValue(Number value, long defaultValue) {
+        if (null == value) {
+            return defaultValue;
+        }
+        return value.longValue();
+    }
+}
@@ -0,0 +1,487 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.port43.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.restfulwhois.rdap.port43.util.RdapProperties;
+
+/**
+ * <pre>
+ * LRU cache of rendered responses, keyed by normalized command.
+ * 
+ * Keys are spread over segments by hash, each segment is an LRU map with
+ * its own lock and an equal share of maxEntries and maxChars, so IO threads
+ * only contend on the same segment. Small caches use one segment, and are
+ * exact LRU.
+ * 
+ * Entry expires after ttl. Expired entry is removed when it is got, or
+ * when it is the least recently used one. Cache is disabled if maxEntries
+ * or ttl is not positive.
+ * </pre>
+ * 
+ * @author jiashuo
+ * 
+ */
+public class ResponseCache {
+    /**
+     * max segment count.
+     */
+    public static final int MAX_SEGMENTS = 16;
+
+    /**
+     * min entry count of one segment.
+     */
+    private static final int MIN_SEGMENT_ENTRIES = 64;
+
+    /**
+     * instance configured by RdapProperties.
+     */
+    private static final ResponseCache INSTANCE = new ResponseCache(
+            getIntValue(RdapProperties.getResponseCacheMaxEntries()),
+            getLongValue(RdapProperties.getResponseCacheMaxChars()),
+            getLongValue(RdapProperties.getResponseCacheTtl()));
+
+    /**
+     * segments.
+     */
+    private final Segment[] segments;
+
+    /**
+     * max entry count.
+     */
+    private final int maxEntries;
+
+    /**
+     * max total chars of responses.
+     */
+    private final long maxChars;
+
+    /**
+     * time to live, in milliseconds.
+     */
+    private final long ttlMillis;
+
+    /**
+     * hit count.
+     */
+    private final AtomicLong hitCount = new AtomicLong(0);
+
+    /**
+     * miss count.
+     */
+    private final AtomicLong missCount = new AtomicLong(0);
+
+    /**
+     * eviction count, not including expired entries.
+     */
+    private final AtomicLong evictionCount = new AtomicLong(0);
+
+    /**
+     * constructor, segment count is decided by maxEntries.
+     * 
+     * @param maxEntries
+     *            max entry count.
+     * @param maxChars
+     *            max total chars of responses.
+     * @param ttlMillis
+     *            time to live, in milliseconds.
+     */
+    public ResponseCache(int maxEntries, long maxChars, long ttlMillis) {
+        this(maxEntries, maxChars, ttlMillis, Math.min(MAX_SEGMENTS,
+                maxEntries / MIN_SEGMENT_ENTRIES));
+    }
+
+    /**
+     * constructor.
+     * 
+     * @param maxEntries
+     *            max entry count.
+     * @param maxChars
+     *            max total chars of responses.
+     * @param ttlMillis
+     *            time to live, in milliseconds.
+     * @param segmentCount
+     *            segment count, at least 1.
+     */
+    public ResponseCache(int maxEntries, long maxChars, long ttlMillis,
+            int segmentCount) {
+        super();
+        this.maxEntries = maxEntries;
+        this.maxChars = maxChars;
+        this.ttlMillis = ttlMillis;
+        int count = Math.max(1, segmentCount);
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] =
+                    new Segment((maxEntries + count - 1) / count, maxChars
+                            / count);
+        }
+    }
+
+    /**
+     * get instance configured by RdapProperties.
+     * 
+     * @return instance.
+     */
+    public static ResponseCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * check if cache is enabled.
+     * 
+     * @return true if enabled, false if not.
+     */
+    public boolean isEnabled() {
+        return maxEntries > 0 && maxChars > 0 && ttlMillis > 0;
+    }
+
+    /**
+     * get response.
+     * 
+     * @param key
+     *            normalized command.
+     * @return response, null if not cached or expired.
+     */
+    public String get(String key) {
+        return get(key, System.currentTimeMillis());
+    }
+
+    /**
+     * get response.
+     * 
+     * @param key
+     *            normalized command.
+     * @param nowMillis
+     *            current time in milliseconds.
+     * @return response, null if not cached or expired.
+     */
+    public String get(String key, long nowMillis) {
+        if (!isEnabled() || null == key) {
+            return null;
+        }
+        String response = segmentFor(key).get(key, nowMillis);
+        if (null == response) {
+            missCount.incrementAndGet();
+        } else {
+            hitCount.incrementAndGet();
+        }
+        return response;
+    }
+
+    /**
+     * put response.
+     * 
+     * @param key
+     *            normalized command.
+     * @param response
+     *            rendered response.
+     */
+    public void put(String key, String response) {
+        put(key, response, System.currentTimeMillis());
+    }
+
+    /**
+     * put response, response larger than maxChars of segment is not cached.
+     * 
+     * @param key
+     *            normalized command.
+     * @param response
+     *            rendered response.
+     * @param nowMillis
+     *            current time in milliseconds.
+     */
+    public void put(String key, String response, long nowMillis) {
+        if (!isEnabled() || null == key || null == response) {
+            return;
+        }
+        int evicted =
+                segmentFor(key).put(key, response, nowMillis + ttlMillis,
+                        nowMillis);
+        if (evicted > 0) {
+            evictionCount.addAndGet(evicted);
+        }
+    }
+
+    /**
+     * get segment of key.
+     * 
+     * @param key
+     *            key.
+     * @return segment.
+     */
+    private Segment segmentFor(String key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return segments[(hash & Integer.MAX_VALUE) % segments.length];
+    }
+
+    /**
+     * get entry count.
+     * 
+     * @return entry count.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * get total chars of cached responses.
+     * 
+     * @return total chars.
+     */
+    public long getTotalChars() {
+        long totalChars = 0;
+        for (Segment segment : segments) {
+            totalChars += segment.getTotalChars();
+        }
+        return totalChars;
+    }
+
+    /**
+     * get hit count.
+     * 
+     * @return hit count.
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * get miss count.
+     * 
+     * @return miss count.
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * get eviction count.
+     * 
+     * @return eviction count.
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * get int value.
+     * 
+     * @param value
+     *            value.
+     * @return value, 0 if null.
+     */
+    private static int getIntValue(Integer value) {
+        if (null == value) {
+            return 0;
+        }
+        return value;
+    }
+
+    /**
+     * get long value.
+     * 
+     * @param value
+     *            value.
+     * @return value, 0 if null.
+     */
+    private static long getLongValue(Long value) {
+        if (null == value) {
+            return 0;
+        }
+        return value;
+    }
+
+    /**
+     * LRU segment, guarded by itself.
+     * 
+     * @author jiashuo
+     * 
+     */
+    private static final class Segment {
+        /**
+         * entries, in access order.
+         */
+        private final LinkedHashMap<String, Entry> entries =
+                new LinkedHashMap<String, Entry>(16, 0.75f, true);
+        /**
+         * max entry count.
+         */
+        private final int maxEntries;
+        /**
+         * max total chars of responses.
+         */
+        private final long maxChars;
+        /**
+         * total chars of responses.
+         */
+        private long totalChars;
+
+        /**
+         * constructor.
+         * 
+         * @param maxEntries
+         *            maxEntries.
+         * @param maxChars
+         *            maxChars.
+         */
+        Segment(int maxEntries, long maxChars) {
+            this.maxEntries = maxEntries;
+            this.maxChars = maxChars;
+        }
+
+        /**
+         * get response.
+         * 
+         * @param key
+         *            key.
+         * @param nowMillis
+         *            current time in milliseconds.
+         * @return response, null if not cached or expired.
+         */
+        synchronized String get(String key, long nowMillis) {
+            Entry entry = entries.get(key);
+            if (null == entry) {
+                return null;
+            }
+            if (entry.expireTime <= nowMillis) {
+                remove(key);
+                return null;
+            }
+            return entry.response;
+        }
+
+        /**
+         * put response, and evict least recently used entries.
+         * 
+         * @param key
+         *            key.
+         * @param response
+         *            response.
+         * @param expireTime
+         *            expire time in milliseconds.
+         * @param nowMillis
+         *            current time in milliseconds.
+         * @return count of evicted entries which are not expired.
+         */
+        synchronized int put(String key, String response, long expireTime,
+                long nowMillis) {
+            if (response.length() > maxChars) {
+                return 0;
+            }
+            remove(key);
+            entries.put(key, new Entry(response, expireTime));
+            totalChars += response.length();
+            int evicted = 0;
+            Iterator<Map.Entry<String, Entry>> it =
+                    entries.entrySet().iterator();
+            while (entries.size() > maxEntries || totalChars > maxChars) {
+                Entry eldest = it.next().getValue();
+                it.remove();
+                totalChars -= eldest.response.length();
+                if (eldest.expireTime > nowMillis) {
+                    evicted++;
+                }
+            }
+            return evicted;
+        }
+
+        /**
+         * remove entry.
+         * 
+         * @param key
+         *            key.
+         */
+        private void remove(String key) {
+            Entry entry = entries.remove(key);
+            if (null != entry) {
+                totalChars -= entry.response.length();
+            }
+        }
+
+        /**
+         * get entry count.
+         * 
+         * @return entry count.
+         */
+        synchronized int size() {
+            return entries.size();
+        }
+
+        /**
+         * get total chars.
+         * 
+         * @return total chars.
+         */
+        synchronized long getTotalChars() {
+            return totalChars;
+        }
+    }
+
+    /**
+     * cache entry.
+     * 
+     * @author jiashuo
+     * 
+     */
+    private static final class Entry {
+        /**
+         * rendered response.
+         */
+        private final String response;
+        /**
+         * expire time in milliseconds.
+         */
+        private final long expireTime;
+
+        /**
+         * constructor.
+         * 
+         * @param response
+         *            response.
+         * @param expireTime
+         *            expireTime.
+         */
+        Entry(String response, long expireTime) {
+            this.response = response;
+            this.expireTime = expireTime;
+        }
+    }
+}
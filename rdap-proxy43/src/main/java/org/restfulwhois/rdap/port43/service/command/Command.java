@@ -33,6 +33,8 @@ package org.restfulwhois.rdap.port43.service.command;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.commons.lang.StringUtils;
+
 /**
  * command.
  * 
@@ -131,4 +133,32 @@ public class Command {
         this.allOptionsMap = allOptionsMap;
     }
 
+    /**
+     * get normalized key of this command, for response cache: command type
+     * and arguments separated by one space. Arguments of ip/domain,
+     * nameserver and as query are case-insensitive, and are lower cased.
+     * 
+     * @return key.
+     */
+    public String getNormalizedKey() {
+        StringBuilder key = new StringBuilder();
+        key.append(commandType);
+        if (null == argumentList) {
+            return key.toString();
+        }
+        boolean ignoreCase =
+                CommandOption.IP_OR_DOMAIN_QUERY.equals(commandType)
+                        || CommandOption.NAMESERVER_QUERY.equals(commandType)
+                        || CommandOption.AS.equals(commandType);
+        for (String argument : argumentList) {
+            key.append(' ');
+            if (ignoreCase) {
+                key.append(StringUtils.lowerCase(argument));
+            } else {
+                key.append(argument);
+            }
+        }
+        return key.toString();
+    }
+
 }
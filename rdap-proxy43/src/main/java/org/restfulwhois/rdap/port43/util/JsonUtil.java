@@ -62,6 +62,11 @@ public class JsonUtil {
     private static final Logger LOGGER = LoggerFactory
             .getLogger(JsonUtil.class);
 
+    /**
+     * shared object mapper, it is thread-safe after configured.
+     */
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
     /**
      * convert object to JSON string.
      * 
@@ -70,7 +75,7 @@ public class JsonUtil {
      * @return string.
      */
     public static String toJson(Object object) {
-        ObjectMapper objectMapper = new ObjectMapper();
+        ObjectMapper objectMapper = OBJECT_MAPPER;
         try {
             return objectMapper.writeValueAsString(object);
         } catch (JsonProcessingException e) {
@@ -87,7 +92,7 @@ public class JsonUtil {
      * @return JSON.
      */
     public static String toJsonWithPrettyFormat(Object object) {
-        ObjectMapper objectMapper = new ObjectMapper();
+        ObjectMapper objectMapper = OBJECT_MAPPER;
         try {
             return objectMapper.writerWithDefaultPrettyPrinter()
                     .writeValueAsString(object);
@@ -107,7 +112,7 @@ public class JsonUtil {
     @SuppressWarnings({
             "rawtypes", "unchecked" })
     public static Map deserializateJsonToMap(RestResponse restResponse) {
-        ObjectMapper objectMapper = new ObjectMapper();
+        ObjectMapper objectMapper = OBJECT_MAPPER;
         Map result = null;
         try {
             result =
@@ -23,6 +23,42 @@ public class RdapProperties {
      * default value for manage port.
      */
     private static final String DEFAULT_MANAGE_PORT = "9999";
+    /**
+     * default value for rate limit burst.
+     */
+    private static final String DEFAULT_RATE_LIMIT_BURST = "1";
+    /**
+     * default value for rate limit max clients.
+     */
+    private static final String DEFAULT_RATE_LIMIT_MAX_CLIENTS = "100000";
+    /**
+     * default value for service thread count.
+     */
+    private static final String DEFAULT_SERVICE_THREADS = "64";
+    /**
+     * default value for max connections to RDAP server.
+     */
+    private static final String DEFAULT_BACKEND_MAX_CONNECTIONS = "200";
+    /**
+     * default value for connect timeout to RDAP server.
+     */
+    private static final String DEFAULT_BACKEND_CONNECT_TIMEOUT = "3000";
+    /**
+     * default value for socket timeout to RDAP server.
+     */
+    private static final String DEFAULT_BACKEND_SOCKET_TIMEOUT = "10000";
+    /**
+     * default value for response cache max entries.
+     */
+    private static final String DEFAULT_RESPONSE_CACHE_MAX_ENTRIES = "0";
+    /**
+     * default value for response cache max chars.
+     */
+    private static final String DEFAULT_RESPONSE_CACHE_MAX_CHARS = "67108864";
+    /**
+     * default value for response cache ttl.
+     */
+    private static final String DEFAULT_RESPONSE_CACHE_TTL = "60000";
     /**
      * logger.
      */
@@ -49,6 +85,42 @@ public class RdapProperties {
      * min milliseconds between access interval.
      */
     private static Long minSecondsAccessInterval;
+    /**
+     * max burst access, refilled one per minSecondsAccessInterval.
+     */
+    private static Long rateLimitBurst;
+    /**
+     * max client IP count kept by rate limiter.
+     */
+    private static Integer rateLimitMaxClients;
+    /**
+     * thread count to execute query, out of netty IO threads.
+     */
+    private static Integer serviceThreads;
+    /**
+     * max pooled connections to RDAP server.
+     */
+    private static Integer backendMaxConnections;
+    /**
+     * connect timeout to RDAP server, in milliseconds.
+     */
+    private static Integer backendConnectTimeout;
+    /**
+     * socket timeout to RDAP server, in milliseconds.
+     */
+    private static Integer backendSocketTimeout;
+    /**
+     * max entry count of response cache, 0 means cache disabled.
+     */
+    private static Integer responseCacheMaxEntries;
+    /**
+     * max total chars of response cache.
+     */
+    private static Long responseCacheMaxChars;
+    /**
+     * time to live of response cache, in milliseconds.
+     */
+    private static Long responseCacheTtl;
     /**
      * responseFormater class name.
      */
@@ -79,7 +151,26 @@ public class RdapProperties {
                     DEFAULT_MANAGE_PORT)));
             setMinSecondsAccessInterval(Long.parseLong(resource
                     .getProperty("minSecondsAccessInterval")));
+            setRateLimitBurst(Long.parseLong(resource.getProperty(
+                    "rateLimitBurst", DEFAULT_RATE_LIMIT_BURST)));
+            setRateLimitMaxClients(Integer.parseInt(resource.getProperty(
+                    "rateLimitMaxClients", DEFAULT_RATE_LIMIT_MAX_CLIENTS)));
             setResponseFormater(resource.getProperty("responseFormater"));
+            setServiceThreads(Integer.parseInt(resource.getProperty(
+                    "serviceThreads", DEFAULT_SERVICE_THREADS)));
+            setBackendMaxConnections(Integer.parseInt(resource.getProperty(
+                    "backendMaxConnections", DEFAULT_BACKEND_MAX_CONNECTIONS)));
+            setBackendConnectTimeout(Integer.parseInt(resource.getProperty(
+                    "backendConnectTimeout", DEFAULT_BACKEND_CONNECT_TIMEOUT)));
+            setBackendSocketTimeout(Integer.parseInt(resource.getProperty(
+                    "backendSocketTimeout", DEFAULT_BACKEND_SOCKET_TIMEOUT)));
+            setResponseCacheMaxEntries(Integer.parseInt(resource.getProperty(
+                    "responseCacheMaxEntries",
+                    DEFAULT_RESPONSE_CACHE_MAX_ENTRIES)));
+            setResponseCacheMaxChars(Long.parseLong(resource.getProperty(
+                    "responseCacheMaxChars", DEFAULT_RESPONSE_CACHE_MAX_CHARS)));
+            setResponseCacheTtl(Long.parseLong(resource.getProperty(
+                    "responseCacheTtl", DEFAULT_RESPONSE_CACHE_TTL)));
         } catch (Exception e) {
             LOGGER.info("load properties error:{}", e);
         }
@@ -166,6 +257,46 @@ public class RdapProperties {
         RdapProperties.minSecondsAccessInterval = minSecondsAccessInterval;
     }
 
+    /**
+     * get rateLimitBurst.
+     * 
+     * @return rateLimitBurst.
+     */
+    public static Long getRateLimitBurst() {
+        return rateLimitBurst;
+    }
+
+    /**
+     * set rateLimitBurst.
+     * 
+     * @param rateLimitBurst
+     *            rateLimitBurst.
+     */
+    public static void setRateLimitBurst(Long rateLimitBurst) {
+        LOGGER.info("set rateLimitBurst:{}", rateLimitBurst);
+        RdapProperties.rateLimitBurst = rateLimitBurst;
+    }
+
+    /**
+     * get rateLimitMaxClients.
+     * 
+     * @return rateLimitMaxClients.
+     */
+    public static Integer getRateLimitMaxClients() {
+        return rateLimitMaxClients;
+    }
+
+    /**
+     * set rateLimitMaxClients.
+     * 
+     * @param rateLimitMaxClients
+     *            rateLimitMaxClients.
+     */
+    public static void setRateLimitMaxClients(Integer rateLimitMaxClients) {
+        LOGGER.info("set rateLimitMaxClients:{}", rateLimitMaxClients);
+        RdapProperties.rateLimitMaxClients = rateLimitMaxClients;
+    }
+
     /**
      * get responseFormater.
      * 
@@ -186,4 +317,144 @@ public class RdapProperties {
         RdapProperties.responseFormater = responseFormater;
     }
 
+    /**
+     * get serviceThreads.
+     * 
+     * @return serviceThreads.
+     */
+    public static Integer getServiceThreads() {
+        return serviceThreads;
+    }
+
+    /**
+     * set serviceThreads.
+     * 
+     * @param serviceThreads
+     *            serviceThreads.
+     */
+    public static void setServiceThreads(Integer serviceThreads) {
+        LOGGER.info("set serviceThreads:{}", serviceThreads);
+        RdapProperties.serviceThreads = serviceThreads;
+    }
+
+    /**
+     * get backendMaxConnections.
+     * 
+     * @return backendMaxConnections.
+     */
+    public static Integer getBackendMaxConnections() {
+        return backendMaxConnections;
+    }
+
+    /**
+     * set backendMaxConnections.
+     * 
+     * @param backendMaxConnections
+     *            backendMaxConnections.
+     */
+    public static void setBackendMaxConnections(Integer backendMaxConnections) {
+        LOGGER.info("set backendMaxConnections:{}", backendMaxConnections);
+        RdapProperties.backendMaxConnections = backendMaxConnections;
+    }
+
+    /**
+     * get backendConnectTimeout.
+     * 
+     * @return backendConnectTimeout.
+     */
+    public static Integer getBackendConnectTimeout() {
+        return backendConnectTimeout;
+    }
+
+    /**
+     * set backendConnectTimeout.
+     * 
+     * @param backendConnectTimeout
+     *            backendConnectTimeout.
+     */
+    public static void setBackendConnectTimeout(Integer backendConnectTimeout) {
+        LOGGER.info("set backendConnectTimeout:{}", backendConnectTimeout);
+        RdapProperties.backendConnectTimeout = backendConnectTimeout;
+    }
+
+    /**
+     * get backendSocketTimeout.
+     * 
+     * @return backendSocketTimeout.
+     */
+    public static Integer getBackendSocketTimeout() {
+        return backendSocketTimeout;
+    }
+
+    /**
+     * set backendSocketTimeout.
+     * 
+     * @param backendSocketTimeout
+     *            backendSocketTimeout.
+     */
+    public static void setBackendSocketTimeout(Integer backendSocketTimeout) {
+        LOGGER.info("set backendSocketTimeout:{}", backendSocketTimeout);
+        RdapProperties.backendSocketTimeout = backendSocketTimeout;
+    }
+
+    /**
+     * get responseCacheMaxEntries.
+     * 
+     * @return responseCacheMaxEntries.
+     */
+    public static Integer getResponseCacheMaxEntries() {
+        return responseCacheMaxEntries;
+    }
+
+    /**
+     * set responseCacheMaxEntries.
+     * 
+     * @param responseCacheMaxEntries
+     *            responseCacheMaxEntries.
+     */
+    public static void setResponseCacheMaxEntries(Integer responseCacheMaxEntries) {
+        LOGGER.info("set responseCacheMaxEntries:{}", responseCacheMaxEntries);
+        RdapProperties.responseCacheMaxEntries = responseCacheMaxEntries;
+    }
+
+    /**
+     * get responseCacheMaxChars.
+     * 
+     * @return responseCacheMaxChars.
+     */
+    public static Long getResponseCacheMaxChars() {
+        return responseCacheMaxChars;
+    }
+
+    /**
+     * set responseCacheMaxChars.
+     * 
+     * @param responseCacheMaxChars
+     *            responseCacheMaxChars.
+     */
+    public static void setResponseCacheMaxChars(Long responseCacheMaxChars) {
+        LOGGER.info("set responseCacheMaxChars:{}", responseCacheMaxChars);
+        RdapProperties.responseCacheMaxChars = responseCacheMaxChars;
+    }
+
+    /**
+     * get responseCacheTtl.
+     * 
+     * @return responseCacheTtl.
+     */
+    public static Long getResponseCacheTtl() {
+        return responseCacheTtl;
+    }
+
+    /**
+     * set responseCacheTtl.
+     * 
+     * @param responseCacheTtl
+     *            responseCacheTtl.
+     */
+    public static void setResponseCacheTtl(Long responseCacheTtl) {
+        LOGGER.info("set responseCacheTtl:{}", responseCacheTtl);
+        RdapProperties.responseCacheTtl = responseCacheTtl;
+    }
+
 }
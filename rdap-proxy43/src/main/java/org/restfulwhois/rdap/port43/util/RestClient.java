@@ -39,12 +39,13 @@ import java.io.UnsupportedEncodingException;
 import org.apache.commons.lang.StringUtils;
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
-import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
 import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.restfulwhois.rdap.port43.service.ServiceException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -62,11 +63,61 @@ public final class RestClient {
     private static final Logger LOGGER = LoggerFactory
             .getLogger(JsonUtil.class);
 
+    /**
+     * default max pooled connections.
+     */
+    private static final int DEFAULT_MAX_CONNECTIONS = 200;
+    /**
+     * default connect timeout, in milliseconds.
+     */
+    private static final int DEFAULT_CONNECT_TIMEOUT = 3000;
+    /**
+     * default socket timeout, in milliseconds.
+     */
+    private static final int DEFAULT_SOCKET_TIMEOUT = 10000;
+
     /**
      * instance.
      */
     private static RestClient restClient = new RestClient();
 
+    /**
+     * shared http client, with pooled keep-alive connections.
+     */
+    private final CloseableHttpClient client;
+
+    /**
+     * constructor, create pooled http client configured by RdapProperties.
+     */
+    private RestClient() {
+        super();
+        int maxConnections =
+                getIntValue(RdapProperties.getBackendMaxConnections(),
+                        DEFAULT_MAX_CONNECTIONS);
+        int connectTimeout =
+                getIntValue(RdapProperties.getBackendConnectTimeout(),
+                        DEFAULT_CONNECT_TIMEOUT);
+        int socketTimeout =
+                getIntValue(RdapProperties.getBackendSocketTimeout(),
+                        DEFAULT_SOCKET_TIMEOUT);
+        PoolingHttpClientConnectionManager connectionManager =
+                new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        // all requests are sent to one RDAP server.
+        connectionManager.setDefaultMaxPerRoute(maxConnections);
+        RequestConfig requestConfig =
+                RequestConfig.custom().setRedirectsEnabled(false)
+                        .setConnectTimeout(connectTimeout)
+                        .setConnectionRequestTimeout(connectTimeout)
+                        .setSocketTimeout(socketTimeout).build();
+        client =
+                HttpClients.custom().setConnectionManager(connectionManager)
+                        .setDefaultRequestConfig(requestConfig).build();
+        LOGGER.info("create http client, maxConnections:{}, connectTimeout:{},"
+                + " socketTimeout:{}", new Object[] { maxConnections,
+                connectTimeout, socketTimeout });
+    }
+
     /**
      * get singleton instance.
      * 
@@ -84,13 +135,9 @@ public final class RestClient {
      * @return rest response.
      */
     public RestResponse execute(String url) {
-        CloseableHttpClient client = HttpClients.createDefault();
-        RequestConfig requestConfig =
-                RequestConfig.custom().setRedirectsEnabled(false).build();
         HttpGet request = new HttpGet(url);
-        request.setConfig(requestConfig);
         request.setHeader("Accept", "application/rdap+json");
-        HttpResponse response = null;
+        CloseableHttpResponse response = null;
         String responseBody = StringUtils.EMPTY;
         int statusCode = HttpStatus.SC_OK;
         String locationHeader = StringUtils.EMPTY;
@@ -110,6 +157,8 @@ public final class RestClient {
         } catch (Exception ex) {
             LOGGER.error("request RDAP server error:{}", ex);
             throw new ServiceException("request RDAP server error");
+        } finally {
+            closeQuietly(response);
         }
         RestResponse result = new RestResponse();
         result.setBody(responseBody);
@@ -118,6 +167,50 @@ public final class RestClient {
         return result;
     }
 
+    /**
+     * close http client and its connections.
+     */
+    public void close() {
+        try {
+            client.close();
+        } catch (IOException e) {
+            LOGGER.error("close http client error:{}", e);
+        }
+    }
+
+    /**
+     * close response, and release connection to pool.
+     * 
+     * @param response
+     *            response.
+     */
+    private static void closeQuietly(CloseableHttpResponse response) {
+        if (null == response) {
+            return;
+        }
+        try {
+            response.close();
+        } catch (IOException e) {
+            LOGGER.error("close response error:{}", e);
+        }
+    }
+
+    /**
+     * get int value.
+     * 
+     * @param value
+     *            value.
+     * @param defaultValue
+     *            default value if value is null or not positive.
+     * @return int value.
+     */
+    private static int getIntValue(Integer value, int defaultValue) {
+        if (null == value || value <= 0) {
+            return defaultValue;
+        }
+        return value;
+    }
+
     /**
      * convert the inputStream to string.
      * 
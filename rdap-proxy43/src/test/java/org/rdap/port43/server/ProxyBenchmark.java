@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.rdap.port43.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.restfulwhois.rdap.port43.server.Server;
+import org.restfulwhois.rdap.port43.server.ServiceServerInitializer;
+import org.restfulwhois.rdap.port43.util.RdapProperties;
+import org.restfulwhois.rdap.port43.util.RestClient;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * <pre>
+ * throughput benchmark of port43 proxy with concurrent connections.
+ * 
+ * It starts a stub RDAP server which responds after backendDelayMillis, and
+ * the proxy in front of it, and then queries proxy from concurrency client
+ * threads. This is not a unit test, run it by:
+ * ProxyBenchmark [concurrency] [requestsPerClient] [backendDelayMillis]
+ * [serviceThreads]
+ * </pre>
+ * 
+ * @author jiashuo
+ * 
+ */
+public final class ProxyBenchmark {
+    /**
+     * stub RDAP server port.
+     */
+    private static final int BACKEND_PORT = 18080;
+    /**
+     * proxy port.
+     */
+    private static final int PROXY_PORT = 10043;
+    /**
+     * stub response.
+     */
+    private static final byte[] RESPONSE_BODY =
+            "{\"objectClassName\":\"domain\",\"ldhName\":\"example.cn\"}"
+                    .getBytes();
+
+    /**
+     * constructor.
+     */
+    private ProxyBenchmark() {
+        super();
+    }
+
+    /**
+     * main method.
+     * 
+     * @param args
+     *            concurrency, requestsPerClient, backendDelayMillis,
+     *            serviceThreads.
+     * @throws Exception
+     *             Exception.
+     */
+    public static void main(String[] args) throws Exception {
+        int concurrency = getArg(args, 0, 200);
+        int requestsPerClient = getArg(args, 1, 20);
+        final int backendDelayMillis = getArg(args, 2, 50);
+        int serviceThreads = getArg(args, 3, 64);
+        ExecutorService backendExecutor =
+                Executors.newFixedThreadPool(concurrency);
+        HttpServer backend =
+                startBackend(backendDelayMillis, backendExecutor);
+        RdapProperties.setRdapServerBaseUrl("http://127.0.0.1:"
+                + BACKEND_PORT + "/");
+        RdapProperties.setMinSecondsAccessInterval(-1L);
+        RdapProperties.setServiceThreads(serviceThreads);
+        // measure backend requests, not cached responses.
+        RdapProperties.setResponseCacheMaxEntries(0);
+        RdapProperties.setResponseFormater(
+                "org.restfulwhois.rdap.port43.service.format.TextFormater");
+        Server proxy = new Server(PROXY_PORT, new ServiceServerInitializer());
+        proxy.start().sync();
+        try {
+            run(concurrency, 1, "warm up");
+            run(concurrency, requestsPerClient, "benchmark");
+        } finally {
+            proxy.shutdown();
+            ServiceServerInitializer.shutdownServiceExecutor();
+            RestClient.getInstance().close();
+            backend.stop(0);
+            backendExecutor.shutdown();
+        }
+    }
+
+    /**
+     * query proxy concurrently and print throughput.
+     * 
+     * @param concurrency
+     *            client thread count.
+     * @param requestsPerClient
+     *            requests of each client thread.
+     * @param name
+     *            name of this run.
+     * @throws InterruptedException
+     *             InterruptedException.
+     */
+    private static void run(int concurrency, final int requestsPerClient,
+            String name) throws InterruptedException {
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        final CountDownLatch done = new CountDownLatch(concurrency);
+        final AtomicInteger succeed = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        long start = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            clients.execute(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < requestsPerClient; j++) {
+                        if (query("example.cn")) {
+                            succeed.incrementAndGet();
+                        } else {
+                            failed.incrementAndGet();
+                        }
+                    }
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long millis = (System.nanoTime() - start) / 1000000;
+        clients.shutdown();
+        System.out.println(String.format(
+                "%s: concurrency=%d, succeed=%d, failed=%d, millis=%d,"
+                        + " requests/second=%.1f", name, concurrency,
+                succeed.get(), failed.get(), millis, succeed.get() * 1000.0
+                        / Math.max(1, millis)));
+    }
+
+    /**
+     * query proxy by one connection.
+     * 
+     * @param q
+     *            query.
+     * @return true if response is received, false if not.
+     */
+    private static boolean query(String q) {
+        Socket socket = null;
+        try {
+            socket = new Socket("127.0.0.1", PROXY_PORT);
+            OutputStream out = socket.getOutputStream();
+            out.write((q + "\r\n").getBytes());
+            out.flush();
+            InputStream in = socket.getInputStream();
+            byte[] buffer = new byte[4096];
+            int total = 0;
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                total += read;
+            }
+            return total > 0;
+        } catch (IOException e) {
+            return false;
+        } finally {
+            if (null != socket) {
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    // ignore.
+                }
+            }
+        }
+    }
+
+    /**
+     * start stub RDAP server.
+     * 
+     * @param delayMillis
+     *            delay before response.
+     * @param executor
+     *            executor of server.
+     * @return server.
+     * @throws IOException
+     *             IOException.
+     */
+    private static HttpServer startBackend(final int delayMillis,
+            ExecutorService executor) throws IOException {
+        HttpServer server =
+                HttpServer.create(new InetSocketAddress(BACKEND_PORT), 1024);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                exchange.getResponseHeaders().add("Content-Type",
+                        "application/rdap+json");
+                exchange.sendResponseHeaders(200, RESPONSE_BODY.length);
+                exchange.getResponseBody().write(RESPONSE_BODY);
+                exchange.close();
+            }
+        });
+        server.setExecutor(executor);
+        server.start();
+        return server;
+    }
+
+    /**
+     * get int argument.
+     * 
+     * @param args
+     *            args.
+     * @param index
+     *            index.
+     * @param defaultValue
+     *            defaultValue.
+     * @return value.
+     */
+    private static int getArg(String[] args, int index, int defaultValue) {
+        if (null == args || args.length <= index) {
+            return defaultValue;
+        }
+        return Integer.parseInt(args[index]);
+    }
+}
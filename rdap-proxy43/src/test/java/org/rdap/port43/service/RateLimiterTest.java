@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.rdap.port43.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.junit.Test;
+import org.restfulwhois.rdap.port43.service.RateLimiter;
+
+/**
+ * 
+ * @author jiashuo
+ * 
+ */
+public class RateLimiterTest {
+
+    @Test
+    public void testTryAcquire() {
+        RateLimiter rateLimiter = new RateLimiter(1000, 2, 100);
+        assertTrue(rateLimiter.tryAcquire("1.1.1.1", 0));
+        assertTrue(rateLimiter.tryAcquire("1.1.1.1", 1));
+        assertFalse(rateLimiter.tryAcquire("1.1.1.1", 2));
+        assertTrue(rateLimiter.tryAcquire("2.2.2.2", 2));
+        assertTrue(rateLimiter.tryAcquire("1.1.1.1", 1000));
+        assertFalse(rateLimiter.tryAcquire("1.1.1.1", 1001));
+        assertTrue(rateLimiter.tryAcquire("1.1.1.1", 5000));
+        assertEquals(5, rateLimiter.getAcceptedCount());
+        assertEquals(2, rateLimiter.getRejectedCount());
+    }
+
+    @Test
+    public void testNotLimit() {
+        RateLimiter rateLimiter = new RateLimiter(-1, 1, 100);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(rateLimiter.tryAcquire("1.1.1.1", 0));
+        }
+        assertEquals(10, rateLimiter.getAcceptedCount());
+        assertEquals(0, rateLimiter.size());
+    }
+
+    @Test
+    public void testBounded() {
+        RateLimiter rateLimiter = new RateLimiter(1000, 1, 10);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(rateLimiter.tryAcquire("10.0.0." + i, 0));
+        }
+        assertTrue(rateLimiter.size() <= 10);
+    }
+
+    @Test
+    public void testCleanUpByExecutor() {
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+        RateLimiter rateLimiter =
+                new RateLimiter(1000, 1, 10, new Executor() {
+                    @Override
+                    public void execute(Runnable command) {
+                        tasks.add(command);
+                    }
+                });
+        for (int i = 0; i < 20; i++) {
+            assertTrue(rateLimiter.tryAcquire("10.0.0." + i, i * 10));
+        }
+        assertEquals(20, rateLimiter.size());
+        assertEquals(1, tasks.size());
+        tasks.get(0).run();
+        assertEquals(10, rateLimiter.size());
+        for (int i = 10; i < 20; i++) {
+            assertFalse(rateLimiter.tryAcquire("10.0.0." + i, 200));
+        }
+        assertTrue(rateLimiter.tryAcquire("10.0.0.0", 200));
+    }
+
+    @Test
+    public void testCleanUpFullBuckets() {
+        RateLimiter rateLimiter = new RateLimiter(1000, 1, 10);
+        assertTrue(rateLimiter.tryAcquire("1.1.1.1", 0));
+        assertTrue(rateLimiter.tryAcquire("2.2.2.2", 500));
+        rateLimiter.cleanUp(1000);
+        assertEquals(1, rateLimiter.size());
+        assertFalse(rateLimiter.tryAcquire("2.2.2.2", 1000));
+    }
+}
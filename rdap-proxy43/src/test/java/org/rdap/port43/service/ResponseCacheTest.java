@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.rdap.port43.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.restfulwhois.rdap.port43.service.CommandRequest;
+import org.restfulwhois.rdap.port43.service.ResponseCache;
+import org.restfulwhois.rdap.port43.service.command.CommandParser;
+
+/**
+ * 
+ * @author jiashuo
+ * 
+ */
+public class ResponseCacheTest {
+
+    @Test
+    public void testGetAndExpire() {
+        ResponseCache cache = new ResponseCache(10, 1000, 100);
+        assertNull(cache.get("a", 0));
+        cache.put("a", "response a", 0);
+        assertEquals("response a", cache.get("a", 99));
+        assertNull(cache.get("a", 100));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testLruEviction() {
+        ResponseCache cache = new ResponseCache(2, 10, 1000);
+        cache.put("a", "aaa", 0);
+        cache.put("b", "bbb", 0);
+        cache.get("a", 0);
+        cache.put("c", "ccc", 0);
+        assertNull(cache.get("b", 0));
+        assertEquals("aaa", cache.get("a", 0));
+        assertEquals(1, cache.getEvictionCount());
+        cache.put("d", "dddddddd", 0);
+        assertEquals(1, cache.size());
+        assertEquals(8, cache.getTotalChars());
+        cache.put("e", "eeeeeeeeeee", 0);
+        assertNull(cache.get("e", 0));
+    }
+
+    @Test
+    public void testDisabled() {
+        ResponseCache cache = new ResponseCache(0, 1000, 1000);
+        assertFalse(cache.isEnabled());
+        cache.put("a", "aaa", 0);
+        assertNull(cache.get("a", 0));
+    }
+
+    @Test
+    public void testSegments() {
+        ResponseCache cache = new ResponseCache(64, 6400, 1000, 4);
+        for (int i = 0; i < 1000; i++) {
+            cache.put("key" + i, "response" + i, 0);
+        }
+        assertTrue(cache.size() <= 64);
+        assertTrue(cache.size() > 32);
+        assertEquals(1000 - cache.size(), cache.getEvictionCount());
+        assertEquals("response999", cache.get("key999", 0));
+    }
+
+    @Test
+    public void testCommandRequest() {
+        CommandRequest request = CommandRequest.parse("example.cn");
+        assertEquals("example.cn", request.getCommandStr());
+        assertEquals(CommandParser.parse("example.cn").getNormalizedKey(),
+                request.getCommand().getNormalizedKey());
+        assertNull(CommandRequest.parse("  ").getCommand());
+    }
+
+    @Test
+    public void testNormalizedKey() {
+        assertEquals(CommandParser.parse("Example.CN").getNormalizedKey(),
+                CommandParser.parse("  example.cn ").getNormalizedKey());
+        assertEquals(CommandParser.parse("entity  h1").getNormalizedKey(),
+                CommandParser.parse("entity h1").getNormalizedKey());
+        assertFalse(CommandParser.parse("entity H1").getNormalizedKey()
+                .equals(CommandParser.parse("entity h1").getNormalizedKey()));
+    }
+}
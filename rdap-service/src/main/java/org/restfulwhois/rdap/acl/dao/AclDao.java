@@ -30,6 +30,8 @@
  */
 package org.restfulwhois.rdap.acl.dao;
 
+import java.util.List;
+
 import org.restfulwhois.rdap.acl.bean.Principal;
 import org.restfulwhois.rdap.acl.bean.SecureObject;
 
@@ -52,4 +54,27 @@ public interface AclDao {
      */
     boolean hasEntry(Principal principal, SecureObject secureObject);
 
+    /**
+     * check if principal has access entry to each of secureObjects.
+     *
+     * @param principal
+     *            principal.
+     * @param secureObjects
+     *            secureObjects.
+     * @return result array, in the same order of secureObjects.
+     */
+    boolean[] hasEntries(Principal principal, List<SecureObject> secureObjects);
+
+    /**
+     * reload in-memory ACL index if it is enabled and ACL tables changed.
+     */
+    void reload();
+
+    /**
+     * get generation of ACL, which changes when loaded ACL changes.
+     *
+     * @return generation, 0 if ACL index is disabled.
+     */
+    long getGeneration();
+
 }
@@ -30,6 +30,8 @@
  */
 package org.restfulwhois.rdap.acl.dao;
 
+import java.util.Map;
+
 import org.restfulwhois.rdap.acl.bean.User;
 
 /**
@@ -46,5 +48,12 @@ public interface IdentityCheckDao {
      *      object of user.
      */
     User checkUserId(String userId);
+
+    /**
+     * load all users with id and password hash.
+     * @return
+     *      map of user name to user.
+     */
+    Map<String, User> loadAllUsers();
     
 }
@@ -34,17 +34,30 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.lang.StringUtils;
 import org.restfulwhois.rdap.acl.bean.Principal;
 import org.restfulwhois.rdap.acl.bean.SecureObject;
 import org.restfulwhois.rdap.acl.dao.AclDao;
 import org.restfulwhois.rdap.common.dao.impl.VariantsQueryDaoImpl;
+import org.restfulwhois.rdap.common.index.AclIndex;
+import org.restfulwhois.rdap.common.support.RdapProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -53,12 +66,21 @@ import org.springframework.stereotype.Repository;
  * from database.
  * <p>
  * check if object has entry using isPrincipalHasEntry and isObjectIsSecure.
+ * <p>
+ * If 'aclIndexEnabled' is true, ACL is loaded into AclIndex at startup, and
+ * both single object of lookup and objects of search result are checked in
+ * memory without database access, so lookup and search always agree.
+ * Every 'aclIndexRefreshInterval' milliseconds, a cheap stamp of the ACL
+ * tables (row count, max id and checksum) is queried, and index is rebuilt
+ * only if stamp changed. So a changed ACL entry takes effect for lookup and
+ * search at most 'aclIndexRefreshInterval' milliseconds later.
  * </pre>
  * 
  * @author jiashuo
  * 
  */
 @Repository
+@DependsOn("rdapProperties")
 public class AclDaoImpl implements AclDao {
     /**
      * logger.
@@ -72,6 +94,100 @@ public class AclDaoImpl implements AclDao {
      */
     @Autowired
     private JdbcTemplate jdbcTemplate;
+
+    /**
+     * in-memory ACL index, null if not loaded.
+     */
+    private volatile AclIndex aclIndex;
+
+    /**
+     * stamp of ACL tables when index was loaded.
+     */
+    private volatile String aclStamp;
+
+    /**
+     * load ACL index at startup.
+     */
+    @PostConstruct
+    public void init() {
+        if (!RdapProperties.isAclIndexEnabled()) {
+            LOGGER.info("ACL index is disabled.");
+            return;
+        }
+        reload();
+    }
+
+    @Override
+    public void reload() {
+        if (!RdapProperties.isAclIndexEnabled()) {
+            return;
+        }
+        String stamp = queryAclStamp();
+        if (null != aclIndex && stamp.equals(aclStamp)) {
+            LOGGER.debug("ACL not changed, skip reload of ACL index.");
+            return;
+        }
+        long start = System.currentTimeMillis();
+        final AclIndex.Builder builder = new AclIndex.Builder();
+        jdbcTemplate.query(
+                "select OBJECT_TYPE,OBJECT_ID,ROLE_ID from RDAP_IDENTITY_ACL",
+                new RowCallbackHandler() {
+                    @Override
+                    public void processRow(ResultSet rs) throws SQLException {
+                        builder.addEntry(rs.getString("OBJECT_TYPE"),
+                                rs.getLong("OBJECT_ID"), rs.getLong("ROLE_ID"));
+                    }
+                });
+        jdbcTemplate.query(
+                "select USER_ID,ROLE_ID from RDAP_IDENTITY_USER_REL_ROLE",
+                new RowCallbackHandler() {
+                    @Override
+                    public void processRow(ResultSet rs) throws SQLException {
+                        builder.addUserRole(rs.getLong("USER_ID"),
+                                rs.getLong("ROLE_ID"));
+                    }
+                });
+        aclIndex = builder.build();
+        aclStamp = stamp;
+        LOGGER.info("ACL index loaded, secured objects:{}, milliseconds:{}",
+                aclIndex.size(), System.currentTimeMillis() - start);
+    }
+
+    @Override
+    public long getGeneration() {
+        AclIndex index = aclIndex;
+        if (null == index) {
+            return 0L;
+        }
+        return index.getFingerprint();
+    }
+
+    /**
+     * query stamp of ACL tables, which changes if any row is added, deleted
+     * or updated.
+     * 
+     * @return stamp.
+     */
+    private String queryAclStamp() {
+        final StringBuilder stamp = new StringBuilder();
+        jdbcTemplate.query("select count(1) as COUNT,"
+                + " coalesce(max(ID),0) as MAX_ID,"
+                + " coalesce(sum(OBJECT_ID + ROLE_ID),0) as CHECKSUM"
+                + " from RDAP_IDENTITY_ACL"
+                + " union all select count(1), coalesce(max(ID),0),"
+                + " coalesce(sum(USER_ID + ROLE_ID),0)"
+                + " from RDAP_IDENTITY_USER_REL_ROLE",
+                new RowCallbackHandler() {
+                    @Override
+                    public void processRow(ResultSet rs) throws SQLException {
+                        stamp.append(rs.getLong("COUNT")).append(',')
+                                .append(rs.getLong("MAX_ID")).append(',')
+                                .append(rs.getLong("CHECKSUM")).append(';');
+                    }
+                });
+        return stamp.toString();
+    }
+
     /**
      * has a principal any acl entry for a secure object.
      * 
@@ -85,12 +201,156 @@ public class AclDaoImpl implements AclDao {
     public boolean hasEntry(Principal principal, SecureObject secureObject) {
         LOGGER.debug("hasEntry, Principal:" + principal
                 + ", SecureObject:" + secureObject);
+        AclIndex index = aclIndex;
+        if (null != index) {
+            return hasEntry(index, principal, secureObject);
+        }
         if (isPrincipalHasEntry(principal, secureObject)) {
             return true;
         }
         return !isObjectIsSecure(secureObject);
     }
 
+    @Override
+    public boolean[] hasEntries(Principal principal,
+            List<SecureObject> secureObjects) {
+        boolean[] result = new boolean[secureObjects.size()];
+        AclIndex index = aclIndex;
+        if (null != index) {
+            for (int i = 0; i < result.length; i++) {
+                result[i] = hasEntry(index, principal, secureObjects.get(i));
+            }
+            return result;
+        }
+        Map<String, List<Long>> idsByType =
+                new LinkedHashMap<String, List<Long>>();
+        for (SecureObject secureObject : secureObjects) {
+            List<Long> ids = idsByType.get(secureObject.getType());
+            if (null == ids) {
+                ids = new ArrayList<Long>();
+                idsByType.put(secureObject.getType(), ids);
+            }
+            ids.add(secureObject.getId());
+        }
+        Map<String, Set<Long>> deniedIdsByType =
+                new LinkedHashMap<String, Set<Long>>();
+        for (Map.Entry<String, List<Long>> entry : idsByType.entrySet()) {
+            Set<Long> deniedIds =
+                    querySecuredIds(entry.getKey(), entry.getValue());
+            if (!deniedIds.isEmpty()) {
+                deniedIds.removeAll(queryPrincipalEntryIds(principal,
+                        entry.getKey(), deniedIds));
+            }
+            deniedIdsByType.put(entry.getKey(), deniedIds);
+        }
+        for (int i = 0; i < result.length; i++) {
+            SecureObject secureObject = secureObjects.get(i);
+            result[i] =
+                    !deniedIdsByType.get(secureObject.getType()).contains(
+                            secureObject.getId());
+        }
+        return result;
+    }
+
+    /**
+     * check if principal has entry in ACL index, or object is not secure.
+     * 
+     * @param index
+     *            ACL index.
+     * @param principal
+     *            principal.
+     * @param secureObject
+     *            secureObject.
+     * @return true if has entry or object is not secure, false if not.
+     */
+    private boolean hasEntry(AclIndex index, Principal principal,
+            SecureObject secureObject) {
+        if (!index.isSecure(secureObject.getType(), secureObject.getId())) {
+            return true;
+        }
+        return null != principal.getId()
+                && index.hasEntry(principal.getId(), secureObject.getType(),
+                        secureObject.getId());
+    }
+
+    /**
+     * query ids of secured objects in ids.
+     * 
+     * @param type
+     *            object type.
+     * @param ids
+     *            object ids.
+     * @return secured object ids.
+     */
+    private Set<Long> querySecuredIds(final String type, List<Long> ids) {
+        final String sql =
+                String.format("select distinct OBJECT_ID from "
+                        + " RDAP_IDENTITY_ACL acl "
+                        + " where acl.OBJECT_TYPE = ? and acl.OBJECT_ID in (%s)",
+                        StringUtils.join(ids, ","));
+        return queryIds(sql, type, null);
+    }
+
+    /**
+     * query ids of objects in ids, which principal has entry for.
+     * 
+     * @param principal
+     *            principal.
+     * @param type
+     *            object type.
+     * @param ids
+     *            object ids.
+     * @return object ids.
+     */
+    private Set<Long> queryPrincipalEntryIds(Principal principal,
+            String type, Set<Long> ids) {
+        if (null == principal.getId()) {
+            return new HashSet<Long>();
+        }
+        final String sql =
+                String.format("select distinct acl.OBJECT_ID from "
+                        + " RDAP_IDENTITY_USER_REL_ROLE userRole,"
+                        + " RDAP_IDENTITY_ACL acl "
+                        + " where userRole.ROLE_ID = acl.ROLE_ID "
+                        + " and acl.OBJECT_TYPE = ? and acl.OBJECT_ID in (%s)"
+                        + " and userRole.USER_ID= ? ",
+                        StringUtils.join(ids, ","));
+        return queryIds(sql, type, principal.getId());
+    }
+
+    /**
+     * query OBJECT_ID set.
+     * 
+     * @param sql
+     *            sql, with OBJECT_TYPE param and optional USER_ID param.
+     * @param type
+     *            object type.
+     * @param userId
+     *            user id, null if sql has no USER_ID param.
+     * @return OBJECT_ID set.
+     */
+    private Set<Long> queryIds(final String sql, final String type,
+            final Long userId) {
+        final Set<Long> result = new HashSet<Long>();
+        jdbcTemplate.query(new PreparedStatementCreator() {
+            public PreparedStatement createPreparedStatement(
+                    Connection connection) throws SQLException {
+                PreparedStatement ps = connection.prepareStatement(sql);
+                ps.setString(1, type);
+                if (null != userId) {
+                    ps.setLong(2, userId);
+                }
+                return ps;
+            }
+        }, new RowCallbackHandler() {
+            @Override
+            public void processRow(ResultSet rs) throws SQLException {
+                result.add(rs.getLong("OBJECT_ID"));
+            }
+        });
+        return result;
+    }
+
     /**
      * check if object is secure - has any acl entry.
      * 
@@ -30,6 +30,9 @@
  */
 package org.restfulwhois.rdap.acl.service;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.restfulwhois.rdap.acl.bean.Principal;
 import org.restfulwhois.rdap.acl.bean.SecureObject;
 import org.restfulwhois.rdap.acl.dao.AclDao;
@@ -88,5 +91,21 @@ public class AccessControlManagerImpl implements AccessControlManager {
         SecureObject secureObject = new SecureObject(object.getId(), object
                 .getObjectType().getName());
         return aclDao.hasEntry(principal, secureObject);
-    }  
+    }
+
+    @Override
+    public boolean[] hasPermission(List<? extends BaseModel> objects) {
+        Assert.notNull(objects);
+        LOGGER.debug("hasPermission, object size:" + objects.size());
+        List<SecureObject> secureObjects =
+                new ArrayList<SecureObject>(objects.size());
+        for (BaseModel object : objects) {
+            Assert.notNull(object.getId());
+            Assert.notNull(object.getObjectType());
+            secureObjects.add(new SecureObject(object.getId(), object
+                    .getObjectType().getName()));
+        }
+        return aclDao.hasEntries(PrincipalHolder.getPrincipal(),
+                secureObjects);
+    }
 }
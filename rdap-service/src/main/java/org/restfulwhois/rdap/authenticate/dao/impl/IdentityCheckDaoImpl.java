@@ -30,7 +30,9 @@
  */
 package org.restfulwhois.rdap.authenticate.dao.impl;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -42,6 +44,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.stereotype.Repository;
@@ -68,6 +71,11 @@ public class IdentityCheckDaoImpl implements IdentityCheckDao {
      */
     private final String sql =
             "select USER_ID,USER_PWD from RDAP_IDENTITY_USER where USER_NAME=?";
+    /**
+     * string sql to query all users.
+     */
+    private static final String SQL_LOAD_ALL =
+            "select USER_NAME,USER_ID,USER_PWD from RDAP_IDENTITY_USER";
 
     @Override
     public User checkUserId(final String userId) {
@@ -92,4 +100,19 @@ public class IdentityCheckDaoImpl implements IdentityCheckDao {
         return null;
     }
 
+    @Override
+    public Map<String, User> loadAllUsers() {
+        final Map<String, User> users = new HashMap<String, User>();
+        jdbcTemplate.query(SQL_LOAD_ALL, new RowCallbackHandler() {
+            @Override
+            public void processRow(ResultSet rs) throws SQLException {
+                User user = new User();
+                user.setUserId(rs.getLong("USER_ID"));
+                user.setUserPwd(rs.getString("USER_PWD"));
+                users.put(rs.getString("USER_NAME"), user);
+            }
+        });
+        return users;
+    }
+
 }
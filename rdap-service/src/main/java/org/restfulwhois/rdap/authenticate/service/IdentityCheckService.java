@@ -50,4 +50,10 @@ public interface IdentityCheckService {
      * @return user or null.
      */
     User identityCheckService(final String userId, final String userPwd);
+
+    /**
+     * drop cached credentials of users which are changed or deleted in
+     * RDAP_IDENTITY_USER. Do nothing if credential cache is disabled.
+     */
+    void refreshCredentialCache();
 }
@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.authenticate.service.impl;
+
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.restfulwhois.rdap.acl.bean.User;
+
+/**
+ * <pre>
+ * LRU cache of verified basic authentication credentials.
+ * 
+ * Key is SHA-256 digest of 'userName:password', so plain password is not
+ * kept in memory. Value is the user verified from RDAP_IDENTITY_USER, with
+ * the stored password hash, which is used to drop the entry when the user
+ * is changed or deleted. Entry expires after ttl, and only successful
+ * verifications are cached.
+ * </pre>
+ * 
+ * @author jiashuo
+ * 
+ */
+public class CredentialCache {
+    /**
+     * digest algorithm.
+     */
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    /**
+     * hex chars.
+     */
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * entries, in access order.
+     */
+    private final LinkedHashMap<String, Entry> entries =
+            new LinkedHashMap<String, Entry>(16, 0.75f, true);
+
+    /**
+     * max entry count.
+     */
+    private final int maxEntries;
+
+    /**
+     * time to live in milliseconds.
+     */
+    private final long ttl;
+
+    /**
+     * constructor.
+     * 
+     * @param maxEntries
+     *            max entry count, cache is disabled if <= 0.
+     * @param ttl
+     *            time to live in milliseconds.
+     */
+    public CredentialCache(int maxEntries, long ttl) {
+        super();
+        this.maxEntries = maxEntries;
+        this.ttl = ttl;
+    }
+
+    /**
+     * check if cache is enabled.
+     * 
+     * @return true if enabled, false if not.
+     */
+    public boolean isEnabled() {
+        return maxEntries > 0 && ttl > 0;
+    }
+
+    /**
+     * get digest of credential, used as cache key.
+     * 
+     * @param userName
+     *            userName.
+     * @param userPwd
+     *            userPwd.
+     * @return hex digest.
+     */
+    public static String digest(String userName, String userPwd) {
+        try {
+            byte[] bytes =
+                    MessageDigest.getInstance(DIGEST_ALGORITHM).digest(
+                            (userName + ":" + userPwd).getBytes("UTF-8"));
+            char[] chars = new char[bytes.length * 2];
+            for (int i = 0; i < bytes.length; i++) {
+                chars[i * 2] = HEX[(bytes[i] >> 4) & 0x0f];
+                chars[i * 2 + 1] = HEX[bytes[i] & 0x0f];
+            }
+            return new String(chars);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * get verified user id.
+     * 
+     * @param digest
+     *            credential digest.
+     * @param nowMillis
+     *            current time in milliseconds.
+     * @return user id, null if not cached or expired.
+     */
+    public synchronized Long get(String digest, long nowMillis) {
+        Entry entry = entries.get(digest);
+        if (null == entry) {
+            return null;
+        }
+        if (entry.expireTime <= nowMillis) {
+            entries.remove(digest);
+            return null;
+        }
+        return entry.userId;
+    }
+
+    /**
+     * cache verified user.
+     * 
+     * @param digest
+     *            credential digest.
+     * @param userName
+     *            userName.
+     * @param user
+     *            user with id and stored password hash.
+     * @param nowMillis
+     *            current time in milliseconds.
+     */
+    public synchronized void put(String digest, String userName, User user,
+            long nowMillis) {
+        if (!isEnabled()) {
+            return;
+        }
+        entries.put(digest, new Entry(userName, user.getUserId(),
+                user.getUserPwd(), nowMillis + ttl));
+        Iterator<Entry> it = entries.values().iterator();
+        while (entries.size() > maxEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    /**
+     * drop entries of users which are changed, deleted, or expired.
+     * 
+     * @param users
+     *            current users, map of user name to user.
+     * @param nowMillis
+     *            current time in milliseconds.
+     * @return dropped entry count.
+     */
+    public synchronized int retainUnchanged(Map<String, User> users,
+            long nowMillis) {
+        int dropped = 0;
+        for (Iterator<Entry> it = entries.values().iterator(); it.hasNext();) {
+            Entry entry = it.next();
+            User user = users.get(entry.userName);
+            if (entry.expireTime <= nowMillis || null == user
+                    || user.getUserId() != entry.userId
+                    || !entry.userPwd.equalsIgnoreCase(user.getUserPwd())) {
+                it.remove();
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    /**
+     * drop all entries.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * get entry count.
+     * 
+     * @return entry count, including expired entries not dropped yet.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * cache entry.
+     * 
+     * @author jiashuo
+     * 
+     */
+    private static final class Entry {
+        /**
+         * user name.
+         */
+        private final String userName;
+        /**
+         * user id.
+         */
+        private final long userId;
+        /**
+         * stored password hash.
+         */
+        private final String userPwd;
+        /**
+         * expire time in milliseconds.
+         */
+        private final long expireTime;
+
+        /**
+         * constructor.
+         * 
+         * @param userName
+         *            userName.
+         * @param userId
+         *            userId.
+         * @param userPwd
+         *            userPwd.
+         * @param expireTime
+         *            expireTime.
+         */
+        Entry(String userName, long userId, String userPwd, long expireTime) {
+            this.userName = userName;
+            this.userId = userId;
+            this.userPwd = null == userPwd ? "" : userPwd;
+            this.expireTime = expireTime;
+        }
+    }
+}
@@ -31,13 +31,19 @@
 
 package org.restfulwhois.rdap.authenticate.service.impl;
 
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+
 import org.restfulwhois.rdap.acl.bean.User;
 import org.restfulwhois.rdap.acl.dao.IdentityCheckDao;
 import org.restfulwhois.rdap.authenticate.service.IdentityCheckService;
+import org.restfulwhois.rdap.common.support.RdapProperties;
 import org.restfulwhois.rdap.common.util.MD5Encryption;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
@@ -49,9 +55,14 @@ import org.springframework.util.StringUtils;
  *
  * Provide basic authentication to user and its password.
  * 
+ * Verified credentials are cached if 'credentialCacheMaxEntries' is greater
+ * than 0, and are checked against RDAP_IDENTITY_USER by refreshCredentialCache
+ * periodically.
+ * 
  * @author wang
  */
 @Service("identityCheckService")
+@DependsOn("rdapProperties")
 public class IdentityCheckServiceImpl implements IdentityCheckService {
     /**
      * logger.
@@ -63,6 +74,24 @@ public class IdentityCheckServiceImpl implements IdentityCheckService {
      */
     @Autowired
     private IdentityCheckDao idcDao;
+    /**
+     * verified credential cache.
+     */
+    private CredentialCache credentialCache;
+
+    /**
+     * create credential cache.
+     */
+    @PostConstruct
+    public void init() {
+        Integer maxEntries = RdapProperties.getCredentialCacheMaxEntries();
+        Long ttl = RdapProperties.getCredentialCacheTtl();
+        credentialCache =
+                new CredentialCache(null == maxEntries ? 0 : maxEntries,
+                        null == ttl ? 0 : ttl);
+        LOGGER.info("credential cache enabled:{}", credentialCache.isEnabled());
+    }
+
     /**
      * check user authorization and return user.
      * 
@@ -80,6 +109,18 @@ public class IdentityCheckServiceImpl implements IdentityCheckService {
         if (StringUtils.isEmpty(userId) || StringUtils.isEmpty(userPwd)) {
             return null;
         }
+        String digest = null;
+        if (credentialCache.isEnabled()) {
+            digest = CredentialCache.digest(userId, userPwd);
+            Long cachedUserId =
+                    credentialCache.get(digest, System.currentTimeMillis());
+            if (null != cachedUserId) {
+                User user = new User();
+                user.setUserId(cachedUserId);
+                user.setUserType(User.UserType.Cerfications);
+                return user;
+            }
+        }
         User user = idcDao.checkUserId(userId);
         LOGGER.debug("IdentityCheckService user:" + user);  
         if (null == user) {
@@ -90,10 +131,26 @@ public class IdentityCheckServiceImpl implements IdentityCheckService {
             LOGGER.debug("IdentityCheckService user " + userId 
                                                 + " authorized");  
             user.setUserType(User.UserType.Cerfications);
+            if (null != digest) {
+                credentialCache.put(digest, userId, user,
+                        System.currentTimeMillis());
+            }
             return user;
         }
         LOGGER.debug("IdentityCheckService user " + userId 
                 + " unauthorized");  
         return null;
     }
+
+    @Override
+    public void refreshCredentialCache() {
+        if (!credentialCache.isEnabled() || 0 == credentialCache.size()) {
+            return;
+        }
+        Map<String, User> users = idcDao.loadAllUsers();
+        int dropped =
+                credentialCache.retainUnchanged(users,
+                        System.currentTimeMillis());
+        LOGGER.debug("credential cache refreshed, dropped:{}", dropped);
+    }
 }
@@ -5,8 +5,10 @@ import java.util.List;
 import javax.annotation.Resource;
 
 import org.restfulwhois.rdap.bootstrap.handler.RegistryHandler;
+import org.restfulwhois.rdap.redirect.service.RedirectService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 /**
@@ -33,6 +35,12 @@ public class BootstrapSyncService {
     @Resource(name = "registryHandlers")
     private List<RegistryHandler> registryHandlers;
 
+    /**
+     * redirectService.
+     */
+    @Autowired
+    private RedirectService redirectService;
+
     /**
      * synchronize all registry data.
      */
@@ -42,6 +50,8 @@ public class BootstrapSyncService {
             LOGGER.info("sync registry :{} begin", handler);
             handler.handle();
         }
+        LOGGER.info("reload redirects...");
+        redirectService.reloadRedirects();
         LOGGER.info("syncAllRegistry end.");
     }
 
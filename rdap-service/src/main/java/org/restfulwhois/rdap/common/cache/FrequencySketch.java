@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.cache;
+
+/**
+ * <pre>
+ * count-min sketch of access frequency, used by TinyLFU admission.
+ * 
+ * Each key is counted in 4 rows of small counters, and its frequency is the
+ * minimum of them. Counters are capped at 15, and all counters are halved
+ * after sampleSize increments, so old popularity fades out.
+ * </pre>
+ * 
+ * @author jiashuo
+ * 
+ */
+public class FrequencySketch {
+    /**
+     * row count.
+     */
+    private static final int DEPTH = 4;
+
+    /**
+     * max counter value.
+     */
+    private static final int MAX_COUNT = 15;
+
+    /**
+     * seeds of row hash.
+     */
+    private static final int[] SEEDS = { 0x97cb3127, 0xb1a6a55f,
+            0x5c6bdee5, 0x7b3ab4f1 };
+
+    /**
+     * counters, DEPTH rows of width.
+     */
+    private final byte[] counters;
+
+    /**
+     * row width, power of 2.
+     */
+    private final int width;
+
+    /**
+     * increments before counters are halved.
+     */
+    private final int sampleSize;
+
+    /**
+     * increments since last reset.
+     */
+    private int additions;
+
+    /**
+     * constructor.
+     * 
+     * @param capacity
+     *            max entry count of cache.
+     */
+    public FrequencySketch(int capacity) {
+        int size = 64;
+        while (size < 2L * capacity && size < (1 << 24)) {
+            size <<= 1;
+        }
+        this.width = size;
+        this.counters = new byte[DEPTH * width];
+        this.sampleSize = 10 * Math.max(capacity, 1);
+    }
+
+    /**
+     * get estimated frequency of key.
+     * 
+     * @param hashCode
+     *            hash code of key.
+     * @return frequency, 0 to 15.
+     */
+    public int frequency(int hashCode) {
+        int min = MAX_COUNT;
+        for (int i = 0; i < DEPTH; i++) {
+            min = Math.min(min, counters[indexOf(hashCode, i)]);
+        }
+        return min;
+    }
+
+    /**
+     * increment frequency of key.
+     * 
+     * @param hashCode
+     *            hash code of key.
+     */
+    public void increment(int hashCode) {
+        boolean added = false;
+        for (int i = 0; i < DEPTH; i++) {
+            int index = indexOf(hashCode, i);
+            if (counters[index] < MAX_COUNT) {
+                counters[index]++;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * halve all counters.
+     */
+    private void reset() {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = (byte) (counters[i] >>> 1);
+        }
+        additions = additions >>> 1;
+    }
+
+    /**
+     * get counter index of key in row.
+     * 
+     * @param hashCode
+     *            hash code of key.
+     * @param row
+     *            row.
+     * @return counter index.
+     */
+    private int indexOf(int hashCode, int row) {
+        int h = (hashCode + SEEDS[row]) * SEEDS[row];
+        h ^= h >>> 16;
+        return row * width + (h & (width - 1));
+    }
+}
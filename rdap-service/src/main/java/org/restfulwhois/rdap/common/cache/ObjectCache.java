@@ -0,0 +1,524 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.cache;
+
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <pre>
+ * size-bounded object cache with W-TinyLFU eviction, ttl and dependency
+ * invalidation.
+ * 
+ * New entries are kept in a small LRU window. An entry evicted from window
+ * is admitted to the main LRU only if it is accessed more frequently than
+ * the main victim, according to FrequencySketch, so one-off lookups do not
+ * flush popular objects.
+ * 
+ * Each entry is put with dependency keys, and invalidate(dependency) removes
+ * all entries depending on it. Loaders get generation() before loading, and
+ * put is ignored if any invalidation happened while loading, so stale value
+ * is not cached after update.
+ * </pre>
+ * 
+ * @param <K>
+ *            key type.
+ * @param <V>
+ *            value type.
+ * @author jiashuo
+ * 
+ */
+public class ObjectCache<K, V> {
+    /**
+     * percent of window in max entries.
+     */
+    private static final int WINDOW_PERCENT = 1;
+
+    /**
+     * window entries, in access order.
+     */
+    private final LinkedHashMap<K, Entry<V>> window =
+            new LinkedHashMap<K, Entry<V>>(16, 0.75f, true);
+
+    /**
+     * main entries, in access order.
+     */
+    private final LinkedHashMap<K, Entry<V>> main =
+            new LinkedHashMap<K, Entry<V>>(16, 0.75f, true);
+
+    /**
+     * keys by dependency.
+     */
+    private final Map<String, Set<K>> dependents =
+            new HashMap<String, Set<K>>();
+
+    /**
+     * frequency sketch.
+     */
+    private final FrequencySketch sketch;
+
+    /**
+     * max entry count.
+     */
+    private final int maxEntries;
+
+    /**
+     * max window entry count.
+     */
+    private final int maxWindowEntries;
+
+    /**
+     * time to live in milliseconds.
+     */
+    private final long ttl;
+
+    /**
+     * invalidation generation.
+     */
+    private long generation;
+
+    /**
+     * hit count.
+     */
+    private long hits;
+
+    /**
+     * miss count.
+     */
+    private long misses;
+
+    /**
+     * eviction count.
+     */
+    private long evictions;
+
+    /**
+     * invalidated entry count.
+     */
+    private long invalidations;
+
+    /**
+     * constructor.
+     * 
+     * @param maxEntries
+     *            max entry count, cache is disabled if not positive.
+     * @param ttl
+     *            time to live in milliseconds.
+     */
+    public ObjectCache(int maxEntries, long ttl) {
+        super();
+        this.maxEntries = Math.max(maxEntries, 0);
+        this.maxWindowEntries =
+                Math.max(1, this.maxEntries * WINDOW_PERCENT / 100);
+        this.ttl = ttl;
+        this.sketch = new FrequencySketch(this.maxEntries);
+    }
+
+    /**
+     * check if cache is enabled.
+     * 
+     * @return true if enabled, false if not.
+     */
+    public boolean isEnabled() {
+        return maxEntries > 0;
+    }
+
+    /**
+     * get value.
+     * 
+     * @param key
+     *            key.
+     * @param now
+     *            current time in milliseconds.
+     * @return value, null if not found or expired.
+     */
+    public synchronized V get(K key, long now) {
+        if (!isEnabled()) {
+            return null;
+        }
+        sketch.increment(key.hashCode());
+        Entry<V> entry = window.get(key);
+        if (null == entry) {
+            entry = main.get(key);
+        }
+        if (null != entry && entry.expireAt <= now) {
+            remove(key);
+            entry = null;
+        }
+        if (null == entry) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    /**
+     * get invalidation generation, which is passed to put after loading.
+     * 
+     * @return generation.
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * put value.
+     * 
+     * @param key
+     *            key.
+     * @param value
+     *            value, not null.
+     * @param dependencies
+     *            dependency keys of value.
+     * @param loadGeneration
+     *            generation() before value is loaded.
+     * @param now
+     *            current time in milliseconds.
+     */
+    public synchronized void put(K key, V value,
+            Collection<String> dependencies, long loadGeneration, long now) {
+        if (!isEnabled() || loadGeneration != generation) {
+            return;
+        }
+        remove(key);
+        Entry<V> entry =
+                new Entry<V>(value, now + ttl,
+                        dependencies.toArray(new String[dependencies.size()]));
+        window.put(key, entry);
+        for (String dependency : entry.dependencies) {
+            Set<K> keys = dependents.get(dependency);
+            if (null == keys) {
+                keys = new HashSet<K>();
+                dependents.put(dependency, keys);
+            }
+            keys.add(key);
+        }
+        if (window.size() > maxWindowEntries) {
+            admit(removeEldest(window));
+        }
+    }
+
+    /**
+     * remove all entries depending on dependency.
+     * 
+     * @param dependency
+     *            dependency key.
+     */
+    public synchronized void invalidate(String dependency) {
+        generation++;
+        Set<K> keys = dependents.get(dependency);
+        if (null == keys) {
+            return;
+        }
+        for (Object key : keys.toArray()) {
+            if (remove(key)) {
+                invalidations++;
+            }
+        }
+    }
+
+    /**
+     * remove all entries.
+     */
+    public synchronized void clear() {
+        generation++;
+        window.clear();
+        main.clear();
+        dependents.clear();
+    }
+
+    /**
+     * get entry count.
+     * 
+     * @return entry count.
+     */
+    public synchronized int size() {
+        return window.size() + main.size();
+    }
+
+    /**
+     * get statistics.
+     * 
+     * @return statistics.
+     */
+    public synchronized Stats getStats() {
+        return new Stats(hits, misses, evictions, invalidations, size());
+    }
+
+    /**
+     * admit entry evicted from window to main, or evict it.
+     * 
+     * @param candidate
+     *            candidate.
+     */
+    private void admit(Map.Entry<K, Entry<V>> candidate) {
+        int maxMainEntries = maxEntries - maxWindowEntries;
+        if (main.size() < maxMainEntries) {
+            main.put(candidate.getKey(), candidate.getValue());
+            return;
+        }
+        if (main.isEmpty()) {
+            evict(candidate);
+            return;
+        }
+        Map.Entry<K, Entry<V>> victim = main.entrySet().iterator().next();
+        if (sketch.frequency(candidate.getKey().hashCode()) > sketch
+                .frequency(victim.getKey().hashCode())) {
+            main.remove(victim.getKey());
+            evict(victim);
+            main.put(candidate.getKey(), candidate.getValue());
+        } else {
+            evict(candidate);
+        }
+    }
+
+    /**
+     * evict entry, which is removed from window or main.
+     * 
+     * @param entry
+     *            entry.
+     */
+    private void evict(Map.Entry<K, Entry<V>> entry) {
+        unlink(entry.getKey(), entry.getValue());
+        evictions++;
+    }
+
+    /**
+     * remove eldest entry of map.
+     * 
+     * @param map
+     *            map.
+     * @param <K>
+     *            key type.
+     * @param <V>
+     *            value type.
+     * @return removed entry.
+     */
+    private static <K, V> Map.Entry<K, V> removeEldest(
+            LinkedHashMap<K, V> map) {
+        Iterator<Map.Entry<K, V>> it = map.entrySet().iterator();
+        Map.Entry<K, V> eldest = it.next();
+        Map.Entry<K, V> result =
+                new AbstractMap.SimpleImmutableEntry<K, V>(eldest);
+        it.remove();
+        return result;
+    }
+
+    /**
+     * remove entry by key.
+     * 
+     * @param key
+     *            key.
+     * @return true if removed, false if not found.
+     */
+    @SuppressWarnings("unchecked")
+    private boolean remove(Object key) {
+        Entry<V> entry = window.remove(key);
+        if (null == entry) {
+            entry = main.remove(key);
+        }
+        if (null == entry) {
+            return false;
+        }
+        unlink((K) key, entry);
+        return true;
+    }
+
+    /**
+     * remove key from dependency map.
+     * 
+     * @param key
+     *            key.
+     * @param entry
+     *            entry of key.
+     */
+    private void unlink(K key, Entry<V> entry) {
+        for (String dependency : entry.dependencies) {
+            Set<K> keys = dependents.get(dependency);
+            if (null != keys) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    dependents.remove(dependency);
+                }
+            }
+        }
+    }
+
+    /**
+     * cache entry.
+     * 
+     * @param <V>
+     *            value type.
+     * @author jiashuo
+     * 
+     */
+    private static final class Entry<V> {
+        /**
+         * value.
+         */
+        private final V value;
+        /**
+         * expire time in milliseconds.
+         */
+        private final long expireAt;
+        /**
+         * dependency keys.
+         */
+        private final String[] dependencies;
+
+        /**
+         * constructor.
+         * 
+         * @param value
+         *            value.
+         * @param expireAt
+         *            expireAt.
+         * @param dependencies
+         *            dependencies.
+         */
+        Entry(V value, long expireAt, String[] dependencies) {
+            this.value = value;
+            this.expireAt = expireAt;
+            this.dependencies = dependencies;
+        }
+    }
+
+    /**
+     * cache statistics.
+     * 
+     * @author jiashuo
+     * 
+     */
+    public static final class Stats {
+        /**
+         * hit count.
+         */
+        private final long hits;
+        /**
+         * miss count.
+         */
+        private final long misses;
+        /**
+         * eviction count.
+         */
+        private final long evictions;
+        /**
+         * invalidated entry count.
+         */
+        private final long invalidations;
+        /**
+         * entry count.
+         */
+        private final int size;
+
+        /**
+         * constructor.
+         * 
+         * @param hits
+         *            hits.
+         * @param misses
+         *            misses.
+         * @param evictions
+         *            evictions.
+         * @param invalidations
+         *            invalidations.
+         * @param size
+         *            size.
+         */
+        Stats(long hits, long misses, long evictions, long invalidations,
+                int size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.invalidations = invalidations;
+            this.size = size;
+        }
+
+        /**
+         * get hits.
+         * 
+         * @return hits.
+         */
+        public long getHits() {
+            return hits;
+        }
+
+        /**
+         * get misses.
+         * 
+         * @return misses.
+         */
+        public long getMisses() {
+            return misses;
+        }
+
+        /**
+         * get evictions.
+         * 
+         * @return evictions.
+         */
+        public long getEvictions() {
+            return evictions;
+        }
+
+        /**
+         * get invalidations.
+         * 
+         * @return invalidations.
+         */
+        public long getInvalidations() {
+            return invalidations;
+        }
+
+        /**
+         * get size.
+         * 
+         * @return size.
+         */
+        public int getSize() {
+            return size;
+        }
+
+        @Override
+        public String toString() {
+            return "hits:" + hits + ", misses:" + misses + ", evictions:"
+                    + evictions + ", invalidations:" + invalidations
+                    + ", size:" + size;
+        }
+    }
+}
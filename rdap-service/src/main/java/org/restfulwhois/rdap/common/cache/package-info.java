@@ -0,0 +1,6 @@
+/**
+ *org.restfulwhois.rdap.common.cache
+ * @author jiashuo
+ *
+ */
+package org.restfulwhois.rdap.common.cache;
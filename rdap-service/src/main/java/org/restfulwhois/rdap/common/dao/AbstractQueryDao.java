@@ -32,19 +32,19 @@ package org.restfulwhois.rdap.common.dao;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.lang.StringUtils;
-import org.apache.commons.lang.time.DateFormatUtils;
+import org.restfulwhois.rdap.common.dao.ColumnProjection.Column;
 import org.restfulwhois.rdap.common.model.base.BaseModel;
 import org.restfulwhois.rdap.common.model.base.ModelType;
 import org.restfulwhois.rdap.common.support.QueryParam;
 import org.restfulwhois.rdap.common.support.RdapProperties;
-import org.restfulwhois.rdap.common.util.JsonUtil;
 import org.restfulwhois.rdap.common.util.StringUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -75,6 +75,10 @@ public abstract class AbstractQueryDao<T extends BaseModel> implements
      * %:used for SQL 'like' clause.
      */
     private static final String CHAR_PERCENT = "%";
+    /**
+     * max size of ids in one SQL 'in' clause.
+     */
+    protected static final int MAX_IDS_IN_CLAUSE = 500;
     /**
      * JDBC template simplifies the use of JDBC and helps to avoid common
      * errors.
@@ -118,6 +122,51 @@ public abstract class AbstractQueryDao<T extends BaseModel> implements
                 "must be implemented in sub class if I'am called.");
     }
 
+    /**
+     * query at most limit objects of T to an associated object. This default
+     * implementation queries all objects and truncates them, and sub class
+     * should override it with 'limit' query if there may be many objects.
+     * 
+     * @param outerObjectId
+     *            associated object id.
+     * @param outerModelType
+     *            associated object type.
+     * @param limit
+     *            max size of object list.
+     * @return object list.
+     */
+    @Override
+    public List<T> queryAsInnerObjects(Long outerObjectId,
+            ModelType outerModelType, int limit) {
+        List<T> result = queryAsInnerObjects(outerObjectId, outerModelType);
+        if (null != result && result.size() > limit) {
+            return new ArrayList<T>(result.subList(0, limit));
+        }
+        return result;
+    }
+
+    /**
+     * query results of object list of T to many associated objects. This
+     * default implementation queries each outer object one by one, and sub
+     * class should override it with 'in' query if it is often called.
+     * 
+     * @param outerObjectIds
+     *            associated object ids.
+     * @param outerModelType
+     *            associated object type.
+     * @return object list map, key is outer object id.
+     */
+    @Override
+    public Map<Long, List<T>> queryAsInnerObjects(List<Long> outerObjectIds,
+            ModelType outerModelType) {
+        Map<Long, List<T>> result = new LinkedHashMap<Long, List<T>>();
+        for (Long outerObjectId : getDistinctIds(outerObjectIds)) {
+            result.put(outerObjectId,
+                    queryAsInnerObjects(outerObjectId, outerModelType));
+        }
+        return result;
+    }
+
     @Override
     public void queryAndSetInnerObjectsForSearch(List<T> result) {
         throw new UnsupportedOperationException(
@@ -158,74 +207,113 @@ public abstract class AbstractQueryDao<T extends BaseModel> implements
     }
 
     /**
-     * extract timestamp value from ResultSet.
+     * get distinct and not null ids, in original order.
      * 
-     * @param rs
-     *            set of query result.
-     * @param columnName
-     *            string of column name.
-     * @return timestamp str value if value is valid format, null if not.
-     */
-    protected String extractTimestampFromRs(ResultSet rs, String columnName) {
-        try {
-            String dateTimeStr = rs.getString(columnName);
-            Date date =
-                    new SimpleDateFormat("yyyy-MM-dd HH:mm:ss")
-                            .parse(dateTimeStr);
-            return DateFormatUtils.format(date, "yyyy-MM-dd'T'HH:mm:ss'Z'");
-        } catch (Exception e) {
-            LOGGER.error("error timestamp format,error:{}", e);
-            return null;
+     * @param ids
+     *            id list.
+     * @return distinct id list.
+     */
+    protected static List<Long> getDistinctIds(List<Long> ids) {
+        Set<Long> result = new LinkedHashSet<Long>();
+        if (null == ids) {
+            return new ArrayList<Long>();
+        }
+        for (Long id : ids) {
+            if (null != id) {
+                result.add(id);
+            }
         }
+        return new ArrayList<Long>(result);
     }
 
     /**
-     * get integer from ResultSet.rs.getInt() will return 0 for null value.
+     * join ids by comma, for SQL 'in' clause.
      * 
-     * @param rs
-     *            ResultSet.
-     * @param columnName
-     *            column name.
-     * @return integer if value is not blank, null if blank.
-     * @throws SQLException
-     *             SQLException
-     */
-    protected Integer getIntegerFromRs(ResultSet rs, String columnName)
-            throws SQLException {
-        String str = rs.getString(columnName);
-        Integer intVal = null;
-        if (StringUtils.isNotBlank(str)) {
-            intVal = Integer.valueOf(str);
+     * @param ids
+     *            distinct id list.
+     * @return joined ids, like '1,2,3'.
+     */
+    protected static String joinIds(List<Long> ids) {
+        return StringUtils.join(ids, ",");
+    }
+
+    /**
+     * split ids into sub lists of at most MAX_IDS_IN_CLAUSE ids, each sub list
+     * is used in one SQL 'in' clause.
+     * 
+     * @param ids
+     *            distinct id list.
+     * @return sub lists of ids.
+     */
+    protected static List<List<Long>> splitIds(List<Long> ids) {
+        List<List<Long>> result = new ArrayList<List<Long>>();
+        for (int i = 0; i < ids.size(); i += MAX_IDS_IN_CLAUSE) {
+            result.add(ids.subList(i,
+                    Math.min(i + MAX_IDS_IN_CLAUSE, ids.size())));
         }
-        return intVal;
+        return result;
+    }
+
+    /**
+     * create result map of queryAsInnerObjects, with an empty list for each
+     * outer object id.
+     * 
+     * @param <E>
+     *            object type.
+     * @param outerObjectIds
+     *            distinct outer object ids.
+     * @return result map.
+     */
+    protected static <E> Map<Long, List<E>> createInnerObjectsMap(
+            List<Long> outerObjectIds) {
+        Map<Long, List<E>> result = new LinkedHashMap<Long, List<E>>();
+        for (Long outerObjectId : outerObjectIds) {
+            result.put(outerObjectId, new ArrayList<E>());
+        }
+        return result;
+    }
+
+    /**
+     * get a copy of inner object list of outer object from result of
+     * queryAsInnerObjects, the copy can be modified by caller.
+     * 
+     * @param <E>
+     *            object type.
+     * @param innerObjectsMap
+     *            result of queryAsInnerObjects.
+     * @param outerObjectId
+     *            outer object id.
+     * @return copy of inner objects, empty list if not found.
+     */
+    protected static <E> List<E> getInnerObjects(
+            Map<Long, List<E>> innerObjectsMap, Long outerObjectId) {
+        List<E> innerObjects = innerObjectsMap.get(outerObjectId);
+        if (null == innerObjects) {
+            return new ArrayList<E>();
+        }
+        return new ArrayList<E>(innerObjects);
     }
 
     /**
      * extract custom properties from ResultSet.
+     * <p>
+     * JSON of CUSTOM_PROPERTIES is kept as it is, and is decoded when model
+     * is serialized.
+     * </p>
      * 
      * @param rs
      *            ResultSet.
+     * @param column
+     *            CUSTOM_PROPERTIES column of projection.
      * @param model
      *            model.
      * @throws SQLException
      *             SQLException.
      */
     protected static void extractCustomPropertiesFromRs(ResultSet rs,
-            BaseModel model) throws SQLException {
-        LOGGER.debug("extractCustomPropertiesFromRs,prefix:{}",
-                RdapProperties.getCustomPropertyPrefix());
-        try {
-            String customPropertiesJSON = rs.getString("CUSTOM_PROPERTIES");
-            Map<String, String> customProperties =
-                    JsonUtil.deserializeJsonToMap(customPropertiesJSON);
-            model.setCustomProperties(customProperties);
-            model.setCustomPropertyPrefix(RdapProperties
-                    .getCustomPropertyPrefix());
-        } catch (Exception e) {
-            LOGGER.error(
-                    "extractCustomPropertiesFromRs error, not handle custom properties:{}",
-                    e);
-        }
+            Column column, BaseModel model) throws SQLException {
+        model.setCustomPropertiesJsonVal(column.getString(rs));
+        model.setCustomPropertyPrefix(RdapProperties.getCustomPropertyPrefix());
     }
 
 }
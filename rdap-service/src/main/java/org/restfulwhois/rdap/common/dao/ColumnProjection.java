@@ -0,0 +1,461 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.dao;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.commons.lang.StringUtils;
+import org.restfulwhois.rdap.common.util.DateUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <pre>
+ * explicit column projection of query.
+ * 
+ * Columns are selected in declared order, and each column keeps its index in
+ * select list, so row is read by index instead of by column name.
+ * Projection is declared once as constant, and toSql() is used as select list:
+ *   ColumnProjection COLUMNS = new ColumnProjection("domain", "DOMAIN_ID", "HANDLE");
+ *   Column HANDLE = COLUMNS.get("HANDLE");
+ *   "select " + COLUMNS.toSql() + " from RDAP_DOMAIN domain ..."
+ * Columns of joined table are appended by join(), and the indexes of existing
+ * columns are not changed, so extractor of base projection can be reused.
+ * 
+ * Optional column, which is added by optional(), may not exist in old
+ * schema. Its existence is resolved once for each table from metadata of
+ * result set, by resolveOptionalColumns, and 'null' is selected instead if
+ * it does not exist, so index of columns is not changed and row is read in
+ * the same way. It is selected before it is resolved.
+ * </pre>
+ * 
+ * @author jiashuo
+ * 
+ */
+public final class ColumnProjection {
+    /**
+     * logger.
+     */
+    private static final Logger LOGGER = LoggerFactory
+            .getLogger(ColumnProjection.class);
+    /**
+     * optional columns of all projections.
+     */
+    private static final List<Column> OPTIONAL_COLUMNS =
+            new CopyOnWriteArrayList<Column>();
+    /**
+     * columns, in select order.
+     */
+    private final List<Column> columns;
+    /**
+     * select list, null if there is optional column.
+     */
+    private final String sql;
+
+    /**
+     * constructor.
+     * 
+     * @param tableAlias
+     *            table alias, or table name.
+     * @param names
+     *            column names.
+     */
+    public ColumnProjection(String tableAlias, String... names) {
+        this(Collections.<Column> emptyList(), tableAlias, names);
+    }
+
+    /**
+     * constructor.
+     * 
+     * @param base
+     *            base columns.
+     * @param tableAlias
+     *            table alias, or table name.
+     * @param names
+     *            column names appended.
+     */
+    private ColumnProjection(List<Column> base, String tableAlias,
+            String... names) {
+        this(base, tableAlias, null, names);
+    }
+
+    /**
+     * constructor.
+     * 
+     * @param base
+     *            base columns.
+     * @param tableAlias
+     *            table alias, or table name.
+     * @param tableName
+     *            table name of optional columns, null if columns are not
+     *            optional.
+     * @param names
+     *            column names appended.
+     */
+    private ColumnProjection(List<Column> base, String tableAlias,
+            String tableName, String... names) {
+        List<Column> all = new ArrayList<Column>(base);
+        for (String name : names) {
+            Column column =
+                    new Column(tableAlias, name, all.size() + 1, tableName);
+            all.add(column);
+            if (null != tableName) {
+                OPTIONAL_COLUMNS.add(column);
+            }
+        }
+        this.columns = Collections.unmodifiableList(all);
+        boolean hasOptional = false;
+        for (Column column : all) {
+            hasOptional = hasOptional || column.isOptional();
+        }
+        this.sql = hasOptional ? null : generateSelectList(all);
+    }
+
+    /**
+     * create new projection, with columns of joined table appended.
+     * 
+     * @param tableAlias
+     *            table alias of joined table.
+     * @param names
+     *            column names.
+     * @return new projection.
+     */
+    public ColumnProjection join(String tableAlias, String... names) {
+        return new ColumnProjection(columns, tableAlias, names);
+    }
+
+    /**
+     * create new projection, with optional columns appended.
+     * 
+     * @param tableAlias
+     *            table alias.
+     * @param tableName
+     *            table name, whose metadata is used to resolve columns.
+     * @param names
+     *            column names.
+     * @return new projection.
+     */
+    public ColumnProjection optional(String tableAlias, String tableName,
+            String... names) {
+        return new ColumnProjection(columns, tableAlias, tableName, names);
+    }
+
+    /**
+     * get names of tables which have optional columns not resolved.
+     * 
+     * @return table names.
+     */
+    public static Set<String> getUnresolvedTables() {
+        Set<String> result = new HashSet<String>();
+        for (Column column : OPTIONAL_COLUMNS) {
+            if (null == column.exists) {
+                result.add(column.tableName);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * resolve existence of optional columns of table, by metadata of result
+     * set selecting all columns of table.
+     * 
+     * @param tableName
+     *            table name.
+     * @param metaData
+     *            metadata of result set.
+     * @throws SQLException
+     *             SQLException.
+     */
+    public static void resolveOptionalColumns(String tableName,
+            ResultSetMetaData metaData) throws SQLException {
+        Set<String> labels = new HashSet<String>();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            labels.add(metaData.getColumnLabel(i).toUpperCase(Locale.ENGLISH));
+        }
+        for (Column column : OPTIONAL_COLUMNS) {
+            if (tableName.equals(column.tableName)) {
+                column.exists =
+                        labels.contains(column.name
+                                .toUpperCase(Locale.ENGLISH));
+                if (!column.exists) {
+                    LOGGER.info("optional column {}.{} not exists, null is"
+                            + " selected.", tableName, column.name);
+                }
+            }
+        }
+    }
+
+    /**
+     * generate select list.
+     * 
+     * @param columns
+     *            columns.
+     * @return select list.
+     */
+    private static String generateSelectList(List<Column> columns) {
+        List<String> selectList = new ArrayList<String>();
+        for (Column column : columns) {
+            selectList.add(column.getSelectExpression());
+        }
+        return StringUtils.join(selectList, ",");
+    }
+
+    /**
+     * get column by name, the first one is returned if there are more than
+     * one column with the name.
+     * 
+     * @param name
+     *            column name.
+     * @return column.
+     * @throws IllegalArgumentException
+     *             if column is not in projection.
+     */
+    public Column get(String name) {
+        for (Column column : columns) {
+            if (column.getName().equals(name)) {
+                return column;
+            }
+        }
+        throw new IllegalArgumentException("column not in projection:"
+                + name);
+    }
+
+    /**
+     * get select list.
+     * 
+     * @return select list, such as 'domain.DOMAIN_ID,domain.HANDLE'.
+     */
+    public String toSql() {
+        if (null == sql) {
+            return generateSelectList(columns);
+        }
+        return sql;
+    }
+
+    @Override
+    public String toString() {
+        return toSql();
+    }
+
+    /**
+     * column in projection, which reads value by index.
+     * 
+     * @author jiashuo
+     * 
+     */
+    public static final class Column {
+        /**
+         * table alias.
+         */
+        private final String tableAlias;
+        /**
+         * column name.
+         */
+        private final String name;
+        /**
+         * index in select list, starts from 1.
+         */
+        private final int index;
+        /**
+         * table name of optional column, null if column is not optional.
+         */
+        private final String tableName;
+        /**
+         * existence of optional column, null if not resolved.
+         */
+        private volatile Boolean exists;
+
+        /**
+         * constructor.
+         * 
+         * @param tableAlias
+         *            tableAlias.
+         * @param name
+         *            name.
+         * @param index
+         *            index.
+         * @param tableName
+         *            table name of optional column, null if not optional.
+         */
+        Column(String tableAlias, String name, int index, String tableName) {
+            this.tableAlias = tableAlias;
+            this.name = name;
+            this.index = index;
+            this.tableName = tableName;
+        }
+
+        /**
+         * get string value.
+         * 
+         * @param rs
+         *            ResultSet.
+         * @return value.
+         * @throws SQLException
+         *             SQLException.
+         */
+        public String getString(ResultSet rs) throws SQLException {
+            return rs.getString(index);
+        }
+
+        /**
+         * get long value, 0 for null value.
+         * 
+         * @param rs
+         *            ResultSet.
+         * @return value.
+         * @throws SQLException
+         *             SQLException.
+         */
+        public long getLong(ResultSet rs) throws SQLException {
+            return rs.getLong(index);
+        }
+
+        /**
+         * get integer value.
+         * 
+         * @param rs
+         *            ResultSet.
+         * @return value, null for null value.
+         * @throws SQLException
+         *             SQLException.
+         */
+        public Integer getInteger(ResultSet rs) throws SQLException {
+            int value = rs.getInt(index);
+            if (rs.wasNull()) {
+                return null;
+            }
+            return value;
+        }
+
+        /**
+         * get boolean value, false for null value.
+         * 
+         * @param rs
+         *            ResultSet.
+         * @return value.
+         * @throws SQLException
+         *             SQLException.
+         */
+        public boolean getBoolean(ResultSet rs) throws SQLException {
+            return rs.getBoolean(index);
+        }
+
+        /**
+         * get bytes value.
+         * 
+         * @param rs
+         *            ResultSet.
+         * @return value.
+         * @throws SQLException
+         *             SQLException.
+         */
+        public byte[] getBytes(ResultSet rs) throws SQLException {
+            return rs.getBytes(index);
+        }
+
+        /**
+         * get timestamp value in utc format, 'yyyy-MM-dd'T'HH:mm:ss'Z''.
+         * 
+         * @param rs
+         *            ResultSet.
+         * @return value, null if value is null or invalid.
+         */
+        public String getTimestamp(ResultSet rs) {
+            try {
+                Timestamp timestamp = rs.getTimestamp(index);
+                return DateUtil.formatUTCString(timestamp);
+            } catch (SQLException e) {
+                LOGGER.error("error timestamp format,column:{},error:{}",
+                        name, e);
+                return null;
+            }
+        }
+
+        /**
+         * get name.
+         * 
+         * @return name.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * get index.
+         * 
+         * @return index.
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * get name qualified by table alias.
+         * 
+         * @return qualified name.
+         */
+        public String getQualifiedName() {
+            return tableAlias + "." + name;
+        }
+
+        /**
+         * check if column is optional.
+         * 
+         * @return true if is, false if not.
+         */
+        public boolean isOptional() {
+            return null != tableName;
+        }
+
+        /**
+         * get expression in select list, 'null' for optional column which
+         * does not exist.
+         * 
+         * @return expression.
+         */
+        String getSelectExpression() {
+            if (Boolean.FALSE.equals(exists)) {
+                return "null as " + name;
+            }
+            return getQualifiedName();
+        }
+    }
+}
@@ -31,6 +31,7 @@
 package org.restfulwhois.rdap.common.dao;
 
 import java.util.List;
+import java.util.Map;
 
 import org.restfulwhois.rdap.common.model.base.BaseModel;
 import org.restfulwhois.rdap.common.model.base.ModelType;
@@ -69,6 +70,34 @@ public interface QueryDao<T extends BaseModel> {
      */
     List<T> queryAsInnerObjects(Long outerObjectId, ModelType outerModelType);
 
+    /**
+     * query model list, as nested models of other Model, at most limit
+     * models are queried and filled with inner objects.
+     * 
+     * @param outerObjectId
+     *            id of outer object.
+     * @param outerModelType
+     *            model type of outer object.
+     * @param limit
+     *            max size of object list.
+     * @return object list.
+     */
+    List<T> queryAsInnerObjects(Long outerObjectId, ModelType outerModelType,
+            int limit);
+
+    /**
+     * query model lists of many outer objects, as nested models of other
+     * Model. Each inner type is queried with one 'in' query if supported.
+     * 
+     * @param outerObjectIds
+     *            ids of outer objects.
+     * @param outerModelType
+     *            model type of outer objects.
+     * @return object list map, key is outer object id.
+     */
+    Map<Long, List<T>> queryAsInnerObjects(List<Long> outerObjectIds,
+            ModelType outerModelType);
+
     /**
      * query and set inner objects for search result.
      * 
@@ -34,6 +34,7 @@ import java.util.List;
 
 import org.restfulwhois.rdap.common.model.base.BaseModel;
 import org.restfulwhois.rdap.common.support.QueryParam;
+import org.restfulwhois.rdap.common.support.SearchCursor;
 
 /**
  * SearchDao.
@@ -45,7 +46,10 @@ import org.restfulwhois.rdap.common.support.QueryParam;
 public interface SearchDao<T extends BaseModel> {
 
     /**
-     * search model list.
+     * search one page of model list, inner objects are not queried.
+     * <p>
+     * Page size and cursor is in PageBean of queryParam.
+     * </p>
      * 
      * @param queryParam
      *            queryParam.
@@ -54,12 +58,20 @@ public interface SearchDao<T extends BaseModel> {
     List<T> search(QueryParam queryParam);
 
     /**
-     * get search count.
+     * query inner objects of search results, and set them to objects.
      * 
-     * @param queryParam
-     *            queryParam.
-     * @return queryParam.
+     * @param objects
+     *            search results which will be filled.
+     */
+    void queryAndSetInnerObjects(List<T> objects);
+
+    /**
+     * create cursor which points to object, next page starts after it.
+     * 
+     * @param object
+     *            object in search result.
+     * @return cursor.
      */
-    Long searchCount(QueryParam queryParam);
+    SearchCursor createCursor(T object);
 
 }
@@ -35,9 +35,13 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.restfulwhois.rdap.common.dao.AbstractQueryDao;
+import org.restfulwhois.rdap.common.dao.ColumnProjection;
+import org.restfulwhois.rdap.common.dao.ColumnProjection.Column;
 import org.restfulwhois.rdap.common.dao.QueryDao;
 import org.restfulwhois.rdap.common.model.DsData;
 import org.restfulwhois.rdap.common.model.Event;
@@ -69,6 +73,38 @@ public class DsDataQueryDaoImpl extends AbstractQueryDao<DsData> {
      */
     protected static final Logger LOGGER = LoggerFactory
             .getLogger(DsDataQueryDaoImpl.class);
+    /**
+     * columns of dsData.
+     */
+    private static final ColumnProjection DS_DATA_COLUMNS =
+            new ColumnProjection("ds", "DSDATA_ID", "KEY_TAG", "ALGORITHM",
+                    "DIGEST", "DIGEST_TYPE").join("rel", "SECUREDNS_ID");
+    /**
+     * DSDATA_ID.
+     */
+    private static final Column DSDATA_ID = DS_DATA_COLUMNS.get("DSDATA_ID");
+    /**
+     * KEY_TAG.
+     */
+    private static final Column KEY_TAG = DS_DATA_COLUMNS.get("KEY_TAG");
+    /**
+     * ALGORITHM.
+     */
+    private static final Column ALGORITHM = DS_DATA_COLUMNS.get("ALGORITHM");
+    /**
+     * DIGEST.
+     */
+    private static final Column DIGEST = DS_DATA_COLUMNS.get("DIGEST");
+    /**
+     * DIGEST_TYPE.
+     */
+    private static final Column DIGEST_TYPE = DS_DATA_COLUMNS
+            .get("DIGEST_TYPE");
+    /**
+     * SECUREDNS_ID of relation.
+     */
+    private static final Column SECUREDNS_ID = DS_DATA_COLUMNS
+            .get("SECUREDNS_ID");
     /**
      * event dao.
      */
@@ -95,69 +131,72 @@ public class DsDataQueryDaoImpl extends AbstractQueryDao<DsData> {
     @Override
     public List<DsData> queryAsInnerObjects(Long outerObjectId,
             ModelType outerModelType) {
-        LOGGER.debug("queryAsInnerObjects,outerObjId:{},outerModel:{}",
-                outerObjectId, outerModelType);
-        List<DsData> dsDataList = queryWithoutInnerObjects(outerObjectId);
+        return queryAsInnerObjects(Collections.singletonList(outerObjectId),
+                outerModelType).get(outerObjectId);
+    }
+
+    @Override
+    public Map<Long, List<DsData>> queryAsInnerObjects(
+            List<Long> outerObjectIds, ModelType outerModelType) {
+        LOGGER.debug("queryAsInnerObjects,outerObjIds:{},outerModel:{}",
+                outerObjectIds, outerModelType);
+        List<Long> ids = getDistinctIds(outerObjectIds);
+        Map<Long, List<DsData>> result = createInnerObjectsMap(ids);
+        List<DsData> dsDataList = new ArrayList<DsData>();
+        for (List<Long> idsInClause : splitIds(ids)) {
+            dsDataList.addAll(queryWithoutInnerObjects(idsInClause, result));
+        }
         queryAndSetInnerObjects(dsDataList);
-        LOGGER.debug("queryAsInnerObjects,dsDataList:{}",
-                dsDataList);
-        return dsDataList;
+        LOGGER.debug("queryAsInnerObjects,result:{}", result);
+        return result;
     }
 
     /**
      * query inner objects for dsData list.
      * 
      * @param dsDataList
-     *          dsData list which will be filled with inner objects one by one.
+     *          dsData list which will be filled with inner objects.
      */
     private void queryAndSetInnerObjects(List<DsData> dsDataList) {
         if (null == dsDataList || dsDataList.size() == 0) {
             return;
         }
+        List<Long> dsDataIds = getModelIds(dsDataList);
+        Map<Long, List<Event>> eventsMap =
+                eventQueryDao.queryAsInnerObjects(dsDataIds, ModelType.DSDATA);
+        Map<Long, List<Link>> linksMap =
+                linkQueryDao.queryAsInnerObjects(dsDataIds, ModelType.DSDATA);
         for (DsData dsData : dsDataList) {
-            queryAndSetInnerObjects(dsData);
+            dsData.setEvents(getInnerObjects(eventsMap, dsData.getId()));
+            dsData.setLinks(getInnerObjects(linksMap, dsData.getId()));
         }
     }
 
-    /**
-     * query inner objects, and set them to dsData.
-     * 
-     * @param dsData
-     *            dsData which will be filled with inner objects.
-     */
-    private void queryAndSetInnerObjects(DsData dsData) {
-        if (null == dsData) {
-            return;
-        }
-        List<Event> events = eventQueryDao.queryAsInnerObjects(dsData.getId(),
-                ModelType.DSDATA);
-        dsData.setEvents(events);
-        List<Link> links = linkQueryDao.queryAsInnerObjects(dsData.getId(),
-                ModelType.DSDATA);
-        dsData.setLinks(links);
-    }
-
     /**
      * query dsData from RDAP_DSDATA table, without inner objects.
      * 
-     * @param outerObjectId secure dns id which is used as key while querying.
-     * @return dsData list object without inner objects.
+     * @param secureDnsIds
+     *            secure dns ids which are used as key while querying.
+     * @param result
+     *            dsData list map, key is secure dns id.
+     * @return all dsData in result.
      */
-    private List<DsData> queryWithoutInnerObjects(final Long outerObjectId) {
-        final String sql = "select * from REL_SECUREDNS_DSKEY rel,"
+    private List<DsData> queryWithoutInnerObjects(List<Long> secureDnsIds,
+            Map<Long, List<DsData>> result) {
+        final String sqlTpl = "select " + DS_DATA_COLUMNS.toSql()
+                + " from REL_SECUREDNS_DSKEY rel,"
                 + "RDAP_DSDATA ds " + " where rel.REL_ID = ds.DSDATA_ID "
-                + " and rel.SECUREDNS_ID=? and rel.REL_DSKEY_TYPE=? ";
-        List<DsData> result = jdbcTemplate.query(
+                + " and rel.SECUREDNS_ID in (%s) and rel.REL_DSKEY_TYPE=? ";
+        final String sql = String.format(sqlTpl, joinIds(secureDnsIds));
+        return jdbcTemplate.query(
                 new PreparedStatementCreator() {
                     public PreparedStatement createPreparedStatement(
                             Connection connection) throws SQLException {
                         PreparedStatement ps = connection.prepareStatement(sql);
-                        ps.setLong(1, outerObjectId);
-                        ps.setString(2, SecureDNSRType.DsData.getName());
+                        ps.setString(1, SecureDNSRType.DsData.getName());
                         return ps;
                     }
-                }, new DsDataResultSetExtractor());
-        return result;
+                }, new DsDataResultSetExtractor(result));
     }
 
     /**
@@ -167,19 +206,35 @@ public class DsDataQueryDaoImpl extends AbstractQueryDao<DsData> {
      * 
      */
     class DsDataResultSetExtractor implements ResultSetExtractor<List<DsData>> {
+        /**
+         * dsData list map, key is secure dns id.
+         */
+        private final Map<Long, List<DsData>> result;
+
+        /**
+         * constructor.
+         * 
+         * @param result
+         *            dsData list map, key is secure dns id.
+         */
+        DsDataResultSetExtractor(Map<Long, List<DsData>> result) {
+            this.result = result;
+        }
+
         @Override
         public List<DsData> extractData(ResultSet rs) throws SQLException {
-            List<DsData> result = new ArrayList<DsData>();
+            List<DsData> dsDataList = new ArrayList<DsData>();
             while (rs.next()) {
                 DsData dsData = new DsData();
-                dsData.setId(rs.getLong("DSDATA_ID"));
-                dsData.setAlgorithm(getIntegerFromRs(rs, "ALGORITHM"));
-                dsData.setDigest(rs.getString("DIGEST"));
-                dsData.setDigestType(getIntegerFromRs(rs, "DIGEST_TYPE"));
-                dsData.setKeyTag(getIntegerFromRs(rs, "KEY_TAG"));
-                result.add(dsData);
+                dsData.setId(DSDATA_ID.getLong(rs));
+                dsData.setAlgorithm(ALGORITHM.getInteger(rs));
+                dsData.setDigest(DIGEST.getString(rs));
+                dsData.setDigestType(DIGEST_TYPE.getInteger(rs));
+                dsData.setKeyTag(KEY_TAG.getInteger(rs));
+                result.get(SECUREDNS_ID.getLong(rs)).add(dsData);
+                dsDataList.add(dsData);
             }
-            return result;
+            return dsDataList;
         }
     }
 }
@@ -35,9 +35,13 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.restfulwhois.rdap.common.dao.AbstractQueryDao;
+import org.restfulwhois.rdap.common.dao.ColumnProjection;
+import org.restfulwhois.rdap.common.dao.ColumnProjection.Column;
 import org.restfulwhois.rdap.common.dao.QueryDao;
 import org.restfulwhois.rdap.common.model.Event;
 import org.restfulwhois.rdap.common.model.Link;
@@ -64,6 +68,33 @@ public class EventQueryDaoImpl extends AbstractQueryDao<Event> {
      */
     protected static final Logger LOGGER = LoggerFactory
             .getLogger(EventQueryDaoImpl.class);  
+    /**
+     * columns of event, with REL_ID of relation.
+     */
+    private static final ColumnProjection EVENT_COLUMNS =
+            new ColumnProjection("event", "EVENT_ID", "EVENT_ACTION",
+                    "EVENT_ACTOR", "EVENT_DATE").join("rel", "REL_ID");
+    /**
+     * EVENT_ID.
+     */
+    private static final Column EVENT_ID = EVENT_COLUMNS.get("EVENT_ID");
+    /**
+     * EVENT_ACTION.
+     */
+    private static final Column EVENT_ACTION = EVENT_COLUMNS
+            .get("EVENT_ACTION");
+    /**
+     * EVENT_ACTOR.
+     */
+    private static final Column EVENT_ACTOR = EVENT_COLUMNS.get("EVENT_ACTOR");
+    /**
+     * EVENT_DATE.
+     */
+    private static final Column EVENT_DATE = EVENT_COLUMNS.get("EVENT_DATE");
+    /**
+     * REL_ID.
+     */
+    private static final Column REL_ID = EVENT_COLUMNS.get("REL_ID");
     /**
      * link object query dao.
      */
@@ -83,10 +114,25 @@ public class EventQueryDaoImpl extends AbstractQueryDao<Event> {
     @Override
     public List<Event> queryAsInnerObjects(final Long outerObjectId,
             final ModelType outerModelType) {
-        List<Event> events = queryWithoutInnerObjects(outerObjectId,
-                outerModelType);
+        return queryAsInnerObjects(Collections.singletonList(outerObjectId),
+                outerModelType).get(outerObjectId);
+    }
+
+    @Override
+    public Map<Long, List<Event>> queryAsInnerObjects(
+            List<Long> outerObjectIds, final ModelType outerModelType) {
+        List<Long> ids = getDistinctIds(outerObjectIds);
+        Map<Long, List<Event>> result = createInnerObjectsMap(ids);
+        if (ids.isEmpty()) {
+            return result;
+        }
+        List<Event> events = new ArrayList<Event>();
+        for (List<Long> idsInClause : splitIds(ids)) {
+            events.addAll(queryWithoutInnerObjects(idsInClause,
+                    outerModelType, result));
+        }
         queryAndSetInnerObjects(events);
-        return events;
+        return result;
     }
 
     /**
@@ -99,72 +145,78 @@ public class EventQueryDaoImpl extends AbstractQueryDao<Event> {
         if (null == events || events.size() == 0) {
             return;
         }
+        Map<Long, List<Link>> linksMap = linkQueryDao.queryAsInnerObjects(
+                getModelIds(events), ModelType.EVENT);
         for (Event event : events) {
-            queryAndSetInnerObjects(event);
-        }
-    }
-
-    /**
-     * query inner objects, and set them to event.
-     * 
-     * @param event
-     *            event after set inner objects
-     */
-    private void queryAndSetInnerObjects(Event event) {
-        if (null == event) {
-            return;
+            event.setLinks(getInnerObjects(linksMap, event.getId()));
         }
-        List<Link> links = linkQueryDao.queryAsInnerObjects(event.getId(),
-                ModelType.EVENT);
-        event.setLinks(links);
     }
 
     /**
      * query event from RDAP_EVENT,without inner objects.
      * 
-     * @param outerObjectId
-     *            outer object id
+     * @param outerObjectIds
+     *            outer object ids
      * @param outerModelType
      *            outer model type
-     * @return events list
+     * @param result
+     *            event list map, key is outer object id.
+     * @return all events in result.
      */
-    private List<Event> queryWithoutInnerObjects(final Long outerObjectId,
-            final ModelType outerModelType) {
-        final String sql = "select event.*  from RDAP_EVENT event"
+    private List<Event> queryWithoutInnerObjects(List<Long> outerObjectIds,
+            final ModelType outerModelType, final Map<Long, List<Event>> result) {
+        final String sqlTpl = "select " + EVENT_COLUMNS.toSql()
+                + " from RDAP_EVENT event"
                 + " inner join REL_EVENT_REGISTRATION rel "
-                + " on (rel.EVENT_ID = event.EVENT_ID and rel.REL_ID = ?"
+                + " on (rel.EVENT_ID = event.EVENT_ID and rel.REL_ID in (%s)"
                 + " and rel.REL_OBJECT_TYPE = ?) ";
-        List<Event> result = jdbcTemplate.query(new PreparedStatementCreator() {
+        final String sql = String.format(sqlTpl, joinIds(outerObjectIds));
+        return jdbcTemplate.query(new PreparedStatementCreator() {
             public PreparedStatement createPreparedStatement(
                     Connection connection) throws SQLException {
                 PreparedStatement ps = connection.prepareStatement(sql);
-                ps.setLong(1, outerObjectId);
-                ps.setString(2, outerModelType.getName());
+                ps.setString(1, outerModelType.getName());
                 return ps;
             }
-        }, new EventResultSetExtractor());
-        return result;
+        }, new EventResultSetExtractor(result));
     }
 
     /**
-     * event ResultSetExtractor, extract data from ResultSet.
+     * event ResultSetExtractor, extract data from ResultSet, and add events
+     * to list of outer object.
      * 
      * @author jiashuo
      * 
      */
     class EventResultSetExtractor implements ResultSetExtractor<List<Event>> {
+        /**
+         * event list map, key is outer object id.
+         */
+        private final Map<Long, List<Event>> result;
+
+        /**
+         * constructor.
+         * 
+         * @param result
+         *            event list map, key is outer object id.
+         */
+        EventResultSetExtractor(Map<Long, List<Event>> result) {
+            this.result = result;
+        }
+
         @Override
         public List<Event> extractData(ResultSet rs) throws SQLException {
-            List<Event> result = new ArrayList<Event>();
+            List<Event> events = new ArrayList<Event>();
             while (rs.next()) {
                 Event event = new Event();
-                event.setId(rs.getLong("EVENT_ID"));
-                event.setEventAction(rs.getString("EVENT_ACTION"));
-                event.setEventActor(rs.getString("EVENT_ACTOR"));
-                event.setEventDate(extractTimestampFromRs(rs, "EVENT_DATE"));
-                result.add(event);
+                event.setId(EVENT_ID.getLong(rs));
+                event.setEventAction(EVENT_ACTION.getString(rs));
+                event.setEventActor(EVENT_ACTOR.getString(rs));
+                event.setEventDate(EVENT_DATE.getTimestamp(rs));
+                result.get(REL_ID.getLong(rs)).add(event);
+                events.add(event);
             }
-            return result;
+            return events;
         }
     }
 }
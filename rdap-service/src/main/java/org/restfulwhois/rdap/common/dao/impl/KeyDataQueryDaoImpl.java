@@ -35,9 +35,13 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.restfulwhois.rdap.common.dao.AbstractQueryDao;
+import org.restfulwhois.rdap.common.dao.ColumnProjection;
+import org.restfulwhois.rdap.common.dao.ColumnProjection.Column;
 import org.restfulwhois.rdap.common.dao.QueryDao;
 import org.restfulwhois.rdap.common.model.Event;
 import org.restfulwhois.rdap.common.model.KeyData;
@@ -67,6 +71,37 @@ public class KeyDataQueryDaoImpl extends AbstractQueryDao<KeyData> {
      */
     protected static final Logger LOGGER = LoggerFactory
             .getLogger(KeyDataQueryDaoImpl.class);  
+    /**
+     * columns of keyData.
+     */
+    private static final ColumnProjection KEY_DATA_COLUMNS =
+            new ColumnProjection("keyData", "KEYDATA_ID", "FLAGS", "PROTOCOL",
+                    "PUBLIC_KEY", "ALGORITHM").join("rel", "SECUREDNS_ID");
+    /**
+     * KEYDATA_ID.
+     */
+    private static final Column KEYDATA_ID = KEY_DATA_COLUMNS.get("KEYDATA_ID");
+    /**
+     * FLAGS.
+     */
+    private static final Column FLAGS = KEY_DATA_COLUMNS.get("FLAGS");
+    /**
+     * PROTOCOL.
+     */
+    private static final Column PROTOCOL = KEY_DATA_COLUMNS.get("PROTOCOL");
+    /**
+     * PUBLIC_KEY.
+     */
+    private static final Column PUBLIC_KEY = KEY_DATA_COLUMNS.get("PUBLIC_KEY");
+    /**
+     * ALGORITHM.
+     */
+    private static final Column ALGORITHM = KEY_DATA_COLUMNS.get("ALGORITHM");
+    /**
+     * SECUREDNS_ID of relation.
+     */
+    private static final Column SECUREDNS_ID = KEY_DATA_COLUMNS
+            .get("SECUREDNS_ID");
     /**
      * event dao.
      */
@@ -83,9 +118,21 @@ public class KeyDataQueryDaoImpl extends AbstractQueryDao<KeyData> {
     @Override
     public List<KeyData> queryAsInnerObjects(Long outerObjectId,
             ModelType outerModelType) {
-        List<KeyData> keyDataList = queryWithoutInnerObjects(outerObjectId);
+        return queryAsInnerObjects(Collections.singletonList(outerObjectId),
+                outerModelType).get(outerObjectId);
+    }
+
+    @Override
+    public Map<Long, List<KeyData>> queryAsInnerObjects(
+            List<Long> outerObjectIds, ModelType outerModelType) {
+        List<Long> ids = getDistinctIds(outerObjectIds);
+        Map<Long, List<KeyData>> result = createInnerObjectsMap(ids);
+        List<KeyData> keyDataList = new ArrayList<KeyData>();
+        for (List<Long> idsInClause : splitIds(ids)) {
+            keyDataList.addAll(queryWithoutInnerObjects(idsInClause, result));
+        }
         queryAndSetInnerObjects(keyDataList);
-        return keyDataList;
+        return result;
     }
 
     /**
@@ -98,49 +145,43 @@ public class KeyDataQueryDaoImpl extends AbstractQueryDao<KeyData> {
         if (null == keyDataList || keyDataList.size() == 0) {
             return;
         }
+        List<Long> keyDataIds = getModelIds(keyDataList);
+        Map<Long, List<Event>> eventsMap =
+                eventQueryDao.queryAsInnerObjects(keyDataIds,
+                        ModelType.KEYDATA);
+        Map<Long, List<Link>> linksMap =
+                linkQueryDao.queryAsInnerObjects(keyDataIds, ModelType.KEYDATA);
         for (KeyData keyData : keyDataList) {
-            queryAndSetInnerObjects(keyData);
+            keyData.setEvents(getInnerObjects(eventsMap, keyData.getId()));
+            keyData.setLinks(getInnerObjects(linksMap, keyData.getId()));
         }
     }
 
-    /**
-     * query inner objects, and set them to keyData.
-     * 
-     * @param keyData
-     *            keyData which will be set with inner objects like event etc.
-     */
-    private void queryAndSetInnerObjects(KeyData keyData) {
-        if (null == keyData) {
-            return;
-        }
-        List<Event> events = eventQueryDao.queryAsInnerObjects(keyData.getId(),
-                ModelType.KEYDATA);
-        keyData.setEvents(events);
-        List<Link> links = linkQueryDao.queryAsInnerObjects(keyData.getId(),
-                ModelType.KEYDATA);
-        keyData.setLinks(links);
-    }
-
     /**
      * query keyData from RDAP_KEYDATA, without inner objects.
-     * @param outerObjectId outer object id such as domain id.
-     * @return keyData list which will be filled to outer object.
+     * 
+     * @param secureDnsIds
+     *            secure dns ids which are used as key while querying.
+     * @param result
+     *            keyData list map, key is secure dns id.
+     * @return all keyData in result.
      */
-    private List<KeyData> queryWithoutInnerObjects(final Long outerObjectId) {
-        final String sql = "select * from REL_SECUREDNS_DSKEY rel,RDAP_KEYDATA"
+    private List<KeyData> queryWithoutInnerObjects(List<Long> secureDnsIds,
+            Map<Long, List<KeyData>> result) {
+        final String sqlTpl = "select " + KEY_DATA_COLUMNS.toSql()
+                + " from REL_SECUREDNS_DSKEY rel,RDAP_KEYDATA"
                 + " keyData where rel.REL_ID = keyData.KEYDATA_ID "
-                + " and rel.SECUREDNS_ID=? and rel.REL_DSKEY_TYPE=? ";
-        List<KeyData> result = jdbcTemplate.query(
+                + " and rel.SECUREDNS_ID in (%s) and rel.REL_DSKEY_TYPE=? ";
+        final String sql = String.format(sqlTpl, joinIds(secureDnsIds));
+        return jdbcTemplate.query(
                 new PreparedStatementCreator() {
                     public PreparedStatement createPreparedStatement(
                             Connection connection) throws SQLException {
                         PreparedStatement ps = connection.prepareStatement(sql);
-                        ps.setLong(1, outerObjectId);
-                        ps.setString(2, SecureDNSRType.KeyData.getName());
+                        ps.setString(1, SecureDNSRType.KeyData.getName());
                         return ps;
                     }
-                }, new KeyDataResultSetExtractor());
-        return result;
+                }, new KeyDataResultSetExtractor(result));
     }
 
     /**
@@ -151,19 +192,35 @@ public class KeyDataQueryDaoImpl extends AbstractQueryDao<KeyData> {
      */
     class KeyDataResultSetExtractor implements
             ResultSetExtractor<List<KeyData>> {
+        /**
+         * keyData list map, key is secure dns id.
+         */
+        private final Map<Long, List<KeyData>> result;
+
+        /**
+         * constructor.
+         * 
+         * @param result
+         *            keyData list map, key is secure dns id.
+         */
+        KeyDataResultSetExtractor(Map<Long, List<KeyData>> result) {
+            this.result = result;
+        }
+
         @Override
         public List<KeyData> extractData(ResultSet rs) throws SQLException {
-            List<KeyData> result = new ArrayList<KeyData>();
+            List<KeyData> keyDataList = new ArrayList<KeyData>();
             while (rs.next()) {
                 KeyData keyData = new KeyData();
-                keyData.setId(rs.getLong("KEYDATA_ID"));
-                keyData.setAlgorithm(getIntegerFromRs(rs, "ALGORITHM"));
-                keyData.setPublicKey(rs.getString("PUBLIC_KEY"));
-                keyData.setFlags(getIntegerFromRs(rs, "FLAGS"));
-                keyData.setProtocol(getIntegerFromRs(rs, "PROTOCOL"));
-                result.add(keyData);
+                keyData.setId(KEYDATA_ID.getLong(rs));
+                keyData.setAlgorithm(ALGORITHM.getInteger(rs));
+                keyData.setPublicKey(PUBLIC_KEY.getString(rs));
+                keyData.setFlags(FLAGS.getInteger(rs));
+                keyData.setProtocol(PROTOCOL.getInteger(rs));
+                result.get(SECUREDNS_ID.getLong(rs)).add(keyData);
+                keyDataList.add(keyData);
             }
-            return result;
+            return keyDataList;
         }
     }
 }
@@ -34,12 +34,14 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.restfulwhois.rdap.common.dao.AbstractQueryDao;
+import org.restfulwhois.rdap.common.dao.ColumnProjection;
+import org.restfulwhois.rdap.common.dao.ColumnProjection.Column;
 import org.restfulwhois.rdap.common.model.Link;
 import org.restfulwhois.rdap.common.model.base.ModelType;
 import org.restfulwhois.rdap.common.util.StringUtil;
@@ -64,74 +66,147 @@ public class LinkQueryDaoImpl extends AbstractQueryDao<Link> {
      */
     protected static Logger logger = LoggerFactory
             .getLogger(LinkQueryDaoImpl.class);
+    /**
+     * columns of link, with HREFLANG and REL_ID.
+     */
+    private static final ColumnProjection LINK_COLUMNS = new ColumnProjection(
+            "link", "LINK_ID", "VALUE", "REL", "HREF", "MEDIA", "TYPE",
+            "TITLE").join("hreflang", "HREFLANG").join("rel", "REL_ID");
+    /**
+     * LINK_ID.
+     */
+    private static final Column LINK_ID = LINK_COLUMNS.get("LINK_ID");
+    /**
+     * VALUE.
+     */
+    private static final Column VALUE = LINK_COLUMNS.get("VALUE");
+    /**
+     * REL.
+     */
+    private static final Column REL = LINK_COLUMNS.get("REL");
+    /**
+     * HREF.
+     */
+    private static final Column HREF = LINK_COLUMNS.get("HREF");
+    /**
+     * MEDIA.
+     */
+    private static final Column MEDIA = LINK_COLUMNS.get("MEDIA");
+    /**
+     * TYPE.
+     */
+    private static final Column TYPE = LINK_COLUMNS.get("TYPE");
+    /**
+     * TITLE.
+     */
+    private static final Column TITLE = LINK_COLUMNS.get("TITLE");
+    /**
+     * HREFLANG.
+     */
+    private static final Column HREFLANG = LINK_COLUMNS.get("HREFLANG");
+    /**
+     * REL_ID.
+     */
+    private static final Column REL_ID = LINK_COLUMNS.get("REL_ID");
 
     @Override
     public List<Link> queryAsInnerObjects(final Long outerObjectId,
             final ModelType outerModelType) {
-        List<Link> linksWithHreflang = queryLinkWithHreflang(outerObjectId,
-                outerModelType);        
-        return linksWithHreflang;
+        return queryAsInnerObjects(Collections.singletonList(outerObjectId),
+                outerModelType).get(outerObjectId);
+    }
+
+    @Override
+    public Map<Long, List<Link>> queryAsInnerObjects(
+            List<Long> outerObjectIds, final ModelType outerModelType) {
+        List<Long> ids = getDistinctIds(outerObjectIds);
+        Map<Long, List<Link>> result = createInnerObjectsMap(ids);
+        if (ids.isEmpty()) {
+            return result;
+        }
+        for (List<Long> idsInClause : splitIds(ids)) {
+            queryLinkWithHreflang(idsInClause, outerModelType, result);
+        }
+        return result;
     }
-   
 
     /**
-     * query link with hreflang as inner objects for outer object.
+     * query link with hreflang as inner objects for outer objects.
      * 
-     * @param outerObjectId
-     *            object id of outer object
+     * @param outerObjectIds
+     *            object ids of outer objects
      * @param outerModelType
      *            model type of outer object
-     * @return link list
+     * @param result
+     *            link list map, key is outer object id.
      */
-    private List<Link> queryLinkWithHreflang(final Long outerObjectId,
-            final ModelType outerModelType) {
-        final String sql = "select link.*,hreflang.HREFLANG from RDAP_LINK link"
+    private void queryLinkWithHreflang(List<Long> outerObjectIds,
+            final ModelType outerModelType, Map<Long, List<Link>> result) {
+        final String sqlTpl = "select " + LINK_COLUMNS.toSql()
+                + " from RDAP_LINK link"
                 + " inner join REL_LINK_OBJECT rel "
-                + " on (rel.LINK_ID = link.LINK_ID and rel.REL_ID = ?"
+                + " on (rel.LINK_ID = link.LINK_ID and rel.REL_ID in (%s)"
                 + " and rel.REL_OBJECT_TYPE = ? ) "
                 + " left outer join RDAP_LINK_HREFLANG hreflang "
                 + " on link.LINK_ID = hreflang.LINK_ID";
-        List<Link> result = jdbcTemplate.query(new PreparedStatementCreator() {
+        final String sql = String.format(sqlTpl, joinIds(outerObjectIds));
+        jdbcTemplate.query(new PreparedStatementCreator() {
             public PreparedStatement createPreparedStatement(
                     Connection connection) throws SQLException {
                 PreparedStatement ps = connection.prepareStatement(sql);
-                ps.setLong(1, outerObjectId);
-                ps.setString(2, outerModelType.getName());
+                ps.setString(1, outerModelType.getName());
                 return ps;
             }
-        }, new LinkWithHreflangResultSetExtractor());
-        return result;
+        }, new LinkWithHreflangResultSetExtractor(result));
     }
 
     /**
-     * link ResultSetExtractor extract data from ResultSet.
+     * link ResultSetExtractor extract data from ResultSet, and add links to
+     * list of outer object.
      * 
      * @author jiashuo
      * 
      */
     class LinkWithHreflangResultSetExtractor implements
-            ResultSetExtractor<List<Link>> {
+            ResultSetExtractor<Map<Long, List<Link>>> {
+        /**
+         * link list map, key is outer object id.
+         */
+        private final Map<Long, List<Link>> result;
+
+        /**
+         * constructor.
+         * 
+         * @param result
+         *            link list map, key is outer object id.
+         */
+        LinkWithHreflangResultSetExtractor(Map<Long, List<Link>> result) {
+            this.result = result;
+        }
+
         @Override
-        public List<Link> extractData(ResultSet rs) throws SQLException {
-            List<Link> result = new ArrayList<Link>();
-            Map<Long, Link> mapById = new HashMap<Long, Link>();
+        public Map<Long, List<Link>> extractData(ResultSet rs)
+                throws SQLException {
+            Map<String, Link> mapByRelAndId = new HashMap<String, Link>();
             while (rs.next()) {
-                Long linkId = rs.getLong("LINK_ID");
-                Link link = mapById.get(linkId);
+                Long relId = REL_ID.getLong(rs);
+                Long linkId = LINK_ID.getLong(rs);
+                String key = relId + "_" + linkId;
+                Link link = mapByRelAndId.get(key);
                 if (null == link) {
                     link = new Link();
-                    link.setId(rs.getLong("LINK_ID"));
-                    link.setValue(rs.getString("VALUE"));
-                    link.setRel(rs.getString("REL"));
-                    link.setHref(rs.getString("HREF"));
-                    link.setMedia(rs.getString("MEDIA"));
-                    link.setType(rs.getString("TYPE"));
-                    link.setTitle(rs.getString("TITLE"));
-                    result.add(link);
+                    link.setId(linkId);
+                    link.setValue(VALUE.getString(rs));
+                    link.setRel(REL.getString(rs));
+                    link.setHref(HREF.getString(rs));
+                    link.setMedia(MEDIA.getString(rs));
+                    link.setType(TYPE.getString(rs));
+                    link.setTitle(TITLE.getString(rs));
+                    result.get(relId).add(link);
                     encodeUriAndSetToLink(link);
-                    mapById.put(linkId, link);
+                    mapByRelAndId.put(key, link);
                 }
-                link.addHreflang(rs.getString("HREFLANG"));
+                link.addHreflang(HREFLANG.getString(rs));
             }
             return result;
         }
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.dao.impl;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.restfulwhois.rdap.common.dao.ColumnProjection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Repository;
+
+/**
+ * <pre>
+ * resolve optional columns of ColumnProjection, from metadata of empty
+ * result set selecting all columns of table.
+ * It runs once after context is refreshed, when all projections have been
+ * declared, so metadata is not checked for each query.
+ * </pre>
+ * 
+ * @author jiashuo
+ * 
+ */
+@Repository
+public class OptionalColumnDetector implements
+        ApplicationListener<ContextRefreshedEvent> {
+    /**
+     * logger.
+     */
+    private static final Logger LOGGER = LoggerFactory
+            .getLogger(OptionalColumnDetector.class);
+
+    /**
+     * JDBC template.
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        for (final String tableName : ColumnProjection.getUnresolvedTables()) {
+            try {
+                jdbcTemplate.query("select * from " + tableName
+                        + " where 1=0", new ResultSetExtractor<Void>() {
+                    @Override
+                    public Void extractData(ResultSet rs)
+                            throws SQLException {
+                        ColumnProjection.resolveOptionalColumns(tableName,
+                                rs.getMetaData());
+                        return null;
+                    }
+                });
+            } catch (DataAccessException e) {
+                LOGGER.warn("resolve optional columns of {} error:{}",
+                        tableName, e.getMessage());
+            }
+        }
+    }
+}
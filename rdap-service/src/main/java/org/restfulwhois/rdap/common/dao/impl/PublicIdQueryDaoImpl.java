@@ -34,15 +34,19 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.restfulwhois.rdap.common.dao.AbstractQueryDao;
+import org.restfulwhois.rdap.common.dao.ColumnProjection;
+import org.restfulwhois.rdap.common.dao.ColumnProjection.Column;
 import org.restfulwhois.rdap.common.model.PublicId;
 import org.restfulwhois.rdap.common.model.base.ModelType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.core.PreparedStatementCreator;
-import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -60,6 +64,25 @@ public class PublicIdQueryDaoImpl extends AbstractQueryDao<PublicId> {
      */
     protected static final Logger LOGGER = LoggerFactory
             .getLogger(RemarkQueryDaoImpl.class);   
+    /**
+     * columns of public id, with REL_ID.
+     */
+    private static final ColumnProjection PUBLIC_ID_COLUMNS =
+            new ColumnProjection("publicId", "IDENTIFIER", "TYPE").join("rel",
+                    "REL_ID");
+    /**
+     * IDENTIFIER.
+     */
+    private static final Column IDENTIFIER = PUBLIC_ID_COLUMNS
+            .get("IDENTIFIER");
+    /**
+     * TYPE.
+     */
+    private static final Column TYPE = PUBLIC_ID_COLUMNS.get("TYPE");
+    /**
+     * REL_ID.
+     */
+    private static final Column REL_ID = PUBLIC_ID_COLUMNS.get("REL_ID");
     
     /**
      * query results of PublicId list to an associated object.
@@ -76,48 +99,62 @@ public class PublicIdQueryDaoImpl extends AbstractQueryDao<PublicId> {
     @Override
     public List<PublicId> queryAsInnerObjects(final Long outerObjectId,
             final ModelType outerModelType) {
-        LOGGER.debug("queryAsInnerObjects, outerObjectId:{},"
-                + " outerModelType:{}", outerObjectId, outerModelType);
-        List<PublicId> publicIds = queryWithoutInnerObjects(outerObjectId,
-                outerModelType);
-        LOGGER.debug("queryAsInnerObjects, result:{}", publicIds);
-        return publicIds;
+        return queryAsInnerObjects(Collections.singletonList(outerObjectId),
+                outerModelType).get(outerObjectId);
+    }
+
+    @Override
+    public Map<Long, List<PublicId>> queryAsInnerObjects(
+            List<Long> outerObjectIds, final ModelType outerModelType) {
+        LOGGER.debug("queryAsInnerObjects, outerObjectIds:{},"
+                + " outerModelType:{}", outerObjectIds, outerModelType);
+        List<Long> ids = getDistinctIds(outerObjectIds);
+        Map<Long, List<PublicId>> result = createInnerObjectsMap(ids);
+        if (ids.isEmpty()) {
+            return result;
+        }
+        for (List<Long> idsInClause : splitIds(ids)) {
+            queryWithoutInnerObjects(idsInClause, outerModelType, result);
+        }
+        LOGGER.debug("queryAsInnerObjects, result:{}", result);
+        return result;
     }
 
     /**
      * query public id from RDAP_PUBLICID.
      * 
-     * @param outerObjectId
-     *            object id of outer object.
+     * @param outerObjectIds
+     *            object ids of outer objects.
      * @param outerModelType
      *            model type of outer object.
-     * @return public id list
+     * @param result
+     *            public id list map, key is outer object id.
      */
-    private List<PublicId> queryWithoutInnerObjects(final Long outerObjectId,
-            final ModelType outerModelType) {
-        final String sql = "select * from REL_PUBLICID_REGISTRATION rel,"
+    private void queryWithoutInnerObjects(List<Long> outerObjectIds,
+            final ModelType outerModelType,
+            final Map<Long, List<PublicId>> result) {
+        final String sqlTpl = "select " + PUBLIC_ID_COLUMNS.toSql()
+                + " from REL_PUBLICID_REGISTRATION rel,"
                 + " RDAP_PUBLICID publicId "
                 + " where rel.PUBLIC_ID=publicId.PUBLIC_ID "
-                + " and rel.REL_ID=? and rel.REL_OBJECT_TYPE=? ";
-        List<PublicId> result = jdbcTemplate.query(
+                + " and rel.REL_ID in (%s) and rel.REL_OBJECT_TYPE=? ";
+        final String sql = String.format(sqlTpl, joinIds(outerObjectIds));
+        jdbcTemplate.query(
                 new PreparedStatementCreator() {
                     public PreparedStatement createPreparedStatement(
                             Connection connection) throws SQLException {
                         PreparedStatement ps = connection.prepareStatement(sql);
-                        ps.setLong(1, outerObjectId);
-                        ps.setString(2, outerModelType.getName());
+                        ps.setString(1, outerModelType.getName());
                         return ps;
                     }
-                }, new RowMapper<PublicId>() {
+                }, new RowCallbackHandler() {
                     @Override
-                    public PublicId mapRow(ResultSet rs, int rowNum)
-                            throws SQLException {
+                    public void processRow(ResultSet rs) throws SQLException {
                         PublicId publicId = new PublicId();
-                        publicId.setIdentifier(rs.getString("IDENTIFIER"));
-                        publicId.setType(rs.getString("TYPE"));
-                        return publicId;
+                        publicId.setIdentifier(IDENTIFIER.getString(rs));
+                        publicId.setType(TYPE.getString(rs));
+                        result.get(REL_ID.getLong(rs)).add(publicId);
                     }
                 });
-        return result;
     }
 }
@@ -0,0 +1,454 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.dao.impl;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.lang.StringUtils;
+import org.restfulwhois.rdap.common.cache.ObjectCache;
+import org.restfulwhois.rdap.common.dao.QueryDao;
+import org.restfulwhois.rdap.common.datasource.DataSourceRouteHolder;
+import org.restfulwhois.rdap.common.dto.BaseDto;
+import org.restfulwhois.rdap.common.dto.embedded.EntityHandleDto;
+import org.restfulwhois.rdap.common.model.base.BaseModel;
+import org.restfulwhois.rdap.common.model.base.ModelType;
+import org.restfulwhois.rdap.common.support.QueryParam;
+import org.restfulwhois.rdap.common.support.RdapProperties;
+import org.restfulwhois.rdap.common.util.ModelCopyUtil;
+import org.restfulwhois.rdap.common.util.StringUtil;
+import org.restfulwhois.rdap.common.util.TransactionUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Repository;
+
+/**
+ * <pre>
+ * read-through cache of object query, in front of QueryDao.query.
+ * 
+ * Key is the normalized q of query param, one ObjectCache for each type.
+ * Each cached object depends on handles of all objects in its graph, e.g.
+ * a domain depends on its nameservers and entities, and update API
+ * invalidates objects depending on updated handle after commit. Objects
+ * found by range, such as IP, autnum and arpa domain, also depend on the
+ * whole type, because a new object may cover them.
+ * 
+ * Query filters change returned object, so cached object is never returned,
+ * a copy of it is returned instead.
+ * 
+ * ETags of responses are cached with the same dependencies, so that
+ * If-None-Match is answered before object is queried.
+ * 
+ * Replicas may lag behind primary after invalidation, so missed objects are
+ * loaded from primary in queryCachePrimaryLoadWindow after invalidation.
+ * Objects loaded before invalidation are not cached, by generation.
+ * </pre>
+ * 
+ * @author jiashuo
+ * 
+ */
+@Repository
+@DependsOn("rdapProperties")
+public class QueryCacheDao {
+    /**
+     * logger.
+     */
+    private static final Logger LOGGER = LoggerFactory
+            .getLogger(QueryCacheDao.class);
+
+    /**
+     * cached types.
+     */
+    private static final ModelType[] CACHED_TYPES = { ModelType.DOMAIN,
+            ModelType.ENTITY, ModelType.NAMESERVER, ModelType.IP,
+            ModelType.AUTNUM };
+
+    /**
+     * dependency of all objects in type.
+     */
+    private static final String ALL_OBJECTS = "*";
+
+    /**
+     * separator of type and max entries in queryCacheTypeMaxEntries.
+     */
+    private static final String TYPE_MAX_ENTRIES_SEPARATOR = ":";
+
+    /**
+     * separator of type and handle in dependency key.
+     */
+    private static final String DEPENDENCY_SEPARATOR = ":";
+
+    /**
+     * caches, by type.
+     */
+    private final Map<ModelType, ObjectCache<String, BaseModel>> caches =
+            new EnumMap<ModelType, ObjectCache<String, BaseModel>>(
+                    ModelType.class);
+
+    /**
+     * ETags of object query response, by principal and request URI.
+     */
+    private ObjectCache<String, String> etags;
+
+    /**
+     * time of last invalidation, in milliseconds.
+     */
+    private volatile long lastInvalidationTime;
+
+    /**
+     * create caches at startup.
+     */
+    @PostConstruct
+    public void init() {
+        Map<String, Integer> typeMaxEntries = parseTypeMaxEntries();
+        for (ModelType modelType : CACHED_TYPES) {
+            Integer maxEntries =
+                    typeMaxEntries.get(StringUtils.lowerCase(modelType
+                            .getName()));
+            if (null == maxEntries) {
+                maxEntries = RdapProperties.getQueryCacheMaxEntries();
+            }
+            Long ttl = RdapProperties.getQueryCacheTtl();
+            ObjectCache<String, BaseModel> cache =
+                    new ObjectCache<String, BaseModel>(null == maxEntries ? 0
+                            : maxEntries, null == ttl ? 0 : ttl);
+            caches.put(modelType, cache);
+            LOGGER.info("query cache of {} max entries:{}",
+                    modelType.getName(), maxEntries);
+        }
+        Integer etagMaxEntries = RdapProperties.getEtagCacheMaxEntries();
+        Long ttl = RdapProperties.getQueryCacheTtl();
+        etags =
+                new ObjectCache<String, String>(
+                        RdapProperties.isConditionalGetEnabled()
+                                && null != etagMaxEntries ? etagMaxEntries
+                                : 0, null == ttl ? 0 : ttl);
+    }
+
+    /**
+     * query object from cache, or from queryDao if not cached.
+     * 
+     * @param modelType
+     *            object type.
+     * @param queryParam
+     *            query param, after param is converted.
+     * @param queryDao
+     *            DAO to query object.
+     * @param rangeMatch
+     *            true if object is found by range, and may be changed by
+     *            new object of this type.
+     * @param <T>
+     *            object type.
+     * @return object, null if not found.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends BaseModel> T query(ModelType modelType,
+            QueryParam queryParam, QueryDao<T> queryDao, boolean rangeMatch) {
+        ObjectCache<String, BaseModel> cache = caches.get(modelType);
+        String key = queryParam.getQ();
+        if (null == cache || !cache.isEnabled() || null == key) {
+            return load(queryParam, queryDao);
+        }
+        BaseModel cached = cache.get(key, System.currentTimeMillis());
+        if (null != cached) {
+            return (T) ModelCopyUtil.copy(cached, null);
+        }
+        long generation = cache.generation();
+        T model = load(queryParam, queryDao);
+        if (null == model) {
+            return null;
+        }
+        List<BaseModel> models = new ArrayList<BaseModel>();
+        T copy;
+        try {
+            copy = ModelCopyUtil.copy(model, models);
+        } catch (IllegalStateException e) {
+            LOGGER.warn("not cached, {}", e.getMessage());
+            return model;
+        }
+        Set<String> dependencies = generateDependencies(models);
+        if (rangeMatch) {
+            dependencies.add(generateDependency(modelType, ALL_OBJECTS));
+        }
+        cache.put(key, copy, dependencies, generation,
+                System.currentTimeMillis());
+        return model;
+    }
+
+    /**
+     * load missed object, from primary if it is in
+     * queryCachePrimaryLoadWindow after last invalidation.
+     * 
+     * @param queryParam
+     *            query param.
+     * @param queryDao
+     *            DAO to query object.
+     * @param <T>
+     *            object type.
+     * @return object, null if not found.
+     */
+    private <T extends BaseModel> T load(QueryParam queryParam,
+            QueryDao<T> queryDao) {
+        Long window = RdapProperties.getQueryCachePrimaryLoadWindow();
+        long elapsed = System.currentTimeMillis() - lastInvalidationTime;
+        if (null == window || elapsed >= window) {
+            return queryDao.query(queryParam);
+        }
+        boolean previous = DataSourceRouteHolder.setPrimary(true);
+        try {
+            return queryDao.query(queryParam);
+        } finally {
+            DataSourceRouteHolder.setPrimary(previous);
+        }
+    }
+
+    /**
+     * get cached ETag.
+     * 
+     * @param key
+     *            principal and request URI.
+     * @return ETag, null if not cached.
+     */
+    public String getETag(String key) {
+        return etags.get(key, System.currentTimeMillis());
+    }
+
+    /**
+     * get invalidation generation of ETag cache, before object is queried.
+     * 
+     * @return generation.
+     */
+    public long getETagGeneration() {
+        return etags.generation();
+    }
+
+    /**
+     * cache ETag of response, which depends on all objects in response.
+     * 
+     * @param key
+     *            principal and request URI.
+     * @param etag
+     *            ETag.
+     * @param model
+     *            response object.
+     * @param models
+     *            all models in object graph.
+     * @param rangeMatch
+     *            true if object is found by range.
+     * @param generation
+     *            getETagGeneration() before object is queried.
+     */
+    public void putETag(String key, String etag, BaseModel model,
+            List<BaseModel> models, boolean rangeMatch, long generation) {
+        if (!etags.isEnabled()) {
+            return;
+        }
+        etags.put(key, etag, generateDependencies(model, models, rangeMatch),
+                generation, System.currentTimeMillis());
+    }
+
+    /**
+     * invalidate cached objects which depend on object or its entities,
+     * after transaction is committed.
+     * 
+     * @param model
+     *            created, updated or deleted object.
+     */
+    public void invalidate(BaseModel model) {
+        if (null == model || StringUtils.isBlank(model.getHandle())
+                || !isEnabled()) {
+            return;
+        }
+        final List<String> dependencies = new ArrayList<String>();
+        dependencies.add(generateDependency(model.getObjectType(),
+                model.getHandle()));
+        dependencies.add(generateDependency(model.getObjectType(),
+                ALL_OBJECTS));
+        BaseDto dto = model.getDto();
+        if (null != dto && null != dto.getEntities()) {
+            for (EntityHandleDto entity : dto.getEntities()) {
+                dependencies.add(generateDependency(ModelType.ENTITY,
+                        entity.getHandle()));
+            }
+        }
+        TransactionUtil.runAfterCommit(new Runnable() {
+            @Override
+            public void run() {
+                lastInvalidationTime = System.currentTimeMillis();
+                for (String dependency : dependencies) {
+                    for (ObjectCache<String, BaseModel> cache : caches
+                            .values()) {
+                        cache.invalidate(dependency);
+                    }
+                    etags.invalidate(dependency);
+                }
+            }
+        });
+    }
+
+    /**
+     * get statistics of caches.
+     * 
+     * @return statistics, by type name.
+     */
+    public Map<String, ObjectCache.Stats> getStats() {
+        Map<String, ObjectCache.Stats> result =
+                new LinkedHashMap<String, ObjectCache.Stats>();
+        for (Map.Entry<ModelType, ObjectCache<String, BaseModel>> entry : caches
+                .entrySet()) {
+            result.put(entry.getKey().getName(), entry.getValue().getStats());
+        }
+        return result;
+    }
+
+    /**
+     * log statistics of enabled caches.
+     */
+    public void logStats() {
+        for (Map.Entry<ModelType, ObjectCache<String, BaseModel>> entry : caches
+                .entrySet()) {
+            if (entry.getValue().isEnabled()) {
+                LOGGER.info("query cache of {}, {}", entry.getKey().getName(),
+                        entry.getValue().getStats());
+            }
+        }
+        if (etags.isEnabled()) {
+            LOGGER.info("ETag cache, {}", etags.getStats());
+        }
+    }
+
+    /**
+     * check if cache of any type is enabled.
+     * 
+     * @return true if enabled, false if not.
+     */
+    public boolean isEnabled() {
+        if (etags.isEnabled()) {
+            return true;
+        }
+        for (ObjectCache<String, BaseModel> cache : caches.values()) {
+            if (cache.isEnabled()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * generate dependency keys of models.
+     * 
+     * @param models
+     *            all models in object graph.
+     * @return dependency keys.
+     */
+    private static Set<String> generateDependencies(List<BaseModel> models) {
+        Set<String> dependencies = new HashSet<String>();
+        for (BaseModel inner : models) {
+            if (StringUtils.isNotBlank(inner.getHandle())) {
+                dependencies.add(generateDependency(inner.getObjectType(),
+                        inner.getHandle()));
+            }
+        }
+        return dependencies;
+    }
+
+    /**
+     * generate dependency keys of response object.
+     * 
+     * @param model
+     *            response object.
+     * @param models
+     *            all models in object graph.
+     * @param rangeMatch
+     *            true if object is found by range.
+     * @return dependency keys.
+     */
+    private static Set<String> generateDependencies(BaseModel model,
+            List<BaseModel> models, boolean rangeMatch) {
+        Set<String> dependencies = generateDependencies(models);
+        if (rangeMatch) {
+            dependencies.add(generateDependency(model.getObjectType(),
+                    ALL_OBJECTS));
+        }
+        return dependencies;
+    }
+
+    /**
+     * generate dependency key.
+     * 
+     * @param modelType
+     *            object type.
+     * @param handle
+     *            handle, or ALL_OBJECTS.
+     * @return dependency key.
+     */
+    private static String generateDependency(ModelType modelType,
+            String handle) {
+        return modelType.getName() + DEPENDENCY_SEPARATOR + handle;
+    }
+
+    /**
+     * parse queryCacheTypeMaxEntries.
+     * 
+     * @return max entries, by type name.
+     */
+    private static Map<String, Integer> parseTypeMaxEntries() {
+        Map<String, Integer> result = new HashMap<String, Integer>();
+        List<String> items =
+                StringUtil.parseSeparatedStringToListIfListIsNull(
+                        RdapProperties.getQueryCacheTypeMaxEntries(), null);
+        for (String item : items) {
+            String type =
+                    StringUtils.trim(StringUtils.substringBefore(item,
+                            TYPE_MAX_ENTRIES_SEPARATOR));
+            String maxEntries =
+                    StringUtils.trim(StringUtils.substringAfter(item,
+                            TYPE_MAX_ENTRIES_SEPARATOR));
+            if (StringUtils.isNumeric(maxEntries)
+                    && StringUtils.isNotEmpty(maxEntries)) {
+                result.put(StringUtils.lowerCase(type),
+                        Integer.valueOf(maxEntries));
+            } else {
+                LOGGER.warn("invalid queryCacheTypeMaxEntries:{}", item);
+            }
+        }
+        return result;
+    }
+}
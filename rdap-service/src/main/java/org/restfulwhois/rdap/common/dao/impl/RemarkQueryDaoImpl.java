@@ -35,11 +35,14 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.restfulwhois.rdap.common.dao.AbstractQueryDao;
+import org.restfulwhois.rdap.common.dao.ColumnProjection;
+import org.restfulwhois.rdap.common.dao.ColumnProjection.Column;
 import org.restfulwhois.rdap.common.dao.QueryDao;
 import org.restfulwhois.rdap.common.model.Link;
 import org.restfulwhois.rdap.common.model.Remark;
@@ -67,6 +70,28 @@ public class RemarkQueryDaoImpl extends AbstractQueryDao<Remark> {
      */
     protected static final Logger LOGGER = LoggerFactory
             .getLogger(RemarkQueryDaoImpl.class);   
+    /**
+     * columns of remark, with DESCRIPTION and REL_ID.
+     */
+    private static final ColumnProjection REMARK_COLUMNS =
+            new ColumnProjection("notice", "NOTICE_ID", "TITLE").join(
+                    "description", "DESCRIPTION").join("rel", "REL_ID");
+    /**
+     * NOTICE_ID.
+     */
+    private static final Column NOTICE_ID = REMARK_COLUMNS.get("NOTICE_ID");
+    /**
+     * TITLE.
+     */
+    private static final Column TITLE = REMARK_COLUMNS.get("TITLE");
+    /**
+     * DESCRIPTION.
+     */
+    private static final Column DESCRIPTION = REMARK_COLUMNS.get("DESCRIPTION");
+    /**
+     * REL_ID.
+     */
+    private static final Column REL_ID = REMARK_COLUMNS.get("REL_ID");
     /**
      * link dao.
      */
@@ -89,13 +114,28 @@ public class RemarkQueryDaoImpl extends AbstractQueryDao<Remark> {
     @Override
     public List<Remark> queryAsInnerObjects(final Long outerObjectId,
             final ModelType outerModelType) {
-        LOGGER.debug("queryAsInnerObjects, outerObjectId:{},"
-                + " outerModelType:{}", outerObjectId, outerModelType);
-        List<Remark> remarks = queryWithoutInnerObjects(outerObjectId,
-                outerModelType);
+        return queryAsInnerObjects(Collections.singletonList(outerObjectId),
+                outerModelType).get(outerObjectId);
+    }
+
+    @Override
+    public Map<Long, List<Remark>> queryAsInnerObjects(
+            List<Long> outerObjectIds, final ModelType outerModelType) {
+        LOGGER.debug("queryAsInnerObjects, outerObjectIds:{},"
+                + " outerModelType:{}", outerObjectIds, outerModelType);
+        List<Long> ids = getDistinctIds(outerObjectIds);
+        Map<Long, List<Remark>> result = createInnerObjectsMap(ids);
+        if (ids.isEmpty()) {
+            return result;
+        }
+        List<Remark> remarks = new ArrayList<Remark>();
+        for (List<Long> idsInClause : splitIds(ids)) {
+            remarks.addAll(queryWithoutInnerObjects(idsInClause,
+                    outerModelType, result));
+        }
         queryAndSetInnerObjects(remarks);
-        LOGGER.debug("queryAsInnerObjects, result:{}", remarks);
-        return remarks;
+        LOGGER.debug("queryAsInnerObjects, result:{}", result);
+        return result;
     }
 
     /**
@@ -108,82 +148,90 @@ public class RemarkQueryDaoImpl extends AbstractQueryDao<Remark> {
         if (null == remarks || remarks.size() == 0) {
             return;
         }
+        Map<Long, List<Link>> linksMap = linkQueryDao.queryAsInnerObjects(
+                getModelIds(remarks), ModelType.REMARK);
         for (Remark remark : remarks) {
-            queryAndSetInnerObjects(remark);
+            remark.setLinks(getInnerObjects(linksMap, remark.getId()));
         }
     }
 
-    /**
-     * query inner objects, and set them to remark.
-     * 
-     * @param remark
-     *            remark after set inner objects.
-     */
-    private void queryAndSetInnerObjects(Remark remark) {
-        if (null == remark) {
-            return;
-        }
-        List<Link> links = linkQueryDao.queryAsInnerObjects(remark.getId(),
-                ModelType.REMARK);
-        remark.setLinks(links);
-    }
-
     /**
      * query remark from RDAP_NOTICE, without inner objects.
      * 
-     * @param outerObjectId
-     *            object id of outer object.
+     * @param outerObjectIds
+     *            object ids of outer objects.
      * @param outerModelType
      *            model type of outer object.
-     * @return remark list.
+     * @param result
+     *            remark list map, key is outer object id.
+     * @return all remarks in result.
      */
-    private List<Remark> queryWithoutInnerObjects(final Long outerObjectId,
-            final ModelType outerModelType) {       
-        final String sql = "select notice.*, description.description "
+    private List<Remark> queryWithoutInnerObjects(List<Long> outerObjectIds,
+            final ModelType outerModelType, Map<Long, List<Remark>> result) {
+        final String sqlTpl = "select " + REMARK_COLUMNS.toSql()
                 + " from RDAP_NOTICE notice"
                 + " inner join REL_NOTICE_REGISTRATION rel "
-                + " on (rel.NOTICE_ID = notice.NOTICE_ID and rel.REL_ID = ? "
+                + " on (rel.NOTICE_ID = notice.NOTICE_ID and rel.REL_ID in (%s)"
                 + " and rel.REL_OBJECT_TYPE = ? and notice.TYPE=?) "
                 + " left outer join RDAP_NOTICE_DESCRIPTION description "
                 + " on notice.NOTICE_ID = description.NOTICE_ID ";
-        List<Remark> result = jdbcTemplate.query(
+        final String sql = String.format(sqlTpl, joinIds(outerObjectIds));
+        return jdbcTemplate.query(
                 new PreparedStatementCreator() {
                     public PreparedStatement createPreparedStatement(
                             Connection connection) throws SQLException {
                         PreparedStatement ps = connection.prepareStatement(sql);
-                        ps.setLong(1, outerObjectId);
-                        ps.setString(2, outerModelType.getName());
-                        ps.setString(3, NoticeType.REMARK.getName());
+                        ps.setString(1, outerModelType.getName());
+                        ps.setString(2, NoticeType.REMARK.getName());
                         return ps;
                     }
-                }, new RemarkResultSetExtractor());
-        return result;
+                }, new RemarkResultSetExtractor(result));
     }
 
     /**
-     * remark ResultSetExtractor, extract data from ResultSet.
+     * remark ResultSetExtractor, extract data from ResultSet, and add remarks
+     * to list of outer object.
      * 
      * @author jiashuo
      * 
      */
     class RemarkResultSetExtractor implements ResultSetExtractor<List<Remark>> {
+        /**
+         * remark list map, key is outer object id.
+         */
+        private final Map<Long, List<Remark>> result;
+
+        /**
+         * constructor.
+         * 
+         * @param result
+         *            remark list map, key is outer object id.
+         */
+        RemarkResultSetExtractor(Map<Long, List<Remark>> result) {
+            this.result = result;
+        }
+
         @Override
         public List<Remark> extractData(ResultSet rs) throws SQLException {
-            List<Remark> result = new ArrayList<Remark>();
-            Map<Long, Remark> remarkMapById = new HashMap<Long, Remark>();
+            List<Remark> remarks = new ArrayList<Remark>();
+            Map<String, Remark> remarkMapByRelAndId =
+                    new HashMap<String, Remark>();
             while (rs.next()) {
-                Long remarkId = rs.getLong("NOTICE_ID");
-                Remark remark = remarkMapById.get(remarkId);
+                Long relId = REL_ID.getLong(rs);
+                Long remarkId = NOTICE_ID.getLong(rs);
+                String key = relId + "_" + remarkId;
+                Remark remark = remarkMapByRelAndId.get(key);
                 if (null == remark) {
                     remark = new Remark();
                     remark.setId(remarkId);
-                    remark.setTitle(rs.getString("TITLE"));
-                    remarkMapById.put(remarkId, remark);
-                    result.add(remark);
+                    remark.setTitle(TITLE.getString(rs));
+                    remarkMapByRelAndId.put(key, remark);
+                    result.get(relId).add(remark);
+                    remarks.add(remark);
                 }
-                remark.addDescription(rs.getString("DESCRIPTION"));
+                remark.addDescription(DESCRIPTION.getString(rs));
             }
-            return result;
+            return remarks;
         }
     }
 }
@@ -30,14 +30,16 @@
  */
 package org.restfulwhois.rdap.common.dao.impl;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.restfulwhois.rdap.common.dao.AbstractQueryDao;
+import org.restfulwhois.rdap.common.dao.ColumnProjection;
+import org.restfulwhois.rdap.common.dao.ColumnProjection.Column;
 import org.restfulwhois.rdap.common.dao.QueryDao;
 import org.restfulwhois.rdap.common.model.DsData;
 import org.restfulwhois.rdap.common.model.KeyData;
@@ -47,7 +49,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.stereotype.Repository;
 
@@ -66,6 +67,37 @@ public class SecureDnsQueryDaoImpl extends AbstractQueryDao<SecureDns> {
      */
     protected static final Logger LOGGER = LoggerFactory
             .getLogger(SecureDnsQueryDaoImpl.class);   
+    /**
+     * columns of secureDns.
+     */
+    private static final ColumnProjection SECURE_DNS_COLUMNS =
+            new ColumnProjection("secureDns", "SECUREDNS_ID", "ZONE_SIGNED",
+                    "DELEGATION_SIGNED", "MAX_SIGLIFE", "DOMAIN_ID");
+    /**
+     * SECUREDNS_ID.
+     */
+    private static final Column SECUREDNS_ID = SECURE_DNS_COLUMNS
+            .get("SECUREDNS_ID");
+    /**
+     * ZONE_SIGNED.
+     */
+    private static final Column ZONE_SIGNED = SECURE_DNS_COLUMNS
+            .get("ZONE_SIGNED");
+    /**
+     * DELEGATION_SIGNED.
+     */
+    private static final Column DELEGATION_SIGNED = SECURE_DNS_COLUMNS
+            .get("DELEGATION_SIGNED");
+    /**
+     * MAX_SIGLIFE.
+     */
+    private static final Column MAX_SIGLIFE = SECURE_DNS_COLUMNS
+            .get("MAX_SIGLIFE");
+    /**
+     * DOMAIN_ID.
+     */
+    private static final Column DOMAIN_ID = SECURE_DNS_COLUMNS
+            .get("DOMAIN_ID");
     
     /**
      * keyDataQueryDao.
@@ -95,11 +127,33 @@ public class SecureDnsQueryDaoImpl extends AbstractQueryDao<SecureDns> {
     @Override
     public List<SecureDns> queryAsInnerObjects(final Long outerObjectId,
             final ModelType outerModelType) {
-        LOGGER.debug("queryAsInnerObjects, outerObjectId:{},"
-                + " outerModelType:{}", outerObjectId, outerModelType);
-        List<SecureDns> result =
-                queryWithoutInnerObjects(outerObjectId, outerModelType);
-        queryAndSetInnerObjects(result);
+        return queryAsInnerObjects(Collections.singletonList(outerObjectId),
+                outerModelType).get(outerObjectId);
+    }
+
+    /**
+     * query SecureDns of domains, with dsData and keyData of all SecureDns
+     * loaded in batch.
+     * 
+     * @param outerObjectIds
+     *            domain ids.
+     * @param outerModelType
+     *            associated object type.
+     * @return SecureDns list map, key is domain id.
+     */
+    @Override
+    public Map<Long, List<SecureDns>> queryAsInnerObjects(
+            List<Long> outerObjectIds, ModelType outerModelType) {
+        LOGGER.debug("queryAsInnerObjects, outerObjectIds:{},"
+                + " outerModelType:{}", outerObjectIds, outerModelType);
+        List<Long> ids = getDistinctIds(outerObjectIds);
+        Map<Long, List<SecureDns>> result = createInnerObjectsMap(ids);
+        List<SecureDns> secureDnsList = new ArrayList<SecureDns>();
+        for (List<Long> idsInClause : splitIds(ids)) {
+            secureDnsList.addAll(queryWithoutInnerObjects(idsInClause,
+                    result));
+        }
+        queryAndSetInnerObjects(secureDnsList);
         LOGGER.debug("queryAsInnerObjects, result:{}", result);
         return result;
     }
@@ -114,56 +168,39 @@ public class SecureDnsQueryDaoImpl extends AbstractQueryDao<SecureDns> {
         if (null == secureDnsList || secureDnsList.size() == 0) {
             return;
         }
+        List<Long> secureDnsIds = getModelIds(secureDnsList);
+        Map<Long, List<DsData>> dsDataMap =
+                dsDataQueryDao.queryAsInnerObjects(secureDnsIds,
+                        ModelType.SECUREDNS);
+        Map<Long, List<KeyData>> keyDataMap =
+                keyDataQueryDao.queryAsInnerObjects(secureDnsIds,
+                        ModelType.SECUREDNS);
         for (SecureDns secureDns : secureDnsList) {
-            queryAndSetInnerObjects(secureDns);
-        }
-    }
-
-    /**
-     * query and set inner objects for SecureDNS.
-     * 
-     * @param secureDns
-     *            secureDns.
-     */
-    private void queryAndSetInnerObjects(SecureDns secureDns) {
-        if (null == secureDns) {
-            return;
+            Long secureDnsId = secureDns.getId();
+            secureDns.setDsData(getInnerObjects(dsDataMap, secureDnsId));
+            secureDns.setKeyData(getInnerObjects(keyDataMap, secureDnsId));
         }
-        Long secureDnsId = secureDns.getId();
-        List<DsData> dsDataList = dsDataQueryDao.queryAsInnerObjects(
-                secureDnsId, ModelType.SECUREDNS);
-        secureDns.setDsData(dsDataList);
-        List<KeyData> keyDataList = keyDataQueryDao.queryAsInnerObjects(
-                secureDnsId, ModelType.SECUREDNS);
-        secureDns.setKeyData(keyDataList);
     }
 
     /**
      * <pre>
-     * query SecureDNS from RDAP_SECUREDNS domain.
-     * every domain has 0 or 1 secureDns, so query first one.
+     * query SecureDNS from RDAP_SECUREDNS for domains.
+     * every domain has 0 or 1 secureDns.
      * </pre>
      * 
-     * @param outerObjectId
-     *            object id of outer object.
-     * @param type
-     *            object model type of outer object.
-     * @return SecureDNS list
+     * @param domainIds
+     *            domain ids.
+     * @param result
+     *            SecureDNS list map, key is domain id.
+     * @return all SecureDNS in result.
      */
-    private List<SecureDns> queryWithoutInnerObjects(
-            final Long outerObjectId, final ModelType type) {
-        final String sql = "select * from RDAP_SECUREDNS where "
-                + " DOMAIN_ID=? ";
-        List<SecureDns> result = jdbcTemplate.query(
-                new PreparedStatementCreator() {
-                    public PreparedStatement createPreparedStatement(
-                            Connection connection) throws SQLException {
-                        PreparedStatement ps = connection.prepareStatement(sql);
-                        ps.setLong(1, outerObjectId);
-                        return ps;
-                    }
-                }, new VariantsResultSetExtractor());
-        return result;
+    private List<SecureDns> queryWithoutInnerObjects(List<Long> domainIds,
+            Map<Long, List<SecureDns>> result) {
+        final String sqlTpl = "select " + SECURE_DNS_COLUMNS.toSql()
+                + " from RDAP_SECUREDNS secureDns"
+                + " where secureDns.DOMAIN_ID in (%s) ";
+        final String sql = String.format(sqlTpl, joinIds(domainIds));
+        return jdbcTemplate.query(sql, new SecureDnsResultSetExtractor(result));
     }
 
     /**
@@ -172,22 +209,38 @@ public class SecureDnsQueryDaoImpl extends AbstractQueryDao<SecureDns> {
      * @author jiashuo
      * 
      */
-    class VariantsResultSetExtractor implements
+    class SecureDnsResultSetExtractor implements
             ResultSetExtractor<List<SecureDns>> {
+        /**
+         * SecureDNS list map, key is domain id.
+         */
+        private final Map<Long, List<SecureDns>> result;
+
+        /**
+         * constructor.
+         * 
+         * @param result
+         *            SecureDNS list map, key is domain id.
+         */
+        SecureDnsResultSetExtractor(Map<Long, List<SecureDns>> result) {
+            this.result = result;
+        }
+
         @Override
         public List<SecureDns> extractData(ResultSet rs) throws SQLException {
-            List<SecureDns> result = new ArrayList<SecureDns>();
+            List<SecureDns> secureDnsList = new ArrayList<SecureDns>();
             while (rs.next()) {
                 SecureDns secureDns = new SecureDns();
-                secureDns.setId(rs.getLong("SECUREDNS_ID"));
-                secureDns.setZoneSigned(rs.getBoolean("ZONE_SIGNED"));
-                secureDns.setDelegationSigned(rs
-                        .getBoolean("DELEGATION_SIGNED"));
-                Integer maxSigLifeIntVale = getIntegerFromRs(rs, "MAX_SIGLIFE");
+                secureDns.setId(SECUREDNS_ID.getLong(rs));
+                secureDns.setZoneSigned(ZONE_SIGNED.getBoolean(rs));
+                secureDns.setDelegationSigned(DELEGATION_SIGNED
+                        .getBoolean(rs));
+                Integer maxSigLifeIntVale = MAX_SIGLIFE.getInteger(rs);
                 secureDns.setMaxSigLife(maxSigLifeIntVale);
-                result.add(secureDns);
+                result.get(DOMAIN_ID.getLong(rs)).add(secureDns);
+                secureDnsList.add(secureDns);
             }
-            return result;
+            return secureDnsList;
         }
 
     }
@@ -35,9 +35,15 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 
 import org.restfulwhois.rdap.common.dao.AbstractQueryDao;
+import org.restfulwhois.rdap.common.dao.ColumnProjection;
+import org.restfulwhois.rdap.common.dao.ColumnProjection.Column;
 import org.restfulwhois.rdap.common.model.RelDomainVariant;
 import org.restfulwhois.rdap.common.model.Variant;
 import org.restfulwhois.rdap.common.model.Variants;
@@ -66,6 +72,39 @@ public class VariantsQueryDaoImpl extends AbstractQueryDao<Variants> {
      */
     protected static final Logger LOGGER = LoggerFactory
             .getLogger(VariantsQueryDaoImpl.class);
+    /**
+     * columns of variant, with DOMAIN_ID and VARIANT_TYPE of relation.
+     */
+    private static final ColumnProjection VARIANT_COLUMNS =
+            new ColumnProjection("variant", "VARIANT_ID", "LDH_NAME",
+                    "UNICODE_NAME", "IDNTABLE").join("rel", "DOMAIN_ID",
+                    "VARIANT_TYPE");
+    /**
+     * VARIANT_ID.
+     */
+    private static final Column VARIANT_ID = VARIANT_COLUMNS.get("VARIANT_ID");
+    /**
+     * LDH_NAME.
+     */
+    private static final Column LDH_NAME = VARIANT_COLUMNS.get("LDH_NAME");
+    /**
+     * UNICODE_NAME.
+     */
+    private static final Column UNICODE_NAME = VARIANT_COLUMNS
+            .get("UNICODE_NAME");
+    /**
+     * IDNTABLE.
+     */
+    private static final Column IDNTABLE = VARIANT_COLUMNS.get("IDNTABLE");
+    /**
+     * DOMAIN_ID.
+     */
+    private static final Column DOMAIN_ID = VARIANT_COLUMNS.get("DOMAIN_ID");
+    /**
+     * VARIANT_TYPE.
+     */
+    private static final Column VARIANT_TYPE = VARIANT_COLUMNS
+            .get("VARIANT_TYPE");
     /**
      * query results of Variants list to an associated object.
      *   ie. domain to variants,
@@ -81,14 +120,32 @@ public class VariantsQueryDaoImpl extends AbstractQueryDao<Variants> {
     @Override
     public List<Variants> queryAsInnerObjects(final Long outerObjectId,
             final ModelType outerModelType) {
-        LOGGER.debug("queryAsInnerObjects, outerObjectId:{}, outerModelType:{}",
-                outerObjectId, outerModelType);
+        return queryAsInnerObjects(Collections.singletonList(outerObjectId),
+                outerModelType).get(outerObjectId);
+    }
+
+    @Override
+    public Map<Long, List<Variants>> queryAsInnerObjects(
+            List<Long> outerObjectIds, final ModelType outerModelType) {
+        LOGGER.debug("queryAsInnerObjects, outerObjectIds:{}, outerModelType:{}",
+                outerObjectIds, outerModelType);
+        List<Long> ids = getDistinctIds(outerObjectIds);
+        Map<Long, List<Variants>> result =
+                new LinkedHashMap<Long, List<Variants>>();
         if (!ModelType.DOMAIN.equals(outerModelType)) {
             LOGGER.debug("queryAsInnerObjects, type is not DOMAIN.");
-            return null;
+            for (Long id : ids) {
+                result.put(id, null);
+            }
+            return result;
+        }
+        Map<Long, List<Variant>> variantListMap = createInnerObjectsMap(ids);
+        for (List<Long> idsInClause : splitIds(ids)) {
+            queryWithoutInnerObjects(idsInClause, variantListMap);
+        }
+        for (Entry<Long, List<Variant>> entry : variantListMap.entrySet()) {
+            result.put(entry.getKey(), geneVariantsList(entry.getValue()));
         }
-        List<Variant> variantList = queryWithoutInnerObjects(outerObjectId);
-        List<Variants> result = geneVariantsList(variantList);
         LOGGER.debug("queryAsInnerObjects, result:{}", result);
         return result;
     }
@@ -141,50 +198,68 @@ public class VariantsQueryDaoImpl extends AbstractQueryDao<Variants> {
     /**
      * query variant from RDAP_VARIANT.
      * 
-     * @param outerObjectId
-     *            object id of outer object.
-     * @return variant list.
+     * @param outerObjectIds
+     *            object ids of outer objects.
+     * @param result
+     *            variant list map, key is domain id.
      */
-    private List<Variant> queryWithoutInnerObjects(final Long outerObjectId) {
-        final String sql = "select * from REL_DOMAIN_VARIANT rel, RDAP_VARIANT "
-                + " variant where rel.DOMAIN_ID=? and rel.VARIANT_ID"
+    private void queryWithoutInnerObjects(List<Long> outerObjectIds,
+            Map<Long, List<Variant>> result) {
+        final String sqlTpl = "select " + VARIANT_COLUMNS.toSql()
+                + " from REL_DOMAIN_VARIANT rel, RDAP_VARIANT "
+                + " variant where rel.DOMAIN_ID in (%s) and rel.VARIANT_ID"
                 + "=variant.VARIANT_ID ";
-        List<Variant> result = jdbcTemplate.query(
+        final String sql = String.format(sqlTpl, joinIds(outerObjectIds));
+        jdbcTemplate.query(
                 new PreparedStatementCreator() {
                     public PreparedStatement createPreparedStatement(
                             Connection connection) throws SQLException {
-                        PreparedStatement ps = connection.prepareStatement(sql);
-                        ps.setLong(1, outerObjectId);
-                        return ps;
+                        return connection.prepareStatement(sql);
                     }
-                }, new VariantsResultSetExtractor());
-        return result;
+                }, new VariantsResultSetExtractor(result));
     }
 
     /**
-     * variant ResultSetExtractor, extract data from ResultSet.
+     * variant ResultSetExtractor, extract data from ResultSet, and add
+     * variants to list of domain.
      * 
      * @author jiashuo
      * 
      */
     class VariantsResultSetExtractor implements
-            ResultSetExtractor<List<Variant>> {
+            ResultSetExtractor<Map<Long, List<Variant>>> {
+        /**
+         * variant list map, key is domain id.
+         */
+        private final Map<Long, List<Variant>> result;
+
+        /**
+         * constructor.
+         * 
+         * @param result
+         *            variant list map, key is domain id.
+         */
+        VariantsResultSetExtractor(Map<Long, List<Variant>> result) {
+            this.result = result;
+        }
+
         @Override
-        public List<Variant> extractData(ResultSet rs) throws SQLException {
-            List<Variant> result = new ArrayList<Variant>();
+        public Map<Long, List<Variant>> extractData(ResultSet rs)
+                throws SQLException {
             while (rs.next()) {
-                Long variantId = rs.getLong("VARIANT_ID");
-                Variant variant = findVariantFromList(variantId, result);
+                List<Variant> variantList = result.get(DOMAIN_ID.getLong(rs));
+                Long variantId = VARIANT_ID.getLong(rs);
+                Variant variant = findVariantFromList(variantId, variantList);
                 if (null == variant) {
                     variant = new Variant();
-                    result.add(variant);
+                    variantList.add(variant);
                     variant.setId(variantId);
-                    variant.setLdhName(rs.getString("LDH_NAME"));
-                    variant.setUnicodeName(rs.getString("UNICODE_NAME"));
-                    variant.setIdnTable(rs.getString("IDNTABLE"));
+                    variant.setLdhName(LDH_NAME.getString(rs));
+                    variant.setUnicodeName(UNICODE_NAME.getString(rs));
+                    variant.setIdnTable(IDNTABLE.getString(rs));
                 }
                 RelDomainVariant relation = new RelDomainVariant();
-                relation.setVariantType(rs.getString("VARIANT_TYPE"));
+                relation.setVariantType(VARIANT_TYPE.getString(rs));
                 variant.addRelation(relation);
             }
             return result;
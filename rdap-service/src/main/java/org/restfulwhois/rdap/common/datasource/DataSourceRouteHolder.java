@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.datasource;
+
+/**
+ * This class is used to hold data source route for each thread.
+ * <p>
+ * Route is maintains in {@link java.lang.ThreadLocal} variable. Connections
+ * are got from primary if primary route is set, otherwise from replicas.
+ * <p>
+ * 
+ * @author jiashuo
+ * 
+ */
+public final class DataSourceRouteHolder {
+
+    /**
+     * default constructor.
+     */
+    private DataSourceRouteHolder() {
+        super();
+    }
+
+    /**
+     * thread local primary route.
+     */
+    private static final ThreadLocal<Boolean> PRIMARY =
+            new ThreadLocal<Boolean>();
+
+    /**
+     * set or clear primary route.
+     * 
+     * @param primary
+     *            true to route to primary.
+     * @return previous route, should be restored by caller.
+     */
+    public static boolean setPrimary(boolean primary) {
+        boolean previous = isPrimary();
+        if (primary) {
+            PRIMARY.set(Boolean.TRUE);
+        } else {
+            PRIMARY.remove();
+        }
+        return previous;
+    }
+
+    /**
+     * check if primary route is set.
+     * 
+     * @return true if set, false if not.
+     */
+    public static boolean isPrimary() {
+        return Boolean.TRUE.equals(PRIMARY.get());
+    }
+
+}
@@ -0,0 +1,539 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.datasource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import com.mchange.v2.c3p0.PooledDataSource;
+
+/**
+ * <pre>
+ * data source which routes reads to replicas and writes to primary.
+ * 
+ * Connections are got from primary if:
+ * 1.primary route is set in DataSourceRouteHolder, for update API;
+ * 2.there is no healthy replica;
+ * 3.it is in read-your-writes window after the last write.
+ * Otherwise replica is selected by roundRobin or leastConnections.
+ * 
+ * A replica is marked down if connection can not be got from it for
+ * failureThreshold consecutive times, and is marked up again by
+ * checkReplicas, which should be scheduled. Checkout timeout of an
+ * exhausted pool, which has busy connections, is not counted, and next
+ * replica is tried.
+ * </pre>
+ * 
+ * @author jiashuo
+ * 
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource {
+    /**
+     * logger.
+     */
+    private static final Logger LOGGER = LoggerFactory
+            .getLogger(ReadWriteRoutingDataSource.class);
+
+    /**
+     * round robin strategy.
+     */
+    public static final String STRATEGY_ROUND_ROBIN = "roundRobin";
+
+    /**
+     * least connections strategy.
+     */
+    public static final String STRATEGY_LEAST_CONNECTIONS =
+            "leastConnections";
+
+    /**
+     * default consecutive failures to mark replica down.
+     */
+    public static final int DEFAULT_FAILURE_THRESHOLD = 3;
+
+    /**
+     * primary.
+     */
+    private DataSource primary;
+
+    /**
+     * replicas.
+     */
+    private List<Replica> replicas = Collections.emptyList();
+
+    /**
+     * use least connections if true, round robin if false.
+     */
+    private boolean leastConnections;
+
+    /**
+     * read-your-writes window in milliseconds, 0 to disable.
+     */
+    private long readYourWritesWindow;
+
+    /**
+     * consecutive failures to mark replica down.
+     */
+    private int failureThreshold = DEFAULT_FAILURE_THRESHOLD;
+
+    /**
+     * health check query.
+     */
+    private String healthCheckQuery = "select 1";
+
+    /**
+     * time of last write, in milliseconds.
+     */
+    private volatile long lastWriteTime;
+
+    /**
+     * round robin counter.
+     */
+    private final AtomicInteger counter = new AtomicInteger();
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (isPrimaryRequired()) {
+            return primary.getConnection();
+        }
+        return getReplicaConnection(null, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password)
+            throws SQLException {
+        if (isPrimaryRequired()) {
+            return primary.getConnection(username, password);
+        }
+        return getReplicaConnection(username, password);
+    }
+
+    /**
+     * mark a write to primary, reads in read-your-writes window go to
+     * primary.
+     */
+    public void markWrite() {
+        if (readYourWritesWindow > 0) {
+            lastWriteTime = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * check all replicas by health check query, and mark them up or down.
+     */
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            Connection conn = null;
+            Statement stmt = null;
+            try {
+                conn = replica.dataSource.getConnection();
+                stmt = conn.createStatement();
+                stmt.execute(healthCheckQuery);
+                replica.markUp();
+            } catch (SQLException e) {
+                replica.markDown(e);
+            } finally {
+                closeQuietly(stmt, conn);
+            }
+        }
+    }
+
+    /**
+     * check if connection should be got from primary.
+     * 
+     * @return true if from primary, false if from replicas.
+     */
+    private boolean isPrimaryRequired() {
+        if (replicas.isEmpty() || DataSourceRouteHolder.isPrimary()) {
+            return true;
+        }
+        return readYourWritesWindow > 0
+                && System.currentTimeMillis() - lastWriteTime
+                < readYourWritesWindow;
+    }
+
+    /**
+     * get connection from selected replica, try other healthy replicas if
+     * failed, and get from primary if there is no healthy replica.
+     * 
+     * @param username
+     *            username, null to use default.
+     * @param password
+     *            password.
+     * @return connection.
+     * @throws SQLException
+     *             if failed to get connection from primary.
+     */
+    private Connection getReplicaConnection(String username, String password)
+            throws SQLException {
+        int size = replicas.size();
+        for (int i = 0; i < size; i++) {
+            Replica replica = selectReplica();
+            if (null == replica) {
+                break;
+            }
+            try {
+                return replica.getConnection(username, password);
+            } catch (SQLException e) {
+                replica.fail(e, failureThreshold);
+            }
+        }
+        LOGGER.debug("no healthy replica, read from primary.");
+        if (null == username) {
+            return primary.getConnection();
+        }
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * select a healthy replica.
+     * 
+     * @return replica, null if there is no healthy replica.
+     */
+    private Replica selectReplica() {
+        if (leastConnections) {
+            Replica selected = null;
+            for (Replica replica : replicas) {
+                if (replica.healthy && (null == selected
+                        || replica.active.get() < selected.active.get())) {
+                    selected = replica;
+                }
+            }
+            return selected;
+        }
+        int size = replicas.size();
+        int start = (counter.getAndIncrement() & Integer.MAX_VALUE) % size;
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * close statement and connection, ignore error.
+     * 
+     * @param stmt
+     *            statement.
+     * @param conn
+     *            connection.
+     */
+    private static void closeQuietly(Statement stmt, Connection conn) {
+        try {
+            if (null != stmt) {
+                stmt.close();
+            }
+        } catch (SQLException e) {
+            LOGGER.debug("close statement error:{}", e.getMessage());
+        }
+        try {
+            if (null != conn) {
+                conn.close();
+            }
+        } catch (SQLException e) {
+            LOGGER.debug("close connection error:{}", e.getMessage());
+        }
+    }
+
+    /**
+     * set primary.
+     * 
+     * @param primary
+     *            primary.
+     */
+    public void setPrimary(DataSource primary) {
+        this.primary = primary;
+    }
+
+    /**
+     * set replicas.
+     * 
+     * @param replicaDataSources
+     *            replica data sources.
+     */
+    public void setReplicas(List<DataSource> replicaDataSources) {
+        List<Replica> list = new ArrayList<Replica>();
+        if (null != replicaDataSources) {
+            for (int i = 0; i < replicaDataSources.size(); i++) {
+                list.add(new Replica(i, replicaDataSources.get(i)));
+            }
+        }
+        this.replicas = Collections.unmodifiableList(list);
+    }
+
+    /**
+     * set selection strategy.
+     * 
+     * @param selectionStrategy
+     *            roundRobin or leastConnections, default is roundRobin.
+     */
+    public void setSelectionStrategy(String selectionStrategy) {
+        this.leastConnections =
+                STRATEGY_LEAST_CONNECTIONS.equals(StringUtils
+                        .trim(selectionStrategy));
+    }
+
+    /**
+     * set readYourWritesWindow.
+     * 
+     * @param readYourWritesWindow
+     *            milliseconds, 0 to disable.
+     */
+    public void setReadYourWritesWindow(long readYourWritesWindow) {
+        this.readYourWritesWindow = readYourWritesWindow;
+    }
+
+    /**
+     * set failureThreshold.
+     * 
+     * @param failureThreshold
+     *            consecutive failures to mark replica down, at least 1.
+     */
+    public void setFailureThreshold(int failureThreshold) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+    }
+
+    /**
+     * set healthCheckQuery.
+     * 
+     * @param healthCheckQuery
+     *            healthCheckQuery.
+     */
+    public void setHealthCheckQuery(String healthCheckQuery) {
+        this.healthCheckQuery = healthCheckQuery;
+    }
+
+    /**
+     * replica, with health status and active connection count.
+     * 
+     * @author jiashuo
+     * 
+     */
+    private static final class Replica {
+        /**
+         * index in replicas.
+         */
+        private final int index;
+        /**
+         * data source.
+         */
+        private final DataSource dataSource;
+        /**
+         * healthy.
+         */
+        private volatile boolean healthy = true;
+        /**
+         * active connection count.
+         */
+        private final AtomicInteger active = new AtomicInteger();
+        /**
+         * consecutive failures.
+         */
+        private final AtomicInteger failures = new AtomicInteger();
+
+        /**
+         * constructor.
+         * 
+         * @param index
+         *            index.
+         * @param dataSource
+         *            dataSource.
+         */
+        Replica(int index, DataSource dataSource) {
+            this.index = index;
+            this.dataSource = dataSource;
+        }
+
+        /**
+         * get connection, which decrements active count when closed.
+         * 
+         * @param username
+         *            username, null to use default.
+         * @param password
+         *            password.
+         * @return connection.
+         * @throws SQLException
+         *             SQLException.
+         */
+        Connection getConnection(String username, String password)
+                throws SQLException {
+            Connection conn;
+            if (null == username) {
+                conn = dataSource.getConnection();
+            } else {
+                conn = dataSource.getConnection(username, password);
+            }
+            failures.set(0);
+            active.incrementAndGet();
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class },
+                    new ActiveCountingHandler(conn, active));
+        }
+
+        /**
+         * count failure of getting connection, and mark down if failed for
+         * threshold consecutive times. Failure of exhausted pool is not
+         * counted.
+         * 
+         * @param e
+         *            error.
+         * @param threshold
+         *            consecutive failures to mark down.
+         */
+        void fail(SQLException e, int threshold) {
+            if (isExhausted()) {
+                LOGGER.debug("replica {} is exhausted, error:{}", index,
+                        e.getMessage());
+                return;
+            }
+            if (failures.incrementAndGet() >= threshold) {
+                markDown(e);
+            }
+        }
+
+        /**
+         * check if replica is a pool whose connections are all busy, which
+         * means it is alive.
+         * 
+         * @return true if is, false if not.
+         */
+        private boolean isExhausted() {
+            if (!(dataSource instanceof PooledDataSource)) {
+                return false;
+            }
+            try {
+                return ((PooledDataSource) dataSource)
+                        .getNumBusyConnectionsDefaultUser() > 0;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        /**
+         * mark up.
+         */
+        void markUp() {
+            failures.set(0);
+            if (!healthy) {
+                LOGGER.info("replica {} is up.", index);
+                healthy = true;
+            }
+        }
+
+        /**
+         * mark down.
+         * 
+         * @param e
+         *            error.
+         */
+        void markDown(SQLException e) {
+            if (healthy) {
+                LOGGER.warn("replica {} is down, error:{}", index,
+                        e.getMessage());
+                healthy = false;
+            }
+        }
+    }
+
+    /**
+     * connection handler which decrements active count once when closed.
+     * 
+     * @author jiashuo
+     * 
+     */
+    private static final class ActiveCountingHandler implements
+            InvocationHandler {
+        /**
+         * target connection.
+         */
+        private final Connection target;
+        /**
+         * active count.
+         */
+        private final AtomicInteger active;
+        /**
+         * closed.
+         */
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        /**
+         * constructor.
+         * 
+         * @param target
+         *            target.
+         * @param active
+         *            active.
+         */
+        ActiveCountingHandler(Connection target, AtomicInteger active) {
+            this.target = target;
+            this.active = active;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args)
+                throws Throwable {
+            if ("equals".equals(method.getName())) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(method.getName())) {
+                return System.identityHashCode(proxy);
+            }
+            if ("close".equals(method.getName())
+                    && closed.compareAndSet(false, true)) {
+                active.decrementAndGet();
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
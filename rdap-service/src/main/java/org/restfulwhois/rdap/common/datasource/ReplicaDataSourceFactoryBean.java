@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.datasource;
+
+import java.beans.PropertyVetoException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.FactoryBean;
+
+import com.mchange.v2.c3p0.ComboPooledDataSource;
+
+/**
+ * <pre>
+ * factory of replica pools, one for each jdbc url in 'urls'.
+ * Pool settings are copied from primary pool, except that replica pool
+ * does not break after acquire failure, and checkout is timed out, so that
+ * a replica can be marked down and up again by health check.
+ * </pre>
+ * 
+ * @author jiashuo
+ * 
+ */
+public class ReplicaDataSourceFactoryBean implements
+        FactoryBean<List<DataSource>>, DisposableBean {
+    /**
+     * logger.
+     */
+    private static final Logger LOGGER = LoggerFactory
+            .getLogger(ReplicaDataSourceFactoryBean.class);
+
+    /**
+     * primary pool, as template.
+     */
+    private ComboPooledDataSource template;
+
+    /**
+     * replica jdbc urls, separated by comma.
+     */
+    private String urls;
+
+    /**
+     * checkout timeout of replica pool, in milliseconds.
+     */
+    private int checkoutTimeout;
+
+    /**
+     * created pools.
+     */
+    private final List<ComboPooledDataSource> pools =
+            new ArrayList<ComboPooledDataSource>();
+
+    @Override
+    public synchronized List<DataSource> getObject()
+            throws PropertyVetoException {
+        if (pools.isEmpty()) {
+            for (String url : StringUtils.split(StringUtils
+                    .defaultString(urls), ',')) {
+                if (StringUtils.isNotBlank(url)) {
+                    pools.add(createPool(StringUtils.trim(url)));
+                }
+            }
+            LOGGER.info("replica pools created, size:{}", pools.size());
+        }
+        return new ArrayList<DataSource>(pools);
+    }
+
+    /**
+     * create replica pool.
+     * 
+     * @param url
+     *            jdbc url.
+     * @return pool.
+     * @throws PropertyVetoException
+     *             if driver class is invalid.
+     */
+    private ComboPooledDataSource createPool(String url)
+            throws PropertyVetoException {
+        ComboPooledDataSource pool = new ComboPooledDataSource();
+        pool.setDriverClass(template.getDriverClass());
+        pool.setJdbcUrl(url);
+        pool.setUser(template.getUser());
+        pool.setPassword(template.getPassword());
+        pool.setMinPoolSize(template.getMinPoolSize());
+        pool.setMaxPoolSize(template.getMaxPoolSize());
+        pool.setInitialPoolSize(template.getInitialPoolSize());
+        pool.setMaxIdleTime(template.getMaxIdleTime());
+        pool.setAcquireIncrement(template.getAcquireIncrement());
+        pool.setMaxStatements(template.getMaxStatements());
+        pool.setIdleConnectionTestPeriod(template
+                .getIdleConnectionTestPeriod());
+        pool.setPreferredTestQuery(template.getPreferredTestQuery());
+        pool.setTestConnectionOnCheckin(template.isTestConnectionOnCheckin());
+        pool.setAcquireRetryAttempts(template.getAcquireRetryAttempts());
+        pool.setBreakAfterAcquireFailure(false);
+        pool.setCheckoutTimeout(checkoutTimeout);
+        return pool;
+    }
+
+    @Override
+    public Class<?> getObjectType() {
+        return List.class;
+    }
+
+    @Override
+    public boolean isSingleton() {
+        return true;
+    }
+
+    @Override
+    public synchronized void destroy() {
+        for (ComboPooledDataSource pool : pools) {
+            pool.close();
+        }
+        pools.clear();
+    }
+
+    /**
+     * set template.
+     * 
+     * @param template
+     *            template.
+     */
+    public void setTemplate(ComboPooledDataSource template) {
+        this.template = template;
+    }
+
+    /**
+     * set urls.
+     * 
+     * @param urls
+     *            urls.
+     */
+    public void setUrls(String urls) {
+        this.urls = urls;
+    }
+
+    /**
+     * set checkoutTimeout.
+     * 
+     * @param checkoutTimeout
+     *            checkoutTimeout.
+     */
+    public void setCheckoutTimeout(int checkoutTimeout) {
+        this.checkoutTimeout = checkoutTimeout;
+    }
+
+}
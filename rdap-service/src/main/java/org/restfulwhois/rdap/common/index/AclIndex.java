@@ -0,0 +1,341 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <pre>
+ * immutable in-memory index of access control list.
+ * For each object type, secured object ids are kept in a sorted long array,
+ * and roles granted to each secured object are kept in a BitSet, indexed by
+ * dense role index. Roles of each user are kept in a BitSet too.
+ * Object is secured if it has any acl entry, and user has entry if any role
+ * of user is granted to object.
+ * Fingerprint is the same for the same entries and user roles, so change of
+ * ACL is known without comparing indexes.
+ * </pre>
+ * 
+ * @author jiashuo
+ * 
+ */
+public final class AclIndex {
+    /**
+     * empty index.
+     */
+    public static final AclIndex EMPTY = new Builder().build();
+
+    /**
+     * secured object ids, key is object type.
+     */
+    private final Map<String, long[]> securedIds;
+
+    /**
+     * granted roles of secured objects, key is object type, array is indexed
+     * same as securedIds.
+     */
+    private final Map<String, BitSet[]> grantedRoles;
+
+    /**
+     * roles of users, key is user id.
+     */
+    private final Map<Long, BitSet> userRoles;
+
+    /**
+     * secured object count.
+     */
+    private final int size;
+
+    /**
+     * fingerprint of entries and user roles.
+     */
+    private final long fingerprint;
+
+    /**
+     * constructor.
+     * 
+     * @param securedIds
+     *            securedIds.
+     * @param grantedRoles
+     *            grantedRoles.
+     * @param userRoles
+     *            userRoles.
+     * @param size
+     *            size.
+     * @param fingerprint
+     *            fingerprint.
+     */
+    private AclIndex(Map<String, long[]> securedIds,
+            Map<String, BitSet[]> grantedRoles, Map<Long, BitSet> userRoles,
+            int size, long fingerprint) {
+        this.securedIds = securedIds;
+        this.grantedRoles = grantedRoles;
+        this.userRoles = userRoles;
+        this.size = size;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * check if object is secured.
+     * 
+     * @param type
+     *            object type.
+     * @param id
+     *            object id.
+     * @return true if has any acl entry, false if not.
+     */
+    public boolean isSecure(String type, long id) {
+        return indexOf(type, id) >= 0;
+    }
+
+    /**
+     * check if user has acl entry for object.
+     * 
+     * @param userId
+     *            user id.
+     * @param type
+     *            object type.
+     * @param id
+     *            object id.
+     * @return true if has entry, false if not.
+     */
+    public boolean hasEntry(long userId, String type, long id) {
+        int index = indexOf(type, id);
+        if (index < 0) {
+            return false;
+        }
+        BitSet roles = userRoles.get(userId);
+        return null != roles && roles.intersects(grantedRoles.get(type)[index]);
+    }
+
+    /**
+     * get secured object count.
+     * 
+     * @return size.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * get fingerprint of entries and user roles, which does not depend on
+     * order of adding.
+     * 
+     * @return fingerprint.
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * find index of secured object.
+     * 
+     * @param type
+     *            object type.
+     * @param id
+     *            object id.
+     * @return index, negative if not secured.
+     */
+    private int indexOf(String type, long id) {
+        long[] ids = securedIds.get(type);
+        if (null == ids) {
+            return -1;
+        }
+        return Arrays.binarySearch(ids, id);
+    }
+
+    /**
+     * builder of AclIndex.
+     * 
+     * @author jiashuo
+     * 
+     */
+    public static final class Builder {
+        /**
+         * multiplier of hash.
+         */
+        private static final long HASH_MULTIPLIER = 31L;
+
+        /**
+         * shift of hash.
+         */
+        private static final int HASH_SHIFT = 29;
+
+        /**
+         * mixer of hash.
+         */
+        private static final long HASH_MIXER = 0x9E3779B97F4A7C15L;
+
+        /**
+         * role id to dense role index.
+         */
+        private final Map<Long, Integer> roleIndexes =
+                new HashMap<Long, Integer>();
+
+        /**
+         * object id to granted roles, key is object type.
+         */
+        private final Map<String, Map<Long, BitSet>> entries =
+                new HashMap<String, Map<Long, BitSet>>();
+
+        /**
+         * roles of users.
+         */
+        private final Map<Long, BitSet> userRoles = new HashMap<Long, BitSet>();
+
+        /**
+         * sum of hash of added entries and user roles.
+         */
+        private long fingerprint;
+
+        /**
+         * add acl entry.
+         * 
+         * @param type
+         *            object type.
+         * @param objectId
+         *            object id.
+         * @param roleId
+         *            role id.
+         * @return this.
+         */
+        public Builder addEntry(String type, long objectId, long roleId) {
+            Map<Long, BitSet> objects = entries.get(type);
+            if (null == objects) {
+                objects = new HashMap<Long, BitSet>();
+                entries.put(type, objects);
+            }
+            getOrCreate(objects, objectId).set(getRoleIndex(roleId));
+            fingerprint += hash(type.hashCode(), objectId, roleId);
+            return this;
+        }
+
+        /**
+         * add role of user.
+         * 
+         * @param userId
+         *            user id.
+         * @param roleId
+         *            role id.
+         * @return this.
+         */
+        public Builder addUserRole(long userId, long roleId) {
+            getOrCreate(userRoles, userId).set(getRoleIndex(roleId));
+            fingerprint += hash(userId, roleId);
+            return this;
+        }
+
+        /**
+         * build index.
+         * 
+         * @return index.
+         */
+        public AclIndex build() {
+            Map<String, long[]> securedIds = new HashMap<String, long[]>();
+            Map<String, BitSet[]> grantedRoles =
+                    new HashMap<String, BitSet[]>();
+            int size = 0;
+            for (Map.Entry<String, Map<Long, BitSet>> typeEntry : entries
+                    .entrySet()) {
+                List<Long> objectIds =
+                        new ArrayList<Long>(typeEntry.getValue().keySet());
+                Collections.sort(objectIds);
+                long[] ids = new long[objectIds.size()];
+                BitSet[] roles = new BitSet[objectIds.size()];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = objectIds.get(i);
+                    roles[i] = typeEntry.getValue().get(objectIds.get(i));
+                }
+                securedIds.put(typeEntry.getKey(), ids);
+                grantedRoles.put(typeEntry.getKey(), roles);
+                size += ids.length;
+            }
+            return new AclIndex(securedIds, grantedRoles,
+                    new HashMap<Long, BitSet>(userRoles), size, fingerprint);
+        }
+
+        /**
+         * hash values.
+         * 
+         * @param values
+         *            values.
+         * @return hash, mixed so that sum of hashes rarely collides.
+         */
+        private static long hash(long... values) {
+            long result = values.length;
+            for (long value : values) {
+                result = result * HASH_MULTIPLIER + value;
+            }
+            result ^= result >>> HASH_SHIFT;
+            return result * HASH_MIXER;
+        }
+
+        /**
+         * get dense index of role, create if not exist.
+         * 
+         * @param roleId
+         *            role id.
+         * @return index.
+         */
+        private int getRoleIndex(long roleId) {
+            Integer index = roleIndexes.get(roleId);
+            if (null == index) {
+                index = roleIndexes.size();
+                roleIndexes.put(roleId, index);
+            }
+            return index;
+        }
+
+        /**
+         * get BitSet from map, create if not exist.
+         * 
+         * @param map
+         *            map.
+         * @param key
+         *            key.
+         * @return BitSet.
+         */
+        private static BitSet getOrCreate(Map<Long, BitSet> map, long key) {
+            BitSet bitSet = map.get(key);
+            if (null == bitSet) {
+                bitSet = new BitSet();
+                map.put(key, bitSet);
+            }
+            return bitSet;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * <pre>
+ * smallest-covering-range index of AS number ranges.
+ *
+ * Readers use an immutable snapshot without lock. Changes are applied by
+ * put/remove, which copy the small change set: changed values are excluded
+ * from the base LongRangeIndex, and new ranges are matched by scanning the
+ * change set. When the change set is larger than compactThreshold, base
+ * index is rebuilt with all changes merged.
+ * </pre>
+ *
+ * @author jiashuo
+ *
+ */
+public class AutnumIndex {
+    /**
+     * default compact threshold.
+     */
+    public static final int DEFAULT_COMPACT_THRESHOLD = 1024;
+
+    /**
+     * current snapshot.
+     */
+    private volatile Snapshot snapshot = new Snapshot(
+            new ArrayList<long[]>(), new HashSet<Long>(),
+            new ArrayList<long[]>());
+
+    /**
+     * change set size to rebuild base index.
+     */
+    private final int compactThreshold;
+
+    /**
+     * constructor.
+     */
+    public AutnumIndex() {
+        this(DEFAULT_COMPACT_THRESHOLD);
+    }
+
+    /**
+     * constructor.
+     *
+     * @param compactThreshold
+     *            change set size to rebuild base index.
+     */
+    public AutnumIndex(int compactThreshold) {
+        super();
+        this.compactThreshold = compactThreshold;
+    }
+
+    /**
+     * replace all ranges in this index.
+     *
+     * @param ranges
+     *            ranges, {start, end, value}.
+     */
+    public synchronized void load(List<long[]> ranges) {
+        this.snapshot =
+                new Snapshot(ranges, new HashSet<Long>(),
+                        new ArrayList<long[]>());
+    }
+
+    /**
+     * find value of the smallest range which covers AS number.
+     *
+     * @param autnum
+     *            AS number.
+     * @return value, or LongRangeIndex.NOT_FOUND.
+     */
+    public long findSmallest(long autnum) {
+        Snapshot current = this.snapshot;
+        if (current.removedValues.isEmpty() && current.addedRanges.isEmpty()) {
+            return current.base.findSmallest(autnum);
+        }
+        return current.base.findSmallest(autnum, current.removedValues,
+                current.addedRanges);
+    }
+
+    /**
+     * add or replace range with the same value.
+     *
+     * @param start
+     *            range start.
+     * @param end
+     *            range end, inclusive.
+     * @param value
+     *            value.
+     */
+    public synchronized void put(long start, long end, long value) {
+        Set<Long> removed = new HashSet<Long>(snapshot.removedValues);
+        List<long[]> added = new ArrayList<long[]>(snapshot.addedRanges);
+        removed.add(value);
+        removeByValue(added, value);
+        if (start <= end) {
+            added.add(new long[] { start, end, value });
+        }
+        applyChanges(removed, added);
+    }
+
+    /**
+     * remove range by value.
+     *
+     * @param value
+     *            value.
+     */
+    public synchronized void remove(long value) {
+        Set<Long> removed = new HashSet<Long>(snapshot.removedValues);
+        List<long[]> added = new ArrayList<long[]>(snapshot.addedRanges);
+        removed.add(value);
+        removeByValue(added, value);
+        applyChanges(removed, added);
+    }
+
+    /**
+     * get range count of base index and added ranges, removed values are
+     * counted until index is compacted.
+     *
+     * @return range count.
+     */
+    public int size() {
+        Snapshot current = this.snapshot;
+        return current.base.size() + current.addedRanges.size();
+    }
+
+    /**
+     * publish new snapshot, and compact it if change set is too large.
+     *
+     * @param removed
+     *            removed values.
+     * @param added
+     *            added ranges.
+     */
+    private void applyChanges(Set<Long> removed, List<long[]> added) {
+        Snapshot current = this.snapshot;
+        if (removed.size() + added.size() <= compactThreshold) {
+            this.snapshot = new Snapshot(current.base, removed, added);
+            return;
+        }
+        List<long[]> merged = current.base.getRanges(removed);
+        merged.addAll(added);
+        this.snapshot =
+                new Snapshot(merged, new HashSet<Long>(),
+                        new ArrayList<long[]>());
+    }
+
+    /**
+     * remove range from list by value.
+     *
+     * @param ranges
+     *            ranges.
+     * @param value
+     *            value.
+     */
+    private static void removeByValue(List<long[]> ranges, long value) {
+        for (Iterator<long[]> it = ranges.iterator(); it.hasNext();) {
+            if (it.next()[2] == value) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * immutable snapshot of index.
+     *
+     * @author jiashuo
+     *
+     */
+    private static final class Snapshot {
+        /**
+         * base index.
+         */
+        private final LongRangeIndex base;
+        /**
+         * values removed from base index.
+         */
+        private final Set<Long> removedValues;
+        /**
+         * ranges added after base index is built.
+         */
+        private final List<long[]> addedRanges;
+
+        /**
+         * constructor, build base index from ranges.
+         *
+         * @param ranges
+         *            ranges, {start, end, value}.
+         * @param removedValues
+         *            removedValues.
+         * @param addedRanges
+         *            addedRanges.
+         */
+        Snapshot(List<long[]> ranges, Set<Long> removedValues,
+                List<long[]> addedRanges) {
+            this(buildIndex(ranges), removedValues, addedRanges);
+        }
+
+        /**
+         * constructor.
+         *
+         * @param base
+         *            base.
+         * @param removedValues
+         *            removedValues.
+         * @param addedRanges
+         *            addedRanges.
+         */
+        Snapshot(LongRangeIndex base, Set<Long> removedValues,
+                List<long[]> addedRanges) {
+            this.base = base;
+            this.removedValues = Collections.unmodifiableSet(removedValues);
+            this.addedRanges = Collections.unmodifiableList(addedRanges);
+        }
+
+        /**
+         * build LongRangeIndex from ranges.
+         *
+         * @param ranges
+         *            ranges, {start, end, value}.
+         * @return index.
+         */
+        private static LongRangeIndex buildIndex(List<long[]> ranges) {
+            long[] starts = new long[ranges.size()];
+            long[] ends = new long[ranges.size()];
+            long[] values = new long[ranges.size()];
+            for (int i = 0; i < starts.length; i++) {
+                starts[i] = ranges.get(i)[0];
+                ends[i] = ranges.get(i)[1];
+                values[i] = ranges.get(i)[2];
+            }
+            return new LongRangeIndex(starts, ends, values);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.index;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * <pre>
+ * immutable longest-suffix-match trie of domain names, such as TLDs.
+ * 
+ * Keys are stored in reversed character order, and are matched only at
+ * label boundary, so 'cn' matches 'com.cn' but not 'ccn'. A key '.' is
+ * matched by name '.'. Keys are case insensitive for ASCII letters.
+ * Lookup walks name from its end without allocating objects.
+ * </pre>
+ * 
+ * @param <V>
+ *            value type.
+ * @author jiashuo
+ * 
+ */
+public final class DomainSuffixTrie<V> {
+    /**
+     * label separator.
+     */
+    private static final char LABEL_SEPARATOR = '.';
+
+    /**
+     * root node.
+     */
+    private final Node root = new Node();
+
+    /**
+     * key count.
+     */
+    private int size;
+
+    /**
+     * constructor.
+     * 
+     * @param entries
+     *            suffix to value, blank suffixes are ignored.
+     */
+    public DomainSuffixTrie(Map<String, V> entries) {
+        super();
+        for (Entry<String, V> entry : entries.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * find value of the longest suffix of name.
+     * 
+     * @param name
+     *            domain name or TLD, such as 'com.cn'.
+     * @return value, null if not found.
+     */
+    @SuppressWarnings("unchecked")
+    public V findLongestSuffix(String name) {
+        if (null == name) {
+            return null;
+        }
+        Object result = null;
+        Node node = root;
+        for (int i = name.length() - 1; i >= 0; i--) {
+            node = node.getChild(toLowerCase(name.charAt(i)));
+            if (null == node) {
+                break;
+            }
+            if (null != node.value
+                    && (i == 0 || name.charAt(i - 1) == LABEL_SEPARATOR)) {
+                result = node.value;
+            }
+        }
+        return (V) result;
+    }
+
+    /**
+     * get key count.
+     * 
+     * @return key count.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * put suffix, used only by constructor.
+     * 
+     * @param suffix
+     *            suffix.
+     * @param value
+     *            value.
+     */
+    private void put(String suffix, V value) {
+        if (null == suffix || suffix.trim().length() == 0 || null == value) {
+            return;
+        }
+        Node node = root;
+        for (int i = suffix.length() - 1; i >= 0; i--) {
+            node = node.getOrAddChild(toLowerCase(suffix.charAt(i)));
+        }
+        if (null == node.value) {
+            size++;
+        }
+        node.value = value;
+    }
+
+    /**
+     * lower case ASCII letter.
+     * 
+     * @param c
+     *            char.
+     * @return lower case char.
+     */
+    private static char toLowerCase(char c) {
+        if (c >= 'A' && c <= 'Z') {
+            return (char) (c + ('a' - 'A'));
+        }
+        return c;
+    }
+
+    /**
+     * trie node, children are sorted by char.
+     * 
+     * @author jiashuo
+     * 
+     */
+    private static final class Node {
+        /**
+         * empty keys.
+         */
+        private static final char[] EMPTY_KEYS = new char[0];
+        /**
+         * empty children.
+         */
+        private static final Node[] EMPTY_CHILDREN = new Node[0];
+        /**
+         * sorted chars of children.
+         */
+        private char[] keys = EMPTY_KEYS;
+        /**
+         * children.
+         */
+        private Node[] children = EMPTY_CHILDREN;
+        /**
+         * value, null if no key ends here.
+         */
+        private Object value;
+
+        /**
+         * get child by char.
+         * 
+         * @param c
+         *            char.
+         * @return child, null if not found.
+         */
+        Node getChild(char c) {
+            int pos = Arrays.binarySearch(keys, c);
+            if (pos < 0) {
+                return null;
+            }
+            return children[pos];
+        }
+
+        /**
+         * get child by char, add it if not exist.
+         * 
+         * @param c
+         *            char.
+         * @return child.
+         */
+        Node getOrAddChild(char c) {
+            int pos = Arrays.binarySearch(keys, c);
+            if (pos >= 0) {
+                return children[pos];
+            }
+            int insertPos = -pos - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertPos);
+            System.arraycopy(children, 0, newChildren, 0, insertPos);
+            newKeys[insertPos] = c;
+            newChildren[insertPos] = new Node();
+            System.arraycopy(keys, insertPos, newKeys, insertPos + 1,
+                    keys.length - insertPos);
+            System.arraycopy(children, insertPos, newChildren, insertPos + 1,
+                    children.length - insertPos);
+            keys = newKeys;
+            children = newChildren;
+            return newChildren[insertPos];
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.index;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * <pre>
+ * collector of one keyset page from index candidates.
+ * 
+ * Candidates are offered in any order, and only the first 'limit' of them
+ * ordered by (sort key, id) after the cursor are kept in a bounded heap, so
+ * a page of a large candidate set costs O(n log limit) in memory, and only
+ * one page of ids is passed to SQL. Sort keys are compared lower cased, as
+ * names are compared by case insensitive collation in database.
+ * </pre>
+ * 
+ * @author jiashuo
+ * 
+ */
+public final class KeysetPageCollector {
+    /**
+     * order by sort key and id.
+     */
+    private static final Comparator<Hit> ORDER = new Comparator<Hit>() {
+        @Override
+        public int compare(Hit a, Hit b) {
+            int result = a.sortKey.compareTo(b.sortKey);
+            if (0 != result) {
+                return result;
+            }
+            return a.id < b.id ? -1 : (a.id == b.id ? 0 : 1);
+        }
+    };
+
+    /**
+     * cursor, null for first page.
+     */
+    private final Hit after;
+
+    /**
+     * max count of ids.
+     */
+    private final int limit;
+
+    /**
+     * kept hits, the largest at head.
+     */
+    private final PriorityQueue<Hit> heap;
+
+    /**
+     * ids of kept hits.
+     */
+    private final Set<Long> keptIds = new HashSet<Long>();
+
+    /**
+     * constructor.
+     * 
+     * @param afterSortKey
+     *            sort key of cursor, null for first page.
+     * @param afterId
+     *            id of cursor.
+     * @param limit
+     *            max count of ids, at least 1.
+     */
+    public KeysetPageCollector(String afterSortKey, long afterId, int limit) {
+        super();
+        this.after =
+                null == afterSortKey ? null : new Hit(
+                        normalize(afterSortKey), afterId);
+        this.limit = Math.max(1, limit);
+        this.heap =
+                new PriorityQueue<Hit>(this.limit + 1,
+                        Collections.reverseOrder(ORDER));
+    }
+
+    /**
+     * normalize sort key.
+     * 
+     * @param sortKey
+     *            sort key.
+     * @return lower cased sort key, empty string if null.
+     */
+    public static String normalize(String sortKey) {
+        if (null == sortKey) {
+            return "";
+        }
+        return sortKey.toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * offer candidate, duplicated id is ignored.
+     * 
+     * @param normalizedSortKey
+     *            sort key, normalized by normalize().
+     * @param id
+     *            id.
+     */
+    public void offer(String normalizedSortKey, long id) {
+        Hit hit = new Hit(normalizedSortKey, id);
+        if (null != after && ORDER.compare(hit, after) <= 0) {
+            return;
+        }
+        if (heap.size() >= limit && ORDER.compare(hit, heap.peek()) >= 0) {
+            return;
+        }
+        if (!keptIds.add(id)) {
+            return;
+        }
+        heap.add(hit);
+        if (heap.size() > limit) {
+            keptIds.remove(heap.poll().id);
+        }
+    }
+
+    /**
+     * get ids of page.
+     * 
+     * @return sorted distinct ids.
+     */
+    public long[] toIds() {
+        long[] ids = new long[heap.size()];
+        int count = 0;
+        for (Hit hit : heap) {
+            ids[count++] = hit.id;
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    /**
+     * candidate.
+     * 
+     * @author jiashuo
+     * 
+     */
+    private static final class Hit {
+        /**
+         * normalized sort key.
+         */
+        private final String sortKey;
+        /**
+         * id.
+         */
+        private final long id;
+
+        /**
+         * constructor.
+         * 
+         * @param sortKey
+         *            sortKey.
+         * @param id
+         *            id.
+         */
+        Hit(String sortKey, long id) {
+            this.sortKey = sortKey;
+            this.id = id;
+        }
+    }
+}
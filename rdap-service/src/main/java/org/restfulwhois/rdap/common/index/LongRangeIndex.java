@@ -0,0 +1,380 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * <pre>
+ * immutable smallest-covering-range index of long ranges, such as AS number
+ * ranges.
+ * 
+ * Ranges are split into elementary segments at every start and end+1, and
+ * each segment keeps the value of the smallest range covering it. A lookup
+ * is a binary search in the sorted segment starts, without boxing.
+ * Ranges are also kept sorted by start, so that changes can be applied
+ * without rebuilding the index, by excluded values and extra ranges.
+ * </pre>
+ * 
+ * @author jiashuo
+ * 
+ */
+public final class LongRangeIndex {
+    /**
+     * value returned when no range covers the point.
+     */
+    public static final long NOT_FOUND = -1L;
+
+    /**
+     * sorted segment starts.
+     */
+    private final long[] segmentStarts;
+
+    /**
+     * value of segment, or NOT_FOUND.
+     */
+    private final long[] segmentValues;
+
+    /**
+     * start of smallest range of segment.
+     */
+    private final long[] segmentRangeStarts;
+
+    /**
+     * end of smallest range of segment.
+     */
+    private final long[] segmentRangeEnds;
+
+    /**
+     * range starts, sorted.
+     */
+    private final long[] rangeStarts;
+
+    /**
+     * range ends, in the order of rangeStarts.
+     */
+    private final long[] rangeEnds;
+
+    /**
+     * range values, in the order of rangeStarts.
+     */
+    private final long[] rangeValues;
+
+    /**
+     * range count.
+     */
+    private final int size;
+
+    /**
+     * constructor. Ranges whose start is larger than end are ignored.
+     * 
+     * @param starts
+     *            range starts.
+     * @param ends
+     *            range ends, inclusive.
+     * @param values
+     *            range values.
+     */
+    public LongRangeIndex(long[] starts, long[] ends, long[] values) {
+        super();
+        if (starts.length != ends.length || starts.length != values.length) {
+            throw new IllegalArgumentException(
+                    "starts, ends and values must have the same length.");
+        }
+        int count = 0;
+        long[][] ranges = new long[starts.length][];
+        for (int i = 0; i < starts.length; i++) {
+            if (starts[i] <= ends[i]) {
+                ranges[count++] =
+                        new long[] { starts[i], ends[i], values[i] };
+            }
+        }
+        ranges = Arrays.copyOf(ranges, count);
+        this.size = count;
+        Arrays.sort(ranges, new Comparator<long[]>() {
+            @Override
+            public int compare(long[] o1, long[] o2) {
+                return compareLong(o1[0], o2[0]);
+            }
+        });
+        this.rangeStarts = new long[count];
+        this.rangeEnds = new long[count];
+        this.rangeValues = new long[count];
+        for (int i = 0; i < count; i++) {
+            rangeStarts[i] = ranges[i][0];
+            rangeEnds[i] = ranges[i][1];
+            rangeValues[i] = ranges[i][2];
+        }
+        long[] points = collectPoints(ranges);
+        long[] segStarts = new long[points.length];
+        long[] segValues = new long[points.length];
+        long[] segRangeStarts = new long[points.length];
+        long[] segRangeEnds = new long[points.length];
+        int segCount = 0;
+        PriorityQueue<long[]> active =
+                new PriorityQueue<long[]>(Math.max(1, count),
+                        new Comparator<long[]>() {
+                            @Override
+                            public int compare(long[] o1, long[] o2) {
+                                int result =
+                                        compareLong(o1[1] - o1[0], o2[1]
+                                                - o2[0]);
+                                if (result != 0) {
+                                    return result;
+                                }
+                                return compareLong(o2[0], o1[0]);
+                            }
+                        });
+        int next = 0;
+        for (long point : points) {
+            while (next < count && ranges[next][0] <= point) {
+                active.add(ranges[next++]);
+            }
+            while (!active.isEmpty() && active.peek()[1] < point) {
+                active.poll();
+            }
+            long value = active.isEmpty() ? NOT_FOUND : active.peek()[2];
+            if (segCount > 0 && segValues[segCount - 1] == value) {
+                continue;
+            }
+            segStarts[segCount] = point;
+            segValues[segCount] = value;
+            if (!active.isEmpty()) {
+                segRangeStarts[segCount] = active.peek()[0];
+                segRangeEnds[segCount] = active.peek()[1];
+            }
+            segCount++;
+        }
+        this.segmentStarts = Arrays.copyOf(segStarts, segCount);
+        this.segmentValues = Arrays.copyOf(segValues, segCount);
+        this.segmentRangeStarts = Arrays.copyOf(segRangeStarts, segCount);
+        this.segmentRangeEnds = Arrays.copyOf(segRangeEnds, segCount);
+    }
+
+    /**
+     * find value of the smallest range which covers point.
+     * 
+     * @param point
+     *            point, such as AS number.
+     * @return value, or NOT_FOUND.
+     */
+    public long findSmallest(long point) {
+        int pos = upperBound(segmentStarts, point) - 1;
+        if (pos < 0) {
+            return NOT_FOUND;
+        }
+        return segmentValues[pos];
+    }
+
+    /**
+     * <pre>
+     * find value of the smallest range which covers point.
+     * Ranges whose value is in excludedValues are ignored, and ranges in
+     * extraRanges are also matched. This is used to apply changes on an
+     * immutable index without rebuilding it.
+     * </pre>
+     * 
+     * @param point
+     *            point, such as AS number.
+     * @param excludedValues
+     *            values to be ignored, can be null.
+     * @param extraRanges
+     *            extra ranges to match, {start, end, value}, can be null.
+     * @return value, or NOT_FOUND.
+     */
+    public long findSmallest(long point, Set<Long> excludedValues,
+            List<long[]> extraRanges) {
+        long result = NOT_FOUND;
+        long bestStart = 0;
+        long bestEnd = 0;
+        int pos = upperBound(segmentStarts, point) - 1;
+        if (pos >= 0 && NOT_FOUND != segmentValues[pos]) {
+            if (null == excludedValues
+                    || !excludedValues.contains(segmentValues[pos])) {
+                result = segmentValues[pos];
+                bestStart = segmentRangeStarts[pos];
+                bestEnd = segmentRangeEnds[pos];
+            } else {
+                // smallest range is excluded, scan ranges starting before.
+                for (int i = upperBound(rangeStarts, point) - 1; i >= 0; i--) {
+                    if (rangeEnds[i] < point
+                            || excludedValues.contains(rangeValues[i])) {
+                        continue;
+                    }
+                    if (NOT_FOUND == result
+                            || isSmaller(rangeStarts[i], rangeEnds[i],
+                                    bestStart, bestEnd)) {
+                        result = rangeValues[i];
+                        bestStart = rangeStarts[i];
+                        bestEnd = rangeEnds[i];
+                    }
+                }
+            }
+        }
+        if (null == extraRanges) {
+            return result;
+        }
+        for (long[] range : extraRanges) {
+            if (range[0] > point || range[1] < point) {
+                continue;
+            }
+            if (NOT_FOUND == result
+                    || isSmaller(range[0], range[1], bestStart, bestEnd)) {
+                result = range[2];
+                bestStart = range[0];
+                bestEnd = range[1];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * get ranges in this index.
+     * 
+     * @param excludedValues
+     *            values to be ignored, can be null.
+     * @return ranges, {start, end, value}.
+     */
+    public List<long[]> getRanges(Set<Long> excludedValues) {
+        List<long[]> result = new ArrayList<long[]>(size);
+        for (int i = 0; i < size; i++) {
+            if (null != excludedValues
+                    && excludedValues.contains(rangeValues[i])) {
+                continue;
+            }
+            result.add(new long[] { rangeStarts[i], rangeEnds[i],
+                    rangeValues[i] });
+        }
+        return result;
+    }
+
+    /**
+     * get range count.
+     * 
+     * @return range count.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * find count of elements which are not larger than key.
+     * 
+     * @param sorted
+     *            sorted array.
+     * @param key
+     *            key.
+     * @return index of first element larger than key.
+     */
+    private static int upperBound(long[] sorted, long key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * check if range is smaller than best range, or has the same size and
+     * larger start, as order of segment values.
+     * 
+     * @param start
+     *            range start.
+     * @param end
+     *            range end.
+     * @param bestStart
+     *            best range start.
+     * @param bestEnd
+     *            best range end.
+     * @return true if smaller, false if not.
+     */
+    private static boolean isSmaller(long start, long end, long bestStart,
+            long bestEnd) {
+        int result = compareLong(end - start, bestEnd - bestStart);
+        return result < 0 || result == 0 && start > bestStart;
+    }
+
+    /**
+     * collect sorted distinct segment boundaries: starts and end+1.
+     * 
+     * @param ranges
+     *            ranges.
+     * @return sorted distinct points.
+     */
+    private static long[] collectPoints(long[][] ranges) {
+        long[] points = new long[ranges.length * 2];
+        int count = 0;
+        for (long[] range : ranges) {
+            points[count++] = range[0];
+            if (range[1] < Long.MAX_VALUE) {
+                points[count++] = range[1] + 1;
+            }
+        }
+        Arrays.sort(points, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || points[distinct - 1] != points[i]) {
+                points[distinct++] = points[i];
+            }
+        }
+        return Arrays.copyOf(points, distinct);
+    }
+
+    /**
+     * compare long.
+     * 
+     * @param x
+     *            x.
+     * @param y
+     *            y.
+     * @return compare result.
+     */
+    private static int compareLong(long x, long y) {
+        if (x < y) {
+            return -1;
+        }
+        if (x == y) {
+            return 0;
+        }
+        return 1;
+    }
+}
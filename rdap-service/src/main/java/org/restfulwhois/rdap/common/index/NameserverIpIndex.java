@@ -0,0 +1,797 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.index;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <pre>
+ * inverted index of nameserver IP: IP to nameserver ids, and nameserver id
+ * to domain ids, used by search by IP and search by nsIp.
+ * 
+ * IP key is 16 bytes, v4 address is stored in the low 4 bytes and is
+ * distinguished from v6 by address length. Ids of IP and nameserver are kept
+ * in primitive arrays ordered by (LDH name, id) of objects, which is the
+ * order of search result, so a keyset page is sliced from array after the
+ * cursor, and only one page of ids is passed to database. Ids are changed
+ * by replacing the array of a key, so readers need no lock. Reverse maps
+ * are kept to remove old relations on update.
+ * </pre>
+ * 
+ * @author jiashuo
+ * 
+ */
+public class NameserverIpIndex {
+    /**
+     * empty ids.
+     */
+    private static final long[] EMPTY_IDS = new long[0];
+
+    /**
+     * current maps.
+     */
+    private volatile Maps maps = new Maps();
+
+    /**
+     * replace all relations in this index.
+     * 
+     * @param builder
+     *            builder with all relations.
+     */
+    public synchronized void load(Builder builder) {
+        this.maps = builder.build();
+    }
+
+    /**
+     * find one page of nameserver ids of IP, ordered by (LDH name, id).
+     * 
+     * @param ip
+     *            IP in bytes, 4 or 16 bytes.
+     * @param afterSortKey
+     *            LDH name of cursor, null for first page.
+     * @param afterId
+     *            id of cursor.
+     * @param limit
+     *            max count of ids.
+     * @return sorted nameserver ids.
+     */
+    public long[] findNameserverIds(byte[] ip, String afterSortKey,
+            long afterId, int limit) {
+        IpKey key = IpKey.of(ip);
+        if (null == key) {
+            return EMPTY_IDS;
+        }
+        Maps current = this.maps;
+        KeysetPageCollector collector =
+                new KeysetPageCollector(afterSortKey, afterId, limit);
+        collect(collector, current.ipToNameservers.get(key),
+                current.nameserverNames, afterSortKey, afterId, limit);
+        return collector.toIds();
+    }
+
+    /**
+     * find one page of ids of domains which have nameserver of IP, ordered
+     * by (LDH name, id). At most limit ids after cursor are taken from each
+     * nameserver, and are merged by page collector.
+     * 
+     * @param ip
+     *            IP in bytes, 4 or 16 bytes.
+     * @param afterSortKey
+     *            LDH name of cursor, null for first page.
+     * @param afterId
+     *            id of cursor.
+     * @param limit
+     *            max count of ids.
+     * @return sorted distinct domain ids.
+     */
+    public long[] findDomainIds(byte[] ip, String afterSortKey, long afterId,
+            int limit) {
+        IpKey key = IpKey.of(ip);
+        if (null == key) {
+            return EMPTY_IDS;
+        }
+        Maps current = this.maps;
+        long[] nameserverIds = current.ipToNameservers.get(key);
+        KeysetPageCollector collector =
+                new KeysetPageCollector(afterSortKey, afterId, limit);
+        if (null != nameserverIds) {
+            for (long nameserverId : nameserverIds) {
+                collect(collector,
+                        current.nameserverToDomains.get(nameserverId),
+                        current.domainNames, afterSortKey, afterId, limit);
+            }
+        }
+        return collector.toIds();
+    }
+
+    /**
+     * replace IPs of nameserver.
+     * 
+     * @param nameserverId
+     *            nameserver id.
+     * @param ldhName
+     *            LDH name of nameserver.
+     * @param ips
+     *            IPs in bytes.
+     */
+    public synchronized void putNameserver(long nameserverId, String ldhName,
+            List<byte[]> ips) {
+        Maps current = this.maps;
+        Map<Long, String> names = current.nameserverNames;
+        IpKey[] oldKeys = current.nameserverToIps.get(nameserverId);
+        if (null != oldKeys) {
+            for (IpKey key : oldKeys) {
+                replace(current.ipToNameservers, key, remove(
+                        current.ipToNameservers.get(key), nameserverId,
+                        names));
+            }
+        }
+        Set<IpKey> newKeys = new HashSet<IpKey>();
+        for (byte[] ip : ips) {
+            IpKey key = IpKey.of(ip);
+            if (null != key) {
+                newKeys.add(key);
+            }
+        }
+        if (newKeys.isEmpty()) {
+            current.nameserverToIps.remove(nameserverId);
+            names.remove(nameserverId);
+            return;
+        }
+        names.put(nameserverId, KeysetPageCollector.normalize(ldhName));
+        for (IpKey key : newKeys) {
+            replace(current.ipToNameservers, key,
+                    add(current.ipToNameservers.get(key), nameserverId,
+                            names));
+        }
+        current.nameserverToIps.put(nameserverId,
+                newKeys.toArray(new IpKey[newKeys.size()]));
+    }
+
+    /**
+     * remove nameserver.
+     * 
+     * @param nameserverId
+     *            nameserver id.
+     */
+    public void removeNameserver(long nameserverId) {
+        putNameserver(nameserverId, null, Arrays.<byte[]> asList());
+    }
+
+    /**
+     * replace nameservers of domain.
+     * 
+     * @param domainId
+     *            domain id.
+     * @param ldhName
+     *            LDH name of domain.
+     * @param nameserverIds
+     *            nameserver ids.
+     */
+    public synchronized void putDomain(long domainId, String ldhName,
+            long[] nameserverIds) {
+        Maps current = this.maps;
+        Map<Long, String> names = current.domainNames;
+        long[] oldIds = current.domainToNameservers.get(domainId);
+        if (null != oldIds) {
+            for (long nameserverId : oldIds) {
+                replace(current.nameserverToDomains, nameserverId,
+                        remove(current.nameserverToDomains.get(nameserverId),
+                                domainId, names));
+            }
+        }
+        long[] newIds = sortedDistinct(nameserverIds);
+        if (0 == newIds.length) {
+            current.domainToNameservers.remove(domainId);
+            names.remove(domainId);
+            return;
+        }
+        names.put(domainId, KeysetPageCollector.normalize(ldhName));
+        for (long nameserverId : newIds) {
+            replace(current.nameserverToDomains, nameserverId,
+                    add(current.nameserverToDomains.get(nameserverId),
+                            domainId, names));
+        }
+        current.domainToNameservers.put(domainId, newIds);
+    }
+
+    /**
+     * remove domain.
+     * 
+     * @param domainId
+     *            domain id.
+     */
+    public void removeDomain(long domainId) {
+        putDomain(domainId, null, EMPTY_IDS);
+    }
+
+    /**
+     * get IP count.
+     * 
+     * @return IP count.
+     */
+    public int size() {
+        return maps.ipToNameservers.size();
+    }
+
+    /**
+     * put ids to map, or remove key if ids is empty.
+     * 
+     * @param map
+     *            map.
+     * @param key
+     *            key.
+     * @param ids
+     *            ids.
+     * @param <K>
+     *            key type.
+     */
+    private static <K> void replace(Map<K, long[]> map, K key, long[] ids) {
+        if (0 == ids.length) {
+            map.remove(key);
+        } else {
+            map.put(key, ids);
+        }
+    }
+
+    /**
+     * offer at most limit ids after cursor to collector.
+     * 
+     * @param collector
+     *            collector.
+     * @param ids
+     *            ids ordered by (name, id), may be null.
+     * @param names
+     *            sort keys of ids.
+     * @param afterSortKey
+     *            sort key of cursor, null for first page.
+     * @param afterId
+     *            id of cursor.
+     * @param limit
+     *            limit.
+     */
+    private static void collect(KeysetPageCollector collector, long[] ids,
+            Map<Long, String> names, String afterSortKey, long afterId,
+            int limit) {
+        if (null == ids) {
+            return;
+        }
+        int start = 0;
+        if (null != afterSortKey) {
+            start =
+                    search(ids, names,
+                            KeysetPageCollector.normalize(afterSortKey),
+                            afterId, false);
+        }
+        int end = (int) Math.min((long) start + limit, ids.length);
+        for (int i = start; i < end; i++) {
+            collector.offer(sortKey(names, ids[i]), ids[i]);
+        }
+    }
+
+    /**
+     * find first index of ids ordered by (name, id), whose (name, id) is
+     * greater than (or equal to, if inclusive) (sortKey, id).
+     * 
+     * @param ids
+     *            ids ordered by (name, id).
+     * @param names
+     *            sort keys of ids.
+     * @param sortKey
+     *            sort key.
+     * @param id
+     *            id.
+     * @param inclusive
+     *            include equal one.
+     * @return index.
+     */
+    private static int search(long[] ids, Map<Long, String> names,
+            String sortKey, long id, boolean inclusive) {
+        int low = 0;
+        int high = ids.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int result = compare(sortKey(names, ids[mid]), ids[mid], sortKey,
+                    id);
+            if (result < 0 || (result == 0 && !inclusive)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * compare (sort key, id).
+     * 
+     * @param sortKey1
+     *            sortKey1.
+     * @param id1
+     *            id1.
+     * @param sortKey2
+     *            sortKey2.
+     * @param id2
+     *            id2.
+     * @return compare result.
+     */
+    private static int compare(String sortKey1, long id1, String sortKey2,
+            long id2) {
+        int result = sortKey1.compareTo(sortKey2);
+        if (0 != result) {
+            return result;
+        }
+        return id1 < id2 ? -1 : (id1 == id2 ? 0 : 1);
+    }
+
+    /**
+     * get sort key of id.
+     * 
+     * @param names
+     *            sort keys.
+     * @param id
+     *            id.
+     * @return sort key, empty if not found.
+     */
+    private static String sortKey(Map<Long, String> names, long id) {
+        String name = names.get(id);
+        return null == name ? "" : name;
+    }
+
+    /**
+     * copy ids ordered by (name, id) with id added, sort key of id must be
+     * in names.
+     * 
+     * @param ids
+     *            ids, may be null.
+     * @param id
+     *            id.
+     * @param names
+     *            sort keys of ids.
+     * @return ids ordered by (name, id).
+     */
+    private static long[] add(long[] ids, long id, Map<Long, String> names) {
+        if (null == ids) {
+            return new long[] { id };
+        }
+        int insert = search(ids, names, sortKey(names, id), id, true);
+        if (insert < ids.length && ids[insert] == id) {
+            return ids;
+        }
+        long[] result = new long[ids.length + 1];
+        System.arraycopy(ids, 0, result, 0, insert);
+        result[insert] = id;
+        System.arraycopy(ids, insert, result, insert + 1, ids.length - insert);
+        return result;
+    }
+
+    /**
+     * copy ids ordered by (name, id) with id removed, sort key of id must
+     * not be changed before.
+     * 
+     * @param ids
+     *            ids, may be null.
+     * @param id
+     *            id.
+     * @param names
+     *            sort keys of ids.
+     * @return ids ordered by (name, id).
+     */
+    private static long[] remove(long[] ids, long id, Map<Long, String> names) {
+        if (null == ids) {
+            return EMPTY_IDS;
+        }
+        int index = search(ids, names, sortKey(names, id), id, true);
+        if (index >= ids.length || ids[index] != id) {
+            return ids;
+        }
+        long[] result = new long[ids.length - 1];
+        System.arraycopy(ids, 0, result, 0, index);
+        System.arraycopy(ids, index + 1, result, index, ids.length - index
+                - 1);
+        return result;
+    }
+
+    /**
+     * sort distinct ids by (name, id).
+     * 
+     * @param ids
+     *            distinct ids.
+     * @param names
+     *            sort keys of ids.
+     * @return ids ordered by (name, id).
+     */
+    private static long[] sortByName(long[] ids,
+            final Map<Long, String> names) {
+        Long[] boxed = new Long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            boxed[i] = ids[i];
+        }
+        Arrays.sort(boxed, new Comparator<Long>() {
+            @Override
+            public int compare(Long a, Long b) {
+                return NameserverIpIndex.compare(sortKey(names, a), a,
+                        sortKey(names, b), b);
+            }
+        });
+        long[] result = new long[boxed.length];
+        for (int i = 0; i < boxed.length; i++) {
+            result[i] = boxed[i];
+        }
+        return result;
+    }
+
+    /**
+     * sort and remove duplicated ids.
+     * 
+     * @param ids
+     *            ids.
+     * @param length
+     *            length of ids to use.
+     * @return sorted distinct ids.
+     */
+    private static long[] sortedDistinct(long[] ids, int length) {
+        long[] sorted = Arrays.copyOf(ids, length);
+        Arrays.sort(sorted);
+        int count = 0;
+        for (long id : sorted) {
+            if (0 == count || sorted[count - 1] != id) {
+                sorted[count++] = id;
+            }
+        }
+        return count == sorted.length ? sorted : Arrays.copyOf(sorted, count);
+    }
+
+    /**
+     * sort and remove duplicated ids.
+     * 
+     * @param ids
+     *            ids.
+     * @return sorted distinct ids.
+     */
+    private static long[] sortedDistinct(long[] ids) {
+        return sortedDistinct(ids, ids.length);
+    }
+
+    /**
+     * 16 bytes IP key.
+     * 
+     * @author jiashuo
+     * 
+     */
+    private static final class IpKey {
+        /**
+         * v4 address length.
+         */
+        private static final int V4_LENGTH = 4;
+        /**
+         * v6 address length.
+         */
+        private static final int V6_LENGTH = 16;
+        /**
+         * high 8 bytes.
+         */
+        private final long high;
+        /**
+         * low 8 bytes.
+         */
+        private final long low;
+        /**
+         * address length, 4 or 16.
+         */
+        private final int length;
+
+        /**
+         * constructor.
+         * 
+         * @param high
+         *            high.
+         * @param low
+         *            low.
+         * @param length
+         *            length.
+         */
+        private IpKey(long high, long low, int length) {
+            this.high = high;
+            this.low = low;
+            this.length = length;
+        }
+
+        /**
+         * create key from bytes.
+         * 
+         * @param ip
+         *            IP in bytes.
+         * @return key, null if length is not 4 or 16.
+         */
+        static IpKey of(byte[] ip) {
+            if (null == ip
+                    || (ip.length != V4_LENGTH && ip.length != V6_LENGTH)) {
+                return null;
+            }
+            long high = 0;
+            long low = 0;
+            int offset = V6_LENGTH - ip.length;
+            for (int i = 0; i < ip.length; i++) {
+                int index = offset + i;
+                if (index < V6_LENGTH / 2) {
+                    high = (high << 8) | (ip[i] & 0xff);
+                } else {
+                    low = (low << 8) | (ip[i] & 0xff);
+                }
+            }
+            return new IpKey(high, low, ip.length);
+        }
+
+        @Override
+        public int hashCode() {
+            long h = high * 31 + low;
+            return (int) (h ^ (h >>> 32)) + length;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof IpKey)) {
+                return false;
+            }
+            IpKey other = (IpKey) obj;
+            return high == other.high && low == other.low
+                    && length == other.length;
+        }
+    }
+
+    /**
+     * maps of index.
+     * 
+     * @author jiashuo
+     * 
+     */
+    private static final class Maps {
+        /**
+         * IP to nameserver ids, ordered by (name, id).
+         */
+        private final Map<IpKey, long[]> ipToNameservers =
+                new ConcurrentHashMap<IpKey, long[]>();
+        /**
+         * nameserver id to IPs.
+         */
+        private final Map<Long, IpKey[]> nameserverToIps =
+                new ConcurrentHashMap<Long, IpKey[]>();
+        /**
+         * nameserver id to domain ids, ordered by (name, id).
+         */
+        private final Map<Long, long[]> nameserverToDomains =
+                new ConcurrentHashMap<Long, long[]>();
+        /**
+         * domain id to nameserver ids, ordered by id.
+         */
+        private final Map<Long, long[]> domainToNameservers =
+                new ConcurrentHashMap<Long, long[]>();
+        /**
+         * nameserver id to sort key of LDH name.
+         */
+        private final Map<Long, String> nameserverNames =
+                new ConcurrentHashMap<Long, String>();
+        /**
+         * domain id to sort key of LDH name.
+         */
+        private final Map<Long, String> domainNames =
+                new ConcurrentHashMap<Long, String>();
+    }
+
+    /**
+     * builder of index.
+     * 
+     * @author jiashuo
+     * 
+     */
+    public static final class Builder {
+        /**
+         * IP to nameserver ids.
+         */
+        private final Map<IpKey, LongArray> ipToNameservers =
+                new HashMap<IpKey, LongArray>();
+        /**
+         * nameserver id to domain ids.
+         */
+        private final Map<Long, LongArray> nameserverToDomains =
+                new HashMap<Long, LongArray>();
+        /**
+         * nameserver id to sort key.
+         */
+        private final Map<Long, String> nameserverNames =
+                new HashMap<Long, String>();
+        /**
+         * domain id to sort key.
+         */
+        private final Map<Long, String> domainNames =
+                new HashMap<Long, String>();
+
+        /**
+         * add IP of nameserver.
+         * 
+         * @param nameserverId
+         *            nameserver id.
+         * @param ldhName
+         *            LDH name of nameserver.
+         * @param ip
+         *            IP in bytes, ignored if length is not 4 or 16.
+         * @return this builder.
+         */
+        public Builder addNameserverIp(long nameserverId, String ldhName,
+                byte[] ip) {
+            IpKey key = IpKey.of(ip);
+            if (null != key) {
+                append(ipToNameservers, key, nameserverId);
+                nameserverNames.put(nameserverId,
+                        KeysetPageCollector.normalize(ldhName));
+            }
+            return this;
+        }
+
+        /**
+         * add nameserver of domain.
+         * 
+         * @param domainId
+         *            domain id.
+         * @param ldhName
+         *            LDH name of domain.
+         * @param nameserverId
+         *            nameserver id.
+         * @return this builder.
+         */
+        public Builder addDomainNameserver(long domainId, String ldhName,
+                long nameserverId) {
+            append(nameserverToDomains, nameserverId, domainId);
+            domainNames.put(domainId, KeysetPageCollector.normalize(ldhName));
+            return this;
+        }
+
+        /**
+         * build maps, with reverse maps.
+         * 
+         * @return maps.
+         */
+        Maps build() {
+            Maps result = new Maps();
+            result.nameserverNames.putAll(nameserverNames);
+            result.domainNames.putAll(domainNames);
+            Map<Long, Set<IpKey>> nameserverToIps =
+                    new HashMap<Long, Set<IpKey>>();
+            for (Map.Entry<IpKey, LongArray> entry : ipToNameservers
+                    .entrySet()) {
+                long[] ids = entry.getValue().toSortedDistinct();
+                result.ipToNameservers.put(entry.getKey(),
+                        sortByName(ids, nameserverNames));
+                for (long id : ids) {
+                    Set<IpKey> keys = nameserverToIps.get(id);
+                    if (null == keys) {
+                        keys = new HashSet<IpKey>();
+                        nameserverToIps.put(id, keys);
+                    }
+                    keys.add(entry.getKey());
+                }
+            }
+            for (Map.Entry<Long, Set<IpKey>> entry : nameserverToIps
+                    .entrySet()) {
+                result.nameserverToIps.put(entry.getKey(), entry.getValue()
+                        .toArray(new IpKey[entry.getValue().size()]));
+            }
+            Map<Long, LongArray> domainToNameservers =
+                    new HashMap<Long, LongArray>();
+            for (Map.Entry<Long, LongArray> entry : nameserverToDomains
+                    .entrySet()) {
+                long[] ids = entry.getValue().toSortedDistinct();
+                result.nameserverToDomains.put(entry.getKey(),
+                        sortByName(ids, domainNames));
+                for (long id : ids) {
+                    append(domainToNameservers, id, entry.getKey());
+                }
+            }
+            for (Map.Entry<Long, LongArray> entry : domainToNameservers
+                    .entrySet()) {
+                result.domainToNameservers.put(entry.getKey(), entry
+                        .getValue().toSortedDistinct());
+            }
+            return result;
+        }
+
+        /**
+         * append id to array of key.
+         * 
+         * @param map
+         *            map.
+         * @param key
+         *            key.
+         * @param id
+         *            id.
+         * @param <K>
+         *            key type.
+         */
+        private static <K> void append(Map<K, LongArray> map, K key, long id) {
+            LongArray array = map.get(key);
+            if (null == array) {
+                array = new LongArray();
+                map.put(key, array);
+            }
+            array.add(id);
+        }
+    }
+
+    /**
+     * growable long array.
+     * 
+     * @author jiashuo
+     * 
+     */
+    private static final class LongArray {
+        /**
+         * values.
+         */
+        private long[] values = new long[2];
+        /**
+         * used length.
+         */
+        private int length;
+
+        /**
+         * add value.
+         * 
+         * @param value
+         *            value.
+         */
+        void add(long value) {
+            if (length == values.length) {
+                values = Arrays.copyOf(values, length * 2);
+            }
+            values[length++] = value;
+        }
+
+        /**
+         * get sorted distinct values.
+         * 
+         * @return values.
+         */
+        long[] toSortedDistinct() {
+            return sortedDistinct(values, length);
+        }
+    }
+}
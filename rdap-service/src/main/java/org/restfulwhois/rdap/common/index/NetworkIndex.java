@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.restfulwhois.rdap.common.model.IpVersion;
+import org.restfulwhois.rdap.common.util.NetworkInBytes;
+
+/**
+ * <pre>
+ * most-specific-match network index for v4 and v6.
+ *
+ * Readers use an immutable snapshot without lock. Changes are applied by
+ * put/remove, which copy the small change set: changed values are excluded
+ * from the base NetworkRangeIndex, and new ranges are matched by scanning
+ * the change set. When the change set is larger than compactThreshold, base
+ * index is rebuilt with all changes merged.
+ * </pre>
+ *
+ * @author jiashuo
+ *
+ */
+public class NetworkIndex {
+    /**
+     * default compact threshold.
+     */
+    public static final int DEFAULT_COMPACT_THRESHOLD = 1024;
+
+    /**
+     * current snapshot.
+     */
+    private volatile Snapshot snapshot = new Snapshot(
+            new ArrayList<NetworkRange>(), new HashSet<Long>(),
+            new ArrayList<NetworkRange>());
+
+    /**
+     * change set size to rebuild base index.
+     */
+    private final int compactThreshold;
+
+    /**
+     * constructor.
+     */
+    public NetworkIndex() {
+        this(DEFAULT_COMPACT_THRESHOLD);
+    }
+
+    /**
+     * constructor.
+     *
+     * @param compactThreshold
+     *            change set size to rebuild base index.
+     */
+    public NetworkIndex(int compactThreshold) {
+        super();
+        this.compactThreshold = compactThreshold;
+    }
+
+    /**
+     * replace all ranges in this index.
+     *
+     * @param ranges
+     *            ranges.
+     */
+    public synchronized void load(List<NetworkRange> ranges) {
+        this.snapshot =
+                new Snapshot(ranges, new HashSet<Long>(),
+                        new ArrayList<NetworkRange>());
+    }
+
+    /**
+     * find value of most specific range which covers network.
+     *
+     * @param network
+     *            network.
+     * @return value, or NetworkRangeIndex.NOT_FOUND.
+     */
+    public long findMostSpecific(NetworkInBytes network) {
+        if (null == network || null == network.getIpVersion()) {
+            return NetworkRangeIndex.NOT_FOUND;
+        }
+        Snapshot current = this.snapshot;
+        NetworkRangeIndex base = current.getBase(network.getIpVersion());
+        if (null == base) {
+            return NetworkRangeIndex.NOT_FOUND;
+        }
+        if (current.removedValues.isEmpty() && current.addedRanges.isEmpty()) {
+            return base.findMostSpecific(network.getStartAddress(),
+                    network.getEndAddress());
+        }
+        return base.findMostSpecific(network.getStartAddress(),
+                network.getEndAddress(), current.removedValues,
+                current.addedRanges);
+    }
+
+    /**
+     * add or replace range with the same value.
+     *
+     * @param range
+     *            range.
+     */
+    public synchronized void put(NetworkRange range) {
+        Set<Long> removed = new HashSet<Long>(snapshot.removedValues);
+        List<NetworkRange> added =
+                new ArrayList<NetworkRange>(snapshot.addedRanges);
+        removed.add(range.getValue());
+        removeByValue(added, range.getValue());
+        if (range.isValid()) {
+            added.add(range);
+        }
+        applyChanges(removed, added);
+    }
+
+    /**
+     * remove range by value.
+     *
+     * @param value
+     *            value.
+     */
+    public synchronized void remove(long value) {
+        Set<Long> removed = new HashSet<Long>(snapshot.removedValues);
+        List<NetworkRange> added =
+                new ArrayList<NetworkRange>(snapshot.addedRanges);
+        removed.add(value);
+        removeByValue(added, value);
+        applyChanges(removed, added);
+    }
+
+    /**
+     * get range count of base index and added ranges, removed values are
+     * counted until index is compacted.
+     *
+     * @return range count.
+     */
+    public int size() {
+        Snapshot current = this.snapshot;
+        return current.v4.size() + current.v6.size()
+                + current.addedRanges.size();
+    }
+
+    /**
+     * publish new snapshot, and compact it if change set is too large.
+     *
+     * @param removed
+     *            removed values.
+     * @param added
+     *            added ranges.
+     */
+    private void applyChanges(Set<Long> removed, List<NetworkRange> added) {
+        Snapshot current = this.snapshot;
+        if (removed.size() + added.size() <= compactThreshold) {
+            this.snapshot = new Snapshot(current.v4, current.v6, removed, added);
+            return;
+        }
+        List<NetworkRange> merged = current.v4.getRanges(removed);
+        merged.addAll(current.v6.getRanges(removed));
+        merged.addAll(added);
+        this.snapshot =
+                new Snapshot(merged, new HashSet<Long>(),
+                        new ArrayList<NetworkRange>());
+    }
+
+    /**
+     * remove range from list by value.
+     *
+     * @param ranges
+     *            ranges.
+     * @param value
+     *            value.
+     */
+    private static void removeByValue(List<NetworkRange> ranges, long value) {
+        for (Iterator<NetworkRange> it = ranges.iterator(); it.hasNext();) {
+            if (it.next().getValue() == value) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * immutable snapshot of index.
+     *
+     * @author jiashuo
+     *
+     */
+    private static final class Snapshot {
+        /**
+         * base index for v4.
+         */
+        private final NetworkRangeIndex v4;
+        /**
+         * base index for v6.
+         */
+        private final NetworkRangeIndex v6;
+        /**
+         * values removed from base index.
+         */
+        private final Set<Long> removedValues;
+        /**
+         * ranges added after base index is built.
+         */
+        private final List<NetworkRange> addedRanges;
+
+        /**
+         * constructor, build base index from ranges.
+         *
+         * @param ranges
+         *            ranges.
+         * @param removedValues
+         *            removedValues.
+         * @param addedRanges
+         *            addedRanges.
+         */
+        Snapshot(List<NetworkRange> ranges, Set<Long> removedValues,
+                List<NetworkRange> addedRanges) {
+            this(new NetworkRangeIndex(IpVersion.V4, ranges),
+                    new NetworkRangeIndex(IpVersion.V6, ranges),
+                    removedValues, addedRanges);
+        }
+
+        /**
+         * constructor.
+         *
+         * @param v4
+         *            v4.
+         * @param v6
+         *            v6.
+         * @param removedValues
+         *            removedValues.
+         * @param addedRanges
+         *            addedRanges.
+         */
+        Snapshot(NetworkRangeIndex v4, NetworkRangeIndex v6,
+                Set<Long> removedValues, List<NetworkRange> addedRanges) {
+            this.v4 = v4;
+            this.v6 = v6;
+            this.removedValues = Collections.unmodifiableSet(removedValues);
+            this.addedRanges = Collections.unmodifiableList(addedRanges);
+        }
+
+        /**
+         * get base index by IP version.
+         *
+         * @param ipVersion
+         *            ipVersion.
+         * @return index, null if ipVersion is invalid.
+         */
+        NetworkRangeIndex getBase(IpVersion ipVersion) {
+            if (ipVersion.isV4()) {
+                return v4;
+            }
+            if (ipVersion.isV6()) {
+                return v6;
+            }
+            return null;
+        }
+    }
+}
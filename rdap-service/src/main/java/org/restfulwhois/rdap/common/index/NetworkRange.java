@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.index;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.restfulwhois.rdap.common.model.IpVersion;
+
+/**
+ * network range entry of NetworkRangeIndex.
+ * <p>
+ * value is the payload of range, such as IP_ID of RDAP_IP.
+ * </p>
+ *
+ * @author jiashuo
+ *
+ */
+public class NetworkRange {
+    /**
+     * IP version.
+     */
+    private IpVersion ipVersion;
+    /**
+     * start address, in bytes.
+     */
+    private byte[] startAddress;
+    /**
+     * end address, in bytes.
+     */
+    private byte[] endAddress;
+    /**
+     * value of range.
+     */
+    private long value;
+
+    /**
+     * constructor.
+     *
+     * @param ipVersion
+     *            ipVersion.
+     * @param startAddress
+     *            startAddress.
+     * @param endAddress
+     *            endAddress.
+     * @param value
+     *            value.
+     */
+    public NetworkRange(IpVersion ipVersion, byte[] startAddress,
+            byte[] endAddress, long value) {
+        super();
+        this.ipVersion = ipVersion;
+        this.startAddress = startAddress;
+        this.endAddress = endAddress;
+        this.value = value;
+    }
+
+    /**
+     * check if address length is matched with IP version.
+     *
+     * @return true if valid, false if not.
+     */
+    public boolean isValid() {
+        if (null == ipVersion || ipVersion.isNotValidIp()
+                || null == startAddress || null == endAddress) {
+            return false;
+        }
+        int length = NetworkRangeIndex.getAddressLength(ipVersion);
+        return startAddress.length == length && endAddress.length == length;
+    }
+
+    /**
+     * get ipVersion.
+     *
+     * @return ipVersion.
+     */
+    public IpVersion getIpVersion() {
+        return ipVersion;
+    }
+
+    /**
+     * get startAddress.
+     *
+     * @return startAddress.
+     */
+    public byte[] getStartAddress() {
+        return startAddress;
+    }
+
+    /**
+     * get endAddress.
+     *
+     * @return endAddress.
+     */
+    public byte[] getEndAddress() {
+        return endAddress;
+    }
+
+    /**
+     * get value.
+     *
+     * @return value.
+     */
+    public long getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this).append(ipVersion).append(value)
+                .toString();
+    }
+}
@@ -0,0 +1,520 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import org.restfulwhois.rdap.common.model.IpVersion;
+
+/**
+ * <pre>
+ * immutable in-memory index of network ranges for one IP version.
+ *
+ * It answers the same question as the SQL in
+ * NetworkQueryDaoImpl.generatePStatCreator:
+ *      STARTADDRESS<=? and ENDADDRESS>=?
+ *      order by STARTADDRESS desc,ENDADDRESS limit 1
+ *
+ * Ranges are sorted by (start asc, end desc), and addresses are stored in
+ * primitive long arrays, high/low 8 bytes with sign bit flipped, so signed
+ * comparison of long is the unsigned comparison of address.
+ * A max-end segment tree over the sorted ranges finds the rightmost range
+ * which covers the query end, in O(log n).
+ * </pre>
+ *
+ * @author jiashuo
+ *
+ */
+public final class NetworkRangeIndex {
+    /**
+     * value returned when no range matches.
+     */
+    public static final long NOT_FOUND = -1L;
+    /**
+     * byte length of v4 address.
+     */
+    private static final int ADDRESS_LENGTH_V4 = 4;
+    /**
+     * byte length of v6 address.
+     */
+    private static final int ADDRESS_LENGTH_V6 = 16;
+    /**
+     * byte length of long.
+     */
+    private static final int LONG_BYTES = 8;
+    /**
+     * bits of byte.
+     */
+    private static final int BYTE_BITS = 8;
+    /**
+     * byte mask.
+     */
+    private static final int BYTE_MASK = 0xFF;
+    /**
+     * comparator for sort: start asc, end desc.
+     */
+    private static final Comparator<long[]> RANGE_COMPARATOR =
+            new Comparator<long[]>() {
+                @Override
+                public int compare(long[] o1, long[] o2) {
+                    int result = compareKey(o1[0], o1[1], o2[0], o2[1]);
+                    if (result != 0) {
+                        return result;
+                    }
+                    return compareKey(o2[2], o2[3], o1[2], o1[3]);
+                }
+            };
+
+    /**
+     * IP version of this index.
+     */
+    private final IpVersion ipVersion;
+    /**
+     * address length of this index.
+     */
+    private final int addressLength;
+    /**
+     * range count.
+     */
+    private final int size;
+    /**
+     * high 8 bytes of start address.
+     */
+    private final long[] startHigh;
+    /**
+     * low 8 bytes of start address.
+     */
+    private final long[] startLow;
+    /**
+     * high 8 bytes of end address.
+     */
+    private final long[] endHigh;
+    /**
+     * low 8 bytes of end address.
+     */
+    private final long[] endLow;
+    /**
+     * values of ranges.
+     */
+    private final long[] values;
+    /**
+     * leaf count of segment tree, power of 2.
+     */
+    private final int leafCount;
+    /**
+     * segment tree of max end address, high 8 bytes.
+     */
+    private final long[] maxEndHigh;
+    /**
+     * segment tree of max end address, low 8 bytes.
+     */
+    private final long[] maxEndLow;
+
+    /**
+     * constructor. Ranges of other IP version or invalid ranges are ignored.
+     *
+     * @param ipVersion
+     *            ipVersion.
+     * @param ranges
+     *            ranges.
+     */
+    public NetworkRangeIndex(IpVersion ipVersion, List<NetworkRange> ranges) {
+        this.ipVersion = ipVersion;
+        this.addressLength = getAddressLength(ipVersion);
+        List<long[]> keys = new ArrayList<long[]>();
+        if (null != ranges) {
+            for (NetworkRange range : ranges) {
+                if (ipVersion.equals(range.getIpVersion()) && range.isValid()) {
+                    keys.add(toKey(range));
+                }
+            }
+        }
+        long[][] sorted = keys.toArray(new long[keys.size()][]);
+        Arrays.sort(sorted, RANGE_COMPARATOR);
+        this.size = sorted.length;
+        this.startHigh = new long[size];
+        this.startLow = new long[size];
+        this.endHigh = new long[size];
+        this.endLow = new long[size];
+        this.values = new long[size];
+        for (int i = 0; i < size; i++) {
+            startHigh[i] = sorted[i][0];
+            startLow[i] = sorted[i][1];
+            endHigh[i] = sorted[i][2];
+            endLow[i] = sorted[i][3];
+            values[i] = sorted[i][4];
+        }
+        int leaves = 1;
+        while (leaves < size) {
+            leaves <<= 1;
+        }
+        this.leafCount = leaves;
+        this.maxEndHigh = new long[2 * leaves];
+        this.maxEndLow = new long[2 * leaves];
+        Arrays.fill(maxEndHigh, Long.MIN_VALUE);
+        Arrays.fill(maxEndLow, Long.MIN_VALUE);
+        for (int i = 0; i < size; i++) {
+            maxEndHigh[leaves + i] = endHigh[i];
+            maxEndLow[leaves + i] = endLow[i];
+        }
+        for (int node = leaves - 1; node > 0; node--) {
+            int left = 2 * node;
+            int right = left + 1;
+            int max = compareKey(maxEndHigh[left], maxEndLow[left],
+                    maxEndHigh[right], maxEndLow[right]) >= 0 ? left : right;
+            maxEndHigh[node] = maxEndHigh[max];
+            maxEndLow[node] = maxEndLow[max];
+        }
+    }
+
+    /**
+     * get byte length of address.
+     *
+     * @param ipVersion
+     *            ipVersion.
+     * @return byte length, 0 if ipVersion is invalid.
+     */
+    public static int getAddressLength(IpVersion ipVersion) {
+        if (null == ipVersion) {
+            return 0;
+        }
+        if (ipVersion.isV4()) {
+            return ADDRESS_LENGTH_V4;
+        }
+        if (ipVersion.isV6()) {
+            return ADDRESS_LENGTH_V6;
+        }
+        return 0;
+    }
+
+    /**
+     * find value of most specific range which covers [start, end].
+     *
+     * @param start
+     *            start address.
+     * @param end
+     *            end address.
+     * @return value, or NOT_FOUND.
+     */
+    public long findMostSpecific(byte[] start, byte[] end) {
+        return findMostSpecific(start, end, null, null);
+    }
+
+    /**
+     * <pre>
+     * find value of most specific range which covers [start, end].
+     * Ranges whose value is in excludedValues are ignored, and ranges in
+     * extraRanges are also matched. This is used to apply changes on an
+     * immutable index without rebuilding it.
+     * </pre>
+     *
+     * @param start
+     *            start address.
+     * @param end
+     *            end address.
+     * @param excludedValues
+     *            values to be ignored, can be null.
+     * @param extraRanges
+     *            extra ranges to match, can be null.
+     * @return value, or NOT_FOUND.
+     */
+    public long findMostSpecific(byte[] start, byte[] end,
+            Set<Long> excludedValues, List<NetworkRange> extraRanges) {
+        if (null == start || null == end || start.length != addressLength
+                || end.length != addressLength) {
+            return NOT_FOUND;
+        }
+        long qStartHigh = high(start);
+        long qStartLow = low(start);
+        long qEndHigh = high(end);
+        long qEndLow = low(end);
+        int limit = upperBound(qStartHigh, qStartLow) - 1;
+        int pos = findRightmostCovering(limit, qEndHigh, qEndLow);
+        while (pos >= 0 && null != excludedValues
+                && excludedValues.contains(values[pos])) {
+            pos = findRightmostCovering(pos - 1, qEndHigh, qEndLow);
+        }
+        long result = NOT_FOUND;
+        long bestStartHigh = 0;
+        long bestStartLow = 0;
+        long bestEndHigh = 0;
+        long bestEndLow = 0;
+        if (pos >= 0) {
+            result = values[pos];
+            bestStartHigh = startHigh[pos];
+            bestStartLow = startLow[pos];
+            bestEndHigh = endHigh[pos];
+            bestEndLow = endLow[pos];
+        }
+        if (null == extraRanges) {
+            return result;
+        }
+        for (NetworkRange range : extraRanges) {
+            if (!ipVersion.equals(range.getIpVersion()) || !range.isValid()) {
+                continue;
+            }
+            long[] key = toKey(range);
+            if (compareKey(key[0], key[1], qStartHigh, qStartLow) > 0
+                    || compareKey(key[2], key[3], qEndHigh, qEndLow) < 0) {
+                continue;
+            }
+            boolean better = NOT_FOUND == result;
+            if (!better) {
+                int startCompare =
+                        compareKey(key[0], key[1], bestStartHigh,
+                                bestStartLow);
+                better =
+                        startCompare > 0
+                                || (startCompare == 0 && compareKey(key[2],
+                                        key[3], bestEndHigh, bestEndLow) < 0);
+            }
+            if (better) {
+                result = key[4];
+                bestStartHigh = key[0];
+                bestStartLow = key[1];
+                bestEndHigh = key[2];
+                bestEndLow = key[3];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * get ranges in this index.
+     *
+     * @param excludedValues
+     *            values to be ignored, can be null.
+     * @return range list.
+     */
+    public List<NetworkRange> getRanges(Set<Long> excludedValues) {
+        List<NetworkRange> result = new ArrayList<NetworkRange>(size);
+        for (int i = 0; i < size; i++) {
+            if (null != excludedValues && excludedValues.contains(values[i])) {
+                continue;
+            }
+            result.add(new NetworkRange(ipVersion, toBytes(startHigh[i],
+                    startLow[i]), toBytes(endHigh[i], endLow[i]), values[i]));
+        }
+        return result;
+    }
+
+    /**
+     * get range count.
+     *
+     * @return range count.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * get ipVersion.
+     *
+     * @return ipVersion.
+     */
+    public IpVersion getIpVersion() {
+        return ipVersion;
+    }
+
+    /**
+     * find first position whose start is larger than query start.
+     *
+     * @param qStartHigh
+     *            high 8 bytes of query start.
+     * @param qStartLow
+     *            low 8 bytes of query start.
+     * @return position.
+     */
+    private int upperBound(long qStartHigh, long qStartLow) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareKey(startHigh[mid], startLow[mid], qStartHigh,
+                    qStartLow) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * find rightmost position in [0, limit] whose end >= query end.
+     *
+     * @param limit
+     *            max position.
+     * @param qEndHigh
+     *            high 8 bytes of query end.
+     * @param qEndLow
+     *            low 8 bytes of query end.
+     * @return position, -1 if not found.
+     */
+    private int findRightmostCovering(int limit, long qEndHigh, long qEndLow) {
+        if (limit < 0) {
+            return -1;
+        }
+        return descend(1, 0, leafCount - 1, limit, qEndHigh, qEndLow);
+    }
+
+    /**
+     * descend segment tree, right child first.
+     *
+     * @param node
+     *            tree node.
+     * @param nodeLeft
+     *            first position of node.
+     * @param nodeRight
+     *            last position of node.
+     * @param limit
+     *            max position.
+     * @param qEndHigh
+     *            high 8 bytes of query end.
+     * @param qEndLow
+     *            low 8 bytes of query end.
+     * @return position, -1 if not found.
+     */
+    private int descend(int node, int nodeLeft, int nodeRight, int limit,
+            long qEndHigh, long qEndLow) {
+        if (nodeLeft > limit
+                || compareKey(maxEndHigh[node], maxEndLow[node], qEndHigh,
+                        qEndLow) < 0) {
+            return -1;
+        }
+        if (nodeLeft == nodeRight) {
+            return nodeLeft;
+        }
+        int mid = (nodeLeft + nodeRight) >>> 1;
+        int found =
+                descend(2 * node + 1, mid + 1, nodeRight, limit, qEndHigh,
+                        qEndLow);
+        if (found >= 0) {
+            return found;
+        }
+        return descend(2 * node, nodeLeft, mid, limit, qEndHigh, qEndLow);
+    }
+
+    /**
+     * convert range to sort key: startHigh,startLow,endHigh,endLow,value.
+     *
+     * @param range
+     *            range.
+     * @return key.
+     */
+    private static long[] toKey(NetworkRange range) {
+        return new long[] {high(range.getStartAddress()),
+                low(range.getStartAddress()), high(range.getEndAddress()),
+                low(range.getEndAddress()), range.getValue() };
+    }
+
+    /**
+     * compare two 16 bytes keys.
+     *
+     * @param high1
+     *            high1.
+     * @param low1
+     *            low1.
+     * @param high2
+     *            high2.
+     * @param low2
+     *            low2.
+     * @return compare result.
+     */
+    private static int compareKey(long high1, long low1, long high2, long low2) {
+        if (high1 != high2) {
+            return high1 < high2 ? -1 : 1;
+        }
+        if (low1 != low2) {
+            return low1 < low2 ? -1 : 1;
+        }
+        return 0;
+    }
+
+    /**
+     * get high 8 bytes of address, sign bit flipped.
+     *
+     * @param address
+     *            address.
+     * @return long.
+     */
+    private static long high(byte[] address) {
+        long result = 0;
+        for (int i = 0; i < address.length - LONG_BYTES; i++) {
+            result = (result << BYTE_BITS) | (address[i] & BYTE_MASK);
+        }
+        return result ^ Long.MIN_VALUE;
+    }
+
+    /**
+     * get low 8 bytes of address, sign bit flipped.
+     *
+     * @param address
+     *            address.
+     * @return long.
+     */
+    private static long low(byte[] address) {
+        long result = 0;
+        for (int i = Math.max(0, address.length - LONG_BYTES); i < address.length; i++) {
+            result = (result << BYTE_BITS) | (address[i] & BYTE_MASK);
+        }
+        return result ^ Long.MIN_VALUE;
+    }
+
+    /**
+     * convert high/low key back to address bytes.
+     *
+     * @param high
+     *            high.
+     * @param low
+     *            low.
+     * @return address.
+     */
+    private byte[] toBytes(long high, long low) {
+        byte[] result = new byte[addressLength];
+        long highValue = high ^ Long.MIN_VALUE;
+        long lowValue = low ^ Long.MIN_VALUE;
+        for (int i = addressLength - 1; i >= 0; i--) {
+            int shiftFromEnd = addressLength - 1 - i;
+            if (shiftFromEnd < LONG_BYTES) {
+                result[i] = (byte) (lowValue >>> (shiftFromEnd * BYTE_BITS));
+            } else {
+                result[i] =
+                        (byte) (highValue >>> ((shiftFromEnd - LONG_BYTES) * BYTE_BITS));
+            }
+        }
+        return result;
+    }
+}
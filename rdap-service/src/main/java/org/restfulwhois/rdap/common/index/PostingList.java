@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.index;
+
+import java.util.Arrays;
+
+/**
+ * <pre>
+ * immutable sorted id list, compressed as variable-length deltas.
+ * 
+ * Each id is stored as the difference to previous id, 7 bits per byte with
+ * the high bit as continuation flag, so dense ids take about one byte.
+ * </pre>
+ * 
+ * @author jiashuo
+ * 
+ */
+public final class PostingList {
+    /**
+     * empty list.
+     */
+    public static final PostingList EMPTY = new PostingList(new byte[0], 0);
+
+    /**
+     * encoded deltas.
+     */
+    private final byte[] data;
+
+    /**
+     * id count.
+     */
+    private final int size;
+
+    /**
+     * constructor.
+     * 
+     * @param data
+     *            encoded deltas.
+     * @param size
+     *            id count.
+     */
+    private PostingList(byte[] data, int size) {
+        super();
+        this.data = data;
+        this.size = size;
+    }
+
+    /**
+     * create list from ids.
+     * 
+     * @param ids
+     *            ids, may be unsorted or duplicated.
+     * @return list.
+     */
+    public static PostingList of(long[] ids) {
+        long[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        Builder builder = new Builder();
+        for (long id : sorted) {
+            builder.add(id);
+        }
+        return builder.build();
+    }
+
+    /**
+     * get id count.
+     * 
+     * @return id count.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * get encoded size in bytes.
+     * 
+     * @return bytes.
+     */
+    public int getEncodedSize() {
+        return data.length;
+    }
+
+    /**
+     * decode all ids.
+     * 
+     * @return sorted ids.
+     */
+    public long[] toArray() {
+        long[] result = new long[size];
+        int pos = 0;
+        long id = 0;
+        for (int i = 0; i < size; i++) {
+            long delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                delta |= (long) (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+            id += delta;
+            result[i] = id;
+        }
+        return result;
+    }
+
+    /**
+     * intersect sorted ids with this list.
+     * 
+     * @param ids
+     *            sorted ids.
+     * @return sorted ids in both.
+     */
+    public long[] intersect(long[] ids) {
+        long[] result = new long[Math.min(ids.length, size)];
+        int count = 0;
+        int pos = 0;
+        int index = 0;
+        long id = 0;
+        for (int i = 0; i < size && index < ids.length; i++) {
+            long delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                delta |= (long) (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+            id += delta;
+            while (index < ids.length && ids[index] < id) {
+                index++;
+            }
+            if (index < ids.length && ids[index] == id) {
+                result[count++] = id;
+                index++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * builder of PostingList, ids must be added in ascending order.
+     * 
+     * @author jiashuo
+     * 
+     */
+    public static final class Builder {
+        /**
+         * buffer.
+         */
+        private byte[] buffer = new byte[8];
+        /**
+         * used bytes.
+         */
+        private int length;
+        /**
+         * id count.
+         */
+        private int size;
+        /**
+         * last id.
+         */
+        private long last;
+
+        /**
+         * add id, id equal to last one is ignored.
+         * 
+         * @param id
+         *            id, not less than last one and not negative.
+         * @return this builder.
+         */
+        public Builder add(long id) {
+            if (size > 0 && id == last) {
+                return this;
+            }
+            if (id < 0 || (size > 0 && id < last)) {
+                throw new IllegalArgumentException("id must be ascending:"
+                        + id);
+            }
+            long delta = id - last;
+            if (length + 10 > buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            while ((delta & ~0x7fL) != 0) {
+                buffer[length++] = (byte) ((delta & 0x7f) | 0x80);
+                delta >>>= 7;
+            }
+            buffer[length++] = (byte) delta;
+            last = id;
+            size++;
+            return this;
+        }
+
+        /**
+         * get id count.
+         * 
+         * @return id count.
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * build list.
+         * 
+         * @return list.
+         */
+        public PostingList build() {
+            if (0 == size) {
+                return EMPTY;
+            }
+            return new PostingList(Arrays.copyOf(buffer, length), size);
+        }
+    }
+}
@@ -0,0 +1,500 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <pre>
+ * reversed name index, used to find ids of suffix search like '*.example.cn'.
+ * 
+ * Names are lower cased, reversed char by char and sorted, so names with
+ * the same suffix are adjacent, and a suffix search is a binary searched
+ * prefix range scan of reversed names.
+ * 
+ * Each name also keeps the sort key of its id, which is the first name
+ * added, so a page of a large suffix range is collected in memory by
+ * KeysetPageCollector.
+ * 
+ * Like NetworkIndex, readers use an immutable snapshot without lock, and
+ * changes are kept in a small change set until compactThreshold is reached.
+ * </pre>
+ * 
+ * @author jiashuo
+ * 
+ */
+public class ReversedNameIndex {
+    /**
+     * default compact threshold.
+     */
+    public static final int DEFAULT_COMPACT_THRESHOLD = 4096;
+
+    /**
+     * current snapshot.
+     */
+    private volatile Snapshot snapshot = new Snapshot(new Builder(),
+            new HashSet<Long>(), new HashMap<Long, String[]>());
+
+    /**
+     * change set size to rebuild base index.
+     */
+    private final int compactThreshold;
+
+    /**
+     * constructor.
+     */
+    public ReversedNameIndex() {
+        this(DEFAULT_COMPACT_THRESHOLD);
+    }
+
+    /**
+     * constructor.
+     * 
+     * @param compactThreshold
+     *            change set size to rebuild base index.
+     */
+    public ReversedNameIndex(int compactThreshold) {
+        super();
+        this.compactThreshold = compactThreshold;
+    }
+
+    /**
+     * replace all names in this index.
+     * 
+     * @param builder
+     *            builder with all names.
+     */
+    public synchronized void load(Builder builder) {
+        this.snapshot =
+                new Snapshot(builder, new HashSet<Long>(),
+                        new HashMap<Long, String[]>());
+    }
+
+    /**
+     * find ids of names ending with suffix, ignoring case.
+     * 
+     * @param suffix
+     *            suffix.
+     * @return sorted distinct ids.
+     */
+    public long[] findBySuffix(String suffix) {
+        return findBySuffix(suffix, Integer.MAX_VALUE);
+    }
+
+    /**
+     * find ids of names ending with suffix, ignoring case, and stop if there
+     * are too many names.
+     * 
+     * @param suffix
+     *            suffix.
+     * @param maxNames
+     *            max count of matched names in base index.
+     * @return sorted distinct ids, null if more than maxNames names match.
+     */
+    public long[] findBySuffix(String suffix, int maxNames) {
+        String prefix = reverse(suffix);
+        Snapshot current = this.snapshot;
+        int from = lowerBound(current.names, prefix);
+        List<Long> ids = new ArrayList<Long>();
+        for (int i = from; i < current.names.length
+                && current.names[i].startsWith(prefix); i++) {
+            if (i - from >= maxNames) {
+                return null;
+            }
+            if (!current.removedIds.contains(current.ids[i])) {
+                ids.add(current.ids[i]);
+            }
+        }
+        String lowerSuffix = suffix.toLowerCase(Locale.ENGLISH);
+        for (Map.Entry<Long, String[]> entry : current.addedValues.entrySet()) {
+            for (String name : entry.getValue()) {
+                if (null != name
+                        && name.toLowerCase(Locale.ENGLISH).endsWith(
+                                lowerSuffix)) {
+                    ids.add(entry.getKey());
+                    break;
+                }
+            }
+        }
+        return toSortedDistinctArray(ids);
+    }
+
+    /**
+     * offer ids of names ending with suffix to page collector, ignoring
+     * case.
+     * 
+     * @param collector
+     *            page collector.
+     * @param suffix
+     *            suffix.
+     */
+    public void collectBySuffix(KeysetPageCollector collector, String suffix) {
+        String prefix = reverse(suffix);
+        Snapshot current = this.snapshot;
+        for (int i = lowerBound(current.names, prefix); i < current.names.length
+                && current.names[i].startsWith(prefix); i++) {
+            if (!current.removedIds.contains(current.ids[i])) {
+                collector.offer(current.sortKeys[i], current.ids[i]);
+            }
+        }
+        String lowerSuffix = suffix.toLowerCase(Locale.ENGLISH);
+        for (Map.Entry<Long, String[]> entry : current.addedValues.entrySet()) {
+            for (String name : entry.getValue()) {
+                if (null != name
+                        && name.toLowerCase(Locale.ENGLISH).endsWith(
+                                lowerSuffix)) {
+                    collector.offer(getSortKey(entry.getValue()),
+                            entry.getKey());
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * add or replace names of id.
+     * 
+     * @param id
+     *            id.
+     * @param names
+     *            names, null names are ignored.
+     */
+    public synchronized void put(long id, String... names) {
+        Set<Long> removed = new HashSet<Long>(snapshot.removedIds);
+        Map<Long, String[]> added =
+                new HashMap<Long, String[]>(snapshot.addedValues);
+        removed.add(id);
+        added.put(id, names.clone());
+        applyChanges(removed, added);
+    }
+
+    /**
+     * remove names of id.
+     * 
+     * @param id
+     *            id.
+     */
+    public synchronized void remove(long id) {
+        Set<Long> removed = new HashSet<Long>(snapshot.removedIds);
+        Map<Long, String[]> added =
+                new HashMap<Long, String[]>(snapshot.addedValues);
+        removed.add(id);
+        added.remove(id);
+        applyChanges(removed, added);
+    }
+
+    /**
+     * get name count of base index.
+     * 
+     * @return name count.
+     */
+    public int size() {
+        return snapshot.names.length;
+    }
+
+    /**
+     * publish new snapshot, and compact it if change set is too large.
+     * 
+     * @param removed
+     *            removed ids.
+     * @param added
+     *            added names.
+     */
+    private void applyChanges(Set<Long> removed, Map<Long, String[]> added) {
+        Snapshot current = this.snapshot;
+        if (removed.size() + added.size() <= compactThreshold) {
+            this.snapshot =
+                    new Snapshot(current.names, current.ids,
+                            current.sortKeys, removed, added);
+            return;
+        }
+        Builder builder = new Builder();
+        for (int i = 0; i < current.names.length; i++) {
+            if (!removed.contains(current.ids[i])) {
+                builder.addReversed(current.ids[i], current.names[i],
+                        current.sortKeys[i]);
+            }
+        }
+        for (Map.Entry<Long, String[]> entry : added.entrySet()) {
+            builder.add(entry.getKey(), entry.getValue());
+        }
+        this.snapshot =
+                new Snapshot(builder, new HashSet<Long>(),
+                        new HashMap<Long, String[]>());
+    }
+
+    /**
+     * lower case and reverse name.
+     * 
+     * @param name
+     *            name.
+     * @return reversed name.
+     */
+    static String reverse(String name) {
+        return new StringBuilder(name.toLowerCase(Locale.ENGLISH)).reverse()
+                .toString();
+    }
+
+    /**
+     * get sort key of names, which is the first name.
+     * 
+     * @param names
+     *            names.
+     * @return normalized sort key.
+     */
+    static String getSortKey(String[] names) {
+        return KeysetPageCollector.normalize(0 == names.length ? null
+                : names[0]);
+    }
+
+    /**
+     * find first index whose name is not less than key.
+     * 
+     * @param names
+     *            sorted names.
+     * @param key
+     *            key.
+     * @return index, names.length if all are less than key.
+     */
+    private static int lowerBound(String[] names, String key) {
+        int low = 0;
+        int high = names.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (names[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * convert ids to sorted distinct array.
+     * 
+     * @param ids
+     *            ids.
+     * @return sorted distinct ids.
+     */
+    private static long[] toSortedDistinctArray(List<Long> ids) {
+        Collections.sort(ids);
+        long[] result = new long[ids.size()];
+        int count = 0;
+        for (Long id : ids) {
+            if (0 == count || result[count - 1] != id) {
+                result[count++] = id;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * builder of base index.
+     * 
+     * @author jiashuo
+     * 
+     */
+    public static final class Builder {
+        /**
+         * reversed names and ids, to be sorted by name.
+         */
+        private final List<Entry> entries = new ArrayList<Entry>();
+
+        /**
+         * add names of id.
+         * 
+         * @param id
+         *            id.
+         * @param names
+         *            names, null or duplicated names are ignored, the
+         *            first one is sort key.
+         * @return this builder.
+         */
+        public Builder add(long id, String... names) {
+            String sortKey = getSortKey(names);
+            Set<String> reversedNames = new HashSet<String>();
+            for (String name : names) {
+                if (null == name) {
+                    continue;
+                }
+                String reversedName = reverse(name);
+                if (reversedNames.add(reversedName)) {
+                    addReversed(id, reversedName, sortKey);
+                }
+            }
+            return this;
+        }
+
+        /**
+         * add reversed name of id.
+         * 
+         * @param id
+         *            id.
+         * @param reversedName
+         *            reversed name.
+         * @param sortKey
+         *            sort key.
+         */
+        private void addReversed(long id, String reversedName,
+                String sortKey) {
+            entries.add(new Entry(reversedName, id, sortKey));
+        }
+    }
+
+    /**
+     * reversed name and id.
+     * 
+     * @author jiashuo
+     * 
+     */
+    private static final class Entry implements Comparable<Entry> {
+        /**
+         * reversed name.
+         */
+        private final String name;
+        /**
+         * id.
+         */
+        private final long id;
+        /**
+         * sort key.
+         */
+        private final String sortKey;
+
+        /**
+         * constructor.
+         * 
+         * @param name
+         *            reversed name.
+         * @param id
+         *            id.
+         * @param sortKey
+         *            sortKey.
+         */
+        Entry(String name, long id, String sortKey) {
+            this.name = name;
+            this.id = id;
+            this.sortKey = sortKey;
+        }
+
+        @Override
+        public int compareTo(Entry o) {
+            return name.compareTo(o.name);
+        }
+    }
+
+    /**
+     * immutable snapshot of index.
+     * 
+     * @author jiashuo
+     * 
+     */
+    private static final class Snapshot {
+        /**
+         * sorted reversed names of base index, not changed after built.
+         */
+        private final String[] names;
+        /**
+         * ids of names.
+         */
+        private final long[] ids;
+        /**
+         * sort keys of names.
+         */
+        private final String[] sortKeys;
+        /**
+         * ids removed from base index.
+         */
+        private final Set<Long> removedIds;
+        /**
+         * names added after base index is built.
+         */
+        private final Map<Long, String[]> addedValues;
+
+        /**
+         * constructor, build base index from builder.
+         * 
+         * @param builder
+         *            builder.
+         * @param removedIds
+         *            removedIds.
+         * @param addedValues
+         *            addedValues.
+         */
+        Snapshot(Builder builder, Set<Long> removedIds,
+                Map<Long, String[]> addedValues) {
+            List<Entry> entries = builder.entries;
+            Collections.sort(entries);
+            this.names = new String[entries.size()];
+            this.ids = new long[entries.size()];
+            this.sortKeys = new String[entries.size()];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = entries.get(i).name;
+                ids[i] = entries.get(i).id;
+                sortKeys[i] = entries.get(i).sortKey;
+            }
+            this.removedIds = Collections.unmodifiableSet(removedIds);
+            this.addedValues = Collections.unmodifiableMap(addedValues);
+        }
+
+        /**
+         * constructor.
+         * 
+         * @param names
+         *            names.
+         * @param ids
+         *            ids.
+         * @param sortKeys
+         *            sortKeys.
+         * @param removedIds
+         *            removedIds.
+         * @param addedValues
+         *            addedValues.
+         */
+        Snapshot(String[] names, long[] ids, String[] sortKeys,
+                Set<Long> removedIds, Map<Long, String[]> addedValues) {
+            this.names = names;
+            this.ids = ids;
+            this.sortKeys = sortKeys;
+            this.removedIds = Collections.unmodifiableSet(removedIds);
+            this.addedValues = Collections.unmodifiableMap(addedValues);
+        }
+    }
+}
@@ -0,0 +1,421 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * <pre>
+ * trigram inverted index, used to find candidate ids of wildcard search.
+ * 
+ * Values are lower cased and split into trigrams, each trigram maps to a
+ * PostingList of ids. A pattern is split by wildcards ('*', '%', '_') into
+ * literal segments, and ids containing all trigrams of the segments are
+ * candidates. Candidates are a superset of matched ids, so they must be
+ * checked by the original 'like' condition.
+ * 
+ * Like NetworkIndex, readers use an immutable snapshot without lock, and
+ * changes are kept in a small change set until compactThreshold is reached.
+ * </pre>
+ * 
+ * @author jiashuo
+ * 
+ */
+public class TrigramIndex {
+    /**
+     * default compact threshold.
+     */
+    public static final int DEFAULT_COMPACT_THRESHOLD = 4096;
+
+    /**
+     * gram length.
+     */
+    private static final int GRAM_LENGTH = 3;
+
+    /**
+     * current snapshot.
+     */
+    private volatile Snapshot snapshot = new Snapshot(
+            new HashMap<Long, PostingList>(), new HashSet<Long>(),
+            new HashMap<Long, String[]>());
+
+    /**
+     * change set size to rebuild base index.
+     */
+    private final int compactThreshold;
+
+    /**
+     * constructor.
+     */
+    public TrigramIndex() {
+        this(DEFAULT_COMPACT_THRESHOLD);
+    }
+
+    /**
+     * constructor.
+     * 
+     * @param compactThreshold
+     *            change set size to rebuild base index.
+     */
+    public TrigramIndex(int compactThreshold) {
+        super();
+        this.compactThreshold = compactThreshold;
+    }
+
+    /**
+     * replace all values in this index.
+     * 
+     * @param builder
+     *            builder with all values.
+     */
+    public synchronized void load(Builder builder) {
+        this.snapshot =
+                new Snapshot(builder.build(), new HashSet<Long>(),
+                        new HashMap<Long, String[]>());
+    }
+
+    /**
+     * find candidate ids which may match pattern.
+     * 
+     * @param pattern
+     *            pattern, with '*', '%' or '_' as wildcard.
+     * @return sorted candidate ids, null if pattern has no trigram and index
+     *         can not be used.
+     */
+    public long[] findCandidates(String pattern) {
+        Set<Long> grams = getPatternTrigrams(pattern);
+        if (grams.isEmpty()) {
+            return null;
+        }
+        Snapshot current = this.snapshot;
+        long[] result = findInBase(current.postings, grams);
+        if (current.removedIds.isEmpty() && current.addedValues.isEmpty()) {
+            return result;
+        }
+        List<Long> ids = new ArrayList<Long>();
+        for (long id : result) {
+            if (!current.removedIds.contains(id)) {
+                ids.add(id);
+            }
+        }
+        for (Map.Entry<Long, String[]> entry : current.addedValues.entrySet()) {
+            if (getTrigrams(entry.getValue()).containsAll(grams)) {
+                ids.add(entry.getKey());
+            }
+        }
+        Collections.sort(ids);
+        long[] merged = new long[ids.size()];
+        for (int i = 0; i < merged.length; i++) {
+            merged[i] = ids.get(i);
+        }
+        return merged;
+    }
+
+    /**
+     * add or replace values of id.
+     * 
+     * @param id
+     *            id.
+     * @param values
+     *            values, null values are ignored.
+     */
+    public synchronized void put(long id, String... values) {
+        Set<Long> removed = new HashSet<Long>(snapshot.removedIds);
+        Map<Long, String[]> added =
+                new HashMap<Long, String[]>(snapshot.addedValues);
+        removed.add(id);
+        added.put(id, values.clone());
+        applyChanges(removed, added);
+    }
+
+    /**
+     * remove values of id.
+     * 
+     * @param id
+     *            id.
+     */
+    public synchronized void remove(long id) {
+        Set<Long> removed = new HashSet<Long>(snapshot.removedIds);
+        Map<Long, String[]> added =
+                new HashMap<Long, String[]>(snapshot.addedValues);
+        removed.add(id);
+        added.remove(id);
+        applyChanges(removed, added);
+    }
+
+    /**
+     * get trigram count of base index.
+     * 
+     * @return trigram count.
+     */
+    public int size() {
+        return snapshot.postings.size();
+    }
+
+    /**
+     * get trigrams of pattern, segments shorter than 3 chars are ignored.
+     * 
+     * @param pattern
+     *            pattern.
+     * @return trigrams.
+     */
+    static Set<Long> getPatternTrigrams(String pattern) {
+        Set<Long> grams = new HashSet<Long>();
+        if (null == pattern) {
+            return grams;
+        }
+        for (String segment : pattern.split("[*%_]")) {
+            addTrigrams(segment, grams);
+        }
+        return grams;
+    }
+
+    /**
+     * get trigrams of values.
+     * 
+     * @param values
+     *            values.
+     * @return trigrams.
+     */
+    static Set<Long> getTrigrams(String... values) {
+        Set<Long> grams = new HashSet<Long>();
+        for (String value : values) {
+            addTrigrams(value, grams);
+        }
+        return grams;
+    }
+
+    /**
+     * add trigrams of lower cased value to set.
+     * 
+     * @param value
+     *            value.
+     * @param grams
+     *            trigram set.
+     */
+    private static void addTrigrams(String value, Set<Long> grams) {
+        if (null == value || value.length() < GRAM_LENGTH) {
+            return;
+        }
+        String lower = value.toLowerCase(Locale.ENGLISH);
+        for (int i = 0; i + GRAM_LENGTH <= lower.length(); i++) {
+            grams.add(((long) lower.charAt(i) << 32)
+                    | ((long) lower.charAt(i + 1) << 16)
+                    | lower.charAt(i + 2));
+        }
+    }
+
+    /**
+     * intersect postings of trigrams, from the shortest one.
+     * 
+     * @param postings
+     *            postings.
+     * @param grams
+     *            trigrams.
+     * @return sorted ids.
+     */
+    private static long[] findInBase(Map<Long, PostingList> postings,
+            Set<Long> grams) {
+        List<PostingList> lists = new ArrayList<PostingList>();
+        for (Long gram : grams) {
+            PostingList list = postings.get(gram);
+            if (null == list) {
+                return new long[0];
+            }
+            lists.add(list);
+        }
+        Collections.sort(lists, new Comparator<PostingList>() {
+            @Override
+            public int compare(PostingList o1, PostingList o2) {
+                return o1.size() - o2.size();
+            }
+        });
+        long[] result = lists.get(0).toArray();
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = lists.get(i).intersect(result);
+        }
+        return result;
+    }
+
+    /**
+     * publish new snapshot, and compact it if change set is too large.
+     * 
+     * @param removed
+     *            removed ids.
+     * @param added
+     *            added values.
+     */
+    private void applyChanges(Set<Long> removed, Map<Long, String[]> added) {
+        Snapshot current = this.snapshot;
+        if (removed.size() + added.size() <= compactThreshold) {
+            this.snapshot = new Snapshot(current.postings, removed, added);
+            return;
+        }
+        Map<Long, List<Long>> addedIdsByGram = new HashMap<Long, List<Long>>();
+        for (Map.Entry<Long, String[]> entry : new TreeMap<Long, String[]>(
+                added).entrySet()) {
+            for (Long gram : getTrigrams(entry.getValue())) {
+                List<Long> ids = addedIdsByGram.get(gram);
+                if (null == ids) {
+                    ids = new ArrayList<Long>();
+                    addedIdsByGram.put(gram, ids);
+                }
+                ids.add(entry.getKey());
+            }
+        }
+        Set<Long> allGrams = new HashSet<Long>(current.postings.keySet());
+        allGrams.addAll(addedIdsByGram.keySet());
+        Map<Long, PostingList> postings = new HashMap<Long, PostingList>();
+        for (Long gram : allGrams) {
+            PostingList base = current.postings.get(gram);
+            long[] baseIds = null == base ? new long[0] : base.toArray();
+            List<Long> addedIds = addedIdsByGram.get(gram);
+            PostingList.Builder builder = new PostingList.Builder();
+            int j = 0;
+            for (long id : baseIds) {
+                if (removed.contains(id)) {
+                    continue;
+                }
+                while (null != addedIds && j < addedIds.size()
+                        && addedIds.get(j) < id) {
+                    builder.add(addedIds.get(j++));
+                }
+                builder.add(id);
+            }
+            while (null != addedIds && j < addedIds.size()) {
+                builder.add(addedIds.get(j++));
+            }
+            if (builder.size() > 0) {
+                postings.put(gram, builder.build());
+            }
+        }
+        this.snapshot =
+                new Snapshot(postings, new HashSet<Long>(),
+                        new HashMap<Long, String[]>());
+    }
+
+    /**
+     * builder of base index, ids must be added in ascending order.
+     * 
+     * @author jiashuo
+     * 
+     */
+    public static final class Builder {
+        /**
+         * posting builders.
+         */
+        private final Map<Long, PostingList.Builder> builders =
+                new HashMap<Long, PostingList.Builder>();
+
+        /**
+         * add values of id.
+         * 
+         * @param id
+         *            id, not less than last one.
+         * @param values
+         *            values, null values are ignored.
+         * @return this builder.
+         */
+        public Builder add(long id, String... values) {
+            for (Long gram : getTrigrams(values)) {
+                PostingList.Builder builder = builders.get(gram);
+                if (null == builder) {
+                    builder = new PostingList.Builder();
+                    builders.put(gram, builder);
+                }
+                builder.add(id);
+            }
+            return this;
+        }
+
+        /**
+         * build postings.
+         * 
+         * @return postings.
+         */
+        Map<Long, PostingList> build() {
+            Map<Long, PostingList> postings =
+                    new HashMap<Long, PostingList>(builders.size() * 4 / 3 + 1);
+            for (Map.Entry<Long, PostingList.Builder> entry : builders
+                    .entrySet()) {
+                postings.put(entry.getKey(), entry.getValue().build());
+            }
+            return postings;
+        }
+    }
+
+    /**
+     * immutable snapshot of index.
+     * 
+     * @author jiashuo
+     * 
+     */
+    private static final class Snapshot {
+        /**
+         * base postings, by trigram, not changed after built.
+         */
+        private final Map<Long, PostingList> postings;
+        /**
+         * ids removed from base postings.
+         */
+        private final Set<Long> removedIds;
+        /**
+         * values added after base postings are built.
+         */
+        private final Map<Long, String[]> addedValues;
+
+        /**
+         * constructor.
+         * 
+         * @param postings
+         *            postings.
+         * @param removedIds
+         *            removedIds.
+         * @param addedValues
+         *            addedValues.
+         */
+        Snapshot(Map<Long, PostingList> postings, Set<Long> removedIds,
+                Map<Long, String[]> addedValues) {
+            this.postings = postings;
+            this.removedIds = Collections.unmodifiableSet(removedIds);
+            this.addedValues = Collections.unmodifiableMap(addedValues);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ *org.restfulwhois.rdap.common.index
+ * @author jiashuo
+ *
+ */
+package org.restfulwhois.rdap.common.index;
\ No newline at end of file
@@ -47,6 +47,7 @@ import java.util.Map;
 
 import org.apache.commons.lang.StringUtils;
 import org.restfulwhois.rdap.common.dao.UpdateDao;
+import org.restfulwhois.rdap.common.dao.impl.QueryCacheDao;
 import org.restfulwhois.rdap.common.dto.BaseDto;
 import org.restfulwhois.rdap.common.dto.EntityDto;
 import org.restfulwhois.rdap.common.dto.UpdateResponse;
@@ -120,6 +121,12 @@ public abstract class AbstractUpdateService<DTO extends BaseDto, MODEL extends B
     @Autowired
     private UpdateDao<Entity, EntityDto> entityDao;
 
+    /**
+     * query cache.
+     */
+    @Autowired
+    private QueryCacheDao queryCacheDao;
+
     @Override
     public UpdateResponse execute(DTO dto) {
         LOGGER.debug("update dto:{}", dto);
@@ -132,6 +139,7 @@ public abstract class AbstractUpdateService<DTO extends BaseDto, MODEL extends B
         }
         MODEL model = convertDtoToModel(dto);
         execute(model);
+        queryCacheDao.invalidate(model);
         UpdateResponse response =
                 UpdateResponse.buildSuccessResponse(model.getHandle());
         long usedTime = System.currentTimeMillis() - queryStart;
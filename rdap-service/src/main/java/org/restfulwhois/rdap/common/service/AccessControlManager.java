@@ -30,6 +30,8 @@
  */
 package org.restfulwhois.rdap.common.service;
 
+import java.util.List;
+
 import org.restfulwhois.rdap.common.model.base.BaseModel;
 
 /**
@@ -49,5 +51,13 @@ public interface AccessControlManager {
      * @return true if has permission,false if not.
      */
     boolean hasPermission(BaseModel object);   
-    
+
+    /**
+     * check if current request user has permission for each model object.
+     * 
+     * @param objects
+     *            secure objects.
+     * @return result array, in the same order of objects.
+     */
+    boolean[] hasPermission(List<? extends BaseModel> objects);
 }
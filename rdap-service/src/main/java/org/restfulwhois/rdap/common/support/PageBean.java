@@ -70,6 +70,10 @@ public class PageBean implements java.io.Serializable {
      * page count.
      */
     private int pageCount;
+    /**
+     * cursor of keyset paging, page starts after it if not null.
+     */
+    private SearchCursor cursor;
 
     /**
      * Creates a new PageBean object.
@@ -215,6 +219,25 @@ public class PageBean implements java.io.Serializable {
         this.currentPage++;
     }
 
+    /**
+     * get cursor.
+     * 
+     * @return cursor, null for first page.
+     */
+    public SearchCursor getCursor() {
+        return cursor;
+    }
+
+    /**
+     * set cursor.
+     * 
+     * @param cursor
+     *            : cursor which page starts after.
+     */
+    public void setCursor(SearchCursor cursor) {
+        this.cursor = cursor;
+    }
+
     /**
      * to string.
      * 
@@ -225,6 +248,7 @@ public class PageBean implements java.io.Serializable {
         return new ToStringBuilder(this).append("currentPage", currentPage)
                 .append("maxRecords", maxRecords)
                 .append("recordsCount", recordsCount)
+                .append("cursor", cursor)
                 .append("parameterMap", parameterMap).toString();
     }
 
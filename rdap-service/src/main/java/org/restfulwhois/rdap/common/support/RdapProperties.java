@@ -124,6 +124,127 @@ public class RdapProperties {
      */
     private static List<String> notImplementedUriList;
 
+    /**
+     * enable in-memory network index for IP query.
+     */
+    private static Boolean networkIndexEnabled;
+
+    /**
+     * enable in-memory redirect index.
+     */
+    private static Boolean redirectIndexEnabled;
+
+    /**
+     * enable in-memory autnum index for autnum query.
+     */
+    private static Boolean autnumIndexEnabled;
+
+    /**
+     * max burst requests for anonymous user.
+     */
+    private static Long rateLimitBurstAnonymous;
+
+    /**
+     * max burst requests for logined user.
+     */
+    private static Long rateLimitBurstAuthed;
+
+    /**
+     * max client count kept by rate limiter.
+     */
+    private static Integer rateLimitMaxClients;
+
+    /**
+     * load ACL into memory.
+     */
+    private static Boolean aclIndexEnabled;
+
+    /**
+     * ACL index refresh interval, in milliseconds.
+     */
+    private static Long aclIndexRefreshInterval;
+
+    /**
+     * max entry count of verified basic authentication credential cache.
+     */
+    private static Integer credentialCacheMaxEntries;
+
+    /**
+     * time to live of cached credential, in milliseconds.
+     */
+    private static Long credentialCacheTtl;
+
+    /**
+     * interval to check cached credentials against RDAP_IDENTITY_USER, in milliseconds.
+     */
+    private static Long credentialCacheRefreshInterval;
+
+    /**
+     * if trigram index of domain, nameserver and entity names is enabled.
+     */
+    private static Boolean trigramIndexEnabled;
+
+    /**
+     * max candidate count of trigram index, search by SQL scan if exceeded.
+     */
+    private static Integer trigramIndexMaxCandidates;
+
+    /**
+     * if reversed name index of domain and nameserver names is enabled.
+     */
+    private static Boolean reversedNameIndexEnabled;
+
+    /**
+     * if in-memory nameserver IP index is enabled
+     */
+    private static Boolean nsIpIndexEnabled;
+
+    /**
+     * max entries of object query cache, by type.
+     */
+    private static Integer queryCacheMaxEntries;
+
+    /**
+     * max entries of object query cache for some types, splited by ';'.
+     */
+    private static String queryCacheTypeMaxEntries;
+
+    /**
+     * time to live of object query cache in milliseconds.
+     */
+    private static Long queryCacheTtl;
+
+    /**
+     * milliseconds to load missed objects of query cache from primary
+     * database after invalidation.
+     */
+    private static Long queryCachePrimaryLoadWindow;
+
+    /**
+     * interval to log object query cache statistics in milliseconds.
+     */
+    private static Long queryCacheStatsInterval;
+
+    /**
+     * enable ETag/Last-Modified and 304 response for object query.
+     */
+    private static Boolean conditionalGetEnabled;
+
+    /**
+     * max-age of Cache-Control in seconds.
+     */
+    private static Integer conditionalGetMaxAge;
+
+    /**
+     * max entries of ETag cache, which answers If-None-Match before query.
+     */
+    private static Integer etagCacheMaxEntries;
+
+    /**
+     * if search results are read and written in batches.
+     */
+    private static Boolean searchStreamingEnabled;
+
     /**
      * clear 'in' and 'not in' tlds in memory,used for reload tlds.
      */
@@ -430,4 +551,463 @@ public class RdapProperties {
         RdapProperties.ipWhiteListForUpdateApi = ipWhiteListForUpdateApi;
     }
 
+    /**
+     * check if in-memory network index is enabled.
+     * 
+     * @return true if enabled, false if not.
+     */
+    public static boolean isNetworkIndexEnabled() {
+        return Boolean.TRUE.equals(networkIndexEnabled);
+    }
+
+    /**
+     * set networkIndexEnabled.
+     * 
+     * @param networkIndexEnabled
+     *            networkIndexEnabled.
+     */
+    public void setNetworkIndexEnabled(Boolean networkIndexEnabled) {
+        RdapProperties.networkIndexEnabled = networkIndexEnabled;
+    }
+
+    /**
+     * check if in-memory redirect index is enabled.
+     * 
+     * @return true if enabled, false if not.
+     */
+    public static boolean isRedirectIndexEnabled() {
+        return Boolean.TRUE.equals(redirectIndexEnabled);
+    }
+
+    /**
+     * set redirectIndexEnabled.
+     * 
+     * @param redirectIndexEnabled
+     *            redirectIndexEnabled.
+     */
+    public void setRedirectIndexEnabled(Boolean redirectIndexEnabled) {
+        RdapProperties.redirectIndexEnabled = redirectIndexEnabled;
+    }
+
+    /**
+     * check if in-memory autnum index is enabled.
+     * 
+     * @return true if enabled, false if not.
+     */
+    public static boolean isAutnumIndexEnabled() {
+        return Boolean.TRUE.equals(autnumIndexEnabled);
+    }
+
+    /**
+     * set autnumIndexEnabled.
+     * 
+     * @param autnumIndexEnabled
+     *            autnumIndexEnabled.
+     */
+    public void setAutnumIndexEnabled(Boolean autnumIndexEnabled) {
+        RdapProperties.autnumIndexEnabled = autnumIndexEnabled;
+    }
+
+    /**
+     * get rateLimitBurstAnonymous.
+     * 
+     * @return rateLimitBurstAnonymous.
+     */
+    public static Long getRateLimitBurstAnonymous() {
+        return rateLimitBurstAnonymous;
+    }
+
+    /**
+     * set rateLimitBurstAnonymous.
+     * 
+     * @param rateLimitBurstAnonymous
+     *            rateLimitBurstAnonymous.
+     */
+    public void setRateLimitBurstAnonymous(Long rateLimitBurstAnonymous) {
+        RdapProperties.rateLimitBurstAnonymous = rateLimitBurstAnonymous;
+    }
+
+    /**
+     * get rateLimitBurstAuthed.
+     * 
+     * @return rateLimitBurstAuthed.
+     */
+    public static Long getRateLimitBurstAuthed() {
+        return rateLimitBurstAuthed;
+    }
+
+    /**
+     * set rateLimitBurstAuthed.
+     * 
+     * @param rateLimitBurstAuthed
+     *            rateLimitBurstAuthed.
+     */
+    public void setRateLimitBurstAuthed(Long rateLimitBurstAuthed) {
+        RdapProperties.rateLimitBurstAuthed = rateLimitBurstAuthed;
+    }
+
+    /**
+     * get rateLimitMaxClients.
+     * 
+     * @return rateLimitMaxClients.
+     */
+    public static Integer getRateLimitMaxClients() {
+        return rateLimitMaxClients;
+    }
+
+    /**
+     * set rateLimitMaxClients.
+     * 
+     * @param rateLimitMaxClients
+     *            rateLimitMaxClients.
+     */
+    public void setRateLimitMaxClients(Integer rateLimitMaxClients) {
+        RdapProperties.rateLimitMaxClients = rateLimitMaxClients;
+    }
+
+    /**
+     * check if in-memory ACL index is enabled.
+     * 
+     * @return true if enabled, false if not.
+     */
+    public static boolean isAclIndexEnabled() {
+        return Boolean.TRUE.equals(aclIndexEnabled);
+    }
+
+    /**
+     * set aclIndexEnabled.
+     * 
+     * @param aclIndexEnabled
+     *            aclIndexEnabled.
+     */
+    public void setAclIndexEnabled(Boolean aclIndexEnabled) {
+        RdapProperties.aclIndexEnabled = aclIndexEnabled;
+    }
+
+    /**
+     * get ACL index refresh interval.
+     * 
+     * @return aclIndexRefreshInterval.
+     */
+    public static Long getAclIndexRefreshInterval() {
+        return aclIndexRefreshInterval;
+    }
+
+    /**
+     * set aclIndexRefreshInterval.
+     * 
+     * @param aclIndexRefreshInterval
+     *            aclIndexRefreshInterval.
+     */
+    public void setAclIndexRefreshInterval(Long aclIndexRefreshInterval) {
+        RdapProperties.aclIndexRefreshInterval = aclIndexRefreshInterval;
+    }
+
+    /**
+     * get max entry count of credential cache, 0 if disabled.
+     * 
+     * @return credentialCacheMaxEntries.
+     */
+    public static Integer getCredentialCacheMaxEntries() {
+        return credentialCacheMaxEntries;
+    }
+
+    /**
+     * set credentialCacheMaxEntries.
+     * 
+     * @param credentialCacheMaxEntries
+     *            credentialCacheMaxEntries.
+     */
+    public void setCredentialCacheMaxEntries(Integer credentialCacheMaxEntries) {
+        RdapProperties.credentialCacheMaxEntries = credentialCacheMaxEntries;
+    }
+
+    /**
+     * get time to live of cached credential, in milliseconds.
+     * 
+     * @return credentialCacheTtl.
+     */
+    public static Long getCredentialCacheTtl() {
+        return credentialCacheTtl;
+    }
+
+    /**
+     * set credentialCacheTtl.
+     * 
+     * @param credentialCacheTtl
+     *            credentialCacheTtl.
+     */
+    public void setCredentialCacheTtl(Long credentialCacheTtl) {
+        RdapProperties.credentialCacheTtl = credentialCacheTtl;
+    }
+
+    /**
+     * get interval to check cached credentials, in milliseconds.
+     * 
+     * @return credentialCacheRefreshInterval.
+     */
+    public static Long getCredentialCacheRefreshInterval() {
+        return credentialCacheRefreshInterval;
+    }
+
+    /**
+     * set credentialCacheRefreshInterval.
+     * 
+     * @param credentialCacheRefreshInterval
+     *            credentialCacheRefreshInterval.
+     */
+    public void setCredentialCacheRefreshInterval(Long credentialCacheRefreshInterval) {
+        RdapProperties.credentialCacheRefreshInterval = credentialCacheRefreshInterval;
+    }
+
+    /**
+     * check if trigram index is enabled.
+     * 
+     * @return true if enabled, false if not.
+     */
+    public static boolean isTrigramIndexEnabled() {
+        return Boolean.TRUE.equals(trigramIndexEnabled);
+    }
+
+    /**
+     * set trigramIndexEnabled.
+     * 
+     * @param trigramIndexEnabled
+     *            trigramIndexEnabled.
+     */
+    public void setTrigramIndexEnabled(Boolean trigramIndexEnabled) {
+        RdapProperties.trigramIndexEnabled = trigramIndexEnabled;
+    }
+
+    /**
+     * get max candidate count of trigram index.
+     * 
+     * @return trigramIndexMaxCandidates.
+     */
+    public static Integer getTrigramIndexMaxCandidates() {
+        return trigramIndexMaxCandidates;
+    }
+
+    /**
+     * set trigramIndexMaxCandidates.
+     * 
+     * @param trigramIndexMaxCandidates
+     *            trigramIndexMaxCandidates.
+     */
+    public void setTrigramIndexMaxCandidates(Integer trigramIndexMaxCandidates) {
+        RdapProperties.trigramIndexMaxCandidates = trigramIndexMaxCandidates;
+    }
+
+    /**
+     * check if reversed name index is enabled.
+     * 
+     * @return true if enabled, false if not.
+     */
+    public static boolean isReversedNameIndexEnabled() {
+        return Boolean.TRUE.equals(reversedNameIndexEnabled);
+    }
+
+    /**
+     * set reversedNameIndexEnabled.
+     * 
+     * @param reversedNameIndexEnabled
+     *            reversedNameIndexEnabled.
+     */
+    public void setReversedNameIndexEnabled(Boolean reversedNameIndexEnabled) {
+        RdapProperties.reversedNameIndexEnabled = reversedNameIndexEnabled;
+    }
+
+    /**
+     * check if nameserver IP index is enabled
+     * 
+     * @return true if enabled, false if not.
+     */
+    public static boolean isNsIpIndexEnabled() {
+        return Boolean.TRUE.equals(nsIpIndexEnabled);
+    }
+
+    /**
+     * set nsIpIndexEnabled.
+     * 
+     * @param nsIpIndexEnabled
+     *            nsIpIndexEnabled.
+     */
+    public void setNsIpIndexEnabled(Boolean nsIpIndexEnabled) {
+        RdapProperties.nsIpIndexEnabled = nsIpIndexEnabled;
+    }
+
+    /**
+     * get max entries of object query cache, by type.
+     * 
+     * @return queryCacheMaxEntries.
+     */
+    public static Integer getQueryCacheMaxEntries() {
+        return queryCacheMaxEntries;
+    }
+
+    /**
+     * set queryCacheMaxEntries.
+     * 
+     * @param queryCacheMaxEntries
+     *            queryCacheMaxEntries.
+     */
+    public void setQueryCacheMaxEntries(Integer queryCacheMaxEntries) {
+        RdapProperties.queryCacheMaxEntries = queryCacheMaxEntries;
+    }
+
+    /**
+     * get max entries of object query cache for some types.
+     * 
+     * @return queryCacheTypeMaxEntries.
+     */
+    public static String getQueryCacheTypeMaxEntries() {
+        return queryCacheTypeMaxEntries;
+    }
+
+    /**
+     * set queryCacheTypeMaxEntries.
+     * 
+     * @param queryCacheTypeMaxEntries
+     *            queryCacheTypeMaxEntries.
+     */
+    public void setQueryCacheTypeMaxEntries(String queryCacheTypeMaxEntries) {
+        RdapProperties.queryCacheTypeMaxEntries = queryCacheTypeMaxEntries;
+    }
+
+    /**
+     * get time to live of object query cache in milliseconds.
+     * 
+     * @return queryCacheTtl.
+     */
+    public static Long getQueryCacheTtl() {
+        return queryCacheTtl;
+    }
+
+    /**
+     * set queryCacheTtl.
+     * 
+     * @param queryCacheTtl
+     *            queryCacheTtl.
+     */
+    public void setQueryCacheTtl(Long queryCacheTtl) {
+        RdapProperties.queryCacheTtl = queryCacheTtl;
+    }
+
+    /**
+     * get milliseconds to load missed objects of query cache from primary
+     * database after invalidation.
+     * 
+     * @return queryCachePrimaryLoadWindow.
+     */
+    public static Long getQueryCachePrimaryLoadWindow() {
+        return queryCachePrimaryLoadWindow;
+    }
+
+    /**
+     * set queryCachePrimaryLoadWindow.
+     * 
+     * @param queryCachePrimaryLoadWindow
+     *            queryCachePrimaryLoadWindow.
+     */
+    public void setQueryCachePrimaryLoadWindow(
+            Long queryCachePrimaryLoadWindow) {
+        RdapProperties.queryCachePrimaryLoadWindow =
+                queryCachePrimaryLoadWindow;
+    }
+
+    /**
+     * get interval to log object query cache statistics in milliseconds.
+     * 
+     * @return queryCacheStatsInterval.
+     */
+    public static Long getQueryCacheStatsInterval() {
+        return queryCacheStatsInterval;
+    }
+
+    /**
+     * set queryCacheStatsInterval.
+     * 
+     * @param queryCacheStatsInterval
+     *            queryCacheStatsInterval.
+     */
+    public void setQueryCacheStatsInterval(Long queryCacheStatsInterval) {
+        RdapProperties.queryCacheStatsInterval = queryCacheStatsInterval;
+    }
+
+    /**
+     * check if conditional GET is enabled.
+     * 
+     * @return true if enabled, false if not.
+     */
+    public static boolean isConditionalGetEnabled() {
+        return Boolean.TRUE.equals(conditionalGetEnabled);
+    }
+
+    /**
+     * set conditionalGetEnabled.
+     * 
+     * @param conditionalGetEnabled
+     *            conditionalGetEnabled.
+     */
+    public void setConditionalGetEnabled(Boolean conditionalGetEnabled) {
+        RdapProperties.conditionalGetEnabled = conditionalGetEnabled;
+    }
+
+    /**
+     * get max-age of Cache-Control in seconds.
+     * 
+     * @return conditionalGetMaxAge.
+     */
+    public static Integer getConditionalGetMaxAge() {
+        return conditionalGetMaxAge;
+    }
+
+    /**
+     * set conditionalGetMaxAge.
+     * 
+     * @param conditionalGetMaxAge
+     *            conditionalGetMaxAge.
+     */
+    public void setConditionalGetMaxAge(Integer conditionalGetMaxAge) {
+        RdapProperties.conditionalGetMaxAge = conditionalGetMaxAge;
+    }
+
+    /**
+     * get max entries of ETag cache.
+     * 
+     * @return etagCacheMaxEntries.
+     */
+    public static Integer getEtagCacheMaxEntries() {
+        return etagCacheMaxEntries;
+    }
+
+    /**
+     * set etagCacheMaxEntries.
+     * 
+     * @param etagCacheMaxEntries
+     *            etagCacheMaxEntries.
+     */
+    public void setEtagCacheMaxEntries(Integer etagCacheMaxEntries) {
+        RdapProperties.etagCacheMaxEntries = etagCacheMaxEntries;
+    }
+
+    /**
+     * check if search results are read and written in batches.
+     * 
+     * @return true if enabled, false if not.
+     */
+    public static boolean isSearchStreamingEnabled() {
+        return Boolean.TRUE.equals(searchStreamingEnabled);
+    }
+
+    /**
+     * set searchStreamingEnabled.
+     * 
+     * @param searchStreamingEnabled
+     *            searchStreamingEnabled.
+     */
+    public void setSearchStreamingEnabled(Boolean searchStreamingEnabled) {
+        RdapProperties.searchStreamingEnabled = searchStreamingEnabled;
+    }
+
 }
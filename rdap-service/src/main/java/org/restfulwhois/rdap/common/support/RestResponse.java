@@ -150,6 +150,39 @@ public class RestResponse {
         return new ResponseEntity<T>(response, headers, HttpStatus.OK);
     }
 
+    /**
+     * create response with HTTP status code 200, and with cache headers.
+     * 
+     * @param response
+     *            model T of response.
+     * @param cacheHeaders
+     *            ETag, Last-Modified and Cache-Control headers.
+     * @param <T>
+     *            a model
+     * @return ResponseEntity<T> ResponseEntity model.
+     */
+    public static <T> ResponseEntity<T> createResponse200(T response,
+            HttpHeaders cacheHeaders) {
+        HttpHeaders headers = generateContentTypeAndCrossOriginHeader();
+        headers.putAll(cacheHeaders);
+        return new ResponseEntity<T>(response, headers, HttpStatus.OK);
+    }
+
+    /**
+     * create response with HTTP status code 304, without body.
+     * 
+     * @param cacheHeaders
+     *            ETag, Last-Modified and Cache-Control headers.
+     * @return ResponseEntity.
+     */
+    public static ResponseEntity<Object> createResponse304(
+            HttpHeaders cacheHeaders) {
+        HttpHeaders headers = new HttpHeaders();
+        addCrossOriginHeader(headers);
+        headers.putAll(cacheHeaders);
+        return new ResponseEntity<Object>(headers, HttpStatus.NOT_MODIFIED);
+    }
+
     /**
      * create response with HTTP status code 400.
      * 
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.support;
+
+import java.io.UnsupportedEncodingException;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.builder.ToStringBuilder;
+
+import com.fasterxml.jackson.core.Base64Variants;
+
+/**
+ * <pre>
+ * cursor of keyset paged search.
+ * It points to the last returned row, by sort key and id of the row, and
+ * the next page starts after it.
+ * It is encoded to an opaque URL safe string for 'cursor' request param.
+ * </pre>
+ * 
+ * @author jiashuo
+ * 
+ */
+public class SearchCursor implements java.io.Serializable {
+    /**
+     * serialVersionUID.
+     */
+    private static final long serialVersionUID = -3188562713512894013L;
+    /**
+     * request param name of cursor.
+     */
+    public static final String PARAM_NAME = "cursor";
+
+    /**
+     * charset of encoded cursor.
+     */
+    private static final String CHARSET = "UTF-8";
+
+    /**
+     * splitter between id and sort key.
+     */
+    private static final char SPLITTER = ':';
+
+    /**
+     * sort key of row.
+     */
+    private final String sortKey;
+
+    /**
+     * id of row.
+     */
+    private final long id;
+
+    /**
+     * constructor.
+     * 
+     * @param sortKey
+     *            sort key, null is treated as empty string.
+     * @param id
+     *            id.
+     */
+    public SearchCursor(String sortKey, long id) {
+        super();
+        this.sortKey = StringUtils.defaultString(sortKey);
+        this.id = id;
+    }
+
+    /**
+     * encode cursor to string.
+     * 
+     * @return encoded cursor.
+     */
+    public String encode() {
+        try {
+            String cursor =
+                    new StringBuilder().append(id).append(SPLITTER)
+                            .append(sortKey).toString();
+            return Base64Variants.MODIFIED_FOR_URL.encode(cursor
+                    .getBytes(CHARSET));
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * decode cursor from string.
+     * 
+     * @param cursor
+     *            encoded cursor.
+     * @return cursor, null if cursor is blank or invalid.
+     */
+    public static SearchCursor decode(String cursor) {
+        if (StringUtils.isBlank(cursor)) {
+            return null;
+        }
+        try {
+            String decoded =
+                    new String(Base64Variants.MODIFIED_FOR_URL.decode(cursor),
+                            CHARSET);
+            int splitterIndex = decoded.indexOf(SPLITTER);
+            if (splitterIndex <= 0) {
+                return null;
+            }
+            long id = Long.parseLong(decoded.substring(0, splitterIndex));
+            return new SearchCursor(decoded.substring(splitterIndex + 1), id);
+        } catch (IllegalArgumentException e) {
+            return null;
+        } catch (UnsupportedEncodingException e) {
+            return null;
+        }
+    }
+
+    /**
+     * get sortKey.
+     * 
+     * @return sortKey.
+     */
+    public String getSortKey() {
+        return sortKey;
+    }
+
+    /**
+     * get id.
+     * 
+     * @return id.
+     */
+    public long getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this).append("sortKey", sortKey)
+                .append("id", id).toString();
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.support;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.restfulwhois.rdap.common.model.base.BaseModel;
+import org.restfulwhois.rdap.common.model.base.BaseSearchModel;
+import org.restfulwhois.rdap.common.model.base.SearchResultStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * <pre>
+ * JSON message converter which writes search model with result stream in
+ * batches. Other objects are written by MappingJackson2HttpMessageConverter.
+ * 
+ * Properties of search model which are known before results are read, such
+ * as rdapConformance, are written first, then results are written and
+ * flushed batch by batch, and properties which are completed after the last
+ * batch, such as notices and paging_metadata, are written at the end.
+ * 
+ * Response is committed after the first batch, so error in later batches
+ * can not change response code, and response is closed without end of JSON.
+ * </pre>
+ * 
+ * @author jiashuo
+ * 
+ */
+public class StreamingJackson2HttpMessageConverter extends
+        MappingJackson2HttpMessageConverter {
+    /**
+     * logger.
+     */
+    private static final Logger LOGGER = LoggerFactory
+            .getLogger(StreamingJackson2HttpMessageConverter.class);
+
+    @Override
+    protected void writeInternal(Object object, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        if (!(object instanceof BaseSearchModel)
+                || !((BaseSearchModel<?>) object).isStreaming()) {
+            super.writeInternal(object, outputMessage);
+            return;
+        }
+        JsonEncoding encoding =
+                getJsonEncoding(outputMessage.getHeaders().getContentType());
+        ObjectMapper objectMapper = getObjectMapper();
+        JsonGenerator generator =
+                objectMapper.getFactory().createGenerator(
+                        outputMessage.getBody(), encoding);
+        try {
+            writeSearchModel(objectMapper, generator,
+                    (BaseSearchModel<?>) object);
+        } catch (JsonProcessingException ex) {
+            throw new HttpMessageNotWritableException("Could not write JSON: "
+                    + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * write search model with result stream.
+     * 
+     * @param objectMapper
+     *            objectMapper.
+     * @param generator
+     *            generator.
+     * @param searchModel
+     *            search model.
+     * @param <T>
+     *            model of search results.
+     * @throws IOException
+     *             IOException.
+     */
+    private <T extends BaseModel> void writeSearchModel(
+            ObjectMapper objectMapper, JsonGenerator generator,
+            BaseSearchModel<T> searchModel) throws IOException {
+        SearchResultStream<T> stream = searchModel.getResultStream();
+        ObjectWriter resultWriter =
+                objectMapper.writer().without(
+                        SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        Set<String> writtenFields = new HashSet<String>();
+        generator.writeStartObject();
+        writeFields(generator, objectMapper.valueToTree(searchModel),
+                writtenFields);
+        generator.writeArrayFieldStart(searchModel.getSearchResultsName());
+        int count = 0;
+        List<T> batch = stream.nextBatch();
+        while (!batch.isEmpty()) {
+            for (T result : batch) {
+                resultWriter.writeValue(generator, result);
+            }
+            generator.flush();
+            count += batch.size();
+            batch = stream.nextBatch();
+        }
+        generator.writeEndArray();
+        stream.complete(searchModel);
+        writeFields(generator, objectMapper.valueToTree(searchModel),
+                writtenFields);
+        generator.writeEndObject();
+        generator.flush();
+        LOGGER.debug("write search results in streaming mode, count:{}",
+                count);
+    }
+
+    /**
+     * write fields of JSON object, which are not written.
+     * 
+     * @param generator
+     *            generator.
+     * @param node
+     *            JSON object.
+     * @param writtenFields
+     *            names of written fields, new written names are added.
+     * @throws IOException
+     *             IOException.
+     */
+    private void writeFields(JsonGenerator generator, JsonNode node,
+            Set<String> writtenFields) throws IOException {
+        for (Iterator<Entry<String, JsonNode>> it = node.fields(); it
+                .hasNext();) {
+            Entry<String, JsonNode> field = it.next();
+            if (writtenFields.add(field.getKey())) {
+                generator.writeFieldName(field.getKey());
+                generator.writeTree(field.getValue());
+            }
+        }
+    }
+}
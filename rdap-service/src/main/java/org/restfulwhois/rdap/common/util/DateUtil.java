@@ -4,6 +4,7 @@ import java.text.SimpleDateFormat;
 import java.util.Date;
 
 import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.time.FastDateFormat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 /**
@@ -27,6 +28,11 @@ public final class DateUtil {
      * dateTime format.
      */
     private static final String FORMAT_DATETIME = "yyyy-MM-dd HH:mm:ss";
+    /**
+     * cached utc formatter, thread safe.
+     */
+    private static final FastDateFormat UTC_FORMATTER = FastDateFormat
+            .getInstance(FORMAT_UTC);
     /**
      * logger.
      */
@@ -70,6 +76,20 @@ public final class DateUtil {
         return new SimpleDateFormat(FORMAT_DATETIME).format(date);
     }
 
+    /**
+     * format date to utc string, by cached formatter.
+     * 
+     * @param date
+     *            date.
+     * @return utc string, null if date is null.
+     */
+    public static String formatUTCString(Date date) {
+        if (null == date) {
+            return null;
+        }
+        return UTC_FORMATTER.format(date);
+    }
+
     /**
      * parse dateString by format.
      * @param dateString
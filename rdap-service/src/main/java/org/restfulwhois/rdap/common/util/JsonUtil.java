@@ -88,6 +88,22 @@ public final class JsonUtil {
         return result;
     }
 
+    /**
+     * serialize object to json.
+     * 
+     * @param object
+     *            object.
+     * @return json, null if error.
+     */
+    public static String serialize(Object object) {
+        try {
+            return objectMapper.writeValueAsString(object);
+        } catch (Exception e) {
+            LOGGER.error("serialize error:{}", e);
+            return null;
+        }
+    }
+
     /**
      * serialize map to json.
      * @param map
@@ -0,0 +1,357 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.util;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.restfulwhois.rdap.common.model.base.BaseModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <pre>
+ * deep copy of model graph.
+ * 
+ * Query filters change returned model, e.g. column policy and notices, so
+ * cached model is copied before it is returned. Classes of this project are
+ * copied field by field with compiled plan of each class, List/Set/Map and
+ * arrays are copied, Date is cloned, and other values are immutable and
+ * shared.
+ * </pre>
+ * 
+ * @author jiashuo
+ * 
+ */
+public final class ModelCopyUtil {
+    /**
+     * logger.
+     */
+    private static final Logger LOGGER = LoggerFactory
+            .getLogger(ModelCopyUtil.class);
+
+    /**
+     * package prefix of copied classes.
+     */
+    private static final String MODEL_PACKAGE_PREFIX = "org.restfulwhois.rdap.";
+
+    /**
+     * compiled copy plans, by class.
+     */
+    private static final Map<Class<?>, CopyPlan> PLANS =
+            new ConcurrentHashMap<Class<?>, CopyPlan>();
+
+    /**
+     * private constructor.
+     */
+    private ModelCopyUtil() {
+        super();
+    }
+
+    /**
+     * deep copy object.
+     * 
+     * @param source
+     *            source object.
+     * @param models
+     *            all models in source graph are added to it, may be null.
+     * @param <T>
+     *            object type.
+     * @return copied object.
+     * @throws IllegalStateException
+     *             if a class can not be copied.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T copy(T source, Collection<BaseModel> models) {
+        return (T) copyValue(source, new IdentityHashMap<Object, Object>(),
+                models);
+    }
+
+    /**
+     * collect all models in object graph, without copy.
+     * 
+     * @param source
+     *            source object.
+     * @param models
+     *            all models in source graph are added to it.
+     */
+    public static void collectModels(Object source,
+            Collection<BaseModel> models) {
+        collectValue(source, new IdentityHashMap<Object, Object>(), models);
+    }
+
+    /**
+     * collect models in value.
+     * 
+     * @param value
+     *            value.
+     * @param visited
+     *            visited objects of graph.
+     * @param models
+     *            models of graph.
+     */
+    private static void collectValue(Object value,
+            Map<Object, Object> visited, Collection<BaseModel> models) {
+        if (null == value || isImmutable(value.getClass())
+                || value instanceof Date || visited.containsKey(value)) {
+            return;
+        }
+        visited.put(value, value);
+        if (value instanceof Collection) {
+            for (Object item : (Collection<?>) value) {
+                collectValue(item, visited, models);
+            }
+        } else if (value instanceof Map) {
+            for (Object item : ((Map<?, ?>) value).values()) {
+                collectValue(item, visited, models);
+            }
+        } else if (value.getClass().isArray()) {
+            if (value.getClass().getComponentType().isPrimitive()) {
+                return;
+            }
+            for (Object item : (Object[]) value) {
+                collectValue(item, visited, models);
+            }
+        } else if (value.getClass().getName()
+                .startsWith(MODEL_PACKAGE_PREFIX)) {
+            if (value instanceof BaseModel) {
+                models.add((BaseModel) value);
+            }
+            try {
+                for (Field field : getPlan(value.getClass()).fields) {
+                    collectValue(field.get(value), visited, models);
+                }
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("collect error:"
+                        + value.getClass().getName(), e);
+            }
+        }
+    }
+
+    /**
+     * deep copy value.
+     * 
+     * @param value
+     *            value.
+     * @param copied
+     *            copied objects of graph.
+     * @param models
+     *            models of graph, may be null.
+     * @return copied value.
+     */
+    @SuppressWarnings("unchecked")
+    private static Object copyValue(Object value,
+            Map<Object, Object> copied, Collection<BaseModel> models) {
+        if (null == value || isImmutable(value.getClass())) {
+            return value;
+        }
+        Object result = copied.get(value);
+        if (null != result) {
+            return result;
+        }
+        if (value instanceof Date) {
+            result = ((Date) value).clone();
+        } else if (value instanceof List) {
+            List<Object> list = new ArrayList<Object>();
+            copied.put(value, list);
+            for (Object item : (List<Object>) value) {
+                list.add(copyValue(item, copied, models));
+            }
+            result = list;
+        } else if (value instanceof Set) {
+            Set<Object> set = new LinkedHashSet<Object>();
+            copied.put(value, set);
+            for (Object item : (Set<Object>) value) {
+                set.add(copyValue(item, copied, models));
+            }
+            result = set;
+        } else if (value instanceof Map) {
+            Map<Object, Object> map = new LinkedHashMap<Object, Object>();
+            copied.put(value, map);
+            for (Map.Entry<Object, Object> entry : ((Map<Object, Object>) value)
+                    .entrySet()) {
+                map.put(entry.getKey(),
+                        copyValue(entry.getValue(), copied, models));
+            }
+            result = map;
+        } else if (value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            result =
+                    Array.newInstance(value.getClass().getComponentType(),
+                            length);
+            copied.put(value, result);
+            for (int i = 0; i < length; i++) {
+                Array.set(result, i,
+                        copyValue(Array.get(value, i), copied, models));
+            }
+        } else if (value.getClass().getName()
+                .startsWith(MODEL_PACKAGE_PREFIX)) {
+            result = copyObject(value, copied, models);
+        } else {
+            result = value;
+        }
+        copied.put(value, result);
+        return result;
+    }
+
+    /**
+     * copy object of this project field by field.
+     * 
+     * @param value
+     *            value.
+     * @param copied
+     *            copied objects of graph.
+     * @param models
+     *            models of graph, may be null.
+     * @return copied object.
+     */
+    private static Object copyObject(Object value,
+            Map<Object, Object> copied, Collection<BaseModel> models) {
+        CopyPlan plan = getPlan(value.getClass());
+        if (null == plan.constructor) {
+            throw new IllegalStateException("no default constructor:"
+                    + value.getClass().getName());
+        }
+        try {
+            Object result = plan.constructor.newInstance();
+            copied.put(value, result);
+            if (null != models && value instanceof BaseModel) {
+                models.add((BaseModel) value);
+            }
+            for (Field field : plan.fields) {
+                field.set(result,
+                        copyValue(field.get(value), copied, models));
+            }
+            return result;
+        } catch (Exception e) {
+            throw new IllegalStateException("copy error:"
+                    + value.getClass().getName(), e);
+        }
+    }
+
+    /**
+     * get the compiled plan of class, compile it if not exist.
+     * 
+     * @param clazz
+     *            class.
+     * @return plan.
+     */
+    private static CopyPlan getPlan(Class<?> clazz) {
+        CopyPlan plan = PLANS.get(clazz);
+        if (null != plan) {
+            return plan;
+        }
+        Constructor<?> constructor = null;
+        try {
+            constructor = clazz.getDeclaredConstructor();
+            constructor.setAccessible(true);
+        } catch (NoSuchMethodException e) {
+            LOGGER.debug("no default constructor:{}", clazz.getName());
+        }
+        List<Field> fields = new ArrayList<Field>();
+        for (Class<?> c = clazz; null != c && Object.class != c; c =
+                c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                field.setAccessible(true);
+                fields.add(field);
+            }
+        }
+        plan = new CopyPlan(constructor, fields.toArray(new Field[0]));
+        PLANS.put(clazz, plan);
+        return plan;
+    }
+
+    /**
+     * check if class is immutable.
+     * 
+     * @param clazz
+     *            class.
+     * @return true if immutable, false if not.
+     */
+    private static boolean isImmutable(Class<?> clazz) {
+        return clazz == String.class || clazz == Boolean.class
+                || clazz == Character.class || clazz.isEnum()
+                || clazz.isPrimitive()
+                || (Number.class.isAssignableFrom(clazz) && clazz
+                        .getName().startsWith("java.lang."))
+                || clazz == BigInteger.class
+                || clazz == BigDecimal.class
+                || (null != clazz.getSuperclass() && clazz.getSuperclass()
+                        .isEnum());
+    }
+
+    /**
+     * compiled copy plan of class.
+     * 
+     * @author jiashuo
+     * 
+     */
+    private static final class CopyPlan {
+        /**
+         * default constructor, null if not exist.
+         */
+        private final Constructor<?> constructor;
+        /**
+         * fields to copy.
+         */
+        private final Field[] fields;
+
+        /**
+         * constructor.
+         * 
+         * @param constructor
+         *            constructor.
+         * @param fields
+         *            fields.
+         */
+        CopyPlan(Constructor<?> constructor, Field[] fields) {
+            this.constructor = constructor;
+            this.fields = fields;
+        }
+    }
+}
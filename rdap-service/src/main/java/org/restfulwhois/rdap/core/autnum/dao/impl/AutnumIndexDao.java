@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.core.autnum.dao.impl;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+
+import org.restfulwhois.rdap.common.index.AutnumIndex;
+import org.restfulwhois.rdap.common.index.LongRangeIndex;
+import org.restfulwhois.rdap.common.model.Autnum;
+import org.restfulwhois.rdap.common.support.RdapProperties;
+import org.restfulwhois.rdap.common.util.TransactionUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+/**
+ * <pre>
+ * in-memory autnum index DAO of RDAP_AUTNUM.
+ * It maps AS range to AS_ID, and is used to find the smallest AS range
+ * without range scan in database.
+ * It is loaded at startup if 'autnumIndexEnabled' is true, and is updated
+ * by update API after transaction is committed, through the change set of
+ * AutnumIndex, so a write does not rebuild the whole index.
+ * </pre>
+ * 
+ * @author jiashuo
+ * 
+ */
+@Repository
+@DependsOn("rdapProperties")
+public class AutnumIndexDao {
+    /**
+     * logger.
+     */
+    private static final Logger LOGGER = LoggerFactory
+            .getLogger(AutnumIndexDao.class);
+
+    /**
+     * select all AS ranges.
+     */
+    private static final String SQL_LOAD_ALL =
+            "select AS_ID,START_AUTNUM,END_AUTNUM from RDAP_AUTNUM";
+
+    /**
+     * JDBC template.
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * index.
+     */
+    private final AutnumIndex index = new AutnumIndex();
+
+    /**
+     * load index at startup.
+     */
+    @PostConstruct
+    public void init() {
+        if (!isEnabled()) {
+            LOGGER.info("autnum index is disabled.");
+            return;
+        }
+        reload();
+    }
+
+    /**
+     * check if index is enabled.
+     * 
+     * @return true if enabled, false if not.
+     */
+    public boolean isEnabled() {
+        return RdapProperties.isAutnumIndexEnabled();
+    }
+
+    /**
+     * reload all AS ranges from database.
+     */
+    public void reload() {
+        long start = System.currentTimeMillis();
+        List<long[]> ranges =
+                jdbcTemplate.query(SQL_LOAD_ALL, new RowMapper<long[]>() {
+                    @Override
+                    public long[] mapRow(ResultSet rs, int rowNum)
+                            throws SQLException {
+                        return new long[] { rs.getLong("START_AUTNUM"),
+                                rs.getLong("END_AUTNUM"),
+                                rs.getLong("AS_ID") };
+                    }
+                });
+        index.load(new ArrayList<long[]>(ranges));
+        LOGGER.info("autnum index loaded, size:{}, milliseconds:{}",
+                index.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * find AS_ID of the smallest AS range which covers autnum.
+     * 
+     * @param autnum
+     *            AS number.
+     * @return AS_ID, null if not found.
+     */
+    public Long findSmallestId(long autnum) {
+        long id = index.findSmallest(autnum);
+        if (LongRangeIndex.NOT_FOUND == id) {
+            return null;
+        }
+        return id;
+    }
+
+    /**
+     * save or update autnum in index.
+     * 
+     * @param autnum
+     *            autnum, with id.
+     */
+    public void save(Autnum autnum) {
+        if (!isEnabled() || null == autnum.getId()
+                || null == autnum.getStartAutnum()
+                || null == autnum.getEndAutnum()) {
+            return;
+        }
+        final long start = autnum.getStartAutnum();
+        final long end = autnum.getEndAutnum();
+        final long id = autnum.getId();
+        TransactionUtil.runAfterCommit(new Runnable() {
+            @Override
+            public void run() {
+                index.put(start, end, id);
+            }
+        });
+    }
+
+    /**
+     * delete autnum from index.
+     * 
+     * @param autnum
+     *            autnum, with id.
+     */
+    public void delete(Autnum autnum) {
+        if (!isEnabled() || null == autnum.getId()) {
+            return;
+        }
+        final long id = autnum.getId();
+        TransactionUtil.runAfterCommit(new Runnable() {
+            @Override
+            public void run() {
+                index.remove(id);
+            }
+        });
+    }
+}
@@ -35,11 +35,14 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.restfulwhois.rdap.common.dao.AbstractQueryDao;
+import org.restfulwhois.rdap.common.dao.ColumnProjection;
+import org.restfulwhois.rdap.common.dao.ColumnProjection.Column;
 import org.restfulwhois.rdap.common.dao.QueryDao;
 import org.restfulwhois.rdap.common.dao.impl.SelfLinkGenerator;
 import org.restfulwhois.rdap.common.model.Autnum;
@@ -79,6 +82,65 @@ public class AutnumQueryDaoImpl extends AbstractQueryDao<Autnum> {
      */
     protected static final Logger LOGGER = LoggerFactory
             .getLogger(AutnumQueryDaoImpl.class);    
+    /**
+     * columns of autnum, table alias is 'autnum'.
+     */
+    private static final ColumnProjection AUTNUM_COLUMNS =
+            new ColumnProjection("autnum", "AS_ID", "HANDLE", "START_AUTNUM",
+                    "END_AUTNUM", "NAME", "TYPE", "COUNTRY", "LANG", "PORT43")
+                    .optional("autnum", "RDAP_AUTNUM", "CUSTOM_PROPERTIES");
+    /**
+     * columns of autnum, with STATUS.
+     */
+    private static final ColumnProjection AUTNUM_WITH_STATUS_COLUMNS =
+            AUTNUM_COLUMNS.join("status", "STATUS");
+    /**
+     * AS_ID.
+     */
+    private static final Column AS_ID = AUTNUM_COLUMNS.get("AS_ID");
+    /**
+     * HANDLE.
+     */
+    private static final Column HANDLE = AUTNUM_COLUMNS.get("HANDLE");
+    /**
+     * START_AUTNUM.
+     */
+    private static final Column START_AUTNUM = AUTNUM_COLUMNS
+            .get("START_AUTNUM");
+    /**
+     * END_AUTNUM.
+     */
+    private static final Column END_AUTNUM = AUTNUM_COLUMNS.get("END_AUTNUM");
+    /**
+     * NAME.
+     */
+    private static final Column NAME = AUTNUM_COLUMNS.get("NAME");
+    /**
+     * TYPE.
+     */
+    private static final Column TYPE = AUTNUM_COLUMNS.get("TYPE");
+    /**
+     * COUNTRY.
+     */
+    private static final Column COUNTRY = AUTNUM_COLUMNS.get("COUNTRY");
+    /**
+     * LANG.
+     */
+    private static final Column LANG = AUTNUM_COLUMNS.get("LANG");
+    /**
+     * PORT43.
+     */
+    private static final Column PORT43 = AUTNUM_COLUMNS.get("PORT43");
+    /**
+     * CUSTOM_PROPERTIES.
+     */
+    private static final Column CUSTOM_PROPERTIES = AUTNUM_COLUMNS
+            .get("CUSTOM_PROPERTIES");
+    /**
+     * STATUS.
+     */
+    private static final Column STATUS = AUTNUM_WITH_STATUS_COLUMNS
+            .get("STATUS");
     
     /**
      * remarkQueryDao.
@@ -104,6 +166,12 @@ public class AutnumQueryDaoImpl extends AbstractQueryDao<Autnum> {
      */
     @Autowired
     private QueryDao<Entity> entityQueryDao;
+
+    /**
+     * autnumIndexDao.
+     */
+    @Autowired
+    private AutnumIndexDao autnumIndexDao;
     
     /**
      * query an autnum.
@@ -156,24 +224,63 @@ public class AutnumQueryDaoImpl extends AbstractQueryDao<Autnum> {
             throw new UnsupportedOperationException(
                     "only support ENTITY modelType.");
         }
-        List<Autnum> autnums = queryWithoutInnerObjects(outerObjectId);
+        List<Autnum> autnums = queryWithoutInnerObjects(outerObjectId, 0);
         queryAndSetInnerObjects(autnums);
         LOGGER.debug("queryAsInnerObjects, autnums:" + autnums);
         return autnums;
     }
 
     /**
-     * query inner objects of autnums,and set them to autnum.
+     * query at most limit autnums associated to an entity, in handle order.
+     * Only the returned autnums are filled with inner objects.
+     * 
+     * @param outerObjectId
+     *            associated object id.
+     * @param outerModelType
+     *            associated object type.
+     * @param limit
+     *            max size of autnum list.
+     * @return autnums.
+     */
+    @Override
+    public List<Autnum> queryAsInnerObjects(Long outerObjectId,
+            ModelType outerModelType, int limit) {
+        if (!ModelType.ENTITY.equals(outerModelType)) {
+            throw new UnsupportedOperationException(
+                    "only support ENTITY modelType.");
+        }
+        List<Autnum> autnums = queryWithoutInnerObjects(outerObjectId, limit);
+        queryAndSetInnerObjects(autnums);
+        LOGGER.debug("queryAsInnerObjects, size:{}, limit:{}", autnums.size(),
+                limit);
+        return autnums;
+    }
+
+    /**
+     * query inner objects of autnums,and set them to autnum. Each inner type
+     * is queried once for all autnums.
      * 
      * @param autnums
      *            autnums.
      */
     private void queryAndSetInnerObjects(List<Autnum> autnums) {
-        if (null == autnums) {
+        if (null == autnums || autnums.isEmpty()) {
             return;
         }
+        List<Long> autnumIds = getModelIds(autnums);
+        Map<Long, List<Remark>> remarksMap =
+                remarkQueryDao.queryAsInnerObjects(autnumIds, ModelType.AUTNUM);
+        Map<Long, List<Link>> linksMap =
+                linkQueryDao.queryAsInnerObjects(autnumIds, ModelType.AUTNUM);
+        Map<Long, List<Event>> eventsMap =
+                eventQueryDao.queryAsInnerObjects(autnumIds, ModelType.AUTNUM);
         for (Autnum autnum : autnums) {
-            queryAndSetInnerObjects(autnum);
+            Long autnumId = autnum.getId();
+            autnum.setRemarks(getInnerObjects(remarksMap, autnumId));
+            List<Link> links = getInnerObjects(linksMap, autnumId);
+            links.add(SelfLinkGenerator.generateSelfLink(autnum));
+            autnum.setLinks(links);
+            autnum.setEvents(getInnerObjects(eventsMap, autnumId));
         }
     }
 
@@ -181,21 +288,43 @@ public class AutnumQueryDaoImpl extends AbstractQueryDao<Autnum> {
      * <pre>
      * query autnum without inner objects.Only in ENTITY.
      * select data from RDAP_AUTNUM RDAP_AUTNUM_STATUS table.
+     * If limit is set, autnums are limited in derived table before status is
+     * joined, because one autnum may have many status rows.
      * </pre>
      * 
      * @param outerObjectId
      *            entity id.
+     * @param limit
+     *            max size of autnum list, no limit if <= 0.
      * @return autnum list.
      */
-    private List<Autnum> queryWithoutInnerObjects(final Long outerObjectId) {
-        final String sql =
-                "select * from RDAP_AUTNUM autnum inner join "
-                        + " REL_ENTITY_REGISTRATION rel "
-                        + " on autnum.AS_ID = rel.REL_ID "
-                        + " left outer join RDAP_AUTNUM_STATUS status "
-                        + " on autnum.AS_ID = status.AS_ID "
-                        + " where rel.ENTITY_ID=? and REL_OBJECT_TYPE=?"
-                        + " order by autnum.HANDLE ";
+    private List<Autnum> queryWithoutInnerObjects(final Long outerObjectId,
+            final int limit) {
+        final String sql;
+        if (limit > 0) {
+            sql =
+                    "select " + AUTNUM_WITH_STATUS_COLUMNS.toSql()
+                            + " from (select distinct "
+                            + AUTNUM_COLUMNS.toSql() + " from "
+                            + " RDAP_AUTNUM autnum inner join "
+                            + " REL_ENTITY_REGISTRATION rel "
+                            + " on autnum.AS_ID = rel.REL_ID "
+                            + " where rel.ENTITY_ID=? and REL_OBJECT_TYPE=?"
+                            + " order by autnum.HANDLE limit ?) autnum "
+                            + " left outer join RDAP_AUTNUM_STATUS status "
+                            + " on autnum.AS_ID = status.AS_ID "
+                            + " order by autnum.HANDLE ";
+        } else {
+            sql =
+                    "select " + AUTNUM_WITH_STATUS_COLUMNS.toSql()
+                            + " from RDAP_AUTNUM autnum inner join "
+                            + " REL_ENTITY_REGISTRATION rel "
+                            + " on autnum.AS_ID = rel.REL_ID "
+                            + " left outer join RDAP_AUTNUM_STATUS status "
+                            + " on autnum.AS_ID = status.AS_ID "
+                            + " where rel.ENTITY_ID=? and REL_OBJECT_TYPE=?"
+                            + " order by autnum.HANDLE ";
+        }
         List<Autnum> result =
                 jdbcTemplate.query(new PreparedStatementCreator() {
                     @Override
@@ -204,6 +333,9 @@ public class AutnumQueryDaoImpl extends AbstractQueryDao<Autnum> {
                         PreparedStatement ps = connection.prepareStatement(sql);
                         ps.setLong(1, outerObjectId);
                         ps.setString(2, ModelType.AUTNUM.getName());
+                        if (limit > 0) {
+                            ps.setInt(3, limit);
+                        }
                         return ps;
                     }
                 }, new AutnumResultSetExtractor());
@@ -220,17 +352,7 @@ public class AutnumQueryDaoImpl extends AbstractQueryDao<Autnum> {
         if (null == autnum) {
             return;
         }
-        Long autnumId = autnum.getId();
-        List<Remark> remarks =
-                remarkQueryDao.queryAsInnerObjects(autnumId, ModelType.AUTNUM);
-        autnum.setRemarks(remarks);
-        List<Link> links =
-                linkQueryDao.queryAsInnerObjects(autnumId, ModelType.AUTNUM);
-        links.add(SelfLinkGenerator.generateSelfLink(autnum));
-        autnum.setLinks(links);
-        List<Event> events =
-                eventQueryDao.queryAsInnerObjects(autnumId, ModelType.AUTNUM);
-        autnum.setEvents(events);
+        queryAndSetInnerObjects(Collections.singletonList(autnum));
     }
 
     /**
@@ -241,9 +363,13 @@ public class AutnumQueryDaoImpl extends AbstractQueryDao<Autnum> {
      * @return autnum
      */
     private Autnum queryWithoutInnerObjects(QueryParam queryParam) {
+        if (autnumIndexDao.isEnabled()) {
+            return queryWithoutInnerObjectsByIndex(queryParam);
+        }
         final String autnumQ = queryParam.getQ();
         final String sql =
-                "select *,end_autnum - start_autnum as asInterval "
+                "select " + AUTNUM_WITH_STATUS_COLUMNS.toSql()
+                        + ",end_autnum - start_autnum as asInterval "
                         + " from RDAP_AUTNUM autnum "
                         + " left outer join RDAP_AUTNUM_STATUS status "
                         + " on autnum.as_id = status.as_id "
@@ -267,6 +393,49 @@ public class AutnumQueryDaoImpl extends AbstractQueryDao<Autnum> {
         return autnum;
     }
 
+    /**
+     * query autnum using autnum index, without inner objects.
+     * 
+     * @param queryParam
+     *            query parameter
+     * @return autnum
+     */
+    private Autnum queryWithoutInnerObjectsByIndex(QueryParam queryParam) {
+        final Long autnumId;
+        try {
+            autnumId =
+                    autnumIndexDao.findSmallestId(Long.parseLong(queryParam
+                            .getQ()));
+        } catch (NumberFormatException e) {
+            LOGGER.debug("invalid autnum:{}", queryParam.getQ());
+            return null;
+        }
+        LOGGER.debug("query by index, autnumId:{}", autnumId);
+        if (null == autnumId) {
+            return null;
+        }
+        final String sql =
+                "select " + AUTNUM_WITH_STATUS_COLUMNS.toSql()
+                        + " from RDAP_AUTNUM autnum "
+                        + " left outer join RDAP_AUTNUM_STATUS status "
+                        + " on autnum.as_id = status.as_id "
+                        + " where autnum.as_id = ?";
+        List<Autnum> result =
+                jdbcTemplate.query(new PreparedStatementCreator() {
+                    @Override
+                    public PreparedStatement createPreparedStatement(
+                            Connection conn) throws SQLException {
+                        PreparedStatement ps = conn.prepareStatement(sql);
+                        ps.setLong(1, autnumId);
+                        return ps;
+                    }
+                }, new AutnumResultSetExtractor());
+        if (null == result || result.size() == 0) {
+            return null;
+        }
+        return result.get(0);
+    }
+
     /**
      * autnum ResultSetExtractor, extract data from ResultSet.
      * 
@@ -279,24 +448,25 @@ public class AutnumQueryDaoImpl extends AbstractQueryDao<Autnum> {
             List<Autnum> result = new ArrayList<Autnum>();
             Map<Long, Autnum> autnumMapById = new HashMap<Long, Autnum>();
             while (rs.next()) {
-                Long autnumId = rs.getLong("as_id");
+                Long autnumId = AS_ID.getLong(rs);
                 Autnum autnum = autnumMapById.get(autnumId);
                 if (null == autnum) {
                     autnum = new Autnum();
                     autnum.setId(autnumId);
-                    autnum.setHandle(rs.getString("HANDLE"));
-                    autnum.setStartAutnum(rs.getLong("START_AUTNUM"));
-                    autnum.setEndAutnum(rs.getLong("END_AUTNUM"));
-                    autnum.setName(rs.getString("NAME"));
-                    autnum.setType(rs.getString("TYPE"));
-                    autnum.setCountry(rs.getString("COUNTRY"));
-                    autnum.setLang(rs.getString("LANG"));
-                    autnum.setPort43(rs.getString("PORT43"));
-                    extractCustomPropertiesFromRs(rs, autnum);
+                    autnum.setHandle(HANDLE.getString(rs));
+                    autnum.setStartAutnum(START_AUTNUM.getLong(rs));
+                    autnum.setEndAutnum(END_AUTNUM.getLong(rs));
+                    autnum.setName(NAME.getString(rs));
+                    autnum.setType(TYPE.getString(rs));
+                    autnum.setCountry(COUNTRY.getString(rs));
+                    autnum.setLang(LANG.getString(rs));
+                    autnum.setPort43(PORT43.getString(rs));
+                    extractCustomPropertiesFromRs(rs, CUSTOM_PROPERTIES,
+                            autnum);
                     result.add(autnum);
                     autnumMapById.put(autnumId, autnum);
                 }
-                autnum.addStatus(rs.getString("STATUS"));
+                autnum.addStatus(STATUS.getString(rs));
             }
             return result;
         }
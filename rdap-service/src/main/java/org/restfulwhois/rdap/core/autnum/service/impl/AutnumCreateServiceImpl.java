@@ -33,8 +33,10 @@ package org.restfulwhois.rdap.core.autnum.service.impl;
 import org.restfulwhois.rdap.common.dto.AutnumDto;
 import org.restfulwhois.rdap.common.model.Autnum;
 import org.restfulwhois.rdap.common.validation.ValidationResult;
+import org.restfulwhois.rdap.core.autnum.dao.impl.AutnumIndexDao;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 /**
@@ -53,6 +55,12 @@ public class AutnumCreateServiceImpl extends
     private static final Logger LOGGER = LoggerFactory
             .getLogger(AutnumCreateServiceImpl.class);
 
+    /**
+     * autnumIndexDao.
+     */
+    @Autowired
+    private AutnumIndexDao autnumIndexDao;
+
     @Override
     protected void execute(Autnum autnum) {
         LOGGER.debug("save autnum...");
@@ -60,6 +68,7 @@ public class AutnumCreateServiceImpl extends
         LOGGER.debug("save status...");
         getDao().saveStatus(autnum);              
         saveBaseModel(autnum);
+        autnumIndexDao.save(autnum);
     }
 
     @Override
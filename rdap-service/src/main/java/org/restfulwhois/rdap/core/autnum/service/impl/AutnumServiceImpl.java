@@ -30,7 +30,9 @@
  */
 package org.restfulwhois.rdap.core.autnum.service.impl;
 
+import org.restfulwhois.rdap.common.dao.impl.QueryCacheDao;
 import org.restfulwhois.rdap.common.model.Autnum;
+import org.restfulwhois.rdap.common.model.base.ModelType;
 import org.restfulwhois.rdap.common.support.QueryParam;
 import org.restfulwhois.rdap.core.autnum.dao.impl.AutnumQueryDaoImpl;
 import org.restfulwhois.rdap.core.autnum.service.AutnumService;
@@ -60,6 +62,12 @@ public class AutnumServiceImpl implements AutnumService {
     @Autowired
     private AutnumQueryDaoImpl autnumQueryDao;
 
+    /**
+     * query cache.
+     */
+    @Autowired
+    private QueryCacheDao queryCacheDao;
+
     /**
      * query as by as queryParam.
      * 
@@ -69,7 +77,8 @@ public class AutnumServiceImpl implements AutnumService {
      */
     @Override
     public Autnum queryAutnum(QueryParam queryParam) {
-        return autnumQueryDao.query(queryParam);
+        return queryCacheDao.query(ModelType.AUTNUM, queryParam,
+                autnumQueryDao, true);
     }
 
 }
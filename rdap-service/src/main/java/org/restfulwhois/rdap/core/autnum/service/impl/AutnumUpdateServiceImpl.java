@@ -33,8 +33,10 @@ package org.restfulwhois.rdap.core.autnum.service.impl;
 import org.restfulwhois.rdap.common.dto.AutnumDto;
 import org.restfulwhois.rdap.common.model.Autnum;
 import org.restfulwhois.rdap.common.validation.ValidationResult;
+import org.restfulwhois.rdap.core.autnum.dao.impl.AutnumIndexDao;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 /**
@@ -52,6 +54,12 @@ public class AutnumUpdateServiceImpl extends AutnumUpdateBaseServiceImpl {
     private static final Logger LOGGER = LoggerFactory
             .getLogger(AutnumUpdateServiceImpl.class);
 
+    /**
+     * autnumIndexDao.
+     */
+    @Autowired
+    private AutnumIndexDao autnumIndexDao;
+
     @Override
     protected void execute(Autnum autnum) {
         LOGGER.debug("update autnum...");
@@ -59,6 +67,7 @@ public class AutnumUpdateServiceImpl extends AutnumUpdateBaseServiceImpl {
         LOGGER.debug("update status...");
         getDao().updateStatus(autnum);
         updateBaseModel(autnum);
+        autnumIndexDao.save(autnum);
     }
 
     @Override
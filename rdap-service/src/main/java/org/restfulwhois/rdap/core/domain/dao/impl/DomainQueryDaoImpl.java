@@ -35,11 +35,14 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.restfulwhois.rdap.common.dao.AbstractQueryDao;
+import org.restfulwhois.rdap.common.dao.ColumnProjection;
+import org.restfulwhois.rdap.common.dao.ColumnProjection.Column;
 import org.restfulwhois.rdap.common.dao.QueryDao;
 import org.restfulwhois.rdap.common.dao.SearchDao;
 import org.restfulwhois.rdap.common.dao.impl.SelfLinkGenerator;
@@ -67,6 +70,7 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -84,11 +88,70 @@ import org.springframework.stereotype.Repository;
 public class DomainQueryDaoImpl extends AbstractQueryDao<Domain> {
 
     /**
-     * left join domain status SQL.
+     * columns of domain, table alias is 'domain'.
      */
-    public static final String SQL_QUERY_DOMAIN_STATUS =
-            "select * from RDAP_DOMAIN_STATUS status"
-                    + " where status.DOMAIN_ID = ?";
+    public static final ColumnProjection DOMAIN_COLUMNS =
+            new ColumnProjection("domain", "DOMAIN_ID", "HANDLE", "LDH_NAME",
+                    "UNICODE_NAME", "PORT43", "LANG", "TYPE", "NETWORK_ID")
+                    .optional("domain", "RDAP_DOMAIN", "CUSTOM_PROPERTIES");
+    /**
+     * DOMAIN_ID.
+     */
+    private static final Column DOMAIN_ID = DOMAIN_COLUMNS.get("DOMAIN_ID");
+    /**
+     * HANDLE.
+     */
+    private static final Column HANDLE = DOMAIN_COLUMNS.get("HANDLE");
+    /**
+     * LDH_NAME.
+     */
+    private static final Column LDH_NAME = DOMAIN_COLUMNS.get("LDH_NAME");
+    /**
+     * UNICODE_NAME.
+     */
+    private static final Column UNICODE_NAME = DOMAIN_COLUMNS
+            .get("UNICODE_NAME");
+    /**
+     * PORT43.
+     */
+    private static final Column PORT43 = DOMAIN_COLUMNS.get("PORT43");
+    /**
+     * LANG.
+     */
+    private static final Column LANG = DOMAIN_COLUMNS.get("LANG");
+    /**
+     * TYPE.
+     */
+    private static final Column TYPE = DOMAIN_COLUMNS.get("TYPE");
+    /**
+     * NETWORK_ID.
+     */
+    private static final Column NETWORK_ID = DOMAIN_COLUMNS.get("NETWORK_ID");
+    /**
+     * CUSTOM_PROPERTIES.
+     */
+    private static final Column CUSTOM_PROPERTIES = DOMAIN_COLUMNS
+            .get("CUSTOM_PROPERTIES");
+    /**
+     * columns of domain status.
+     */
+    private static final ColumnProjection STATUS_COLUMNS =
+            new ColumnProjection("status", "DOMAIN_ID", "STATUS");
+    /**
+     * DOMAIN_ID of domain status.
+     */
+    private static final Column STATUS_DOMAIN_ID = STATUS_COLUMNS
+            .get("DOMAIN_ID");
+    /**
+     * STATUS.
+     */
+    private static final Column STATUS = STATUS_COLUMNS.get("STATUS");
+    /**
+     * domain status SQL, '%s' is for joined domain ids.
+     */
+    public static final String SQL_QUERY_DOMAIN_STATUS = "select "
+            + STATUS_COLUMNS.toSql() + " from RDAP_DOMAIN_STATUS status"
+            + " where status.DOMAIN_ID in (%s)";
     /**
      * logger.
      */
@@ -186,12 +249,7 @@ public class DomainQueryDaoImpl extends AbstractQueryDao<Domain> {
 
     @Override
     public void queryAndSetInnerObjectsForSearch(List<Domain> domains) {
-        if (null == domains) {
-            return;
-        }
-        for (Domain domain : domains) {
-            queryAndSetInnerObjects(domain);
-        }
+        queryAndSetInnerObjects(domains);
     }
 
     /**
@@ -204,66 +262,109 @@ public class DomainQueryDaoImpl extends AbstractQueryDao<Domain> {
         if (null == domain) {
             return;
         }
-        Long domainId = domain.getId();
+        queryAndSetInnerObjects(Collections.singletonList(domain));
+    }
+
+    /**
+     * query inner objects of domains,and set them to domain objects. Each
+     * inner type is queried once for all domains.
+     * 
+     * @param domains
+     *            inner objects will be filled.
+     */
+    private void queryAndSetInnerObjects(List<Domain> domains) {
+        if (null == domains || domains.isEmpty()) {
+            return;
+        }
+        List<Long> domainIds = getModelIds(domains);
         ModelType type = ModelType.DOMAIN;
-        List<Nameserver> nameServers =
-                nameserverQueryDao.queryAsInnerObjects(domainId, type);
-        domain.setNameservers(nameServers);
-        List<SecureDns> secureDnsList =
-                secureDnsQueryDao.queryAsInnerObjects(domainId, type);
-        if (null != secureDnsList && secureDnsList.size() > 0) {
-            domain.setSecureDns(secureDnsList.get(0));
+        Map<Long, List<Nameserver>> nameServersMap =
+                nameserverQueryDao.queryAsInnerObjects(domainIds, type);
+        Map<Long, List<SecureDns>> secureDnsMap =
+                secureDnsQueryDao.queryAsInnerObjects(domainIds, type);
+        Map<Long, List<PublicId>> publicIdsMap =
+                publicIdQueryDao.queryAsInnerObjects(domainIds, type);
+        Map<Long, List<Remark>> remarksMap =
+                remarkQueryDao.queryAsInnerObjects(domainIds, type);
+        Map<Long, List<Link>> linksMap =
+                linkQueryDao.queryAsInnerObjects(domainIds, type);
+        Map<Long, List<Event>> eventsMap =
+                eventQueryDao.queryAsInnerObjects(domainIds, type);
+        Map<Long, List<Entity>> entitiesMap =
+                entityQueryDao.queryAsInnerObjects(domainIds, type);
+        for (Domain domain : domains) {
+            Long domainId = domain.getId();
+            List<Nameserver> nameServers =
+                    getInnerObjects(nameServersMap, domainId);
+            if (nameServers.size() > 0) {
+                domain.setNameservers(nameServers);
+            }
+            List<SecureDns> secureDnsList =
+                    getInnerObjects(secureDnsMap, domainId);
+            if (secureDnsList.size() > 0) {
+                domain.setSecureDns(secureDnsList.get(0));
+            }
+            domain.setPublicIds(getInnerObjects(publicIdsMap, domainId));
+            domain.setRemarks(getInnerObjects(remarksMap, domainId));
+            List<Link> links = getInnerObjects(linksMap, domainId);
+            links.add(SelfLinkGenerator.generateSelfLink(domain));
+            domain.setLinks(links);
+            domain.setEvents(getInnerObjects(eventsMap, domainId));
+            domain.setEntities(getInnerObjects(entitiesMap, domainId));
         }
-        List<PublicId> publicIds =
-                publicIdQueryDao.queryAsInnerObjects(domainId, type);
-        domain.setPublicIds(publicIds);
-        List<Remark> remarks =
-                remarkQueryDao.queryAsInnerObjects(domainId, type);
-        domain.setRemarks(remarks);
-        List<Link> links = linkQueryDao.queryAsInnerObjects(domainId, type);
-        links.add(SelfLinkGenerator.generateSelfLink(domain));
-        domain.setLinks(links);
-        List<Event> events = eventQueryDao.queryAsInnerObjects(domainId, type);
-        domain.setEvents(events);
-        List<Entity> entities =
-                entityQueryDao.queryAsInnerObjects(domainId, type);
-        domain.setEntities(entities);
-        queryAndSetVariants(domain);
-        queryAndSetInnerNetwork(domain);
+        queryAndSetInnerNetworks(domains);
+        queryAndSetVariants(domains);
     }
 
     /**
-     * query and set variants for domain object.
+     * query and set variants for DNR domain objects.
      * 
-     * @param domain
-     *            domain object which will be filled with variants.
+     * @param domains
+     *            domain objects which will be filled with variants.
      */
-    private void queryAndSetVariants(Domain domain) {
-        if (null == domain || !domain.isDnrDomain()) {
+    private void queryAndSetVariants(List<Domain> domains) {
+        List<Domain> dnrDomains = new ArrayList<Domain>();
+        for (Domain domain : domains) {
+            if (domain.isDnrDomain()) {
+                dnrDomains.add(domain);
+            }
+        }
+        if (dnrDomains.isEmpty()) {
             return;
         }
-        List<Variants> variants =
-                variantsQueryDao.queryAsInnerObjects(domain.getId(),
+        Map<Long, List<Variants>> variantsMap =
+                variantsQueryDao.queryAsInnerObjects(getModelIds(dnrDomains),
                         ModelType.DOMAIN);
-        domain.setVariants(variants);
+        for (Domain domain : dnrDomains) {
+            domain.setVariants(variantsMap.get(domain.getId()));
+        }
     }
 
     /**
-     * query networks for arpa ,then fill them to domain.
+     * query networks for arpa domains in one batch, then fill them to domain.
      * 
-     * @param domain
-     *            which will be filled with networks.
+     * @param domains
+     *            domain objects which will be filled with networks.
      */
-    private void queryAndSetInnerNetwork(Domain domain) {
-        if (null == domain || !domain.isArpaDomain()) {
+    private void queryAndSetInnerNetworks(List<Domain> domains) {
+        List<Domain> arpaDomains = new ArrayList<Domain>();
+        for (Domain domain : domains) {
+            if (domain.isArpaDomain()) {
+                arpaDomains.add(domain);
+            }
+        }
+        if (arpaDomains.isEmpty()) {
             return;
         }
-        List<Network> networks =
-                networkQueryDao.queryAsInnerObjects(domain.getId(),
+        Map<Long, List<Network>> networksMap =
+                networkQueryDao.queryAsInnerObjects(getModelIds(arpaDomains),
                         ModelType.DOMAIN);
-        if (null != networks && networks.size() > 0) {
-            Network network = networks.get(0);
-            domain.setNetwork(network);
+        for (Domain domain : arpaDomains) {
+            List<Network> networks =
+                    getInnerObjects(networksMap, domain.getId());
+            if (networks.size() > 0) {
+                domain.setNetwork(networks.get(0));
+            }
         }
     }
 
@@ -283,7 +384,7 @@ public class DomainQueryDaoImpl extends AbstractQueryDao<Domain> {
         List<Domain> result = null;
         final int hexCharSize = IpUtil.getHexCharSize(network.getIpVersion());
         String sql =
-                "select domain.*"
+                "select " + DOMAIN_COLUMNS.toSql()
                         + " from RDAP_IP ip "
                         + " inner join RDAP_DOMAIN domain "
                         + " on domain.NETWORK_ID = ip.IP_ID "
@@ -324,7 +425,8 @@ public class DomainQueryDaoImpl extends AbstractQueryDao<Domain> {
         final String punyName = domainQueryParam.getPunyName();
         LOGGER.debug("query LDH_NAME with punyName:{}", punyName);
         final String sql =
-                "select * from RDAP_DOMAIN domain "
+                "select " + DOMAIN_COLUMNS.toSql()
+                        + " from RDAP_DOMAIN domain "
                         + " where LDH_NAME= ? order by domain.DOMAIN_ID";
         List<Domain> result =
                 jdbcTemplate.query(new PreparedStatementCreator() {
@@ -349,21 +451,45 @@ public class DomainQueryDaoImpl extends AbstractQueryDao<Domain> {
      */
     public void queryDomainStatus(Domain domain, JdbcTemplate jdbcTemplate) {
         if (domain != null) {
-            final long domainId = domain.getId();
-            List<String> result =
-                    jdbcTemplate.query(new PreparedStatementCreator() {
-                        @Override
-                        public PreparedStatement createPreparedStatement(
-                                Connection connection) throws SQLException {
-                            PreparedStatement ps =
-                                    connection
-                                            .prepareStatement(SQL_QUERY_DOMAIN_STATUS);
-                            ps.setLong(1, domainId);
-                            return ps;
-                        }
-                    }, new StatusResultSetExtractor());
-            if (null != result && result.size() != 0) {
-                domain.setStatus(result);
+            queryDomainStatus(Collections.singletonList(domain), jdbcTemplate);
+        }
+    }
+
+    /**
+     * query status of domains with 'in' query, and set them to domain.
+     * 
+     * @param domains
+     *            domain list, such as a page of search result.
+     * @param jdbcTemplate
+     *            jdbcTemplate.
+     */
+    public void queryDomainStatus(List<Domain> domains,
+            JdbcTemplate jdbcTemplate) {
+        if (null == domains || domains.isEmpty()) {
+            return;
+        }
+        List<Long> ids = getDistinctIds(getModelIds(domains));
+        final Map<Long, List<String>> statusMap = createInnerObjectsMap(ids);
+        RowCallbackHandler handler = new RowCallbackHandler() {
+            @Override
+            public void processRow(ResultSet rs) throws SQLException {
+                List<String> statusList =
+                        statusMap.get(STATUS_DOMAIN_ID.getLong(rs));
+                String status = STATUS.getString(rs);
+                if (!statusList.contains(status)) {
+                    statusList.add(status);
+                }
+            }
+        };
+        for (List<Long> idsInClause : splitIds(ids)) {
+            jdbcTemplate.query(String.format(SQL_QUERY_DOMAIN_STATUS,
+                    joinIds(idsInClause)), handler);
+        }
+        for (Domain domain : domains) {
+            List<String> statusList =
+                    getInnerObjects(statusMap, domain.getId());
+            if (statusList.size() != 0) {
+                domain.setStatus(statusList);
             }
         }
     }
@@ -380,19 +506,22 @@ public class DomainQueryDaoImpl extends AbstractQueryDao<Domain> {
      */
     private void extractDomainFromRs(ResultSet rs, Domain domain)
             throws SQLException {
-        domain.setId(rs.getLong("DOMAIN_ID"));
-        domain.setHandle(rs.getString("HANDLE"));
-        domain.setLdhName(rs.getString("LDH_NAME"));
-        domain.setUnicodeName(rs.getString("UNICODE_NAME"));
-        domain.setPort43(rs.getString("PORT43"));
-        domain.setLang(rs.getString("LANG"));
-        domain.setType(DomainType.getByTypeName(rs.getString("TYPE")));
-        domain.setNetworkId(rs.getLong("NETWORK_ID"));
-        extractCustomPropertiesFromRs(rs, domain);
+        domain.setId(DOMAIN_ID.getLong(rs));
+        domain.setHandle(HANDLE.getString(rs));
+        domain.setLdhName(LDH_NAME.getString(rs));
+        domain.setUnicodeName(UNICODE_NAME.getString(rs));
+        domain.setPort43(PORT43.getString(rs));
+        domain.setLang(LANG.getString(rs));
+        domain.setType(DomainType.getByTypeName(TYPE.getString(rs)));
+        domain.setNetworkId(NETWORK_ID.getLong(rs));
+        extractCustomPropertiesFromRs(rs, CUSTOM_PROPERTIES, domain);
     }
 
     /**
      * domain ResultSetExtractor, extract data from ResultSet.
+     * <p>
+     * ResultSet must be selected by DOMAIN_COLUMNS.
+     * </p>
      * 
      * @author jiashuo
      * 
@@ -404,12 +533,11 @@ public class DomainQueryDaoImpl extends AbstractQueryDao<Domain> {
             List<Domain> result = new ArrayList<Domain>();
             Map<Long, Domain> domainMapById = new HashMap<Long, Domain>();
             while (rs.next()) {
-                Long domainId = rs.getLong("DOMAIN_ID");
+                Long domainId = DOMAIN_ID.getLong(rs);
                 Domain domain = domainMapById.get(domainId);
                 if (null == domain) {
                     domain = new Domain();
                     extractDomainFromRs(rs, domain);
-                    extractCustomPropertiesFromRs(rs, domain);
                     result.add(domain);
                     domainMapById.put(domainId, domain);
                 }
@@ -419,25 +547,4 @@ public class DomainQueryDaoImpl extends AbstractQueryDao<Domain> {
 
     }
 
-    /**
-     * Status ResultSetExtractor, extract data from ResultSet.
-     * 
-     * @author weijunkai
-     * 
-     */
-    class StatusResultSetExtractor implements ResultSetExtractor<List<String>> {
-        @Override
-        public List<String> extractData(ResultSet rs) throws SQLException {
-            List<String> result = new ArrayList<String>();
-
-            while (rs.next()) {
-                String status = rs.getString("STATUS");
-                if (!result.contains(status)) {
-                    result.add(status);
-                }
-            }
-            return result;
-        }
-    }
-
 }
@@ -38,6 +38,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.restfulwhois.rdap.common.dao.AbstractQueryDao;
+import org.restfulwhois.rdap.common.dao.ColumnProjection;
+import org.restfulwhois.rdap.common.dao.ColumnProjection.Column;
 import org.restfulwhois.rdap.common.model.IPAddress;
 import org.restfulwhois.rdap.common.model.IpVersion;
 import org.restfulwhois.rdap.common.model.base.ModelType;
@@ -66,6 +68,24 @@ public class IPAddressQueryDaoImpl extends AbstractQueryDao<IPAddress> {
      */
     protected static final Logger LOGGER = LoggerFactory
             .getLogger(IPAddressQueryDaoImpl.class);
+    /**
+     * columns of nameserver IP.
+     */
+    private static final ColumnProjection NAMESERVER_IP_COLUMNS =
+            new ColumnProjection("nsIP", "NAMESERVER_IP_ID", "IP", "VERSION");
+    /**
+     * NAMESERVER_IP_ID.
+     */
+    private static final Column NAMESERVER_IP_ID = NAMESERVER_IP_COLUMNS
+            .get("NAMESERVER_IP_ID");
+    /**
+     * IP.
+     */
+    private static final Column IP = NAMESERVER_IP_COLUMNS.get("IP");
+    /**
+     * VERSION.
+     */
+    private static final Column VERSION = NAMESERVER_IP_COLUMNS.get("VERSION");
 
     @Override
     public List<IPAddress> queryAsInnerObjects(Long outerObjectId,
@@ -88,7 +108,8 @@ public class IPAddressQueryDaoImpl extends AbstractQueryDao<IPAddress> {
      */
     private IPAddress queryWithoutInnerObjects(final Long outerObjectId) {
         final String sql =
-                "select * from RDAP_NAMESERVER_IP nsIP "
+                "select " + NAMESERVER_IP_COLUMNS.toSql()
+                        + " from RDAP_NAMESERVER_IP nsIP "
                         + " where nsIP.NAMESERVER_ID = ?" + " and "
                         + IpUtil.generateNetworkRangeSql("IP", "VERSION");
         IPAddress result = jdbcTemplate.query(new PreparedStatementCreator() {
@@ -116,7 +137,7 @@ public class IPAddressQueryDaoImpl extends AbstractQueryDao<IPAddress> {
             List<String> ipV4 = new ArrayList<String>();
             List<String> ipV6 = new ArrayList<String>();
             while (rs.next()) {
-                Long ipId = rs.getLong("NAMESERVER_IP_ID");
+                Long ipId = NAMESERVER_IP_ID.getLong(rs);
                 result.setId(ipId);
                 setIpVersionAndAddress(rs, ipV4, ipV6);
             }
@@ -148,9 +169,9 @@ public class IPAddressQueryDaoImpl extends AbstractQueryDao<IPAddress> {
          */
         private void setIpVersionAndAddress(ResultSet rs, List<String> ipV4,
                 List<String> ipV6) throws SQLException {
-            String ipVersionStr = rs.getString("VERSION");
+            String ipVersionStr = VERSION.getString(rs);
             IpVersion ipVersion = IpVersion.getIpVersion(ipVersionStr);
-            byte[] ipBytes = rs.getBytes("IP");
+            byte[] ipBytes = IP.getBytes(rs);
             String realAddress = IpUtil.toString(ipBytes, ipVersion);
             if (StringUtils.isEmpty(realAddress)) {
                 return;
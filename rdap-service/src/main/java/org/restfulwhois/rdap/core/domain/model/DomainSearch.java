@@ -35,6 +35,8 @@ import java.util.List;
 import org.restfulwhois.rdap.common.model.Domain;
 import org.restfulwhois.rdap.common.model.base.BaseSearchModel;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 /**
  * domain search model.
  * 
@@ -65,4 +67,10 @@ public class DomainSearch extends BaseSearchModel<Domain> {
     public void setDomainSearchResults(List<Domain> domainSearchResults) {
         this.domainSearchResults = domainSearchResults;
     }
+
+    @Override
+    @JsonIgnore
+    public String getSearchResultsName() {
+        return "domainSearchResults";
+    }
 }
@@ -32,9 +32,14 @@ package org.restfulwhois.rdap.core.domain.service.impl;
 
 import org.restfulwhois.rdap.common.dto.DomainDto;
 import org.restfulwhois.rdap.common.model.Domain;
+import org.restfulwhois.rdap.common.model.base.ModelType;
 import org.restfulwhois.rdap.common.validation.ValidationResult;
+import org.restfulwhois.rdap.search.common.dao.NameserverIpIndexDao;
+import org.restfulwhois.rdap.search.common.dao.ReversedNameIndexDao;
+import org.restfulwhois.rdap.search.common.dao.TrigramIndexDao;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 /**
@@ -52,6 +57,24 @@ public class DomainDeleteServiceImpl extends DomainUpdateBaseServiceImpl {
     private static final Logger LOGGER = LoggerFactory
             .getLogger(DomainDeleteServiceImpl.class);
 
+    /**
+     * trigramIndexDao.
+     */
+    @Autowired
+    private TrigramIndexDao trigramIndexDao;
+
+    /**
+     * reversedNameIndexDao.
+     */
+    @Autowired
+    private ReversedNameIndexDao reversedNameIndexDao;
+
+    /**
+     * nameserverIpIndexDao.
+     */
+    @Autowired
+    private NameserverIpIndexDao nameserverIpIndexDao;
+
     @Override
     protected void execute(Domain domain) {
         LOGGER.debug("delete domain...");
@@ -63,6 +86,9 @@ public class DomainDeleteServiceImpl extends DomainUpdateBaseServiceImpl {
         deleteNameserversRel(domain);
         deletePublicIds(domain);
         deleteBaseModelRel(domain);
+        trigramIndexDao.delete(ModelType.DOMAIN, domain.getId());
+        reversedNameIndexDao.delete(ModelType.DOMAIN, domain.getId());
+        nameserverIpIndexDao.deleteDomain(domain.getId());
     }
 
     @Override
@@ -35,7 +35,9 @@ import java.util.List;
 
 import org.apache.commons.lang.StringUtils;
 import org.restfulwhois.rdap.common.dao.QueryDao;
+import org.restfulwhois.rdap.common.dao.impl.QueryCacheDao;
 import org.restfulwhois.rdap.common.model.Domain;
+import org.restfulwhois.rdap.common.model.base.ModelType;
 import org.restfulwhois.rdap.common.support.QueryParam;
 import org.restfulwhois.rdap.common.support.RdapProperties;
 import org.restfulwhois.rdap.common.util.StringUtil;
@@ -74,6 +76,12 @@ public class DomainQueryServiceImpl implements DomainQueryService {
     @Autowired
     private QueryDao<Domain> domainDao;
 
+    /**
+     * query cache.
+     */
+    @Autowired
+    private QueryCacheDao queryCacheDao;
+
     /**
      * query domain by domain queryParam.
      * 
@@ -83,7 +91,11 @@ public class DomainQueryServiceImpl implements DomainQueryService {
      */
     @Override
     public Domain queryDomain(QueryParam queryParam) {
-        return domainDao.query(queryParam);
+        boolean rirDomain =
+                queryParam instanceof DomainQueryParam
+                        && ((DomainQueryParam) queryParam).isRirDomain();
+        return queryCacheDao.query(ModelType.DOMAIN, queryParam, domainDao,
+                rirDomain);
     }
 
     /**
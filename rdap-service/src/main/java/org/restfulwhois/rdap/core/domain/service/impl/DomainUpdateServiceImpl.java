@@ -32,9 +32,14 @@ package org.restfulwhois.rdap.core.domain.service.impl;
 
 import org.restfulwhois.rdap.common.dto.DomainDto;
 import org.restfulwhois.rdap.common.model.Domain;
+import org.restfulwhois.rdap.common.model.base.ModelType;
 import org.restfulwhois.rdap.common.validation.ValidationResult;
+import org.restfulwhois.rdap.search.common.dao.NameserverIpIndexDao;
+import org.restfulwhois.rdap.search.common.dao.ReversedNameIndexDao;
+import org.restfulwhois.rdap.search.common.dao.TrigramIndexDao;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 /**
@@ -52,6 +57,24 @@ public class DomainUpdateServiceImpl extends DomainUpdateBaseServiceImpl {
     private static final Logger LOGGER = LoggerFactory
             .getLogger(DomainUpdateServiceImpl.class);
 
+    /**
+     * trigramIndexDao.
+     */
+    @Autowired
+    private TrigramIndexDao trigramIndexDao;
+
+    /**
+     * reversedNameIndexDao.
+     */
+    @Autowired
+    private ReversedNameIndexDao reversedNameIndexDao;
+
+    /**
+     * nameserverIpIndexDao.
+     */
+    @Autowired
+    private NameserverIpIndexDao nameserverIpIndexDao;
+
     @Override
     protected void execute(Domain domain) {
         LOGGER.debug("update domain...");
@@ -64,6 +87,11 @@ public class DomainUpdateServiceImpl extends DomainUpdateBaseServiceImpl {
         updateNameserversRel(domain);
         updatePublicIds(dto.getPublicIds(), domain);
         updateBaseModel(domain);
+        trigramIndexDao.save(ModelType.DOMAIN, domain.getId(),
+                domain.getLdhName(), domain.getUnicodeName());
+        reversedNameIndexDao.save(ModelType.DOMAIN, domain.getId(),
+                domain.getLdhName(), domain.getUnicodeName());
+        nameserverIpIndexDao.saveDomain(domain.getId(), domain.getLdhName());
     }
 
     @Override
@@ -34,6 +34,7 @@ import javax.servlet.http.HttpServletRequest;
 
 import org.restfulwhois.rdap.common.model.base.QueryUri;
 import org.restfulwhois.rdap.common.support.QueryParam;
+import org.restfulwhois.rdap.common.support.SearchCursor;
 import org.restfulwhois.rdap.common.util.RequestUtil;
 import org.restfulwhois.rdap.common.validation.QueryValidationError;
 import org.restfulwhois.rdap.common.validation.ValidationResult;
@@ -82,7 +83,29 @@ public class SearchUriValidator implements Validator {
             LOGGER.debug("error:last split URI is not valid for search: {}",
                     queryParam.getQueryUri());
             validationResult.addError(QueryValidationError.build400Error());
+            return;
         }
+        if (!(queryParam instanceof HelpQueryParam)
+                && !validateCursor(queryParam.getRequest())) {
+            LOGGER.debug("error:cursor is not valid for search.");
+            validationResult.addError(QueryValidationError.build400Error());
+        }
+    }
+
+    /**
+     * validate 'cursor' param, it is optional.
+     * 
+     * @param request
+     *            request.
+     * @return true if not exist or valid, false if not.
+     */
+    private boolean validateCursor(HttpServletRequest request) {
+        String cursor =
+                RequestUtil.getParameter(request, SearchCursor.PARAM_NAME);
+        if (null == cursor) {
+            return true;
+        }
+        return null != SearchCursor.decode(cursor);
     }
 
     /**
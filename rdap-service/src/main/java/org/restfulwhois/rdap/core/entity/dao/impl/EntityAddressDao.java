@@ -30,21 +30,22 @@
  */
 package org.restfulwhois.rdap.core.entity.dao.impl;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.restfulwhois.rdap.common.dao.AbstractQueryDao;
+import org.restfulwhois.rdap.common.dao.ColumnProjection;
+import org.restfulwhois.rdap.common.dao.ColumnProjection.Column;
 import org.restfulwhois.rdap.common.model.Entity;
 import org.restfulwhois.rdap.common.model.EntityAddress;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.stereotype.Repository;
 
@@ -63,6 +64,58 @@ public class EntityAddressDao extends AbstractQueryDao<EntityAddress> {
      */
     protected static final Logger LOGGER = LoggerFactory
             .getLogger(EntityAddressDao.class);       
+    /**
+     * columns of address.
+     */
+    private static final ColumnProjection ADDRESS_COLUMNS =
+            new ColumnProjection("adr", "ADR_ID", "ENTITY_ID", "POST_BOX",
+                    "EXT_ADR", "STREET", "CITY", "SP", "POSTAL_CODE",
+                    "COUNTRY", "TYPE", "PREF");
+    /**
+     * ADR_ID.
+     */
+    private static final Column ADR_ID = ADDRESS_COLUMNS.get("ADR_ID");
+    /**
+     * ENTITY_ID.
+     */
+    private static final Column ENTITY_ID = ADDRESS_COLUMNS.get("ENTITY_ID");
+    /**
+     * POST_BOX.
+     */
+    private static final Column POST_BOX = ADDRESS_COLUMNS.get("POST_BOX");
+    /**
+     * EXT_ADR.
+     */
+    private static final Column EXT_ADR = ADDRESS_COLUMNS.get("EXT_ADR");
+    /**
+     * STREET.
+     */
+    private static final Column STREET = ADDRESS_COLUMNS.get("STREET");
+    /**
+     * CITY.
+     */
+    private static final Column CITY = ADDRESS_COLUMNS.get("CITY");
+    /**
+     * SP.
+     */
+    private static final Column SP = ADDRESS_COLUMNS.get("SP");
+    /**
+     * POSTAL_CODE.
+     */
+    private static final Column POSTAL_CODE = ADDRESS_COLUMNS
+            .get("POSTAL_CODE");
+    /**
+     * COUNTRY.
+     */
+    private static final Column COUNTRY = ADDRESS_COLUMNS.get("COUNTRY");
+    /**
+     * TYPE.
+     */
+    private static final Column TYPE = ADDRESS_COLUMNS.get("TYPE");
+    /**
+     * PREF.
+     */
+    private static final Column PREF = ADDRESS_COLUMNS.get("PREF");
     /**
      * jdbcTemplate.
      */
@@ -82,21 +135,35 @@ public class EntityAddressDao extends AbstractQueryDao<EntityAddress> {
         if (null == entity || null == entity.getId()) {
             return null;
         }
-        final String sql = "select * from RDAP_VCARD_ADR where ENTITY_ID = ?";
         List<EntityAddress> result =
-                jdbcTemplate.query(new PreparedStatementCreator() {
-                    @Override
-                    public PreparedStatement createPreparedStatement(
-                            Connection conn) throws SQLException {
-                        PreparedStatement ps = conn.prepareStatement(sql);
-                        ps.setLong(1, entity.getId());
-                        return ps;
-                    }
-                }, new EntityAddressResultSetExtractor());
+                query(Collections.singletonList(entity.getId())).get(
+                        entity.getId());
         LOGGER.debug("query, result:{}", result);
         return result;
     }
 
+    /**
+     * query entity address from RDAP_VCARD_ADR for many entities.
+     * 
+     * @param entityIds
+     *            entity id list.
+     * @return EntityAddress list map, key is entity id.
+     */
+    public Map<Long, List<EntityAddress>> query(List<Long> entityIds) {
+        List<Long> ids = getDistinctIds(entityIds);
+        Map<Long, List<EntityAddress>> result = createInnerObjectsMap(ids);
+        for (List<Long> idsInClause : splitIds(ids)) {
+            final String sql =
+                    String.format("select " + ADDRESS_COLUMNS.toSql()
+                            + " from RDAP_VCARD_ADR adr"
+                            + " where adr.ENTITY_ID in (%s)",
+                            joinIds(idsInClause));
+            jdbcTemplate.query(sql,
+                    new EntityAddressResultSetExtractor(result));
+        }
+        return result;
+    }
+
     /**
      * entity address ResultSetExtractor, extract data from ResultSet.
      * 
@@ -105,16 +172,32 @@ public class EntityAddressDao extends AbstractQueryDao<EntityAddress> {
      */
     class EntityAddressResultSetExtractor implements
             ResultSetExtractor<List<EntityAddress>> {
+        /**
+         * EntityAddress list map, key is entity id.
+         */
+        private final Map<Long, List<EntityAddress>> result;
+
+        /**
+         * constructor.
+         * 
+         * @param result
+         *            EntityAddress list map, key is entity id.
+         */
+        EntityAddressResultSetExtractor(Map<Long, List<EntityAddress>> result) {
+            this.result = result;
+        }
+
         @Override
         public List<EntityAddress> extractData(ResultSet rs)
                 throws SQLException {
-            List<EntityAddress> result = new ArrayList<EntityAddress>();
+            List<EntityAddress> addresses = new ArrayList<EntityAddress>();
             while (rs.next()) {
                 EntityAddress entityAddr = new EntityAddress();
                 extractEntityAddressFromRs(rs, entityAddr);
-                result.add(entityAddr);
+                result.get(entityAddr.getEntityId()).add(entityAddr);
+                addresses.add(entityAddr);
             }
-            return result;
+            return addresses;
         }
     }
 
@@ -131,17 +214,17 @@ public class EntityAddressDao extends AbstractQueryDao<EntityAddress> {
     private void
             extractEntityAddressFromRs(ResultSet rs, EntityAddress address)
                     throws SQLException {
-        address.setId(rs.getLong("ADR_ID"));
-        address.setEntityId(rs.getLong("ENTITY_ID"));
-        address.setPoBox(rs.getString("POST_BOX"));
-        address.setExtendedAddress(rs.getString("EXT_ADR"));
-        address.setStreetAddress(rs.getString("STREET"));
-        address.setLocality(rs.getString("CITY"));
-        address.setRegion(rs.getString("SP"));
-        address.setPostalCode(rs.getString("POSTAL_CODE"));
-        address.setCountry(rs.getString("COUNTRY"));
-        address.setTypes(rs.getString("TYPE"));
-        address.setPref(getIntegerFromRs(rs, "PREF"));
+        address.setId(ADR_ID.getLong(rs));
+        address.setEntityId(ENTITY_ID.getLong(rs));
+        address.setPoBox(POST_BOX.getString(rs));
+        address.setExtendedAddress(EXT_ADR.getString(rs));
+        address.setStreetAddress(STREET.getString(rs));
+        address.setLocality(CITY.getString(rs));
+        address.setRegion(SP.getString(rs));
+        address.setPostalCode(POSTAL_CODE.getString(rs));
+        address.setCountry(COUNTRY.getString(rs));
+        address.setTypes(TYPE.getString(rs));
+        address.setPref(PREF.getInteger(rs));
     }
 
 }
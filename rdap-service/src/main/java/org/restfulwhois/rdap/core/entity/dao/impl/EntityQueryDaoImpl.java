@@ -35,12 +35,15 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.lang.StringUtils;
 import org.restfulwhois.rdap.common.dao.AbstractQueryDao;
+import org.restfulwhois.rdap.common.dao.ColumnProjection;
+import org.restfulwhois.rdap.common.dao.ColumnProjection.Column;
 import org.restfulwhois.rdap.common.dao.QueryDao;
 import org.restfulwhois.rdap.common.dao.SearchDao;
 import org.restfulwhois.rdap.common.dao.impl.SelfLinkGenerator;
@@ -92,6 +95,100 @@ public class EntityQueryDaoImpl extends AbstractQueryDao<Entity> {
      */
     private static final Logger LOGGER = LoggerFactory
             .getLogger(EntityQueryDaoImpl.class);
+    /**
+     * columns of entity, table alias is 'entity'.
+     */
+    public static final ColumnProjection ENTITY_COLUMNS =
+            new ColumnProjection("entity", "ENTITY_ID", "HANDLE", "KIND", "FN",
+                    "EMAIL", "TITLE", "ORG", "URL", "PORT43", "LANG")
+                    .optional("entity", "RDAP_ENTITY", "CUSTOM_PROPERTIES");
+    /**
+     * columns of entity, with ENTITY_ROLE and REL_ID of relation.
+     */
+    private static final ColumnProjection ENTITY_WITH_ROLE_COLUMNS =
+            ENTITY_COLUMNS.join("rel", "ENTITY_ROLE", "REL_ID");
+    /**
+     * columns of entity status.
+     */
+    private static final ColumnProjection STATUS_COLUMNS =
+            new ColumnProjection("status", "ENTITY_ID", "STATUS");
+    /**
+     * columns of entity role.
+     */
+    private static final ColumnProjection ROLE_COLUMNS =
+            new ColumnProjection("rel", "ENTITY_ID", "ENTITY_ROLE");
+    /**
+     * ENTITY_ID.
+     */
+    private static final Column ENTITY_ID = ENTITY_COLUMNS.get("ENTITY_ID");
+    /**
+     * HANDLE.
+     */
+    private static final Column HANDLE = ENTITY_COLUMNS.get("HANDLE");
+    /**
+     * KIND.
+     */
+    private static final Column KIND = ENTITY_COLUMNS.get("KIND");
+    /**
+     * FN.
+     */
+    private static final Column FN = ENTITY_COLUMNS.get("FN");
+    /**
+     * EMAIL.
+     */
+    private static final Column EMAIL = ENTITY_COLUMNS.get("EMAIL");
+    /**
+     * TITLE.
+     */
+    private static final Column TITLE = ENTITY_COLUMNS.get("TITLE");
+    /**
+     * ORG.
+     */
+    private static final Column ORG = ENTITY_COLUMNS.get("ORG");
+    /**
+     * URL.
+     */
+    private static final Column URL = ENTITY_COLUMNS.get("URL");
+    /**
+     * PORT43.
+     */
+    private static final Column PORT43 = ENTITY_COLUMNS.get("PORT43");
+    /**
+     * LANG.
+     */
+    private static final Column LANG = ENTITY_COLUMNS.get("LANG");
+    /**
+     * CUSTOM_PROPERTIES.
+     */
+    private static final Column CUSTOM_PROPERTIES = ENTITY_COLUMNS
+            .get("CUSTOM_PROPERTIES");
+    /**
+     * ENTITY_ROLE.
+     */
+    private static final Column ENTITY_ROLE = ENTITY_WITH_ROLE_COLUMNS
+            .get("ENTITY_ROLE");
+    /**
+     * REL_ID.
+     */
+    private static final Column REL_ID = ENTITY_WITH_ROLE_COLUMNS.get("REL_ID");
+    /**
+     * ENTITY_ID of entity status.
+     */
+    private static final Column STATUS_ENTITY_ID = STATUS_COLUMNS
+            .get("ENTITY_ID");
+    /**
+     * STATUS of entity status.
+     */
+    private static final Column STATUS = STATUS_COLUMNS.get("STATUS");
+    /**
+     * ENTITY_ID of entity role.
+     */
+    private static final Column ROLE_ENTITY_ID = ROLE_COLUMNS.get("ENTITY_ID");
+    /**
+     * ENTITY_ROLE of entity role.
+     */
+    private static final Column ROLE_ENTITY_ROLE = ROLE_COLUMNS
+            .get("ENTITY_ROLE");
 
     /**
      * publicId dao.
@@ -167,16 +264,28 @@ public class EntityQueryDaoImpl extends AbstractQueryDao<Entity> {
     @Override
     public List<Entity> queryAsInnerObjects(Long outerObjectId,
             ModelType outerModelType) {
-        LOGGER.debug("queryAsInnerObjects,outerObjectId:{},outerModelType:{}",
-                outerObjectId, outerModelType.getName());
-        List<Entity> entities =
-                queryWithoutInnerObjects(outerObjectId, outerModelType);
-        LOGGER.debug("queryAsInnerObjects,results:{}", entities);
-        if (null == entities) {
-            return entities;
+        return queryAsInnerObjects(Collections.singletonList(outerObjectId),
+                outerModelType).get(outerObjectId);
+    }
+
+    @Override
+    public Map<Long, List<Entity>> queryAsInnerObjects(
+            List<Long> outerObjectIds, ModelType outerModelType) {
+        LOGGER.debug("queryAsInnerObjects,outerObjectIds:{},outerModelType:{}",
+                outerObjectIds, outerModelType.getName());
+        List<Long> ids = getDistinctIds(outerObjectIds);
+        Map<Long, List<Entity>> result = createInnerObjectsMap(ids);
+        if (ids.isEmpty()) {
+            return result;
+        }
+        List<Entity> entities = new ArrayList<Entity>();
+        for (List<Long> idsInClause : splitIds(ids)) {
+            entities.addAll(queryWithoutInnerObjects(idsInClause,
+                    outerModelType, result));
         }
+        LOGGER.debug("queryAsInnerObjects,results:{}", result);
         queryAndSetInnerObjectsWithoutEntities(entities);
-        return entities;
+        return result;
     }
 
     @Override
@@ -194,28 +303,33 @@ public class EntityQueryDaoImpl extends AbstractQueryDao<Entity> {
      *            entities which will be set to entity.
      */
     private void queryAndSetInnerEntities(List<Entity> entities) {
-        if (null == entities) {
+        if (null == entities || entities.isEmpty()) {
             return;
         }
+        Map<Long, List<Entity>> innerEntitiesMap =
+                queryAsInnerObjects(getModelIds(entities), ModelType.ENTITY);
         for (Entity entity : entities) {
-            queryAndSetInnerEntities(entity);
+            entity.setEntities(getInnerObjects(innerEntitiesMap,
+                    entity.getId()));
         }
     }
 
     /**
-     * query and set network and autnum.
+     * query and set network and autnum. At most maxsizeSearch + 1 objects
+     * are queried for each type, and the extra one means truncated.
      * 
      * @param entity
      *            entity which will be filled with network and autnum.
      */
     private void queryAndSetNetworksAndAs(Entity entity) {
+        int limit = RdapProperties.getMaxsizeSearch().intValue() + 1;
         List<Network> networks =
                 networkQueryDao.queryAsInnerObjects(entity.getId(),
-                        ModelType.ENTITY);
+                        ModelType.ENTITY, limit);
         entity.setNetworks(networks);
         List<Autnum> autnums =
                 autnumQueryDao.queryAsInnerObjects(entity.getId(),
-                        ModelType.ENTITY);
+                        ModelType.ENTITY, limit);
         entity.setAutnums(autnums);
         setTruncatedIfTooMuchResult(entity);
     }
@@ -236,17 +350,65 @@ public class EntityQueryDaoImpl extends AbstractQueryDao<Entity> {
     }
 
     /**
-     * query inner objects of entity,and fill them to entity.
+     * query inner objects of entity,and fill them to entity. Each inner type
+     * is queried once for all entities.
      * 
      * @param entities
-     *            entity list.
+     *            entity list, may contain entities with the same id.
      */
     private void queryAndSetInnerObjectsWithoutEntities(List<Entity> entities) {
-        if (null == entities) {
+        if (null == entities || entities.isEmpty()) {
             return;
         }
+        List<Long> entityIds = getModelIds(entities);
+        Map<Long, List<EntityTelephone>> telephonesMap =
+                entityTelDao.query(entityIds);
+        Map<Long, List<EntityAddress>> addressesMap =
+                entityAddressDao.query(entityIds);
         for (Entity entity : entities) {
-            queryAndSetInnerObjectsWithoutEntities(entity);
+            convertAndSetVcardArray(entity,
+                    getInnerObjects(telephonesMap, entity.getId()),
+                    getInnerObjects(addressesMap, entity.getId()));
+        }
+        queryAndSetStatus(entities);
+        Map<Long, List<PublicId>> publicIdsMap =
+                publicIdQueryDao.queryAsInnerObjects(entityIds,
+                        ModelType.ENTITY);
+        Map<Long, List<Remark>> remarksMap =
+                remarkQueryDao.queryAsInnerObjects(entityIds, ModelType.ENTITY);
+        Map<Long, List<Link>> linksMap =
+                linkQueryDao.queryAsInnerObjects(entityIds, ModelType.ENTITY);
+        Map<Long, List<Event>> eventsMap =
+                eventQueryDao.queryAsInnerObjects(entityIds, ModelType.ENTITY);
+        Map<Long, Entity> entityMapById = new HashMap<Long, Entity>();
+        for (Entity entity : entities) {
+            Long entityId = entity.getId();
+            LOGGER.debug("queryAndSetInnerObjectsWithoutEntities,entityHandle:{}",
+                    entity.getHandle());
+            entity.setPublicIds(getInnerObjects(publicIdsMap, entityId));
+            List<Remark> remarks = getInnerObjects(remarksMap, entityId);
+            if (entity.getTruncatedInfo() != null
+                    && entity.getTruncatedInfo().getResultsTruncated()) {
+                List<TruncateReason> truncateReasons =
+                        entity.getTruncatedInfo().getTruncateReasons();
+                List<Remark> truncatedRemarks =
+                        remarkService
+                                .getTruncatedRemarkByReason(truncateReasons);
+                remarks.addAll(truncatedRemarks);
+            }
+            entity.setRemarks(remarks);
+            List<Link> links = getInnerObjects(linksMap, entityId);
+            links.add(SelfLinkGenerator.generateSelfLink(entity));
+            entity.setLinks(links);
+            Entity sameEntity = entityMapById.get(entityId);
+            if (null == sameEntity) {
+                setEvents(entity, getInnerObjects(eventsMap, entityId));
+                entityMapById.put(entityId, entity);
+            } else {
+                entity.setEvents(new ArrayList<Event>(sameEntity.getEvents()));
+                entity.setAsEventActor(new ArrayList<Event>(sameEntity
+                        .getAsEventActor()));
+            }
         }
     }
 
@@ -255,11 +417,14 @@ public class EntityQueryDaoImpl extends AbstractQueryDao<Entity> {
      * 
      * @param entity
      *            entity object.
+     * @param telephones
+     *            telephones of entity.
+     * @param addresses
+     *            addresses of entity.
      */
-    private void convertAndSetVcardArray(Entity entity) {
-        List<EntityTelephone> telephones = entityTelDao.query(entity);
+    private void convertAndSetVcardArray(Entity entity,
+            List<EntityTelephone> telephones, List<EntityAddress> addresses) {
         entity.setTelephones(telephones);
-        List<EntityAddress> addresses = entityAddressDao.query(entity);
         entity.setAddresses(addresses);
         entity.setVcardArray(Jcard.build(entity).toJSON());
     }
@@ -274,51 +439,25 @@ public class EntityQueryDaoImpl extends AbstractQueryDao<Entity> {
         if (null == entity) {
             return;
         }
-        LOGGER.debug("queryAndSetInnerObjectsWithoutEntities,entityHandle:{}",
-                entity.getHandle());
-        convertAndSetVcardArray(entity);
-        queryAndSetStatus(entity);
-        Long entityId = entity.getId();
-        List<PublicId> publicIds =
-                publicIdQueryDao
-                        .queryAsInnerObjects(entityId, ModelType.ENTITY);
-        entity.setPublicIds(publicIds);
-        List<Remark> remarks =
-                remarkQueryDao.queryAsInnerObjects(entityId, ModelType.ENTITY);
-        if (entity.getTruncatedInfo() != null
-                && entity.getTruncatedInfo().getResultsTruncated()) {
-            List<TruncateReason> truncateReasons =
-                    entity.getTruncatedInfo().getTruncateReasons();
-            List<Remark> truncatedRemarks =
-                    remarkService.getTruncatedRemarkByReason(truncateReasons);
-            remarks.addAll(truncatedRemarks);
-        }
-        entity.setRemarks(remarks);
-        List<Link> links =
-                linkQueryDao.queryAsInnerObjects(entityId, ModelType.ENTITY);
-        links.add(SelfLinkGenerator.generateSelfLink(entity));
-        entity.setLinks(links);
-        queryAndSetEvents(entity, entityId);
+        queryAndSetInnerObjectsWithoutEntities(Collections
+                .singletonList(entity));
     }
 
     /**
-     * query and set events and asEventActor.
+     * set events and asEventActor.
      * 
      * @param entity
      *            entity.
-     * @param entityId
-     *            entityId.
+     * @param events
+     *            events of entity.
      */
-    private void queryAndSetEvents(Entity entity, Long entityId) {
-        List<Event> events =
-                eventQueryDao.queryAsInnerObjects(entityId, ModelType.ENTITY);
-        entity.setEvents(events);
+    private void setEvents(Entity entity, List<Event> events) {
         List<Event> eventsAsActor = new ArrayList<Event>();
         List<Event> eventsNotAsActor = new ArrayList<Event>();
         for (Event event : events) {
             if (entity.getHandle().equals(event.getEventActor())) {
-                LOGGER.debug("asEventActor,entityId:{},eventId:{}", entityId,
-                        event.getId());
+                LOGGER.debug("asEventActor,entityId:{},eventId:{}",
+                        entity.getId(), event.getId());
                 event.setEventActor(null);
                 eventsAsActor.add(event);
             } else {
@@ -387,7 +526,8 @@ public class EntityQueryDaoImpl extends AbstractQueryDao<Entity> {
             return null;
         }
         final String sql =
-                "select * from RDAP_ENTITY entity "
+                "select " + ENTITY_WITH_ROLE_COLUMNS.toSql()
+                        + " from RDAP_ENTITY entity "
                         + " left outer join REL_ENTITY_REGISTRATION rel "
                         + " on entity.ENTITY_ID = rel.ENTITY_ID "
                         + " where entity.HANDLE= ? ";
@@ -410,31 +550,56 @@ public class EntityQueryDaoImpl extends AbstractQueryDao<Entity> {
     /**
      * query entity, without inner objects,for query as inner object.
      * 
-     * @param outerObjectId
-     *            outerObjectId.
+     * @param outerObjectIds
+     *            outerObjectIds.
      * @param outerModelType
      *            outerModelType.
-     * @return entity.
+     * @param result
+     *            entity list map, key is outer object id.
+     * @return all entities in result.
      */
-    private List<Entity> queryWithoutInnerObjects(final Long outerObjectId,
-            final ModelType outerModelType) {
-        final String sql = generateSqlForQueryRelEntity(outerModelType);
-        List<Entity> result =
-                jdbcTemplate.query(new PreparedStatementCreator() {
-                    @Override
-                    public PreparedStatement createPreparedStatement(
-                            Connection conn) throws SQLException {
-                        PreparedStatement ps = conn.prepareStatement(sql);
-                        ps.setLong(1, outerObjectId);
-                        ps.setString(2, outerModelType.getName());
-                        return ps;
+    private List<Entity> queryWithoutInnerObjects(List<Long> outerObjectIds,
+            final ModelType outerModelType,
+            final Map<Long, List<Entity>> result) {
+        final String sql =
+                String.format(generateSqlForQueryRelEntity(outerModelType),
+                        joinIds(outerObjectIds));
+        return jdbcTemplate.query(new PreparedStatementCreator() {
+            @Override
+            public PreparedStatement createPreparedStatement(Connection conn)
+                    throws SQLException {
+                PreparedStatement ps = conn.prepareStatement(sql);
+                ps.setString(1, outerModelType.getName());
+                return ps;
+            }
+        }, new ResultSetExtractor<List<Entity>>() {
+            @Override
+            public List<Entity> extractData(ResultSet rs)
+                    throws SQLException {
+                List<Entity> entities = new ArrayList<Entity>();
+                Map<String, Entity> entityMapByRelAndId =
+                        new HashMap<String, Entity>();
+                while (rs.next()) {
+                    Long relId = REL_ID.getLong(rs);
+                    String key = relId + "_" + ENTITY_ID.getLong(rs);
+                    Entity entity = entityMapByRelAndId.get(key);
+                    if (null == entity) {
+                        entity = new Entity();
+                        extractEntityFromRs(rs, entity);
+                        result.get(relId).add(entity);
+                        entities.add(entity);
+                        entityMapByRelAndId.put(key, entity);
                     }
-                }, new EntityWithRoleResultSetExtractor());
-        return result;
+                    entity.addRole(ENTITY_ROLE.getString(rs));
+                }
+                return entities;
+            }
+        });
     }
 
     /**
-     * generate sql for query REL_ENTITY_REGISTRATION by REL_ID. Recode for
+     * generate sql template for query REL_ENTITY_REGISTRATION by REL_ID, '%s'
+     * is for joined REL_IDs. Recode for
      * rel.ENTITY_ID = rel.REL_ID and rel.REL_OBJECT_TYPE= 'entity' represents
      * entity self relation,for store entity role such as 'registrar'.
      * 
@@ -444,16 +609,18 @@ public class EntityQueryDaoImpl extends AbstractQueryDao<Entity> {
      */
     private String generateSqlForQueryRelEntity(ModelType outerModelType) {
         final String sqlForNotEntityRel =
-                "select * from RDAP_ENTITY entity "
+                "select " + ENTITY_WITH_ROLE_COLUMNS.toSql()
+                        + " from RDAP_ENTITY entity "
                         + " inner join REL_ENTITY_REGISTRATION rel "
                         + " on entity.ENTITY_ID = rel.ENTITY_ID "
-                        + " where rel.REL_ID= ? "
+                        + " where rel.REL_ID in (%s) "
                         + " and rel.REL_OBJECT_TYPE= ? ";
         final String sqlForEntityRel =
-                "select * from RDAP_ENTITY entity "
+                "select " + ENTITY_WITH_ROLE_COLUMNS.toSql()
+                        + " from RDAP_ENTITY entity "
                         + " inner join REL_ENTITY_REGISTRATION rel "
                         + " on entity.ENTITY_ID = rel.ENTITY_ID "
-                        + " where rel.REL_ID= ? "
+                        + " where rel.REL_ID in (%s) "
                         + " and rel.ENTITY_ID != rel.REL_ID "
                         + " and rel.REL_OBJECT_TYPE= ? ";
         if (ModelType.ENTITY.equals(outerModelType)) {
@@ -463,7 +630,7 @@ public class EntityQueryDaoImpl extends AbstractQueryDao<Entity> {
     }
 
     /**
-     * extract entity ResultSet.
+     * extract entity ResultSet, which is selected by ENTITY_COLUMNS.
      * 
      * @param rs
      *            ResultSet will be set to entity.
@@ -474,17 +641,17 @@ public class EntityQueryDaoImpl extends AbstractQueryDao<Entity> {
      */
     public static void extractEntityFromRs(ResultSet rs, Entity entity)
             throws SQLException {
-        entity.setId(rs.getLong("ENTITY_ID"));
-        entity.setHandle(rs.getString("HANDLE"));
-        entity.setKind(rs.getString("KIND"));
-        entity.setFn(rs.getString("FN"));
-        entity.setEmail(rs.getString("EMAIL"));
-        entity.setTitle(rs.getString("TITLE"));
-        entity.setOrg(rs.getString("ORG"));
-        entity.setUrl(rs.getString("URL"));
-        entity.setPort43(rs.getString("PORT43"));
-        entity.setLang(rs.getString("LANG"));
-        extractCustomPropertiesFromRs(rs, entity);
+        entity.setId(ENTITY_ID.getLong(rs));
+        entity.setHandle(HANDLE.getString(rs));
+        entity.setKind(KIND.getString(rs));
+        entity.setFn(FN.getString(rs));
+        entity.setEmail(EMAIL.getString(rs));
+        entity.setTitle(TITLE.getString(rs));
+        entity.setOrg(ORG.getString(rs));
+        entity.setUrl(URL.getString(rs));
+        entity.setPort43(PORT43.getString(rs));
+        entity.setLang(LANG.getString(rs));
+        extractCustomPropertiesFromRs(rs, CUSTOM_PROPERTIES, entity);
     }
 
     /**
@@ -500,7 +667,7 @@ public class EntityQueryDaoImpl extends AbstractQueryDao<Entity> {
             List<Entity> result = new ArrayList<Entity>();
             Map<Long, Entity> entityMapById = new HashMap<Long, Entity>();
             while (rs.next()) {
-                Long entityId = rs.getLong("ENTITY_ID");
+                Long entityId = ENTITY_ID.getLong(rs);
                 Entity entity = entityMapById.get(entityId);
                 if (null == entity) {
                     entity = new Entity();
@@ -508,44 +675,28 @@ public class EntityQueryDaoImpl extends AbstractQueryDao<Entity> {
                     result.add(entity);
                     entityMapById.put(entityId, entity);
                 }
-                entity.addRole(rs.getString("ENTITY_ROLE"));
+                entity.addRole(ENTITY_ROLE.getString(rs));
             }
             return result;
         }
     }
 
-    /**
-     * query and set status to entity.
-     * 
-     * @param entity
-     *            entity which will be set.
-     */
-    private void queryAndSetStatus(Entity entity) {
-        List<Entity> models = new ArrayList<Entity>();
-        if (null == entity) {
-            return;
-        }
-        models.add(entity);
-        queryAndSetStatus(models);
-    }
-
     /**
      * query and set status to entity list.
      * 
      * @param models
-     *            entity list which will be filled with status.
+     *            entity list which will be filled with status, may contain
+     *            entities with the same id.
      */
     private void queryAndSetStatus(List<Entity> models) {
-        List<Long> entityIds = getModelIds(models);
+        List<Long> entityIds = getDistinctIds(getModelIds(models));
         List<ModelStatus> statusList = queryStatus(entityIds);
         for (ModelStatus status : statusList) {
-            BaseModel obj =
-                    BaseModel.findObjectFromListById(models, status.getId());
-            if (null == obj) {
-                continue;
+            for (Entity entity : models) {
+                if (status.getId().equals(entity.getId())) {
+                    entity.addStatus(status.getStatus());
+                }
             }
-            Entity entity = (Entity) obj;
-            entity.addStatus(status.getStatus());
         }
     }
 
@@ -582,15 +733,17 @@ public class EntityQueryDaoImpl extends AbstractQueryDao<Entity> {
         }
         final String idsJoinedByComma = StringUtils.join(modelIds, ",");
         final String sqlTpl =
-                "select * from RDAP_ENTITY_STATUS where ENTITY_ID in (%s)";
+                "select " + STATUS_COLUMNS.toSql()
+                        + " from RDAP_ENTITY_STATUS status"
+                        + " where status.ENTITY_ID in (%s)";
         final String sql = String.format(sqlTpl, idsJoinedByComma);
         List<ModelStatus> result =
                 jdbcTemplate.query(sql, new RowMapper<ModelStatus>() {
                     @Override
                     public ModelStatus mapRow(ResultSet rs, int rowNum)
                             throws SQLException {
-                        return new ModelStatus(rs.getLong("ENTITY_ID"), rs
-                                .getString("STATUS"));
+                        return new ModelStatus(STATUS_ENTITY_ID.getLong(rs),
+                                STATUS.getString(rs));
                     }
 
                 });
@@ -610,15 +763,17 @@ public class EntityQueryDaoImpl extends AbstractQueryDao<Entity> {
         }
         final String idsJoinedByComma = StringUtils.join(entityIds, ",");
         final String sqlTpl =
-                "select * from REL_ENTITY_REGISTRATION where ENTITY_ID in (%s)";
+                "select " + ROLE_COLUMNS.toSql()
+                        + " from REL_ENTITY_REGISTRATION rel"
+                        + " where rel.ENTITY_ID in (%s)";
         final String sql = String.format(sqlTpl, idsJoinedByComma);
         List<EntityRole> result =
                 jdbcTemplate.query(sql, new RowMapper<EntityRole>() {
                     @Override
                     public EntityRole mapRow(ResultSet rs, int rowNum)
                             throws SQLException {
-                        return new EntityRole(rs.getLong("ENTITY_ID"), rs
-                                .getString("ENTITY_ROLE"));
+                        return new EntityRole(ROLE_ENTITY_ID.getLong(rs),
+                                ROLE_ENTITY_ROLE.getString(rs));
                     }
                 });
         return result;
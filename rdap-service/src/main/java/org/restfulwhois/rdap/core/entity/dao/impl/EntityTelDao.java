@@ -30,21 +30,22 @@
  */
 package org.restfulwhois.rdap.core.entity.dao.impl;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.restfulwhois.rdap.common.dao.AbstractQueryDao;
+import org.restfulwhois.rdap.common.dao.ColumnProjection;
+import org.restfulwhois.rdap.common.dao.ColumnProjection.Column;
 import org.restfulwhois.rdap.common.model.Entity;
 import org.restfulwhois.rdap.common.model.EntityTelephone;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.stereotype.Repository;
 
@@ -63,6 +64,32 @@ public class EntityTelDao extends AbstractQueryDao<EntityTelephone> {
      */
     protected static final Logger LOGGER = LoggerFactory
             .getLogger(EntityTelDao.class);
+    /**
+     * columns of telephone.
+     */
+    private static final ColumnProjection TEL_COLUMNS = new ColumnProjection(
+            "tel", "GLOBAL_NUMBER", "EXT_NUMBER", "TYPE", "PREF", "ENTITY_ID");
+    /**
+     * GLOBAL_NUMBER.
+     */
+    private static final Column GLOBAL_NUMBER = TEL_COLUMNS
+            .get("GLOBAL_NUMBER");
+    /**
+     * EXT_NUMBER.
+     */
+    private static final Column EXT_NUMBER = TEL_COLUMNS.get("EXT_NUMBER");
+    /**
+     * TYPE.
+     */
+    private static final Column TYPE = TEL_COLUMNS.get("TYPE");
+    /**
+     * PREF.
+     */
+    private static final Column PREF = TEL_COLUMNS.get("PREF");
+    /**
+     * ENTITY_ID.
+     */
+    private static final Column ENTITY_ID = TEL_COLUMNS.get("ENTITY_ID");
     /**
      * jdbcTemplate.
      */
@@ -80,17 +107,27 @@ public class EntityTelDao extends AbstractQueryDao<EntityTelephone> {
         if (null == entity || null == entity.getId()) {
             return null;
         }
-        final String sql = "select * from RDAP_VCARD_TEL where ENTITY_ID = ?";
-        List<EntityTelephone> result =
-                jdbcTemplate.query(new PreparedStatementCreator() {
-                    @Override
-                    public PreparedStatement createPreparedStatement(
-                            Connection conn) throws SQLException {
-                        PreparedStatement ps = conn.prepareStatement(sql);
-                        ps.setLong(1, entity.getId());
-                        return ps;
-                    }
-                }, new EntityTelephoneResultSetExtractor());
+        return query(Collections.singletonList(entity.getId())).get(
+                entity.getId());
+    }
+
+    /**
+     * query entity telephone from RDAP_VCARD_TEL for many entities.
+     * 
+     * @param entityIds
+     *            entity id list.
+     * @return EntityTel list map, key is entity id.
+     */
+    public Map<Long, List<EntityTelephone>> query(List<Long> entityIds) {
+        List<Long> ids = getDistinctIds(entityIds);
+        Map<Long, List<EntityTelephone>> result = createInnerObjectsMap(ids);
+        for (List<Long> idsInClause : splitIds(ids)) {
+            final String sql = String.format("select " + TEL_COLUMNS.toSql()
+                    + " from RDAP_VCARD_TEL tel where tel.ENTITY_ID in (%s)",
+                    joinIds(idsInClause));
+            jdbcTemplate.query(sql,
+                    new EntityTelephoneResultSetExtractor(result));
+        }
         return result;
     }
 
@@ -102,15 +139,33 @@ public class EntityTelDao extends AbstractQueryDao<EntityTelephone> {
      */
     class EntityTelephoneResultSetExtractor implements
             ResultSetExtractor<List<EntityTelephone>> {
+        /**
+         * EntityTel list map, key is entity id.
+         */
+        private final Map<Long, List<EntityTelephone>> result;
+
+        /**
+         * constructor.
+         * 
+         * @param result
+         *            EntityTel list map, key is entity id.
+         */
+        EntityTelephoneResultSetExtractor(
+                Map<Long, List<EntityTelephone>> result) {
+            this.result = result;
+        }
+
         @Override
         public List<EntityTelephone> extractData(ResultSet rs)
                 throws SQLException {
-            List<EntityTelephone> result = new ArrayList<EntityTelephone>();
+            List<EntityTelephone> telephones =
+                    new ArrayList<EntityTelephone>();
             while (rs.next()) {
                 EntityTelephone tel = extractEntityTelFromRs(rs);
-                result.add(tel);
+                result.get(ENTITY_ID.getLong(rs)).add(tel);
+                telephones.add(tel);
             }
-            return result;
+            return telephones;
         }
     }
 
@@ -126,10 +181,10 @@ public class EntityTelDao extends AbstractQueryDao<EntityTelephone> {
     private EntityTelephone extractEntityTelFromRs(ResultSet rs)
             throws SQLException {
         EntityTelephone telephone =
-                EntityTelephone.buildTextTel(rs.getString("GLOBAL_NUMBER"),
-                        rs.getString("EXT_NUMBER"));
-        telephone.setTypes(rs.getString("TYPE"));
-        telephone.setPref(getIntegerFromRs(rs, "PREF"));
+                EntityTelephone.buildTextTel(GLOBAL_NUMBER.getString(rs),
+                        EXT_NUMBER.getString(rs));
+        telephone.setTypes(TYPE.getString(rs));
+        telephone.setPref(PREF.getInteger(rs));
         return telephone;
     }
     
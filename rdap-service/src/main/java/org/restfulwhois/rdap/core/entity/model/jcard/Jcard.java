@@ -30,22 +30,21 @@
  */
 package org.restfulwhois.rdap.core.entity.model.jcard;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.regex.Pattern;
 
+import org.apache.commons.lang.StringUtils;
 import org.restfulwhois.rdap.common.model.Entity;
-import org.restfulwhois.rdap.core.entity.model.jcard.jcardconverter.JcardAddressConverter;
-import org.restfulwhois.rdap.core.entity.model.jcard.jcardconverter.JcardEmailConverter;
-import org.restfulwhois.rdap.core.entity.model.jcard.jcardconverter.JcardFnConverter;
-import org.restfulwhois.rdap.core.entity.model.jcard.jcardconverter.JcardKindConverter;
-import org.restfulwhois.rdap.core.entity.model.jcard.jcardconverter.JcardLangConverter;
-import org.restfulwhois.rdap.core.entity.model.jcard.jcardconverter.JcardOrgConverter;
-import org.restfulwhois.rdap.core.entity.model.jcard.jcardconverter.JcardTelephoneConverter;
-import org.restfulwhois.rdap.core.entity.model.jcard.jcardconverter.JcardTitleConverter;
-import org.restfulwhois.rdap.core.entity.model.jcard.jcardconverter.JcardUrlConverter;
-
-import ezvcard.Ezvcard;
-import ezvcard.VCard;
+import org.restfulwhois.rdap.common.model.EntityAddress;
+import org.restfulwhois.rdap.common.model.EntityTelephone;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 
 /**
  * This class is used to convert <a href='http://tools.ietf.org/html/rfc6350'>
@@ -53,24 +52,74 @@ import ezvcard.VCard;
  * href='http://tools.ietf.org/html/draft-ietf-jcardcal-jcard-07'>
  * draft-ietf-jcardcal-jcard</a>.
  * <p>
- * This class use <a href='https://code.google.com/p/ez-vcard'>ezvcard</a> to
- * convert VCARD to JSON.
+ * This class writes entity fields to JSON generator directly, and the output
+ * is the same as <a href='https://code.google.com/p/ez-vcard'>ezvcard</a>
+ * 0.9.3 which was used before:
  * 
+ * <pre>
+ * property order is: version, kind, fn, adr, tel, email, title, org, url, lang.
+ * 'type' param is string for one type, or array for more types.
+ * 'pref' param is written if it is in [1,100]; 'pref' type is written as
+ * 'pref' param with value 1.
+ * telephone is written as 'tel' URI, with optional 'ext'.
+ * </pre>
  * <p>
- * property will not be write to JSON if exception occurred.
+ * property will not be write to JSON if it is invalid, such as telephone
+ * number which is not a global number.
  * 
  * @author jiashuo
  * 
  */
 public final class Jcard {
     /**
-     * entity, datasource of VCARD.
+     * logger.
      */
-    private Entity entity;
+    private static final Logger LOGGER = LoggerFactory.getLogger(Jcard.class);
+    /**
+     * JSON factory, thread safe.
+     */
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    /**
+     * initial size of JSON string.
+     */
+    private static final int INITIAL_SIZE = 512;
+    /**
+     * min value of 'pref' param.
+     */
+    private static final int MIN_PREF = 1;
+    /**
+     * max value of 'pref' param.
+     */
+    private static final int MAX_PREF = 100;
+    /**
+     * 'pref' type, which is written as 'pref' param.
+     */
+    private static final String TYPE_PREF = "pref";
+    /**
+     * address types.
+     */
+    private static final String[] ADDRESS_TYPES = {
+            "home", "work", "dom", "intl", "postal", "parcel", TYPE_PREF };
+    /**
+     * telephone types, other types are ignored.
+     */
+    private static final String[] TELEPHONE_TYPES = {
+            "bbs", "car", "cell", "fax", "home", "isdn", "modem", "msg",
+            "pager", "pcs", TYPE_PREF, "text", "textphone", "video", "voice",
+            "work" };
+    /**
+     * global number of 'tel' URI.
+     */
+    private static final Pattern GLOBAL_NUMBER = Pattern
+            .compile("\\+[-0-9.()]*");
+    /**
+     * extension of 'tel' URI.
+     */
+    private static final Pattern EXTENSION = Pattern.compile("[-0-9.()]+");
     /**
-     * VCARD property converters.
+     * entity, datasource of VCARD.
      */
-    private List<JcardPropertyConverter> converters;
+    private Entity entity;
 
     /**
      * factory method.
@@ -92,58 +141,321 @@ public final class Jcard {
     private Jcard(Entity entity) {
         super();
         this.entity = entity;
-        this.initPropertyConverters();
     }
 
     /**
-     * initialize converters.
+     * convert VCARD to JSON.
+     * 
+     * @return JSON string, null if entity is not null and has no property.
+     */
+    public String toJSON() {
+        StringWriter writer = new StringWriter(INITIAL_SIZE);
+        try {
+            JsonGenerator generator = JSON_FACTORY.createGenerator(writer);
+            boolean hasProperty = writeVcard(generator);
+            generator.close();
+            if (null != entity && !hasProperty) {
+                return null;
+            }
+        } catch (IOException e) {
+            LOGGER.error("write jcard error:{}", e.getMessage());
+            return null;
+        }
+        return writer.toString();
+    }
+
+    /**
+     * write VCARD.
      * 
      * <pre>
-     * WARN: the order of the converters IS the order of the JSON outputs, 
+     * WARN: the order of the properties IS the order of the JSON outputs, 
      * so it SHOULD not be changed.
      * </pre>
+     * 
+     * @param generator
+     *            generator.
+     * @return true if any property except version is written, false if not.
+     * @throws IOException
+     *             IOException.
      */
-    private void initPropertyConverters() {
-        converters = new ArrayList<JcardPropertyConverter>();
-        converters.add(new JcardKindConverter());
-        converters.add(new JcardFnConverter());
-        converters.add(new JcardAddressConverter());
-        converters.add(new JcardTelephoneConverter());
-        converters.add(new JcardEmailConverter());
-        converters.add(new JcardTitleConverter());
-        converters.add(new JcardOrgConverter());
-        converters.add(new JcardUrlConverter());
-        converters.add(new JcardLangConverter());
+    private boolean writeVcard(JsonGenerator generator) throws IOException {
+        generator.writeStartArray();
+        generator.writeString("vcard");
+        generator.writeStartArray();
+        writeTextProperty(generator, "version", "text", "4.0");
+        boolean hasProperty = false;
+        if (null != entity) {
+            hasProperty |=
+                    writeTextProperty(generator, "kind", "text",
+                            entity.getKind());
+            hasProperty |=
+                    writeTextProperty(generator, "fn", "text", entity.getFn());
+            hasProperty |= writeAddresses(generator, entity.getAddresses());
+            hasProperty |= writeTelephones(generator, entity.getTelephones());
+            hasProperty |=
+                    writeTextProperty(generator, "email", "text",
+                            entity.getEmail());
+            hasProperty |=
+                    writeTextProperty(generator, "title", "text",
+                            entity.getTitle());
+            hasProperty |=
+                    writeTextProperty(generator, "org", "text",
+                            entity.getOrg());
+            hasProperty |=
+                    writeTextProperty(generator, "url", "uri",
+                            entity.getUrl());
+            hasProperty |=
+                    writeTextProperty(generator, "lang", "language-tag",
+                            entity.getLang());
+        }
+        generator.writeEndArray();
+        generator.writeEndArray();
+        return hasProperty;
     }
 
     /**
-     * convert VCARD to JSON.
+     * write property without param, if value is not blank.
      * 
-     * @return JSON string.
+     * @param generator
+     *            generator.
+     * @param name
+     *            property name.
+     * @param dataType
+     *            data type.
+     * @param value
+     *            value.
+     * @return true if written, false if not.
+     * @throws IOException
+     *             IOException.
      */
-    public String toJSON() {
-        VCard vcard = new VCard();
-        if (null == entity) {
-            return this.writeJSON(vcard);
+    private static boolean writeTextProperty(JsonGenerator generator,
+            String name, String dataType, String value) throws IOException {
+        if (StringUtils.isBlank(value)) {
+            return false;
+        }
+        generator.writeStartArray();
+        generator.writeString(name);
+        generator.writeStartObject();
+        generator.writeEndObject();
+        generator.writeString(dataType);
+        generator.writeString(value);
+        generator.writeEndArray();
+        return true;
+    }
+
+    /**
+     * write 'adr' properties.
+     * 
+     * @param generator
+     *            generator.
+     * @param addresses
+     *            addresses, may be null.
+     * @return true if any is written, false if not.
+     * @throws IOException
+     *             IOException.
+     */
+    private static boolean writeAddresses(JsonGenerator generator,
+            List<EntityAddress> addresses) throws IOException {
+        if (null == addresses || addresses.isEmpty()) {
+            return false;
         }
-        for (JcardPropertyConverter converter : converters) {
-            converter.convertAndSetProperty(vcard, entity);
+        for (EntityAddress address : addresses) {
+            generator.writeStartArray();
+            generator.writeString("adr");
+            writeParams(generator,
+                    parseTypes(address.getTypes(), ADDRESS_TYPES, true),
+                    address.getPref());
+            generator.writeString("text");
+            generator.writeStartArray();
+            writeComponent(generator, address.getPoBox());
+            writeComponent(generator, address.getExtendedAddress());
+            writeComponent(generator, address.getStreetAddress());
+            writeComponent(generator, address.getLocality());
+            writeComponent(generator, address.getRegion());
+            writeComponent(generator, address.getPostalCode());
+            writeComponent(generator, address.getCountry());
+            generator.writeEndArray();
+            generator.writeEndArray();
         }
-        if (!vcard.iterator().hasNext()) {
+        return true;
+    }
+
+    /**
+     * write 'tel' properties, invalid telephone is ignored.
+     * 
+     * @param generator
+     *            generator.
+     * @param telephones
+     *            telephones, may be null.
+     * @return true if any is written, false if not.
+     * @throws IOException
+     *             IOException.
+     */
+    private static boolean writeTelephones(JsonGenerator generator,
+            List<EntityTelephone> telephones) throws IOException {
+        if (null == telephones) {
+            return false;
+        }
+        boolean written = false;
+        for (EntityTelephone telephone : telephones) {
+            if (telephone.isEmpty()) {
+                continue;
+            }
+            String telUri = toTelUri(telephone);
+            if (null == telUri) {
+                LOGGER.error("invalid tel, not write it:{}", telephone);
+                continue;
+            }
+            generator.writeStartArray();
+            generator.writeString("tel");
+            writeParams(generator,
+                    parseTypes(telephone.getTypes(), TELEPHONE_TYPES, false),
+                    telephone.getPref());
+            generator.writeString("uri");
+            generator.writeString(telUri);
+            generator.writeEndArray();
+            written = true;
+        }
+        return written;
+    }
+
+    /**
+     * convert telephone to 'tel' URI.
+     * 
+     * @param telephone
+     *            telephone.
+     * @return URI, null if number or extension is invalid.
+     */
+    private static String toTelUri(EntityTelephone telephone) {
+        String number = telephone.getNumber();
+        if (!GLOBAL_NUMBER.matcher(number).matches()
+                || !containsDigit(number)) {
             return null;
         }
-        return this.writeJSON(vcard);
+        String extension = telephone.getExtNumber();
+        if (StringUtils.isBlank(extension)) {
+            return "tel:" + number;
+        }
+        if (!EXTENSION.matcher(extension).matches()) {
+            return null;
+        }
+        return "tel:" + number + ";ext=" + extension;
+    }
+
+    /**
+     * check if string contains digit.
+     * 
+     * @param str
+     *            string.
+     * @return true if contains, false if not.
+     */
+    private static boolean containsDigit(String str) {
+        for (int i = 0; i < str.length(); i++) {
+            if (str.charAt(i) >= '0' && str.charAt(i) <= '9') {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
-     * write JSON.
+     * parse types, which are split by ';'.
      * 
-     * @param vcard
-     *            VCARD.
-     * @return JSON string.
+     * @param typesStr
+     *            types string, may be null.
+     * @param knownTypes
+     *            known types, in lower case.
+     * @param keepUnknown
+     *            if keep unknown types in lower case, or ignore them.
+     * @return types, in lower case.
      */
-    private String writeJSON(VCard vcard) {
-        return Ezvcard.writeJson(vcard).prodId(false).go();
+    private static List<String> parseTypes(String typesStr,
+            String[] knownTypes, boolean keepUnknown) {
+        List<String> types = new ArrayList<String>();
+        String[] typeStrArray = StringUtils.split(typesStr, ";");
+        if (null == typeStrArray) {
+            return types;
+        }
+        for (String typeStr : typeStrArray) {
+            String type = findType(typeStr, knownTypes);
+            if (null == type && keepUnknown) {
+                type = typeStr.toLowerCase();
+            }
+            if (null != type) {
+                types.add(type);
+            }
+        }
+        return types;
     }
 
+    /**
+     * find known type, ignore case.
+     * 
+     * @param typeStr
+     *            type string.
+     * @param knownTypes
+     *            known types.
+     * @return known type, null if not found.
+     */
+    private static String findType(String typeStr, String[] knownTypes) {
+        for (String knownType : knownTypes) {
+            if (knownType.equalsIgnoreCase(typeStr)) {
+                return knownType;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * write params of property: 'type' and 'pref'.
+     * 
+     * @param generator
+     *            generator.
+     * @param types
+     *            types, the first 'pref' type is removed from it.
+     * @param pref
+     *            pref, may be null.
+     * @throws IOException
+     *             IOException.
+     */
+    private static void writeParams(JsonGenerator generator,
+            List<String> types, Integer pref) throws IOException {
+        Integer prefParam = pref;
+        if (null != prefParam && (prefParam < MIN_PREF || prefParam > MAX_PREF)) {
+            LOGGER.error("invalid pref, not write it:{}", pref);
+            prefParam = null;
+        }
+        if (types.remove(TYPE_PREF)) {
+            prefParam = MIN_PREF;
+        }
+        generator.writeStartObject();
+        if (types.size() == 1) {
+            generator.writeStringField("type", types.get(0));
+        } else if (types.size() > 1) {
+            generator.writeArrayFieldStart("type");
+            for (String type : types) {
+                generator.writeString(type);
+            }
+            generator.writeEndArray();
+        }
+        if (null != prefParam) {
+            generator.writeStringField("pref", String.valueOf(prefParam));
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * write component of structured value, null is written as empty string.
+     * 
+     * @param generator
+     *            generator.
+     * @param component
+     *            component.
+     * @throws IOException
+     *             IOException.
+     */
+    private static void writeComponent(JsonGenerator generator,
+            String component) throws IOException {
+        generator.writeString(null == component ? "" : component);
+    }
 }
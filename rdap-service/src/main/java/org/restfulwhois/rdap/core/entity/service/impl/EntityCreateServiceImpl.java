@@ -32,9 +32,12 @@ package org.restfulwhois.rdap.core.entity.service.impl;
 
 import org.restfulwhois.rdap.common.dto.EntityDto;
 import org.restfulwhois.rdap.common.model.Entity;
+import org.restfulwhois.rdap.common.model.base.ModelType;
 import org.restfulwhois.rdap.common.validation.ValidationResult;
+import org.restfulwhois.rdap.search.common.dao.TrigramIndexDao;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 /**
@@ -53,6 +56,12 @@ public class EntityCreateServiceImpl extends
     private static final Logger LOGGER = LoggerFactory
             .getLogger(EntityCreateServiceImpl.class);
 
+    /**
+     * trigramIndexDao.
+     */
+    @Autowired
+    private TrigramIndexDao trigramIndexDao;
+
     @Override
     protected void execute(Entity entity) {
         LOGGER.debug("save entity...");
@@ -64,6 +73,8 @@ public class EntityCreateServiceImpl extends
         saveEntityTels(entity);        
         savePublicIds(dto.getPublicIds(), entity);
         saveBaseModel(entity);
+        trigramIndexDao.save(ModelType.ENTITY, entity.getId(),
+                entity.getFn());
     }
 
     @Override
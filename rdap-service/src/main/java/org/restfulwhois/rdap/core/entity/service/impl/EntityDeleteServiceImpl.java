@@ -32,9 +32,12 @@ package org.restfulwhois.rdap.core.entity.service.impl;
 
 import org.restfulwhois.rdap.common.dto.EntityDto;
 import org.restfulwhois.rdap.common.model.Entity;
+import org.restfulwhois.rdap.common.model.base.ModelType;
 import org.restfulwhois.rdap.common.validation.ValidationResult;
+import org.restfulwhois.rdap.search.common.dao.TrigramIndexDao;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 /**
@@ -52,6 +55,12 @@ public class EntityDeleteServiceImpl extends EntityUpdateBaseServiceImpl {
     private static final Logger LOGGER = LoggerFactory
             .getLogger(EntityDeleteServiceImpl.class);
 
+    /**
+     * trigramIndexDao.
+     */
+    @Autowired
+    private TrigramIndexDao trigramIndexDao;
+
     @Override
     protected void execute(Entity entity) {
         LOGGER.debug("delete entitys...");
@@ -62,6 +71,7 @@ public class EntityDeleteServiceImpl extends EntityUpdateBaseServiceImpl {
         deleteEntityTels(entity);
         deletePublicIds(entity);
         deleteBaseModelRel(entity);
+        trigramIndexDao.delete(ModelType.ENTITY, entity.getId());
     }
 
     @Override
@@ -31,7 +31,9 @@
 package org.restfulwhois.rdap.core.entity.service.impl;
 
 import org.restfulwhois.rdap.common.dao.QueryDao;
+import org.restfulwhois.rdap.common.dao.impl.QueryCacheDao;
 import org.restfulwhois.rdap.common.model.Entity;
+import org.restfulwhois.rdap.common.model.base.ModelType;
 import org.restfulwhois.rdap.common.support.QueryParam;
 import org.restfulwhois.rdap.core.entity.service.EntityQueryService;
 import org.slf4j.Logger;
@@ -66,6 +68,12 @@ public class EntityQueryServiceImpl implements EntityQueryService {
     @Autowired
     private QueryDao<Entity> entityQueryDao;
 
+    /**
+     * query cache.
+     */
+    @Autowired
+    private QueryCacheDao queryCacheDao;
+
     /**
      * query entity by queryParam.
      * 
@@ -75,6 +83,7 @@ public class EntityQueryServiceImpl implements EntityQueryService {
      */
     @Override
     public Entity queryEntity(QueryParam queryParam) {
-        return entityQueryDao.query(queryParam);
+        return queryCacheDao.query(ModelType.ENTITY, queryParam,
+                entityQueryDao, false);
     }
 }
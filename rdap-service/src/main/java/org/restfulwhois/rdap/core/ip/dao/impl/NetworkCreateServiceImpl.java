@@ -36,6 +36,7 @@ import org.restfulwhois.rdap.common.model.Network;
 import org.restfulwhois.rdap.common.validation.ValidationResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 /**
@@ -54,6 +55,12 @@ public class NetworkCreateServiceImpl extends
     private static final Logger LOGGER = LoggerFactory
             .getLogger(NetworkCreateServiceImpl.class);
 
+    /**
+     * networkIndexDao.
+     */
+    @Autowired
+    private NetworkIndexDao networkIndexDao;
+
     @Override
     protected void execute(Network network) {
         LOGGER.debug("save network...");
@@ -61,6 +68,7 @@ public class NetworkCreateServiceImpl extends
         LOGGER.debug("save status...");
         getDao().saveStatus(network);              
         saveBaseModel(network);
+        networkIndexDao.save(network);
     }
 
     @Override
@@ -56,6 +56,12 @@ public class NetworkDeleteServiceImpl extends NetworkUpdateBaseServiceImpl {
     private static final Logger LOGGER = LoggerFactory
             .getLogger(NetworkDeleteServiceImpl.class);
 
+    /**
+     * networkIndexDao.
+     */
+    @Autowired
+    private NetworkIndexDao networkIndexDao;
+
     /**
      * domainDao.
      */
@@ -71,6 +77,7 @@ public class NetworkDeleteServiceImpl extends NetworkUpdateBaseServiceImpl {
         LOGGER.debug("delete related arpa domain ...");
         domainDao.deleteRel(network);
         deleteBaseModelRel(network);
+        networkIndexDao.delete(network);
     }
 
     @Override
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.core.ip.dao.impl;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+
+import org.restfulwhois.rdap.common.index.NetworkIndex;
+import org.restfulwhois.rdap.common.index.NetworkRange;
+import org.restfulwhois.rdap.common.index.NetworkRangeIndex;
+import org.restfulwhois.rdap.common.model.IpVersion;
+import org.restfulwhois.rdap.common.model.Network;
+import org.restfulwhois.rdap.common.support.RdapProperties;
+import org.restfulwhois.rdap.common.util.IpUtil;
+import org.restfulwhois.rdap.common.util.NetworkInBytes;
+import org.restfulwhois.rdap.common.util.TransactionUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+/**
+ * <pre>
+ * in-memory network index DAO of RDAP_IP.
+ * It maps network range to IP_ID, and is used to find the most specific
+ * network without range scan in database.
+ * It is loaded at startup if 'networkIndexEnabled' is true, and is updated
+ * by update API after transaction is committed.
+ * </pre>
+ *
+ * @author jiashuo
+ *
+ */
+@Repository
+@DependsOn("rdapProperties")
+public class NetworkIndexDao {
+    /**
+     * logger.
+     */
+    private static final Logger LOGGER = LoggerFactory
+            .getLogger(NetworkIndexDao.class);
+
+    /**
+     * select all network ranges.
+     */
+    private static final String SQL_LOAD_ALL =
+            "select IP_ID,STARTADDRESS,ENDADDRESS,VERSION from RDAP_IP";
+
+    /**
+     * JDBC template.
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * index.
+     */
+    private final NetworkIndex index = new NetworkIndex();
+
+    /**
+     * load index at startup.
+     */
+    @PostConstruct
+    public void init() {
+        if (!isEnabled()) {
+            LOGGER.info("network index is disabled.");
+            return;
+        }
+        reload();
+    }
+
+    /**
+     * check if index is enabled.
+     *
+     * @return true if enabled, false if not.
+     */
+    public boolean isEnabled() {
+        return RdapProperties.isNetworkIndexEnabled();
+    }
+
+    /**
+     * reload all network ranges from database.
+     */
+    public void reload() {
+        long start = System.currentTimeMillis();
+        List<NetworkRange> ranges =
+                jdbcTemplate.query(SQL_LOAD_ALL, new RowMapper<NetworkRange>() {
+                    @Override
+                    public NetworkRange mapRow(ResultSet rs, int rowNum)
+                            throws SQLException {
+                        return new NetworkRange(IpVersion.getIpVersion(rs
+                                .getString("VERSION")), rs
+                                .getBytes("STARTADDRESS"), rs
+                                .getBytes("ENDADDRESS"), rs.getLong("IP_ID"));
+                    }
+                });
+        index.load(ranges);
+        LOGGER.info("network index loaded, size:{}, milliseconds:{}",
+                index.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * find IP_ID of the most specific network which covers network.
+     *
+     * @param network
+     *            network.
+     * @return IP_ID, null if not found.
+     */
+    public Long findMostSpecificId(NetworkInBytes network) {
+        long id = index.findMostSpecific(network);
+        if (NetworkRangeIndex.NOT_FOUND == id) {
+            return null;
+        }
+        return id;
+    }
+
+    /**
+     * save or update network in index.
+     *
+     * @param network
+     *            network, with id.
+     */
+    public void save(Network network) {
+        if (!isEnabled() || null == network.getId()) {
+            return;
+        }
+        final NetworkRange range =
+                new NetworkRange(network.getIpVersion(),
+                        IpUtil.ipToByteArray(network.getStartAddress()),
+                        IpUtil.ipToByteArray(network.getEndAddress()),
+                        network.getId());
+        TransactionUtil.runAfterCommit(new Runnable() {
+            @Override
+            public void run() {
+                index.put(range);
+            }
+        });
+    }
+
+    /**
+     * delete network from index.
+     *
+     * @param network
+     *            network, with id.
+     */
+    public void delete(Network network) {
+        if (!isEnabled() || null == network.getId()) {
+            return;
+        }
+        final long id = network.getId();
+        TransactionUtil.runAfterCommit(new Runnable() {
+            @Override
+            public void run() {
+                index.remove(id);
+            }
+        });
+    }
+}
@@ -35,11 +35,13 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
 import org.restfulwhois.rdap.common.dao.AbstractQueryDao;
+import org.restfulwhois.rdap.common.dao.ColumnProjection;
+import org.restfulwhois.rdap.common.dao.ColumnProjection.Column;
 import org.restfulwhois.rdap.common.dao.NoticeDao;
 import org.restfulwhois.rdap.common.dao.QueryDao;
 import org.restfulwhois.rdap.common.dao.impl.SelfLinkGenerator;
@@ -61,6 +63,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -81,6 +84,92 @@ public class NetworkQueryDaoImpl extends AbstractQueryDao<Network> {
      */
     private static final Logger LOGGER = LoggerFactory
             .getLogger(NetworkQueryDaoImpl.class);
+    /**
+     * columns of network, table alias is 'ip'.
+     */
+    private static final ColumnProjection NETWORK_COLUMNS =
+            new ColumnProjection("ip", "IP_ID", "HANDLE", "STARTADDRESS",
+                    "ENDADDRESS", "VERSION", "NAME", "TYPE", "COUNTRY",
+                    "PARENT_HANDLE", "LANG", "PORT43", "CIDR").optional(
+                    "ip", "RDAP_IP", "CUSTOM_PROPERTIES");
+    /**
+     * columns of network, with DOMAIN_ID of arpa domain.
+     */
+    private static final ColumnProjection NETWORK_WITH_DOMAIN_COLUMNS =
+            NETWORK_COLUMNS.join("d", "DOMAIN_ID");
+    /**
+     * columns of network status.
+     */
+    private static final ColumnProjection STATUS_COLUMNS =
+            new ColumnProjection("status", "IP_ID", "STATUS");
+    /**
+     * IP_ID.
+     */
+    private static final Column IP_ID = NETWORK_COLUMNS.get("IP_ID");
+    /**
+     * HANDLE.
+     */
+    private static final Column HANDLE = NETWORK_COLUMNS.get("HANDLE");
+    /**
+     * STARTADDRESS.
+     */
+    private static final Column STARTADDRESS = NETWORK_COLUMNS
+            .get("STARTADDRESS");
+    /**
+     * ENDADDRESS.
+     */
+    private static final Column ENDADDRESS = NETWORK_COLUMNS.get("ENDADDRESS");
+    /**
+     * VERSION.
+     */
+    private static final Column VERSION = NETWORK_COLUMNS.get("VERSION");
+    /**
+     * NAME.
+     */
+    private static final Column NAME = NETWORK_COLUMNS.get("NAME");
+    /**
+     * TYPE.
+     */
+    private static final Column TYPE = NETWORK_COLUMNS.get("TYPE");
+    /**
+     * COUNTRY.
+     */
+    private static final Column COUNTRY = NETWORK_COLUMNS.get("COUNTRY");
+    /**
+     * PARENT_HANDLE.
+     */
+    private static final Column PARENT_HANDLE = NETWORK_COLUMNS
+            .get("PARENT_HANDLE");
+    /**
+     * LANG.
+     */
+    private static final Column LANG = NETWORK_COLUMNS.get("LANG");
+    /**
+     * PORT43.
+     */
+    private static final Column PORT43 = NETWORK_COLUMNS.get("PORT43");
+    /**
+     * CIDR.
+     */
+    private static final Column CIDR = NETWORK_COLUMNS.get("CIDR");
+    /**
+     * CUSTOM_PROPERTIES.
+     */
+    private static final Column CUSTOM_PROPERTIES = NETWORK_COLUMNS
+            .get("CUSTOM_PROPERTIES");
+    /**
+     * DOMAIN_ID of arpa domain.
+     */
+    private static final Column DOMAIN_ID = NETWORK_WITH_DOMAIN_COLUMNS
+            .get("DOMAIN_ID");
+    /**
+     * IP_ID of network status.
+     */
+    private static final Column STATUS_IP_ID = STATUS_COLUMNS.get("IP_ID");
+    /**
+     * STATUS of network status.
+     */
+    private static final Column STATUS_STATUS = STATUS_COLUMNS.get("STATUS");
     /**
      * notice dao.
      */
@@ -118,6 +207,12 @@ public class NetworkQueryDaoImpl extends AbstractQueryDao<Network> {
     @Autowired
     private QueryDao<Entity> entityQueryDao;
 
+    /**
+     * networkIndexDao.
+     */
+    @Autowired
+    private NetworkIndexDao networkIndexDao;
+
     /**
      * query network object.
      * 
@@ -167,14 +262,16 @@ public class NetworkQueryDaoImpl extends AbstractQueryDao<Network> {
                 outerObjectId, outerModelType);
         if (ModelType.ENTITY.equals(outerModelType)) {
             List<Network> networks =
-                    queryWithoutInnerObjectsForEntity(outerObjectId);
+                    queryWithoutInnerObjectsForEntity(outerObjectId, 0);
             queryAndSetInnerObjects(networks);
             LOGGER.debug("for entities result size:{}", networks.size());
             return networks;
         }
         if (ModelType.DOMAIN.equals(outerModelType)) {
-            List<Network> networks = findByArpaDomainId(outerObjectId);
-            queryAndSetInnerObjects(networks);
+            List<Network> networks =
+                    queryAsInnerObjects(
+                            Collections.singletonList(outerObjectId),
+                            outerModelType).get(outerObjectId);
             LOGGER.debug("for arpa result size:{}", networks.size());
             return networks;
         }
@@ -183,69 +280,157 @@ public class NetworkQueryDaoImpl extends AbstractQueryDao<Network> {
     }
 
     /**
-     * find by ARPA domain id.
+     * query at most limit networks of entity, in handle order. Only the
+     * returned networks are filled with inner objects.
      * 
-     * @param arpaDomainId
-     *            arpaDomainId.
+     * @param outerObjectId
+     *            entity id.
+     * @param outerModelType
+     *            only support ENTITY.
+     * @param limit
+     *            max size of network list.
      * @return network list.
      */
-    private List<Network> findByArpaDomainId(final Long arpaDomainId) {
-        final String sql =
-                "select * from RDAP_IP ip" + " inner join RDAP_DOMAIN d "
+    @Override
+    public List<Network> queryAsInnerObjects(Long outerObjectId,
+            ModelType outerModelType, int limit) {
+        if (!ModelType.ENTITY.equals(outerModelType)) {
+            return super.queryAsInnerObjects(outerObjectId, outerModelType,
+                    limit);
+        }
+        List<Network> networks =
+                queryWithoutInnerObjectsForEntity(outerObjectId, limit);
+        queryAndSetInnerObjects(networks);
+        LOGGER.debug("for entities result size:{}, limit:{}",
+                networks.size(), limit);
+        return networks;
+    }
+
+    /**
+     * query networks of arpa domains, and fill them with inner objects. Other
+     * outer types are queried one by one.
+     * 
+     * @param outerObjectIds
+     *            arpa domain ids.
+     * @param outerModelType
+     *            outer object type.
+     * @return network list map, key is domain id.
+     */
+    @Override
+    public Map<Long, List<Network>> queryAsInnerObjects(
+            List<Long> outerObjectIds, ModelType outerModelType) {
+        if (!ModelType.DOMAIN.equals(outerModelType)) {
+            return super.queryAsInnerObjects(outerObjectIds, outerModelType);
+        }
+        List<Long> ids = getDistinctIds(outerObjectIds);
+        Map<Long, List<Network>> result = createInnerObjectsMap(ids);
+        if (ids.isEmpty()) {
+            return result;
+        }
+        List<Network> networks = new ArrayList<Network>();
+        for (List<Long> idsInClause : splitIds(ids)) {
+            networks.addAll(findByArpaDomainIds(idsInClause, result));
+        }
+        queryAndSetInnerObjects(networks);
+        return result;
+    }
+
+    /**
+     * find networks by ARPA domain ids.
+     * 
+     * @param arpaDomainIds
+     *            distinct arpa domain ids.
+     * @param result
+     *            network list map, key is domain id.
+     * @return all networks in result.
+     */
+    private List<Network> findByArpaDomainIds(List<Long> arpaDomainIds,
+            final Map<Long, List<Network>> result) {
+        final String sqlTpl =
+                "select " + NETWORK_WITH_DOMAIN_COLUMNS.toSql()
+                        + " from RDAP_IP ip inner join RDAP_DOMAIN d "
                         + " on ip.IP_ID=d.NETWORK_ID "
-                        + " left outer join RDAP_IP_STATUS status"
-                        + " on ip.IP_ID = status.IP_ID "
-                        + " where d.DOMAIN_ID=?";
-        List<Network> result =
-                jdbcTemplate.query(new PreparedStatementCreator() {
+                        + " where d.DOMAIN_ID in (%s)";
+        final String sql = String.format(sqlTpl, joinIds(arpaDomainIds));
+        return jdbcTemplate.query(sql,
+                new ResultSetExtractor<List<Network>>() {
                     @Override
-                    public PreparedStatement createPreparedStatement(
-                            Connection connection) throws SQLException {
-                        PreparedStatement ps = connection.prepareStatement(sql);
-                        ps.setLong(1, arpaDomainId);
-                        return ps;
+                    public List<Network> extractData(ResultSet rs)
+                            throws SQLException {
+                        List<Network> networks = new ArrayList<Network>();
+                        while (rs.next()) {
+                            Network network =
+                                    extractNetworkFromRs(rs, IP_ID.getLong(rs));
+                            result.get(DOMAIN_ID.getLong(rs)).add(network);
+                            networks.add(network);
+                        }
+                        return networks;
                     }
-                }, new NetworkWithStatusResultSetExtractor());
-        return result;
+                });
     }
 
     /**
-     * query and set inner objects for network.
+     * query and set inner objects for network. Each inner type is queried once
+     * for all networks.
      * 
      * @param networks
      *            networks which will be set.
      */
     private void queryAndSetInnerObjects(List<Network> networks) {
-        if (null == networks) {
+        if (null == networks || networks.isEmpty()) {
             return;
         }
+        List<Long> ipIds = getModelIds(networks);
+        Map<Long, List<String>> statusMap = queryNetworkStatus(ipIds);
+        Map<Long, List<Remark>> remarksMap =
+                remarkQueryDao.queryAsInnerObjects(ipIds, ModelType.IP);
+        Map<Long, List<Link>> linksMap =
+                linkQueryDao.queryAsInnerObjects(ipIds, ModelType.IP);
+        Map<Long, List<Event>> eventsMap =
+                eventQueryDao.queryAsInnerObjects(ipIds, ModelType.IP);
         for (Network network : networks) {
-            queryAndSetInnerObjectsWithoutEntities(network);
+            Long ipId = network.getId();
+            List<String> status = getInnerObjects(statusMap, ipId);
+            network.setStatus(status.isEmpty() ? null : status);
+            network.setRemarks(getInnerObjects(remarksMap, ipId));
+            List<Link> links = getInnerObjects(linksMap, ipId);
+            links.add(SelfLinkGenerator.generateSelfLink(network));
+            network.setLinks(links);
+            network.setEvents(getInnerObjects(eventsMap, ipId));
         }
     }
 
     /**
      * query network from RDAP_IP, without inner objects.Only support ENTITY.
+     * Status is not joined, because it is set by queryAndSetInnerObjects, and
+     * one row is one network, so that 'limit' can be applied.
      * 
      * @param outerObjectId
      *            entity id.
+     * @param limit
+     *            max size of network list, no limit if <= 0.
      * @return network list
      */
     private List<Network> queryWithoutInnerObjectsForEntity(
-            final Long outerObjectId) {
+            final Long outerObjectId, final int limit) {
+        String limitClause = "";
+        if (limit > 0) {
+            limitClause = " limit ? ";
+        }
         final String sql =
-                "select * from RDAP_IP ip inner join "
+                "select distinct " + NETWORK_COLUMNS.toSql()
+                        + " from RDAP_IP ip inner join "
                         + " REL_ENTITY_REGISTRATION rel "
                         + " on ip.IP_ID = rel.REL_ID "
-                        + " left outer join RDAP_IP_STATUS status on ip.IP_ID = "
-                        + " status.IP_ID where rel.ENTITY_ID = ? "
+                        + " where rel.ENTITY_ID = ? "
                         + " and REL_OBJECT_TYPE=? "
                         + " and "
                         + IpUtil.generateNetworkRangeSql("STARTADDRESS",
                                 "VERSION")
                         + " and "
                         + IpUtil.generateNetworkRangeSql("ENDADDRESS",
-                                "VERSION") + " order by ip.HANDLE ";
+                                "VERSION") + " order by ip.HANDLE "
+                        + limitClause;
         List<Network> result =
                 jdbcTemplate.query(new PreparedStatementCreator() {
                     @Override
@@ -254,38 +439,15 @@ public class NetworkQueryDaoImpl extends AbstractQueryDao<Network> {
                         PreparedStatement ps = connection.prepareStatement(sql);
                         ps.setLong(1, outerObjectId);
                         ps.setString(2, ModelType.IP.getName());
+                        if (limit > 0) {
+                            ps.setInt(3, limit);
+                        }
                         return ps;
                     }
-                }, new NetworkWithStatusResultSetExtractor());
+                }, new NetworkResultSetExtractor());
         return result;
     }
 
-    /**
-     * network with status resultSet extractor.
-     * 
-     * @author jiashuo
-     * 
-     */
-    class NetworkWithStatusResultSetExtractor implements
-            ResultSetExtractor<List<Network>> {
-        @Override
-        public List<Network> extractData(ResultSet rs) throws SQLException {
-            List<Network> result = new ArrayList<Network>();
-            Map<Long, Network> networkMapById = new HashMap<Long, Network>();
-            while (rs.next()) {
-                Long networkId = rs.getLong("IP_ID");
-                Network network = networkMapById.get(networkId);
-                if (null == network) {
-                    network = extractNetworkFromRs(rs, networkId);
-                    result.add(network);
-                    networkMapById.put(networkId, network);
-                }
-                network.addStatus(rs.getString("STATUS"));
-            }
-            return result;
-        }
-    }
-
     /**
      * query inner objects of ip,and fill them to ip.
      * 
@@ -296,41 +458,39 @@ public class NetworkQueryDaoImpl extends AbstractQueryDao<Network> {
         if (null == objIp) {
             return;
         }
-        Long ipId = objIp.getId();
-        List<String> status = queryNetworkStatus(ipId);
-        objIp.setStatus(status);
-        List<Remark> remarks =
-                remarkQueryDao.queryAsInnerObjects(ipId, ModelType.IP);
-        objIp.setRemarks(remarks);
-        List<Link> links = linkQueryDao.queryAsInnerObjects(ipId, ModelType.IP);
-        links.add(SelfLinkGenerator.generateSelfLink(objIp));
-        objIp.setLinks(links);
-        List<Event> events =
-                eventQueryDao.queryAsInnerObjects(ipId, ModelType.IP);
-        objIp.setEvents(events);
+        queryAndSetInnerObjects(Collections.singletonList(objIp));
     }
 
     /**
      * query ip status from RDAP_IP_STATUS.
      * 
-     * @param ipId
-     *            find ip Status by ipId
-     * @return list of status
+     * @param ipIds
+     *            find ip Status by ipIds
+     * @return status list map, key is ipId.
      */
-    private List<String> queryNetworkStatus(final Long ipId) {
-        final String sql =
-                "select * from RDAP_IP_STATUS ip where " + " IP_ID = ?";
-        List<String> result =
-                jdbcTemplate.query(new PreparedStatementCreator() {
-                    public PreparedStatement createPreparedStatement(
-                            Connection connection) throws SQLException {
-                        PreparedStatement ps = connection.prepareStatement(sql);
-                        ps.setLong(1, ipId);
-                        return ps;
-                    }
-                }, new StatusResultSetExtractor());
-        if (null == result || result.size() == 0) {
-            return null;
+    private Map<Long, List<String>> queryNetworkStatus(List<Long> ipIds) {
+        List<Long> ids = getDistinctIds(ipIds);
+        final Map<Long, List<String>> result = createInnerObjectsMap(ids);
+        if (ids.isEmpty()) {
+            return result;
+        }
+        RowCallbackHandler handler = new RowCallbackHandler() {
+            @Override
+            public void processRow(ResultSet rs) throws SQLException {
+                List<String> statusList =
+                        result.get(STATUS_IP_ID.getLong(rs));
+                String status = STATUS_STATUS.getString(rs);
+                if (!statusList.contains(status)) {
+                    statusList.add(status);
+                }
+            }
+        };
+        for (List<Long> idsInClause : splitIds(ids)) {
+            final String sql =
+                    String.format("select " + STATUS_COLUMNS.toSql()
+                            + " from RDAP_IP_STATUS status where "
+                            + " status.IP_ID in (%s)", joinIds(idsInClause));
+            jdbcTemplate.query(sql, handler);
         }
         return result;
     }
@@ -343,8 +503,11 @@ public class NetworkQueryDaoImpl extends AbstractQueryDao<Network> {
      * @return Ip object
      */
     private Network queryWithoutInnerObjects(QueryParam queryParam) {
+        if (networkIndexDao.isEnabled()) {
+            return queryWithoutInnerObjectsByIndex(queryParam);
+        }
         PreparedStatementCreator pstatCreator =
-                generatePStatCreator(queryParam, "RDAP_IP");
+                generatePStatCreator(queryParam, "RDAP_IP", NETWORK_COLUMNS);
         List<Network> result =
                 jdbcTemplate.query(pstatCreator,
                         new NetworkResultSetExtractor());
@@ -354,6 +517,41 @@ public class NetworkQueryDaoImpl extends AbstractQueryDao<Network> {
         return result.get(0);
     }
 
+    /**
+     * query ip using network index, without inner objects.
+     * 
+     * @param queryParam
+     *            query parameter of network
+     * @return Ip object
+     */
+    private Network queryWithoutInnerObjectsByIndex(QueryParam queryParam) {
+        NetworkQueryParam ipQueryParam = (NetworkQueryParam) queryParam;
+        final Long networkId =
+                networkIndexDao.findMostSpecificId(ipQueryParam
+                        .getNetworkInBytes());
+        LOGGER.debug("query by index, networkId:{}", networkId);
+        if (null == networkId) {
+            return null;
+        }
+        final String sql =
+                "select " + NETWORK_COLUMNS.toSql()
+                        + " from RDAP_IP ip where ip.IP_ID=?";
+        List<Network> result =
+                jdbcTemplate.query(new PreparedStatementCreator() {
+                    @Override
+                    public PreparedStatement createPreparedStatement(
+                            Connection connection) throws SQLException {
+                        PreparedStatement ps = connection.prepareStatement(sql);
+                        ps.setLong(1, networkId);
+                        return ps;
+                    }
+                }, new NetworkResultSetExtractor());
+        if (null == result || result.size() == 0) {
+            return null;
+        }
+        return result.get(0);
+    }
+
     /**
      * <pre>
      * generate PreparedStatementCreator by executing sql.
@@ -365,17 +563,20 @@ public class NetworkQueryDaoImpl extends AbstractQueryDao<Network> {
      *            queryParam of network.
      * @param ipTableName
      *            the database ip table name.
+     * @param columns
+     *            selected columns, table alias is 'ip'.
      * @return PreparedStatementCreator.
      */
     public static PreparedStatementCreator generatePStatCreator(
-            QueryParam queryParam, String ipTableName) {
+            QueryParam queryParam, String ipTableName,
+            ColumnProjection columns) {
         NetworkQueryParam ipQueryParam = (NetworkQueryParam) queryParam;
         final NetworkInBytes network = ipQueryParam.getNetworkInBytes();
         final int hexCharSize = IpUtil.getHexCharSize(network.getIpVersion());
         String sql =
-                "select * from "
+                "select " + columns.toSql() + " from "
                         + ipTableName
-                        + " where STARTADDRESS<=? && ENDADDRESS>=? && VERSION = ?"
+                        + " ip where STARTADDRESS<=? && ENDADDRESS>=? && VERSION = ?"
                         + " && LENGTH(HEX(STARTADDRESS))=? && LENGTH(HEX(ENDADDRESS))=? "
                         + " && " + IpUtil.generateNetworkVersionSql("VERSION")
                         + " order by STARTADDRESS desc,ENDADDRESS limit 1";
@@ -432,16 +633,16 @@ public class NetworkQueryDaoImpl extends AbstractQueryDao<Network> {
             throws SQLException {
         Network network = new Network();
         network.setId(networkId);
-        network.setHandle(rs.getString("HANDLE"));
+        network.setHandle(HANDLE.getString(rs));
         setIpVersionAndStartEndAddress(rs, network);
-        network.setName(rs.getString("NAME"));
-        network.setType(rs.getString("TYPE"));
-        network.setCountry(rs.getString("COUNTRY"));
-        network.setParentHandle(rs.getString("PARENT_HANDLE"));
-        network.setLang(rs.getString("LANG"));
-        network.setPort43(rs.getString("PORT43"));
-        network.setCidr(rs.getString("CIDR"));
-        extractCustomPropertiesFromRs(rs, network);
+        network.setName(NAME.getString(rs));
+        network.setType(TYPE.getString(rs));
+        network.setCountry(COUNTRY.getString(rs));
+        network.setParentHandle(PARENT_HANDLE.getString(rs));
+        network.setLang(LANG.getString(rs));
+        network.setPort43(PORT43.getString(rs));
+        network.setCidr(CIDR.getString(rs));
+        extractCustomPropertiesFromRs(rs, CUSTOM_PROPERTIES, network);
         return network;
     }
 
@@ -457,11 +658,11 @@ public class NetworkQueryDaoImpl extends AbstractQueryDao<Network> {
      */
     private void setIpVersionAndStartEndAddress(ResultSet rs, Network objIp)
             throws SQLException {
-        String ipVersionStr = rs.getString("VERSION");
+        String ipVersionStr = VERSION.getString(rs);
         IpVersion ipVersion = IpVersion.getIpVersion(ipVersionStr);
         objIp.setIpVersion(ipVersion);
-        byte[] startAddressBytes = rs.getBytes("STARTADDRESS");
-        byte[] endAddressBytes = rs.getBytes("ENDADDRESS");
+        byte[] startAddressBytes = STARTADDRESS.getBytes(rs);
+        byte[] endAddressBytes = ENDADDRESS.getBytes(rs);
         objIp.setStartAddress(IpUtil.toString(startAddressBytes, ipVersion));
         objIp.setEndAddress(IpUtil.toString(endAddressBytes, ipVersion));
     }
@@ -478,7 +679,7 @@ public class NetworkQueryDaoImpl extends AbstractQueryDao<Network> {
         public List<Network> extractData(ResultSet rs) throws SQLException {
             List<Network> result = new ArrayList<Network>();
             while (rs.next()) {
-                Long networkId = rs.getLong("IP_ID");
+                Long networkId = IP_ID.getLong(rs);
                 Network network = extractNetworkFromRs(rs, networkId);
                 result.add(network);
             }
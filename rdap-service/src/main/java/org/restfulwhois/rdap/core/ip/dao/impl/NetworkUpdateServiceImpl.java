@@ -36,6 +36,7 @@ import org.restfulwhois.rdap.common.model.Network;
 import org.restfulwhois.rdap.common.validation.ValidationResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 /**
@@ -53,6 +54,12 @@ public class NetworkUpdateServiceImpl extends NetworkUpdateBaseServiceImpl {
     private static final Logger LOGGER = LoggerFactory
             .getLogger(NetworkUpdateServiceImpl.class);
 
+    /**
+     * networkIndexDao.
+     */
+    @Autowired
+    private NetworkIndexDao networkIndexDao;
+
     @Override
     protected void execute(Network network) {
         LOGGER.debug("update network...");
@@ -60,6 +67,7 @@ public class NetworkUpdateServiceImpl extends NetworkUpdateBaseServiceImpl {
         LOGGER.debug("update status...");
         getDao().updateStatus(network);
         updateBaseModel(network);
+        networkIndexDao.save(network);
     }
 
     @Override
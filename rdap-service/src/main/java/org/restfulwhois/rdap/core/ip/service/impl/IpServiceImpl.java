@@ -30,7 +30,9 @@
  */
 package org.restfulwhois.rdap.core.ip.service.impl;
 
+import org.restfulwhois.rdap.common.dao.impl.QueryCacheDao;
 import org.restfulwhois.rdap.common.model.Network;
+import org.restfulwhois.rdap.common.model.base.ModelType;
 import org.restfulwhois.rdap.common.support.QueryParam;
 import org.restfulwhois.rdap.core.ip.dao.impl.NetworkQueryDaoImpl;
 import org.restfulwhois.rdap.core.ip.service.IpService;
@@ -66,6 +68,12 @@ public class IpServiceImpl implements IpService {
     @Autowired
     private NetworkQueryDaoImpl ipQueryDao;
 
+    /**
+     * query cache.
+     */
+    @Autowired
+    private QueryCacheDao queryCacheDao;
+
     /**
      * query IP by queryParam.
      * 
@@ -75,6 +83,7 @@ public class IpServiceImpl implements IpService {
      */
     @Override
     public Network queryIp(QueryParam queryParam) {
-        return ipQueryDao.query(queryParam);
+        return queryCacheDao.query(ModelType.IP, queryParam, ipQueryDao,
+                true);
     }
 }
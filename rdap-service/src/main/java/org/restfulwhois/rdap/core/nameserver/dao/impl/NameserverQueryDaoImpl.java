@@ -35,12 +35,15 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.lang.StringUtils;
 import org.restfulwhois.rdap.common.dao.AbstractQueryDao;
+import org.restfulwhois.rdap.common.dao.ColumnProjection;
+import org.restfulwhois.rdap.common.dao.ColumnProjection.Column;
 import org.restfulwhois.rdap.common.dao.QueryDao;
 import org.restfulwhois.rdap.common.dao.SearchDao;
 import org.restfulwhois.rdap.common.dao.impl.LinkQueryDaoImpl;
@@ -83,6 +86,78 @@ public class NameserverQueryDaoImpl extends AbstractQueryDao<Nameserver> {
      */
     protected static final Logger LOGGER = LoggerFactory
             .getLogger(LinkQueryDaoImpl.class);
+    /**
+     * columns of nameserver, table alias is 'ns'.
+     */
+    public static final ColumnProjection NAMESERVER_COLUMNS =
+            new ColumnProjection("ns", "NAMESERVER_ID", "HANDLE", "LDH_NAME",
+                    "UNICODE_NAME", "PORT43", "LANG").optional("ns",
+                    "RDAP_NAMESERVER", "CUSTOM_PROPERTIES");
+    /**
+     * columns of nameserver, with STATUS.
+     */
+    private static final ColumnProjection NAMESERVER_WITH_STATUS_COLUMNS =
+            NAMESERVER_COLUMNS.join("status", "STATUS");
+    /**
+     * columns of nameserver, with STATUS and DOMAIN_ID of relation.
+     */
+    private static final ColumnProjection NAMESERVER_WITH_DOMAIN_COLUMNS =
+            NAMESERVER_WITH_STATUS_COLUMNS.join("rel", "DOMAIN_ID");
+    /**
+     * columns of nameserver status.
+     */
+    private static final ColumnProjection NS_STATUS_COLUMNS =
+            new ColumnProjection("status", "NAMESERVER_ID", "STATUS");
+    /**
+     * NAMESERVER_ID.
+     */
+    private static final Column NAMESERVER_ID = NAMESERVER_COLUMNS
+            .get("NAMESERVER_ID");
+    /**
+     * HANDLE.
+     */
+    private static final Column HANDLE = NAMESERVER_COLUMNS.get("HANDLE");
+    /**
+     * LDH_NAME.
+     */
+    private static final Column LDH_NAME = NAMESERVER_COLUMNS.get("LDH_NAME");
+    /**
+     * UNICODE_NAME.
+     */
+    private static final Column UNICODE_NAME = NAMESERVER_COLUMNS
+            .get("UNICODE_NAME");
+    /**
+     * PORT43.
+     */
+    private static final Column PORT43 = NAMESERVER_COLUMNS.get("PORT43");
+    /**
+     * LANG.
+     */
+    private static final Column LANG = NAMESERVER_COLUMNS.get("LANG");
+    /**
+     * CUSTOM_PROPERTIES.
+     */
+    private static final Column CUSTOM_PROPERTIES = NAMESERVER_COLUMNS
+            .get("CUSTOM_PROPERTIES");
+    /**
+     * STATUS.
+     */
+    private static final Column STATUS = NAMESERVER_WITH_STATUS_COLUMNS
+            .get("STATUS");
+    /**
+     * DOMAIN_ID.
+     */
+    private static final Column DOMAIN_ID = NAMESERVER_WITH_DOMAIN_COLUMNS
+            .get("DOMAIN_ID");
+    /**
+     * NAMESERVER_ID of nameserver status.
+     */
+    private static final Column NS_STATUS_NAMESERVER_ID = NS_STATUS_COLUMNS
+            .get("NAMESERVER_ID");
+    /**
+     * STATUS of nameserver status.
+     */
+    private static final Column NS_STATUS = NS_STATUS_COLUMNS.get("STATUS");
     /**
      * remark dao.
      */
@@ -121,52 +196,91 @@ public class NameserverQueryDaoImpl extends AbstractQueryDao<Nameserver> {
     private SearchDao<Nameserver> searchDao;
 
     /**
-     * query nameserver object as inner objects,and get the list of nameserver.
+     * query nameserver objects as inner objects of domains.
      * 
-     * @param outerObjectId
-     *            id from domain.
-     * @return result for List<Nameserver>
+     * @param outerObjectIds
+     *            distinct ids from domain.
+     * @param result
+     *            nameserver list map, key is domain id.
+     * @return all nameservers in result.
      */
-    private List<Nameserver> queryNameserverWithDomainID(
-            final Long outerObjectId) {
-        final String sql =
-                "select * from RDAP_NAMESERVER ns inner join "
-                        + "REL_DOMAIN_NAMESERVER rel on (ns.NAMESERVER_ID = "
-                        + "rel.NAMESERVER_ID and rel.DOMAIN_ID = ?) "
+    private List<Nameserver> queryNameserverWithDomainIds(
+            List<Long> outerObjectIds, final Map<Long, List<Nameserver>> result) {
+        final String sqlTpl =
+                "select " + NAMESERVER_WITH_DOMAIN_COLUMNS.toSql()
+                        + " from RDAP_NAMESERVER ns "
+                        + " inner join REL_DOMAIN_NAMESERVER rel "
+                        + " on (ns.NAMESERVER_ID = rel.NAMESERVER_ID "
+                        + " and rel.DOMAIN_ID in (%s)) "
                         + " left outer join RDAP_NAMESERVER_STATUS status"
                         + " on ns.NAMESERVER_ID = status.NAMESERVER_ID";
-
-        List<Nameserver> result =
-                jdbcTemplate.query(new PreparedStatementCreator() {
-                    public PreparedStatement createPreparedStatement(
-                            Connection connection) throws SQLException {
-                        PreparedStatement ps = connection.prepareStatement(sql);
-                        ps.setLong(1, outerObjectId);
-                        return ps;
+        final String sql = String.format(sqlTpl, joinIds(outerObjectIds));
+        return jdbcTemplate.query(sql,
+                new ResultSetExtractor<List<Nameserver>>() {
+                    @Override
+                    public List<Nameserver> extractData(ResultSet rs)
+                            throws SQLException {
+                        List<Nameserver> nameservers =
+                                new ArrayList<Nameserver>();
+                        Map<String, Nameserver> nsMapByRelAndId =
+                                new HashMap<String, Nameserver>();
+                        while (rs.next()) {
+                            Long domainId = DOMAIN_ID.getLong(rs);
+                            String key =
+                                    domainId + "_"
+                                            + NAMESERVER_ID.getLong(rs);
+                            Nameserver ns = nsMapByRelAndId.get(key);
+                            if (null == ns) {
+                                ns = new Nameserver();
+                                extractNameserverFromRs(rs, ns);
+                                result.get(domainId).add(ns);
+                                nameservers.add(ns);
+                                nsMapByRelAndId.put(key, ns);
+                            }
+                            ns.addStatus(STATUS.getString(rs));
+                        }
+                        return nameservers;
                     }
-                }, new NSResultSetExtractor());
-        if (null == result || result.size() == 0) {
-            return null;
-        }
-
-        return result;
+                });
     }
 
+    /**
+     * query nameservers as inner objects of domain, return null if domain has
+     * no nameserver.
+     */
     @Override
     public List<Nameserver> queryAsInnerObjects(Long outerObjectId,
             ModelType outerModelType) {
         List<Nameserver> listNameserver =
-                queryNameserverWithDomainID(outerObjectId);
-        if (listNameserver == null) {
+                queryAsInnerObjects(Collections.singletonList(outerObjectId),
+                        outerModelType).get(outerObjectId);
+        if (null == listNameserver || listNameserver.isEmpty()) {
             return null;
         }
-        final int sizeNameserver = listNameserver.size();
-        for (int i = 0; i < sizeNameserver; ++i) {
-            queryAndSetInnerObjects(listNameserver.get(i));
-        }
         return listNameserver;
     }
 
+    /**
+     * query nameservers as inner objects of domains, domain without nameserver
+     * is mapped to empty list.
+     */
+    @Override
+    public Map<Long, List<Nameserver>> queryAsInnerObjects(
+            List<Long> outerObjectIds, ModelType outerModelType) {
+        List<Long> ids = getDistinctIds(outerObjectIds);
+        Map<Long, List<Nameserver>> result = createInnerObjectsMap(ids);
+        if (ids.isEmpty()) {
+            return result;
+        }
+        List<Nameserver> nameservers = new ArrayList<Nameserver>();
+        for (List<Long> idsInClause : splitIds(ids)) {
+            nameservers.addAll(queryNameserverWithDomainIds(idsInClause,
+                    result));
+        }
+        queryAndSetInnerObjects(nameservers);
+        return result;
+    }
+
     @Override
     public Nameserver query(QueryParam queryParam) {
         Nameserver nameserver = queryWithoutInnerObjects(queryParam);
@@ -185,24 +299,7 @@ public class NameserverQueryDaoImpl extends AbstractQueryDao<Nameserver> {
         if (null == ns) {
             return;
         }
-        Long nsID = ns.getId();
-        List<IPAddress> listIPAddress =
-                ipAddressQueryDao.queryAsInnerObjects(nsID,
-                        ModelType.NAMESERVER);
-        if (listIPAddress.size() > 0) {
-            IPAddress objIPAddress = listIPAddress.get(0);
-            ns.setIpAddresses(objIPAddress);
-        }
-        List<Remark> remarks =
-                remarkQueryDao.queryAsInnerObjects(nsID, ModelType.NAMESERVER);
-        ns.setRemarks(remarks);
-        List<Link> links =
-                linkQueryDao.queryAsInnerObjects(nsID, ModelType.NAMESERVER);
-        links.add(SelfLinkGenerator.generateSelfLink(ns));
-        ns.setLinks(links);
-        List<Event> events =
-                eventQueryDao.queryAsInnerObjects(nsID, ModelType.NAMESERVER);
-        ns.setEvents(events);
+        queryAndSetInnerObjects(Collections.singletonList(ns));
     }
 
     /**
@@ -233,7 +330,8 @@ public class NameserverQueryDaoImpl extends AbstractQueryDao<Nameserver> {
         DomainQueryParam nsQueryParam = (DomainQueryParam) queryParam;
         final String punyName = nsQueryParam.getPunyName();
         final String sql =
-                "select * from RDAP_NAMESERVER ns "
+                "select " + NAMESERVER_WITH_STATUS_COLUMNS.toSql()
+                        + " from RDAP_NAMESERVER ns "
                         + " left outer join RDAP_NAMESERVER_STATUS status "
                         + " on ns.NAMESERVER_ID = status.NAMESERVER_ID "
                         + " where LDH_NAME= ?";
@@ -264,7 +362,7 @@ public class NameserverQueryDaoImpl extends AbstractQueryDao<Nameserver> {
             List<Nameserver> result = new ArrayList<Nameserver>();
             Map<Long, Nameserver> nsMapById = new HashMap<Long, Nameserver>();
             while (rs.next()) {
-                Long nsId = rs.getLong("NAMESERVER_ID");
+                Long nsId = NAMESERVER_ID.getLong(rs);
                 Nameserver ns = nsMapById.get(nsId);
                 if (null == ns) {
                     ns = new Nameserver();
@@ -273,7 +371,7 @@ public class NameserverQueryDaoImpl extends AbstractQueryDao<Nameserver> {
                     result.add(ns);
                     nsMapById.put(nsId, ns);
                 }
-                ns.addStatus(rs.getString("STATUS"));
+                ns.addStatus(STATUS.getString(rs));
             }
             return result;
         }
@@ -293,11 +391,15 @@ public class NameserverQueryDaoImpl extends AbstractQueryDao<Nameserver> {
      *            nameserver list which will be set with entities.
      */
     private void queryAndSetEntities(List<Nameserver> nameservers) {
-        if (null == nameservers) {
+        if (null == nameservers || nameservers.isEmpty()) {
             return;
         }
+        Map<Long, List<Entity>> entitiesMap =
+                entityQueryDao.queryAsInnerObjects(getModelIds(nameservers),
+                        ModelType.NAMESERVER);
         for (Nameserver nameserver : nameservers) {
-            queryAndSetEntities(nameserver);
+            nameserver.setEntities(getInnerObjects(entitiesMap,
+                    nameserver.getId()));
         }
     }
 
@@ -322,7 +424,8 @@ public class NameserverQueryDaoImpl extends AbstractQueryDao<Nameserver> {
     }
 
     /**
-     * extract nameserver from ResultSet.
+     * extract nameserver from ResultSet, which is selected by
+     * NAMESERVER_COLUMNS.
      * 
      * @param rs
      *            ResultSet of sql.
@@ -333,27 +436,49 @@ public class NameserverQueryDaoImpl extends AbstractQueryDao<Nameserver> {
      */
     public static void extractNameserverFromRs(ResultSet rs,
             Nameserver nameserver) throws SQLException {
-        nameserver.setId(rs.getLong("NAMESERVER_ID"));
-        nameserver.setHandle(rs.getString("HANDLE"));
-        nameserver.setLdhName(rs.getString("LDH_NAME"));
-        nameserver.setUnicodeName(rs.getString("UNICODE_NAME"));
-        nameserver.setPort43(rs.getString("PORT43"));
-        nameserver.setLang(rs.getString("LANG"));
-        extractCustomPropertiesFromRs(rs, nameserver);
+        nameserver.setId(NAMESERVER_ID.getLong(rs));
+        nameserver.setHandle(HANDLE.getString(rs));
+        nameserver.setLdhName(LDH_NAME.getString(rs));
+        nameserver.setUnicodeName(UNICODE_NAME.getString(rs));
+        nameserver.setPort43(PORT43.getString(rs));
+        nameserver.setLang(LANG.getString(rs));
+        extractCustomPropertiesFromRs(rs, CUSTOM_PROPERTIES, nameserver);
     }
 
     /**
-     * query inner objects of nameserver,and set fill them to nameserver.
+     * query inner objects of nameserver,and set fill them to nameserver. Each
+     * inner type is queried once for all nameservers.
      * 
      * @param nameservers
-     *            nameservers list.
+     *            nameservers list, may contain nameservers with the same id.
      */
     private void queryAndSetInnerObjects(List<Nameserver> nameservers) {
-        if (null == nameservers) {
+        if (null == nameservers || nameservers.isEmpty()) {
             return;
         }
-        for (Nameserver nameserver : nameservers) {
-            queryAndSetInnerObjects(nameserver);
+        List<Long> nsIds = getModelIds(nameservers);
+        Map<Long, List<IPAddress>> ipAddressesMap =
+                ipAddressQueryDao.queryAsInnerObjects(nsIds,
+                        ModelType.NAMESERVER);
+        Map<Long, List<Remark>> remarksMap =
+                remarkQueryDao.queryAsInnerObjects(nsIds, ModelType.NAMESERVER);
+        Map<Long, List<Link>> linksMap =
+                linkQueryDao.queryAsInnerObjects(nsIds, ModelType.NAMESERVER);
+        Map<Long, List<Event>> eventsMap =
+                eventQueryDao.queryAsInnerObjects(nsIds, ModelType.NAMESERVER);
+        for (Nameserver ns : nameservers) {
+            Long nsID = ns.getId();
+            List<IPAddress> listIPAddress =
+                    getInnerObjects(ipAddressesMap, nsID);
+            if (listIPAddress.size() > 0) {
+                IPAddress objIPAddress = listIPAddress.get(0);
+                ns.setIpAddresses(objIPAddress);
+            }
+            ns.setRemarks(getInnerObjects(remarksMap, nsID));
+            List<Link> links = getInnerObjects(linksMap, nsID);
+            links.add(SelfLinkGenerator.generateSelfLink(ns));
+            ns.setLinks(links);
+            ns.setEvents(getInnerObjects(eventsMap, nsID));
         }
     }
 
@@ -393,16 +518,17 @@ public class NameserverQueryDaoImpl extends AbstractQueryDao<Nameserver> {
         final String nameserverIdsJoinedByComma =
                 StringUtils.join(nameserverIds, ",");
         final String sqlTpl =
-                "select * from RDAP_NAMESERVER_STATUS"
-                        + " where NAMESERVER_ID in (%s)";
+                "select " + NS_STATUS_COLUMNS.toSql()
+                        + " from RDAP_NAMESERVER_STATUS status"
+                        + " where status.NAMESERVER_ID in (%s)";
         final String sql = String.format(sqlTpl, nameserverIdsJoinedByComma);
         List<ModelStatus> result =
                 jdbcTemplate.query(sql, new RowMapper<ModelStatus>() {
                     @Override
                     public ModelStatus mapRow(ResultSet rs, int rowNum)
                             throws SQLException {
-                        return new ModelStatus(rs.getLong("NAMESERVER_ID"), rs
-                                .getString("STATUS"));
+                        return new ModelStatus(NS_STATUS_NAMESERVER_ID
+                                .getLong(rs), NS_STATUS.getString(rs));
                     }
                 });
         return result;
@@ -31,7 +31,9 @@
 package org.restfulwhois.rdap.core.nameserver.service.impl;
 
 import org.restfulwhois.rdap.common.dao.QueryDao;
+import org.restfulwhois.rdap.common.dao.impl.QueryCacheDao;
 import org.restfulwhois.rdap.common.model.Nameserver;
+import org.restfulwhois.rdap.common.model.base.ModelType;
 import org.restfulwhois.rdap.common.support.QueryParam;
 import org.restfulwhois.rdap.core.domain.service.DomainQueryService;
 import org.restfulwhois.rdap.core.nameserver.service.NameserverQueryService;
@@ -58,6 +60,12 @@ public class NameserverServiceImpl implements NameserverQueryService {
      */
     @Autowired
     private QueryDao<Nameserver> nameserverQueryDao;
+
+    /**
+     * query cache.
+     */
+    @Autowired
+    private QueryCacheDao queryCacheDao;
     /**
      * nameserver DAO.
      */
@@ -73,7 +81,8 @@ public class NameserverServiceImpl implements NameserverQueryService {
      */
     @Override
     public Nameserver queryNameserver(QueryParam queryParam) {
-        return nameserverQueryDao.query(queryParam);
+        return queryCacheDao.query(ModelType.NAMESERVER, queryParam,
+                nameserverQueryDao, false);
     }
 
     @Override
@@ -32,9 +32,14 @@ package org.restfulwhois.rdap.core.nameserver.service.impl;
 
 import org.restfulwhois.rdap.common.dto.NameserverDto;
 import org.restfulwhois.rdap.common.model.Nameserver;
+import org.restfulwhois.rdap.common.model.base.ModelType;
 import org.restfulwhois.rdap.common.validation.ValidationResult;
+import org.restfulwhois.rdap.search.common.dao.NameserverIpIndexDao;
+import org.restfulwhois.rdap.search.common.dao.ReversedNameIndexDao;
+import org.restfulwhois.rdap.search.common.dao.TrigramIndexDao;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 /**
@@ -53,6 +58,24 @@ public class NameserverUpdateServiceImpl extends
     private static final Logger LOGGER = LoggerFactory
             .getLogger(NameserverUpdateServiceImpl.class);
 
+    /**
+     * trigramIndexDao.
+     */
+    @Autowired
+    private TrigramIndexDao trigramIndexDao;
+
+    /**
+     * reversedNameIndexDao.
+     */
+    @Autowired
+    private ReversedNameIndexDao reversedNameIndexDao;
+
+    /**
+     * nameserverIpIndexDao.
+     */
+    @Autowired
+    private NameserverIpIndexDao nameserverIpIndexDao;
+
     @Override
     protected void execute(Nameserver nameserver) {
         LOGGER.debug("save nameserver...");
@@ -61,6 +84,12 @@ public class NameserverUpdateServiceImpl extends
         getDao().updateStatus(nameserver);
         updateIpAddresses(nameserver);
         updateBaseModel(nameserver);
+        trigramIndexDao.save(ModelType.NAMESERVER, nameserver.getId(),
+                nameserver.getLdhName(), nameserver.getUnicodeName());
+        reversedNameIndexDao.save(ModelType.NAMESERVER, nameserver.getId(),
+                nameserver.getLdhName(), nameserver.getUnicodeName());
+        nameserverIpIndexDao.saveNameserver(nameserver.getId(),
+                nameserver.getLdhName());
     }
 
     @Override
@@ -30,14 +30,11 @@
  */
 package org.restfulwhois.rdap.filters.httpFilter.service;
 
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang.StringUtils;
+import org.restfulwhois.rdap.acl.bean.Principal;
 import org.restfulwhois.rdap.common.support.PrincipalHolder;
 import org.restfulwhois.rdap.common.support.RdapProperties;
 import org.slf4j.Logger;
@@ -49,25 +46,14 @@ import org.slf4j.LoggerFactory;
  * Requirement from
  * http://tools.ietf.org/html/draft-ietf-weirds-rdap-sec-06#section-3.3
  * 
- * limit the number of connections.
+ * limit the number of connections, and the request rate of each client by
+ * token bucket.
  * 
  * @author jiashuo
  * 
  */
 public final class ConnectionControlService {
 
-    /**
-     * min access interval in seconds, for logined user.
-     */
-    private static final Long MIN_SECONDS_ACCESS_INTERVAL_AUTHED =
-            RdapProperties.getMinSecondsAccessIntervalAuthed();
-
-    /**
-     * min access interval in seconds, for anonymous user.
-     */
-    private static final Long MIN_SECONDS_ACCESS_INTERVAL_FOR_ANONYMOUS =
-            RdapProperties.getMinSecondsAccessIntervalAnonymous();
-
     /**
      * ip white list for access interval.
      */
@@ -88,11 +74,16 @@ public final class ConnectionControlService {
     }
 
     /**
-     * client last access time map:<ip:lastAccessTime>. It will be updated for
-     * every access.
+     * default max client count of rate limiter.
+     */
+    private static final int DEFAULT_RATE_LIMIT_MAX_CLIENTS = 100000;
+
+    /**
+     * rate limiter, keyed by client ip for anonymous user, and by user id for
+     * logined user.
      */
-    public static final Map<String, Long> CLIENT_IP2LAST_ACCESS_TIME_MAP =
-            Collections.synchronizedMap(new HashMap<String, Long>());
+    private static final TokenBucketRateLimiter RATE_LIMITER =
+            new TokenBucketRateLimiter(getRateLimitMaxClients());
 
     /**
      * concurrent query count.
@@ -114,21 +105,22 @@ public final class ConnectionControlService {
         if (isInIpWhiteList(ip)) {
             return false;
         }
-        Long lastAccessTime = CLIENT_IP2LAST_ACCESS_TIME_MAP.get(ip);
         long currentTimeMillis = System.currentTimeMillis();
-        if (hasLimit()) {
-            CLIENT_IP2LAST_ACCESS_TIME_MAP.put(ip, currentTimeMillis);
-        }
-        if (null == lastAccessTime) {
-            return false;
-        }
-        long accessTimeInterval = currentTimeMillis - lastAccessTime;
-        if (PrincipalHolder.getPrincipal().isAnonymous()) {
+        Principal principal = PrincipalHolder.getPrincipal();
+        if (principal.isAnonymous()) {
             LOGGER.debug("check exceedRateLimit, is anonymous.");
-            return accessTimeInterval <= MIN_SECONDS_ACCESS_INTERVAL_FOR_ANONYMOUS;
+            return !RATE_LIMITER.tryAcquire("ip:" + ip,
+                    getLongValue(RdapProperties
+                            .getMinSecondsAccessIntervalAnonymous()),
+                    getLongValue(RdapProperties.getRateLimitBurstAnonymous()),
+                    currentTimeMillis);
         } else {
             LOGGER.debug("check exceedRateLimit, is logined user.");
-            return accessTimeInterval <= MIN_SECONDS_ACCESS_INTERVAL_AUTHED;
+            return !RATE_LIMITER.tryAcquire("user:" + principal.getId(),
+                    getLongValue(RdapProperties
+                            .getMinSecondsAccessIntervalAuthed()),
+                    getLongValue(RdapProperties.getRateLimitBurstAuthed()),
+                    currentTimeMillis);
         }
     }
 
@@ -138,8 +130,37 @@ public final class ConnectionControlService {
      * @return true if one or more intervals > 0, false if all intervals <= 0.
      */
     private static boolean hasLimit() {
-        return MIN_SECONDS_ACCESS_INTERVAL_FOR_ANONYMOUS > 0
-                || MIN_SECONDS_ACCESS_INTERVAL_AUTHED > 0;
+        return getLongValue(RdapProperties
+                .getMinSecondsAccessIntervalAnonymous()) > 0
+                || getLongValue(RdapProperties
+                        .getMinSecondsAccessIntervalAuthed()) > 0;
+    }
+
+    /**
+     * get long value, 0 if null.
+     * 
+     * @param value
+     *            value.
+     * @return long value.
+     */
+    private static long getLongValue(Long value) {
+        if (null == value) {
+            return 0;
+        }
+        return value;
+    }
+
+    /**
+     * get max client count of rate limiter.
+     * 
+     * @return max client count.
+     */
+    private static int getRateLimitMaxClients() {
+        Integer maxClients = RdapProperties.getRateLimitMaxClients();
+        if (null == maxClients || maxClients <= 0) {
+            return DEFAULT_RATE_LIMIT_MAX_CLIENTS;
+        }
+        return maxClients;
     }
 
     /**
@@ -162,28 +183,6 @@ public final class ConnectionControlService {
         return false;
     }
 
-    /**
-     * clear ip map.
-     */
-    public static void clearIpMap() {
-        LOGGER.trace("clearIpMap begin...");
-        if (null == CLIENT_IP2LAST_ACCESS_TIME_MAP) {
-            return;
-        }
-        long maxSecondsInterval =
-                Math.max(MIN_SECONDS_ACCESS_INTERVAL_FOR_ANONYMOUS,
-                        MIN_SECONDS_ACCESS_INTERVAL_AUTHED);
-        Set<String> keys = CLIENT_IP2LAST_ACCESS_TIME_MAP.keySet();
-        for (String key : keys) {
-            if ((System.currentTimeMillis() - CLIENT_IP2LAST_ACCESS_TIME_MAP
-                    .get(key)) >= maxSecondsInterval) {
-                LOGGER.trace("remove ip:{}", key);
-                CLIENT_IP2LAST_ACCESS_TIME_MAP.remove(key);
-            }
-        }
-        LOGGER.trace("clearIpMap end.");
-    }
-
     /**
      * increment concurrent query count, and check if exceed max count.MUST call
      * decrementAndGetCurrentQueryCount after query.
@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.filters.httpFilter.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * <pre>
+ * token bucket rate limiter, keyed by client (ip or principal).
+ * 
+ * Each bucket is stored as one 'theoretical arrival time' (GCRA): a request
+ * is allowed if now >= tat - (burst - 1) * interval, and then tat is moved
+ * forward by one interval. A bucket whose tat is not after now is full, and
+ * is the same as no bucket, so it can be dropped at any time.
+ * 
+ * Buckets are kept in lock-striped LRU maps. When a stripe is full, full
+ * buckets are dropped lazily from the least recently used end, and the
+ * least recently used bucket is dropped if there is still no room, so
+ * memory is bounded and no sweeper thread is needed.
+ * </pre>
+ * 
+ * @author jiashuo
+ * 
+ */
+public class TokenBucketRateLimiter {
+    /**
+     * default stripe count.
+     */
+    public static final int DEFAULT_STRIPE_COUNT = 64;
+
+    /**
+     * stripes.
+     */
+    private final Stripe[] stripes;
+
+    /**
+     * max bucket count of one stripe.
+     */
+    private final int maxBucketsPerStripe;
+
+    /**
+     * constructor.
+     * 
+     * @param maxBuckets
+     *            max bucket count, at least one bucket for each stripe.
+     */
+    public TokenBucketRateLimiter(int maxBuckets) {
+        this(maxBuckets, DEFAULT_STRIPE_COUNT);
+    }
+
+    /**
+     * constructor.
+     * 
+     * @param maxBuckets
+     *            max bucket count, at least one bucket for each stripe.
+     * @param stripeCount
+     *            stripe count, rounded up to power of 2.
+     */
+    public TokenBucketRateLimiter(int maxBuckets, int stripeCount) {
+        super();
+        int count = 1;
+        while (count < stripeCount) {
+            count <<= 1;
+        }
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.maxBucketsPerStripe = Math.max(1, maxBuckets / count);
+    }
+
+    /**
+     * try to take one token from bucket of key.
+     * 
+     * @param key
+     *            client key.
+     * @param intervalMillis
+     *            milliseconds to refill one token, no limit if <= 0.
+     * @param burst
+     *            bucket capacity, at least 1.
+     * @param nowMillis
+     *            current time in milliseconds.
+     * @return true if token is taken, false if exceed rate limit.
+     */
+    public boolean tryAcquire(String key, long intervalMillis, long burst,
+            long nowMillis) {
+        if (intervalMillis <= 0) {
+            return true;
+        }
+        long tolerance = (Math.max(1, burst) - 1) * intervalMillis;
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            long[] tat = stripe.get(key);
+            if (null == tat || tat[0] <= nowMillis) {
+                if (null == tat) {
+                    removeFullOrEldest(stripe, nowMillis);
+                    tat = new long[1];
+                    stripe.put(key, tat);
+                }
+                tat[0] = nowMillis + intervalMillis;
+                return true;
+            }
+            if (nowMillis < tat[0] - tolerance) {
+                return false;
+            }
+            tat[0] += intervalMillis;
+            return true;
+        }
+    }
+
+    /**
+     * get bucket count.
+     * 
+     * @return bucket count, including full buckets not dropped yet.
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * make room for a new bucket if stripe is full: drop full buckets from
+     * the least recently used end, or the least recently used one if it is
+     * not full.
+     * 
+     * @param stripe
+     *            stripe, locked by caller.
+     * @param nowMillis
+     *            current time in milliseconds.
+     */
+    private void removeFullOrEldest(Stripe stripe, long nowMillis) {
+        if (stripe.size() < maxBucketsPerStripe) {
+            return;
+        }
+        Iterator<long[]> it = stripe.values().iterator();
+        it.next();
+        it.remove();
+        while (it.hasNext()) {
+            if (it.next()[0] > nowMillis) {
+                return;
+            }
+            it.remove();
+        }
+    }
+
+    /**
+     * get stripe of key.
+     * 
+     * @param key
+     *            key.
+     * @return stripe.
+     */
+    private Stripe stripeFor(String key) {
+        int h = null == key ? 0 : key.hashCode();
+        h ^= (h >>> 16);
+        return stripes[h & (stripes.length - 1)];
+    }
+
+    /**
+     * LRU map of key to theoretical arrival time.
+     * 
+     * @author jiashuo
+     * 
+     */
+    private static final class Stripe extends LinkedHashMap<String, long[]> {
+        /**
+         * serialVersionUID.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * constructor, in access order.
+         */
+        Stripe() {
+            super(16, 0.75f, true);
+        }
+    }
+}
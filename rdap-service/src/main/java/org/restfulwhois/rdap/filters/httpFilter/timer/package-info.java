@@ -1,6 +0,0 @@
-/**
- *org.restfulwhois.rdap.filters.httpFilter.timer.
- * @author jiashuo
- *
- */
-package org.restfulwhois.rdap.filters.httpFilter.timer;
\ No newline at end of file
@@ -0,0 +1,357 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.filters.queryFilter;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.commons.lang.StringUtils;
+import org.restfulwhois.rdap.acl.dao.AclDao;
+import org.restfulwhois.rdap.common.dao.impl.QueryCacheDao;
+import org.restfulwhois.rdap.common.filter.QueryFilter;
+import org.restfulwhois.rdap.common.filter.QueryFilterResult;
+import org.restfulwhois.rdap.common.model.ErrorMessage;
+import org.restfulwhois.rdap.common.model.Event;
+import org.restfulwhois.rdap.common.model.base.BaseModel;
+import org.restfulwhois.rdap.common.model.base.BaseSearchModel;
+import org.restfulwhois.rdap.common.model.base.QueryUri;
+import org.restfulwhois.rdap.common.support.PrincipalHolder;
+import org.restfulwhois.rdap.common.support.QueryParam;
+import org.restfulwhois.rdap.common.support.RdapProperties;
+import org.restfulwhois.rdap.common.support.RestResponse;
+import org.restfulwhois.rdap.common.util.DateUtil;
+import org.restfulwhois.rdap.common.util.JsonUtil;
+import org.restfulwhois.rdap.common.util.MD5Encryption;
+import org.restfulwhois.rdap.common.util.ModelCopyUtil;
+import org.restfulwhois.rdap.core.domain.queryparam.DomainQueryParam;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * <pre>
+ * conditional GET filter of object query.
+ * 
+ * ETag is the hash of response body after other filters, so it differs
+ * when policy or notices differ, and it changes with data in database no
+ * matter which instance or tool updated it. Last-Modified is the latest
+ * 'last changed' event in response. 304 is returned if If-None-Match
+ * matches ETag, or if there is no If-None-Match and object is not changed
+ * after If-Modified-Since.
+ * 
+ * ETag of lookup is cached by principal, request URI and ACL generation,
+ * and dropped by update API of this instance, so If-None-Match is answered
+ * before object is queried if possible. Cached ETag lives at most
+ * queryCacheTtl, the same as cached object, so update by other instance is
+ * seen after queryCacheTtl.
+ * It MUST be the last filter.
+ * </pre>
+ * 
+ * @author jiashuo
+ * 
+ */
+@Component
+public class ConditionalGetQueryFilter implements QueryFilter {
+    /**
+     * request attribute of ETag cache generation.
+     */
+    private static final String ATTR_ETAG_GENERATION =
+            ConditionalGetQueryFilter.class.getName() + ".etagGeneration";
+
+    /**
+     * If-None-Match header.
+     */
+    private static final String HEADER_IF_NONE_MATCH = "If-None-Match";
+
+    /**
+     * If-Modified-Since header.
+     */
+    private static final String HEADER_IF_MODIFIED_SINCE = "If-Modified-Since";
+
+    /**
+     * event action of last changed.
+     */
+    private static final String EVENT_ACTION_LAST_CHANGED = "last changed";
+
+    /**
+     * weak ETag prefix.
+     */
+    private static final String WEAK_ETAG_PREFIX = "W/";
+
+    /**
+     * milliseconds in second.
+     */
+    private static final long MILLIS_PER_SECOND = 1000L;
+
+    /**
+     * queryCacheDao.
+     */
+    @Autowired
+    private QueryCacheDao queryCacheDao;
+
+    /**
+     * aclDao.
+     */
+    @Autowired
+    private AclDao aclDao;
+
+    @Override
+    public QueryFilterResult preParamValidate(QueryParam queryParam) {
+        return null;
+    }
+
+    @Override
+    public QueryFilterResult postParamValidate(QueryParam queryParam) {
+        if (!RdapProperties.isConditionalGetEnabled() || null == queryParam
+                || null == queryParam.getRequest()) {
+            return null;
+        }
+        HttpServletRequest request = queryParam.getRequest();
+        if (!isLookup(queryParam)) {
+            return null;
+        }
+        request.setAttribute(ATTR_ETAG_GENERATION,
+                queryCacheDao.getETagGeneration());
+        String ifNoneMatch = request.getHeader(HEADER_IF_NONE_MATCH);
+        if (StringUtils.isBlank(ifNoneMatch)) {
+            return null;
+        }
+        String etag = queryCacheDao.getETag(generateKey(request));
+        if (null == etag || !matches(ifNoneMatch, etag)) {
+            return null;
+        }
+        return new QueryFilterResult(
+                RestResponse.createResponse304(generateCacheHeaders(etag,
+                        null)));
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Override
+    public QueryFilterResult postQuery(QueryParam queryParam,
+            ResponseEntity responseEntity) {
+        if (!RdapProperties.isConditionalGetEnabled() || null == queryParam
+                || null == queryParam.getRequest()
+                || HttpStatus.OK != responseEntity.getStatusCode()) {
+            return null;
+        }
+        Object responseBody = responseEntity.getBody();
+        if (!(responseBody instanceof BaseModel)
+                || responseBody instanceof ErrorMessage) {
+            return null;
+        }
+        if (responseBody instanceof BaseSearchModel
+                && ((BaseSearchModel<?>) responseBody).isStreaming()) {
+            // body of result stream is unknown until it is written.
+            return null;
+        }
+        BaseModel model = (BaseModel) responseBody;
+        String json = JsonUtil.serialize(model);
+        if (null == json) {
+            return null;
+        }
+        String etag = "\"" + MD5Encryption.encryption(json) + "\"";
+        List<BaseModel> models = new ArrayList<BaseModel>();
+        ModelCopyUtil.collectModels(model, models);
+        Date lastModified = findLastModified(models);
+        HttpHeaders cacheHeaders = generateCacheHeaders(etag, lastModified);
+        HttpServletRequest request = queryParam.getRequest();
+        Object generation = request.getAttribute(ATTR_ETAG_GENERATION);
+        if (generation instanceof Long && isLookup(queryParam)) {
+            queryCacheDao.putETag(generateKey(request), etag, model, models,
+                    isRangeMatch(queryParam), (Long) generation);
+        }
+        if (isNotModified(request, etag, lastModified)) {
+            return new QueryFilterResult(
+                    RestResponse.createResponse304(cacheHeaders));
+        }
+        return new QueryFilterResult(RestResponse.createResponse200(model,
+                cacheHeaders));
+    }
+
+    /**
+     * check conditional headers of request.
+     * 
+     * @param request
+     *            request.
+     * @param etag
+     *            ETag of response.
+     * @param lastModified
+     *            last modified time, may be null.
+     * @return true if not modified, false if not.
+     */
+    private boolean isNotModified(HttpServletRequest request, String etag,
+            Date lastModified) {
+        String ifNoneMatch = request.getHeader(HEADER_IF_NONE_MATCH);
+        if (StringUtils.isNotBlank(ifNoneMatch)) {
+            return matches(ifNoneMatch, etag);
+        }
+        if (null == lastModified) {
+            return false;
+        }
+        long ifModifiedSince;
+        try {
+            ifModifiedSince =
+                    request.getDateHeader(HEADER_IF_MODIFIED_SINCE);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return ifModifiedSince >= 0
+                && lastModified.getTime() / MILLIS_PER_SECOND
+                        * MILLIS_PER_SECOND <= ifModifiedSince;
+    }
+
+    /**
+     * check if If-None-Match matches ETag.
+     * 
+     * @param ifNoneMatch
+     *            If-None-Match header.
+     * @param etag
+     *            ETag.
+     * @return true if matches, false if not.
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        for (String tag : StringUtils.split(ifNoneMatch, ',')) {
+            tag = StringUtils.trim(tag);
+            if ("*".equals(tag)
+                    || etag.equals(StringUtils.removeStart(tag,
+                            WEAK_ETAG_PREFIX))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * generate ETag, Last-Modified and Cache-Control headers.
+     * 
+     * @param etag
+     *            ETag.
+     * @param lastModified
+     *            last modified time, may be null.
+     * @return headers.
+     */
+    private static HttpHeaders generateCacheHeaders(String etag,
+            Date lastModified) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+        if (null != lastModified) {
+            headers.setLastModified(lastModified.getTime());
+        }
+        Integer maxAge = RdapProperties.getConditionalGetMaxAge();
+        if (null != maxAge && maxAge > 0) {
+            headers.setCacheControl("private, max-age=" + maxAge);
+        } else {
+            headers.setCacheControl("no-cache");
+        }
+        return headers;
+    }
+
+    /**
+     * find latest 'last changed' event in response, including events of
+     * inner objects.
+     * 
+     * @param models
+     *            all models in response.
+     * @return time, null if not found.
+     */
+    private static Date findLastModified(List<BaseModel> models) {
+        Date result = null;
+        for (BaseModel inner : models) {
+            if (!(inner instanceof Event)) {
+                continue;
+            }
+            Event event = (Event) inner;
+            if (!EVENT_ACTION_LAST_CHANGED.equalsIgnoreCase(event
+                    .getEventAction())) {
+                continue;
+            }
+            Date date = DateUtil.parseUTC(event.getEventDate());
+            if (null != date && (null == result || date.after(result))) {
+                result = date;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * generate ETag cache key.
+     * 
+     * @param request
+     *            request.
+     * @return principal id, ACL generation and request URI.
+     */
+    private String generateKey(HttpServletRequest request) {
+        String key =
+                PrincipalHolder.getPrincipal().getId() + " "
+                        + aclDao.getGeneration() + " "
+                        + request.getRequestURI();
+        if (null != request.getQueryString()) {
+            key = key + "?" + request.getQueryString();
+        }
+        return key;
+    }
+
+    /**
+     * check if query is lookup of one object. ETag of search is not cached,
+     * because new object may match search.
+     * 
+     * @param queryParam
+     *            queryParam.
+     * @return true if lookup, false if search.
+     */
+    private static boolean isLookup(QueryParam queryParam) {
+        QueryUri queryUri = queryParam.getQueryUri();
+        return QueryUri.DOMAIN == queryUri || QueryUri.ENTITY == queryUri
+                || QueryUri.NAMESERVER == queryUri
+                || QueryUri.AUTNUM == queryUri || QueryUri.IP == queryUri;
+    }
+
+    /**
+     * check if object is found by range, which may be changed by new object.
+     * 
+     * @param queryParam
+     *            queryParam.
+     * @return true if found by range, false if not.
+     */
+    private static boolean isRangeMatch(QueryParam queryParam) {
+        QueryUri queryUri = queryParam.getQueryUri();
+        if (QueryUri.IP == queryUri || QueryUri.AUTNUM == queryUri) {
+            return true;
+        }
+        return queryParam instanceof DomainQueryParam
+                && ((DomainQueryParam) queryParam).isRirDomain();
+    }
+}
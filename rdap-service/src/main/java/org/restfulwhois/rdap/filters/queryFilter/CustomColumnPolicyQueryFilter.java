@@ -30,9 +30,14 @@
  */
 package org.restfulwhois.rdap.filters.queryFilter;
 
+import java.util.List;
+
 import org.restfulwhois.rdap.common.filter.QueryFilter;
 import org.restfulwhois.rdap.common.filter.QueryFilterResult;
 import org.restfulwhois.rdap.common.model.ErrorMessage;
+import org.restfulwhois.rdap.common.model.base.BaseModel;
+import org.restfulwhois.rdap.common.model.base.BaseSearchModel;
+import org.restfulwhois.rdap.common.model.base.SearchResultStream;
 import org.restfulwhois.rdap.common.support.QueryParam;
 import org.restfulwhois.rdap.filters.queryFilter.service.CustomColumnPolicyService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -75,7 +80,33 @@ public class CustomColumnPolicyQueryFilter implements QueryFilter {
             return null;
         }
         customColumnPolicyService.applyPolicy(responseBody);
+        if (responseBody instanceof BaseSearchModel
+                && ((BaseSearchModel<?>) responseBody).isStreaming()) {
+            applyPolicyOnBatch((BaseSearchModel<?>) responseBody);
+        }
         return null;
     }
 
+    /**
+     * apply policy to each batch of result stream, before it is written.
+     * 
+     * @param searchModel
+     *            search model with result stream.
+     */
+    private void applyPolicyOnBatch(BaseSearchModel<?> searchModel) {
+        searchModel.getResultStream().addListener(
+                new SearchResultStream.Listener() {
+                    @Override
+                    public void onBatch(List<? extends BaseModel> results) {
+                        for (BaseModel result : results) {
+                            customColumnPolicyService.applyPolicy(result);
+                        }
+                    }
+
+                    @Override
+                    public void onComplete(BaseSearchModel<?> model) {
+                    }
+                });
+    }
+
 }
@@ -39,6 +39,7 @@ import org.restfulwhois.rdap.common.filter.QueryFilterResult;
 import org.restfulwhois.rdap.common.model.Notice;
 import org.restfulwhois.rdap.common.model.base.BaseModel;
 import org.restfulwhois.rdap.common.model.base.BaseSearchModel;
+import org.restfulwhois.rdap.common.model.base.SearchResultStream;
 import org.restfulwhois.rdap.common.model.base.TruncatedInfo.TruncateReason;
 import org.restfulwhois.rdap.common.service.NoticeService;
 import org.restfulwhois.rdap.common.support.QueryParam;
@@ -88,6 +89,11 @@ public class NoticeQueryFilter implements QueryFilter {
     public QueryFilterResult postQuery(QueryParam queryParam,
             ResponseEntity responseEntity) {
         Object responseBody = responseEntity.getBody();
+        if (responseBody instanceof BaseSearchModel
+                && ((BaseSearchModel<?>) responseBody).isStreaming()) {
+            addNoticesOnComplete((BaseSearchModel<?>) responseBody);
+            return null;
+        }
         if (responseBody instanceof BaseModel) {
             BaseModel model = (BaseModel) responseBody;
             LOGGER.debug("addNotices begin.");
@@ -97,6 +103,27 @@ public class NoticeQueryFilter implements QueryFilter {
         return null;
     }
 
+    /**
+     * add notices to search model after the last batch of result stream is
+     * read, when truncated info is known.
+     * 
+     * @param searchModel
+     *            search model with result stream.
+     */
+    private void addNoticesOnComplete(BaseSearchModel<?> searchModel) {
+        searchModel.getResultStream().addListener(
+                new SearchResultStream.Listener() {
+                    @Override
+                    public void onBatch(List<? extends BaseModel> results) {
+                    }
+
+                    @Override
+                    public void onComplete(BaseSearchModel<?> model) {
+                        addNotices(model);
+                    }
+                });
+    }
+
     /**
      * add notices to model.
      * 
@@ -30,26 +30,27 @@
  */
 package org.restfulwhois.rdap.filters.queryFilter.service;
 
+import java.beans.PropertyDescriptor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.Iterator;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.annotation.PostConstruct;
 
-import org.apache.commons.beanutils.PropertyUtils;
-import org.apache.commons.lang.StringUtils;
 import org.restfulwhois.rdap.common.model.base.BaseModel;
 import org.restfulwhois.rdap.common.model.base.BaseSearchModel;
 import org.restfulwhois.rdap.common.model.base.ModelType;
 import org.restfulwhois.rdap.filters.queryFilter.dao.CustomColumnPolicyDao;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.util.ReflectionUtils;
 
 /**
  * registry policy control service implementation.
@@ -59,6 +60,10 @@ import org.springframework.util.ReflectionUtils;
  * 
  * registry rules for disclosure of certain object .
  * 
+ * Policy of each model class is compiled once into a MaskingPlan, which holds
+ * the resolved setters to null and the getters of inner objects. Plans are
+ * dropped when policy is reloaded or cleared.
+ * 
  * @author weijunkai
  * 
  */
@@ -71,6 +76,12 @@ public class CustomColumnPolicyService {
     private static final Logger LOGGER = LoggerFactory
             .getLogger(CustomColumnPolicyService.class);
 
+    /**
+     * plan for class which is not masked.
+     */
+    private static final MaskingPlan EMPTY_PLAN = new MaskingPlan(
+            new ArrayList<Method>(), new ArrayList<Method>());
+
     /**
      * CustomColumnPolicyDao.
      */
@@ -82,6 +93,12 @@ public class CustomColumnPolicyService {
      */
     private static Map<String, Set<String>> mapPolicy = null;
 
+    /**
+     * compiled masking plans, key is model class.
+     */
+    private static final ConcurrentMap<Class<?>, MaskingPlan> PLANS =
+            new ConcurrentHashMap<Class<?>, MaskingPlan>();
+
     /**
      * loadPolicyFieldsByMap.
      * @return map.
@@ -96,6 +113,7 @@ public class CustomColumnPolicyService {
     @PostConstruct
     public void init() {
         mapPolicy = policyDao.loadAllPolicyMap();
+        PLANS.clear();
         return;
     }
 
@@ -105,6 +123,7 @@ public class CustomColumnPolicyService {
     public void clearPolicy() {
         mapPolicy.clear();
         mapPolicy = null;
+        PLANS.clear();
     }
 
     /**
@@ -127,143 +146,156 @@ public class CustomColumnPolicyService {
     }
 
     /**
-     * trucate the string.
+     * get the baseModel property value.
      * 
-     * @param strMethod
-     *            set the method string trucated.
-     * @return string of method.
+     * @param objModel
+     *            model of object.
      */
-    private String trucateStringFromMethod(String strMethod) {
-
-        final String strSet = "set";
-        final String strGet = "get";
-        final String strIs = "is";
-        if (!strMethod.startsWith(strSet) && !strMethod.startsWith(strGet)
-                && !strMethod.startsWith(strIs)) {
-            return null;
+    public void applyPolicy(final Object objModel) {
+        if (objModel == null) {
+            return;
         }
-
-        int posAfterSet = strSet.length();
-        if (strMethod.startsWith(strIs)) {
-            posAfterSet = strIs.length();
+        Map<String, Set<String>> mapObjFields = loadPolicyFieldsByMap();
+        if (null == mapObjFields) {
+            return;
         }
-
-        String strMethodField = strMethod.substring(posAfterSet);
-        String strFieldFirstLetter = strMethodField.substring(0, 1);
-        String strReplace = StringUtils.lowerCase(strFieldFirstLetter);
-        strMethodField =
-                strMethodField.replaceFirst(strFieldFirstLetter, strReplace);
-
-        return strMethodField;
+        MaskingPlan plan = getPlan(objModel, mapObjFields);
+        for (Method setter : plan.setters) {
+            invoke(objModel, setter, (Object) null);
+        }
+        for (Method getter : plan.getters) {
+            Object value = invoke(objModel, getter);
+            if (value == null) {
+                continue;
+            }
+            if (getter.getReturnType() == List.class) {
+                setInnerListPolicy(value);
+            } else {
+                applyPolicy(value);
+            }
+        }
+        return;
     }
 
     /**
-     * set the property.
+     * get the compiled plan of object class, compile it if not exist.
      * 
      * @param objModel
-     *            the object to set.
-     * @param strField
-     *            the field to set.
+     *            model of object.
+     * @param mapObjFields
+     *            policy map.
+     * @return plan.
      */
-    private void setPropertyNull(final Object objModel, final String strField) {
-        try {
-            PropertyUtils.setProperty(objModel, strField, null);
-        } catch (IllegalAccessException e) {
-            LOGGER.error("setPropertyNull ", e.getMessage());
-        } catch (InvocationTargetException e) {
-            LOGGER.error("setPropertyNull ", e.getMessage());
-        } catch (NoSuchMethodException e) {
-            LOGGER.error("setPropertyNull ", e.getMessage());
+    private MaskingPlan getPlan(final Object objModel,
+            Map<String, Set<String>> mapObjFields) {
+        Class<?> clazz = objModel.getClass();
+        MaskingPlan plan = PLANS.get(clazz);
+        if (null != plan) {
+            return plan;
+        }
+        String strObjType = null;
+        if (clazz.getSuperclass() == BaseModel.class
+                || clazz.getSuperclass() == BaseSearchModel.class) {
+            strObjType = getModelString(objModel);
         }
+        if (strObjType == null) {
+            plan = EMPTY_PLAN;
+        } else {
+            plan = compilePlan(clazz, mapObjFields.get(strObjType));
+        }
+        MaskingPlan existPlan = PLANS.putIfAbsent(clazz, plan);
+        if (null != existPlan) {
+            return existPlan;
+        }
+        return plan;
     }
 
     /**
-     * get the baseModel property value.
+     * compile plan of class: resolve setters of fields in policy, and getters
+     * which may return inner models.
      * 
-     * @param objModel
-     *            model of object.
-     * @param strMethodField
-     *            string of method field.
-     * @return the object of inner object.
+     * @param clazz
+     *            model class.
+     * @param setFields
+     *            fields to mask, may be null.
+     * @return plan.
      */
-    private Object getPropertyValue(final Object objModel,
-            final String strMethodField) {
-        Object value = null;
-        try {
-            value = PropertyUtils.getProperty(objModel, strMethodField);
-        } catch (IllegalAccessException e) {
-            LOGGER.error("getPropertyValue ", e.getMessage());
-        } catch (InvocationTargetException e) {
-            LOGGER.error("getPropertyValue ", e.getMessage());
-        } catch (NoSuchMethodException e) {
-            LOGGER.error("getPropertyValue ", e.getMessage());
+    private MaskingPlan compilePlan(Class<?> clazz, Set<String> setFields) {
+        List<Method> setters = new ArrayList<Method>();
+        List<Method> getters = new ArrayList<Method>();
+        for (PropertyDescriptor pd : BeanUtils.getPropertyDescriptors(clazz)) {
+            Method setter = pd.getWriteMethod();
+            boolean masked = false;
+            if (null != setter && null != setFields
+                    && !setter.getParameterTypes()[0].isPrimitive()
+                    && containsIgnoreCase(setFields, pd.getName())) {
+                setters.add(setter);
+                masked = true;
+            }
+            Method getter = pd.getReadMethod();
+            if (!masked && null != getter
+                    && getter.getName().startsWith("get")
+                    && mayContainModel(getter.getReturnType())) {
+                getters.add(getter);
+            }
         }
-        return value;
+        return new MaskingPlan(setters, getters);
     }
 
     /**
-     * get the baseModel property value.
+     * check if value of type may be a model or list of models.
      * 
-     * @param objModel
-     *            model of object.
+     * @param type
+     *            return type of getter.
+     * @return true if may be, false if not.
      */
-    public void applyPolicy(final Object objModel) {
-        if (objModel == null) {
-            return;
-        }
-        Map<String, Set<String>> mapObjFields = loadPolicyFieldsByMap();
-        if (null == mapObjFields) {
-            return;
-        }
-        String strObjType = null;
-        if (objModel.getClass().getSuperclass() == BaseModel.class
-                || objModel.getClass().getSuperclass() == BaseSearchModel.class) {
-            strObjType = getModelString(objModel);
-        }
-        if (strObjType == null) {
-            return;
-        }
-        Set<String> setFields = mapObjFields.get(strObjType);
+    private static boolean mayContainModel(Class<?> type) {
+        return type == List.class || BaseModel.class.isAssignableFrom(type)
+                || type.isAssignableFrom(BaseModel.class);
+    }
 
-        Method[] allMethods =
-                ReflectionUtils.getUniqueDeclaredMethods(objModel.getClass());
-        for (Method mthd : allMethods) {
-            String strMethod = mthd.getName();
-            String strMethodField = trucateStringFromMethod(strMethod);
-            if (strMethodField == null) {
-                continue;
-            }
-            Object value = null;
-            final String strSetFirstWord = "s";
-            boolean isSetMethod = strMethod.startsWith(strSetFirstWord);
-            boolean isGetMethod = strMethod.startsWith("g");
-            String strIsBool = mthd.getReturnType().toString();
-            // just handle the specified method except boolean ones
-            if (!strIsBool.contains("Boolean") && isGetMethod) {
-                value = getPropertyValue(objModel, strMethodField);
-            }
-            if (setFields != null) {
-                Iterator<String> iter = setFields.iterator();
-                while (iter.hasNext()) {
-                    String strField = iter.next();
-                    // just handle the set method
-                    if (strMethodField.equalsIgnoreCase(strField)
-                            && isSetMethod) {
-                        setPropertyNull(objModel, strMethodField);
-                        break;
-                    }
-                }
-            }
-            if (value == null) {
-                continue;
-            }
-            if (mthd.getReturnType() == List.class) {
-                setInnerListPolicy(value);
-            } else {
-                applyPolicy(value);
+    /**
+     * check if fields contains field, ignore case.
+     * 
+     * @param setFields
+     *            fields.
+     * @param field
+     *            field.
+     * @return true if contains, false if not.
+     */
+    private static boolean containsIgnoreCase(Set<String> setFields,
+            String field) {
+        for (String strField : setFields) {
+            if (field.equalsIgnoreCase(strField)) {
+                return true;
             }
         }
-        return;
+        return false;
+    }
+
+    /**
+     * invoke method.
+     * 
+     * @param objModel
+     *            the object.
+     * @param method
+     *            method.
+     * @param args
+     *            arguments.
+     * @return result, null if failed.
+     */
+    private Object invoke(final Object objModel, Method method,
+            Object... args) {
+        try {
+            return method.invoke(objModel, args);
+        } catch (IllegalAccessException e) {
+            LOGGER.error("invoke {} error:{}", method.getName(),
+                    e.getMessage());
+        } catch (InvocationTargetException e) {
+            LOGGER.error("invoke {} error:{}", method.getName(),
+                    e.getMessage());
+        }
+        return null;
     }
 
     /**
@@ -281,4 +313,34 @@ public class CustomColumnPolicyService {
             }
         }
     }
+
+    /**
+     * compiled masking plan of model class.
+     * 
+     * @author jiashuo
+     * 
+     */
+    private static final class MaskingPlan {
+        /**
+         * setters to set null.
+         */
+        private final Method[] setters;
+        /**
+         * getters of inner objects.
+         */
+        private final Method[] getters;
+
+        /**
+         * constructor.
+         * 
+         * @param setters
+         *            setters.
+         * @param getters
+         *            getters.
+         */
+        MaskingPlan(List<Method> setters, List<Method> getters) {
+            this.setters = setters.toArray(new Method[setters.size()]);
+            this.getters = getters.toArray(new Method[getters.size()]);
+        }
+    }
 }
@@ -61,4 +61,9 @@ public interface RedirectDao {
      *            bootstraps redirects.
      */
     void save(List<Redirect> bootstraps);
+
+    /**
+     * reload redirects into memory, if redirect index is enabled.
+     */
+    void reload();
 }
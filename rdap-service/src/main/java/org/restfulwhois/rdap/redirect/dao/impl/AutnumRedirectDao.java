@@ -37,14 +37,19 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 
+import javax.annotation.PostConstruct;
+
 import org.restfulwhois.rdap.bootstrap.bean.AutnumRedirect;
 import org.restfulwhois.rdap.bootstrap.bean.Redirect;
+import org.restfulwhois.rdap.common.index.LongRangeIndex;
 import org.restfulwhois.rdap.common.support.QueryParam;
+import org.restfulwhois.rdap.common.support.RdapProperties;
 import org.restfulwhois.rdap.redirect.bean.RedirectResponse;
 import org.restfulwhois.rdap.redirect.dao.RedirectDao;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.jdbc.core.RowMapper;
@@ -54,12 +59,16 @@ import org.springframework.stereotype.Repository;
  * <pre>
  * autnum redirect DAO maily select autnum object from RDAP_AUTNUM_REDIRECT.
  * overrite the query method in RedirectDao and return the RedirectResponse.
+ * If 'redirectIndexEnabled' is true, RDAP_AUTNUM_REDIRECT is loaded into
+ * memory at startup and reloaded after bootstrap sync, and query finds the
+ * smallest AS range in memory.
  * </pre>
  * 
  * @author jiashuo
  * 
  */
 @Repository
+@DependsOn("rdapProperties")
 public class AutnumRedirectDao implements RedirectDao {
     /**
      * logger.
@@ -84,12 +93,33 @@ public class AutnumRedirectDao implements RedirectDao {
      */
     private static final String DELETE_SMALLER_THAN_ID =
             "delete from RDAP_AUTNUM_REDIRECT where AS_REDIRECT_ID<=?";
+
+    /**
+     * select all redirects.
+     */
+    private static final String SELECT_ALL =
+            "select START_AUTNUM,END_AUTNUM,REDIRECT_URL"
+                    + " from RDAP_AUTNUM_REDIRECT";
     /**
      * JDBC template.
      */
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    /**
+     * in-memory redirects, replaced as a whole on reload.
+     */
+    private volatile RedirectIndex redirectIndex = new RedirectIndex(
+            new ArrayList<long[]>(), new ArrayList<String>());
+
+    /**
+     * load redirects at startup.
+     */
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
     /**
      * <pre>
      * redirect the autnum.
@@ -103,6 +133,9 @@ public class AutnumRedirectDao implements RedirectDao {
     @Override
     public RedirectResponse query(QueryParam queryParam) {
         LOGGER.debug("query, queryParam:" + queryParam);
+        if (RdapProperties.isRedirectIndexEnabled()) {
+            return queryInMemory(queryParam);
+        }
         final String autnumQ = queryParam.getQ();
         final String sql =
                 "select *,end_autnum - start_autnum as asInterval "
@@ -135,6 +168,28 @@ public class AutnumRedirectDao implements RedirectDao {
         return new RedirectResponse(result.get(0));
     }
 
+    /**
+     * find redirect of the smallest AS range in memory.
+     * 
+     * @param queryParam
+     *            the queryParam for autnum.
+     * @return RedirectResponse, null if not found.
+     */
+    private RedirectResponse queryInMemory(QueryParam queryParam) {
+        String url;
+        try {
+            url = redirectIndex.find(Long.parseLong(queryParam.getQ()));
+        } catch (NumberFormatException e) {
+            LOGGER.debug("invalid autnum:{}", queryParam.getQ());
+            return null;
+        }
+        LOGGER.debug("query in memory, result:{}", url);
+        if (null == url) {
+            return null;
+        }
+        return new RedirectResponse(url);
+    }
+
     @Override
     public void save(List<Redirect> bootstraps) {
         if (null == bootstraps || bootstraps.size() == 0) {
@@ -149,6 +204,26 @@ public class AutnumRedirectDao implements RedirectDao {
         deleteOld(maxOldId);
     }
 
+    @Override
+    public void reload() {
+        if (!RdapProperties.isRedirectIndexEnabled()) {
+            return;
+        }
+        final List<long[]> ranges = new ArrayList<long[]>();
+        final List<String> urls = new ArrayList<String>();
+        jdbcTemplate.query(SELECT_ALL, new RowMapper<Void>() {
+            @Override
+            public Void mapRow(ResultSet rs, int rowNum) throws SQLException {
+                ranges.add(new long[] { rs.getLong("START_AUTNUM"),
+                        rs.getLong("END_AUTNUM") });
+                urls.add(rs.getString("REDIRECT_URL"));
+                return null;
+            }
+        });
+        this.redirectIndex = new RedirectIndex(ranges, urls);
+        LOGGER.info("autnum redirects loaded, size:{}", urls.size());
+    }
+
     /**
      * delete old redirects.
      * 
@@ -191,4 +266,57 @@ public class AutnumRedirectDao implements RedirectDao {
         return jdbcTemplate.queryForObject(SELECT_MAX_ID, Long.class);
     }
 
+    /**
+     * immutable autnum redirect index, values of ranges are indexes of urls.
+     * 
+     * @author jiashuo
+     * 
+     */
+    private static final class RedirectIndex {
+        /**
+         * AS range index.
+         */
+        private final LongRangeIndex index;
+        /**
+         * redirect urls.
+         */
+        private final String[] urls;
+
+        /**
+         * constructor.
+         * 
+         * @param ranges
+         *            AS ranges, start and end.
+         * @param urls
+         *            urls.
+         */
+        RedirectIndex(List<long[]> ranges, List<String> urls) {
+            int size = ranges.size();
+            long[] starts = new long[size];
+            long[] ends = new long[size];
+            long[] values = new long[size];
+            for (int i = 0; i < size; i++) {
+                starts[i] = ranges.get(i)[0];
+                ends[i] = ranges.get(i)[1];
+                values[i] = i;
+            }
+            this.index = new LongRangeIndex(starts, ends, values);
+            this.urls = urls.toArray(new String[size]);
+        }
+
+        /**
+         * find url of the smallest AS range which covers autnum.
+         * 
+         * @param autnum
+         *            AS number.
+         * @return url, null if not found.
+         */
+        String find(long autnum) {
+            long value = index.findSmallest(autnum);
+            if (LongRangeIndex.NOT_FOUND == value) {
+                return null;
+            }
+            return urls[(int) value];
+        }
+    }
 }
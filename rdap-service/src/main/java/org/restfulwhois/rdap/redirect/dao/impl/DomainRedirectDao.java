@@ -33,12 +33,18 @@ package org.restfulwhois.rdap.redirect.dao.impl;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
 
 import org.apache.commons.lang.StringUtils;
 import org.restfulwhois.rdap.bootstrap.bean.DomainRedirect;
 import org.restfulwhois.rdap.bootstrap.bean.Redirect;
+import org.restfulwhois.rdap.common.index.DomainSuffixTrie;
 import org.restfulwhois.rdap.common.support.QueryParam;
+import org.restfulwhois.rdap.common.support.RdapProperties;
 import org.restfulwhois.rdap.common.util.StringUtil;
 import org.restfulwhois.rdap.core.domain.queryparam.DomainQueryParam;
 import org.restfulwhois.rdap.redirect.bean.RedirectResponse;
@@ -46,6 +52,7 @@ import org.restfulwhois.rdap.redirect.dao.RedirectDao;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
@@ -54,12 +61,16 @@ import org.springframework.stereotype.Repository;
  * <pre>
  * domain redirect DAO mainly select domain object from database.
  * query method overwrite the counterpart in RedirectDao.
+ * If 'redirectIndexEnabled' is true, RDAP_DOMAIN_REDIRECT is loaded into a
+ * suffix trie at startup and reloaded after bootstrap sync, and query finds
+ * the longest matched TLD in memory. It is used by domain and nameserver.
  * </pre>
  * 
  * @author jiashuo
  * 
  */
 @Repository
+@DependsOn("rdapProperties")
 public class DomainRedirectDao implements RedirectDao {
 
     /**
@@ -80,6 +91,12 @@ public class DomainRedirectDao implements RedirectDao {
      */
     private static final String DELETE_SMALLER_THAN_ID =
             "delete from RDAP_DOMAIN_REDIRECT where RDAP_DOMAIN_REDIRECT_ID<=?";
+
+    /**
+     * select all redirects.
+     */
+    private static final String SELECT_ALL =
+            "select REDIRECT_TLD,REDIRECT_URL from RDAP_DOMAIN_REDIRECT";
     /**
      * logger.
      */
@@ -92,6 +109,20 @@ public class DomainRedirectDao implements RedirectDao {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    /**
+     * in-memory TLD to redirect url, replaced as a whole on reload.
+     */
+    private volatile DomainSuffixTrie<String> tldTrie =
+            new DomainSuffixTrie<String>(new HashMap<String, String>());
+
+    /**
+     * load redirects at startup.
+     */
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
     /**
      * redirect the domain by select object from RDAP_DOMAIN_REDIRECT.
      * 
@@ -104,6 +135,9 @@ public class DomainRedirectDao implements RedirectDao {
         LOGGER.debug("query, queryParam:" + queryParam);
         DomainQueryParam domainQueryParam = (DomainQueryParam) queryParam;
         String fullPunyTld = domainQueryParam.getFullPunyTld();
+        if (RdapProperties.isRedirectIndexEnabled()) {
+            return queryInMemory(fullPunyTld);
+        }
         fullPunyTld = StringUtils.replace(fullPunyTld, "'", "''");
         final String joinedTldQCond = getJoinedTldQCondition(fullPunyTld);
         final String sql =
@@ -125,6 +159,22 @@ public class DomainRedirectDao implements RedirectDao {
         return new RedirectResponse(result.get(0));
     }
 
+    /**
+     * find redirect of the longest matched TLD in memory.
+     * 
+     * @param fullPunyTld
+     *            full TLD in punycode, such as 'com.cn'.
+     * @return RedirectResponse, null if not found.
+     */
+    private RedirectResponse queryInMemory(String fullPunyTld) {
+        String url = tldTrie.findLongestSuffix(fullPunyTld);
+        LOGGER.debug("query in memory, result:{}", url);
+        if (null == url) {
+            return null;
+        }
+        return new RedirectResponse(url);
+    }
+
     /**
      * get joined tld query string condition: 'cn','com.cn'.
      * 
@@ -166,6 +216,24 @@ public class DomainRedirectDao implements RedirectDao {
         deleteOld(maxOldId);
     }
 
+    @Override
+    public void reload() {
+        if (!RdapProperties.isRedirectIndexEnabled()) {
+            return;
+        }
+        final Map<String, String> redirects = new HashMap<String, String>();
+        jdbcTemplate.query(SELECT_ALL, new RowMapper<Void>() {
+            @Override
+            public Void mapRow(ResultSet rs, int rowNum) throws SQLException {
+                redirects.put(rs.getString("REDIRECT_TLD"),
+                        rs.getString("REDIRECT_URL"));
+                return null;
+            }
+        });
+        this.tldTrie = new DomainSuffixTrie<String>(redirects);
+        LOGGER.info("domain redirects loaded, size:{}", tldTrie.size());
+    }
+
     /**
      * delete old redirects.
      * 
@@ -35,10 +35,18 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 
+import javax.annotation.PostConstruct;
+
 import org.restfulwhois.rdap.bootstrap.bean.NetworkRedirect;
 import org.restfulwhois.rdap.bootstrap.bean.Redirect;
+import org.restfulwhois.rdap.common.dao.ColumnProjection;
+import org.restfulwhois.rdap.common.dao.ColumnProjection.Column;
+import org.restfulwhois.rdap.common.index.NetworkIndex;
+import org.restfulwhois.rdap.common.index.NetworkRange;
+import org.restfulwhois.rdap.common.index.NetworkRangeIndex;
 import org.restfulwhois.rdap.common.model.IpVersion;
 import org.restfulwhois.rdap.common.support.QueryParam;
+import org.restfulwhois.rdap.common.support.RdapProperties;
 import org.restfulwhois.rdap.common.util.NetworkInBytes;
 import org.restfulwhois.rdap.core.ip.dao.impl.NetworkQueryDaoImpl;
 import org.restfulwhois.rdap.core.ip.queryparam.NetworkQueryParam;
@@ -47,6 +55,7 @@ import org.restfulwhois.rdap.redirect.dao.RedirectDao;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.jdbc.core.RowMapper;
@@ -56,12 +65,16 @@ import org.springframework.stereotype.Repository;
  * <pre>
  * network redirect DAO mainly select network object from RDAP_IP_REDIRECT.
  * query method overwrite the counterpart in RedirectDao.
+ * If 'redirectIndexEnabled' is true, RDAP_IP_REDIRECT is loaded into memory
+ * at startup and reloaded after bootstrap sync, and query finds the most
+ * specific network in memory.
  * </pre>
  * 
  * @author jiashuo
  * 
  */
 @Repository
+@DependsOn("rdapProperties")
 public class NetworkRedirectDao implements RedirectDao {
 
     /**
@@ -69,6 +82,16 @@ public class NetworkRedirectDao implements RedirectDao {
      */
     protected static final Logger LOGGER = LoggerFactory
             .getLogger(NetworkRedirectDao.class);
+    /**
+     * columns of network redirect, table alias is 'ip'.
+     */
+    private static final ColumnProjection REDIRECT_COLUMNS =
+            new ColumnProjection("ip", "REDIRECT_URL");
+    /**
+     * REDIRECT_URL.
+     */
+    private static final Column REDIRECT_URL = REDIRECT_COLUMNS
+            .get("REDIRECT_URL");
     /**
      * save network redirect.
      */
@@ -87,12 +110,53 @@ public class NetworkRedirectDao implements RedirectDao {
     private static final String DELETE_SMALLER_THAN_ID =
             "delete from RDAP_IP_REDIRECT where RDAP_IP_REDIRECT_ID<=?"
                     + " and VERSION=?";
+    /**
+     * select all redirects.
+     */
+    private static final String SELECT_ALL =
+            "select STARTADDRESS,ENDADDRESS,VERSION,REDIRECT_URL"
+                    + " from RDAP_IP_REDIRECT";
     /**
      * JDBC template.
      */
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    /**
+     * in-memory redirects, replaced as a whole on reload.
+     */
+    private volatile RedirectIndex redirectIndex = new RedirectIndex(
+            new ArrayList<NetworkRange>(), new ArrayList<String>());
+
+    /**
+     * load redirects at startup.
+     */
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
+    @Override
+    public void reload() {
+        if (!RdapProperties.isRedirectIndexEnabled()) {
+            return;
+        }
+        final List<NetworkRange> ranges = new ArrayList<NetworkRange>();
+        final List<String> urls = new ArrayList<String>();
+        jdbcTemplate.query(SELECT_ALL, new RowMapper<Void>() {
+            @Override
+            public Void mapRow(ResultSet rs, int rowNum) throws SQLException {
+                ranges.add(new NetworkRange(IpVersion.getIpVersion(rs
+                        .getString("VERSION")), rs.getBytes("STARTADDRESS"), rs
+                        .getBytes("ENDADDRESS"), urls.size()));
+                urls.add(rs.getString("REDIRECT_URL"));
+                return null;
+            }
+        });
+        this.redirectIndex = new RedirectIndex(ranges, urls);
+        LOGGER.info("network redirects loaded, size:{}", urls.size());
+    }
+
     /**
      * redirect the network by select object from RDAP_IP_REDIRECT.
      * 
@@ -103,15 +167,18 @@ public class NetworkRedirectDao implements RedirectDao {
     @Override
     public RedirectResponse query(QueryParam queryParam) {
         LOGGER.debug("query, queryParam:" + queryParam);
+        if (RdapProperties.isRedirectIndexEnabled()) {
+            return queryInMemory(queryParam);
+        }
         PreparedStatementCreator pstatCreator =
                 NetworkQueryDaoImpl.generatePStatCreator(queryParam,
-                        "RDAP_IP_REDIRECT");
+                        "RDAP_IP_REDIRECT", REDIRECT_COLUMNS);
         List<String> result =
                 jdbcTemplate.query(pstatCreator, new RowMapper<String>() {
                     @Override
                     public String mapRow(ResultSet rs, int rowNum)
                             throws SQLException {
-                        return rs.getString("REDIRECT_URL");
+                        return REDIRECT_URL.getString(rs);
                     }
 
                 });
@@ -123,6 +190,24 @@ public class NetworkRedirectDao implements RedirectDao {
         return new RedirectResponse(result.get(0));
     }
 
+    /**
+     * find the most specific redirect in memory.
+     * 
+     * @param queryParam
+     *            the queryParam for network.
+     * @return RedirectResponse, null if not found.
+     */
+    private RedirectResponse queryInMemory(QueryParam queryParam) {
+        NetworkInBytes network =
+                ((NetworkQueryParam) queryParam).getNetworkInBytes();
+        String url = redirectIndex.find(network);
+        LOGGER.debug("query in memory, result:{}", url);
+        if (null == url) {
+            return null;
+        }
+        return new RedirectResponse(url);
+    }
+
     @Override
     public void save(List<Redirect> bootstraps) {
         if (null == bootstraps || bootstraps.size() == 0) {
@@ -195,4 +280,49 @@ public class NetworkRedirectDao implements RedirectDao {
     private Long getMaxId() {
         return jdbcTemplate.queryForObject(SELECT_MAX_ID, Long.class);
     }
+
+    /**
+     * immutable network redirect index, values of ranges are indexes of urls.
+     * 
+     * @author jiashuo
+     * 
+     */
+    private static final class RedirectIndex {
+        /**
+         * network index.
+         */
+        private final NetworkIndex index = new NetworkIndex();
+        /**
+         * redirect urls.
+         */
+        private final String[] urls;
+
+        /**
+         * constructor.
+         * 
+         * @param ranges
+         *            ranges.
+         * @param urls
+         *            urls.
+         */
+        RedirectIndex(List<NetworkRange> ranges, List<String> urls) {
+            this.index.load(ranges);
+            this.urls = urls.toArray(new String[urls.size()]);
+        }
+
+        /**
+         * find url of the most specific network which covers network.
+         * 
+         * @param network
+         *            network.
+         * @return url, null if not found.
+         */
+        String find(NetworkInBytes network) {
+            long value = index.findMostSpecific(network);
+            if (NetworkRangeIndex.NOT_FOUND == value) {
+                return null;
+            }
+            return urls[(int) value];
+        }
+    }
 }
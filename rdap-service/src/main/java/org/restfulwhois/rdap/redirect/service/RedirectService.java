@@ -106,4 +106,9 @@ public interface RedirectService {
      */
     void saveAutnumRedirect(List<Redirect> redirects);
 
+    /**
+     * reload all redirects into memory, called after bootstrap sync.
+     */
+    void reloadRedirects();
+
 }
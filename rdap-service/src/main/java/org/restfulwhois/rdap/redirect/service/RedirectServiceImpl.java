@@ -156,4 +156,11 @@ public class RedirectServiceImpl implements RedirectService {
         autnumRedirectDao.save(bootstraps);
     }
 
+    @Override
+    public void reloadRedirects() {
+        domainRedirectDao.reload();
+        networkRedirectDao.reload();
+        autnumRedirectDao.reload();
+    }
+
 }
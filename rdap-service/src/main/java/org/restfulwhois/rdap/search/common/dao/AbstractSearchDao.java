@@ -30,6 +30,8 @@
  */
 package org.restfulwhois.rdap.search.common.dao;
 
+import java.util.List;
+
 import org.restfulwhois.rdap.common.dao.QueryDao;
 import org.restfulwhois.rdap.common.dao.SearchDao;
 import org.restfulwhois.rdap.common.model.base.BaseModel;
@@ -83,4 +85,12 @@ public abstract class AbstractSearchDao<T extends BaseModel> implements
         return queryDao;
     }
 
+    @Override
+    public void queryAndSetInnerObjects(List<T> objects) {
+        if (null == objects || objects.isEmpty()) {
+            return;
+        }
+        queryDao.queryAndSetInnerObjectsForSearch(objects);
+    }
+
 }
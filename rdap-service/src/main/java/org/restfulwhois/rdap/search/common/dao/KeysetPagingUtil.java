@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.search.common.dao;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import org.restfulwhois.rdap.common.support.PageBean;
+import org.restfulwhois.rdap.common.support.SearchCursor;
+
+/**
+ * <pre>
+ * keyset paging util for search strategies.
+ * Rows are ordered by (sort column, id column), and a page seeks after the
+ * cursor of PageBean instead of skipping rows by offset, so each page costs
+ * the same as the first one.
+ * </pre>
+ * 
+ * @author jiashuo
+ * 
+ */
+public final class KeysetPagingUtil {
+
+    /**
+     * private constructor.
+     */
+    private KeysetPagingUtil() {
+        super();
+    }
+
+    /**
+     * generate seek, order and limit clause, which is appended to where
+     * clause.
+     * 
+     * @param page
+     *            page.
+     * @param sortColumn
+     *            sort column, eg: domain.LDH_NAME.
+     * @param idColumn
+     *            id column, eg: domain.DOMAIN_ID.
+     * @return clause.
+     */
+    public static String generatePageClause(PageBean page, String sortColumn,
+            String idColumn) {
+        StringBuilder clause = new StringBuilder();
+        if (null != page.getCursor()) {
+            clause.append(" and (").append(sortColumn).append(" > ? or (")
+                    .append(sortColumn).append(" = ? and ").append(idColumn)
+                    .append(" > ?)) ");
+        }
+        clause.append(" order by ").append(sortColumn).append(",")
+                .append(idColumn).append(" limit ? ");
+        return clause.toString();
+    }
+
+    /**
+     * set params of clause generated by generatePageClause.
+     * 
+     * @param ps
+     *            PreparedStatement.
+     * @param startIndex
+     *            index of first param of clause.
+     * @param page
+     *            page.
+     * @throws SQLException
+     *             SQLException.
+     */
+    public static void setPageParams(PreparedStatement ps, int startIndex,
+            PageBean page) throws SQLException {
+        int index = startIndex;
+        SearchCursor cursor = page.getCursor();
+        if (null != cursor) {
+            ps.setString(index++, cursor.getSortKey());
+            ps.setString(index++, cursor.getSortKey());
+            ps.setLong(index++, cursor.getId());
+        }
+        ps.setLong(index, page.getMaxRecords());
+    }
+}
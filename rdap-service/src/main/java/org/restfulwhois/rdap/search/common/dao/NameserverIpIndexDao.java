@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.search.common.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+
+import org.restfulwhois.rdap.common.index.NameserverIpIndex;
+import org.restfulwhois.rdap.common.support.PageBean;
+import org.restfulwhois.rdap.common.support.RdapProperties;
+import org.restfulwhois.rdap.common.support.SearchCursor;
+import org.restfulwhois.rdap.common.util.TransactionUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+/**
+ * <pre>
+ * in-memory nameserver IP index DAO of RDAP_NAMESERVER_IP and
+ * REL_DOMAIN_NAMESERVER.
+ * It finds one page of candidate ids of nameserver search by IP and domain
+ * search by nsIp, so that search strategies query one page of objects by
+ * primary key, instead of joining IP and relation tables.
+ * It is loaded at startup if 'nsIpIndexEnabled' is true, relations of
+ * changed object are reloaded by update API after transaction is committed,
+ * and relations of deleted object are removed from index.
+ * </pre>
+ * 
+ * @author jiashuo
+ * 
+ */
+@Repository
+@DependsOn("rdapProperties")
+public class NameserverIpIndexDao {
+    /**
+     * logger.
+     */
+    private static final Logger LOGGER = LoggerFactory
+            .getLogger(NameserverIpIndexDao.class);
+
+    /**
+     * select all nameserver IPs.
+     */
+    private static final String SQL_LOAD_ALL_IP =
+            "select ip.NAMESERVER_ID,ns.LDH_NAME,ip.IP from "
+                    + " RDAP_NAMESERVER_IP ip,RDAP_NAMESERVER ns "
+                    + " where ip.NAMESERVER_ID=ns.NAMESERVER_ID";
+
+    /**
+     * select all domain nameserver relations.
+     */
+    private static final String SQL_LOAD_ALL_REL =
+            "select rel.DOMAIN_ID,domain.LDH_NAME,rel.NAMESERVER_ID from "
+                    + " REL_DOMAIN_NAMESERVER rel,RDAP_DOMAIN domain "
+                    + " where rel.DOMAIN_ID=domain.DOMAIN_ID";
+
+    /**
+     * select IPs of nameserver.
+     */
+    private static final String SQL_LOAD_IP =
+            "select IP from RDAP_NAMESERVER_IP where NAMESERVER_ID = ?";
+
+    /**
+     * select nameserver ids of domain.
+     */
+    private static final String SQL_LOAD_REL =
+            "select NAMESERVER_ID from REL_DOMAIN_NAMESERVER where DOMAIN_ID = ?";
+
+    /**
+     * JDBC template.
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * index.
+     */
+    private final NameserverIpIndex index = new NameserverIpIndex();
+
+    /**
+     * load index at startup.
+     */
+    @PostConstruct
+    public void init() {
+        if (!isEnabled()) {
+            LOGGER.info("nameserver IP index is disabled.");
+            return;
+        }
+        reload();
+    }
+
+    /**
+     * check if index is enabled.
+     * 
+     * @return true if enabled, false if not.
+     */
+    public boolean isEnabled() {
+        return RdapProperties.isNsIpIndexEnabled();
+    }
+
+    /**
+     * reload all nameserver IPs and domain relations from database.
+     */
+    public void reload() {
+        long start = System.currentTimeMillis();
+        final NameserverIpIndex.Builder builder =
+                new NameserverIpIndex.Builder();
+        jdbcTemplate.query(SQL_LOAD_ALL_IP, new RowCallbackHandler() {
+            @Override
+            public void processRow(ResultSet rs) throws SQLException {
+                builder.addNameserverIp(rs.getLong(1), rs.getString(2),
+                        rs.getBytes(3));
+            }
+        });
+        jdbcTemplate.query(SQL_LOAD_ALL_REL, new RowCallbackHandler() {
+            @Override
+            public void processRow(ResultSet rs) throws SQLException {
+                builder.addDomainNameserver(rs.getLong(1), rs.getString(2),
+                        rs.getLong(3));
+            }
+        });
+        index.load(builder);
+        LOGGER.info("nameserver IP index loaded, IPs:{}, milliseconds:{}",
+                index.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * find one page of candidate nameserver ids of IP.
+     * 
+     * @param ip
+     *            IP in bytes.
+     * @param page
+     *            page, with cursor and max records.
+     * @return sorted nameserver ids of page, null if index is disabled.
+     */
+    public long[] findNameserverIds(byte[] ip, PageBean page) {
+        if (!isEnabled()) {
+            return null;
+        }
+        SearchCursor cursor = page.getCursor();
+        if (null == cursor) {
+            return index.findNameserverIds(ip, null, 0, page.getMaxRecords());
+        }
+        return index.findNameserverIds(ip, cursor.getSortKey(),
+                cursor.getId(), page.getMaxRecords());
+    }
+
+    /**
+     * find one page of candidate ids of domains which have nameserver of IP.
+     * 
+     * @param ip
+     *            IP in bytes.
+     * @param page
+     *            page, with cursor and max records.
+     * @return sorted domain ids of page, null if index is disabled.
+     */
+    public long[] findDomainIds(byte[] ip, PageBean page) {
+        if (!isEnabled()) {
+            return null;
+        }
+        SearchCursor cursor = page.getCursor();
+        if (null == cursor) {
+            return index.findDomainIds(ip, null, 0, page.getMaxRecords());
+        }
+        return index.findDomainIds(ip, cursor.getSortKey(), cursor.getId(),
+                page.getMaxRecords());
+    }
+
+    /**
+     * reload IPs of nameserver after transaction is committed.
+     * 
+     * @param nameserverId
+     *            nameserver id.
+     * @param ldhName
+     *            LDH name of nameserver.
+     */
+    public void saveNameserver(final Long nameserverId,
+            final String ldhName) {
+        if (!isEnabled() || null == nameserverId) {
+            return;
+        }
+        TransactionUtil.runAfterCommit(new Runnable() {
+            @Override
+            public void run() {
+                List<byte[]> ips =
+                        jdbcTemplate.query(SQL_LOAD_IP,
+                                new Object[] { nameserverId },
+                                new RowMapper<byte[]>() {
+                                    @Override
+                                    public byte[] mapRow(ResultSet rs,
+                                            int rowNum) throws SQLException {
+                                        return rs.getBytes(1);
+                                    }
+                                });
+                index.putNameserver(nameserverId, ldhName, ips);
+            }
+        });
+    }
+
+    /**
+     * reload nameservers of domain after transaction is committed.
+     * 
+     * @param domainId
+     *            domain id.
+     * @param ldhName
+     *            LDH name of domain.
+     */
+    public void saveDomain(final Long domainId, final String ldhName) {
+        if (!isEnabled() || null == domainId) {
+            return;
+        }
+        TransactionUtil.runAfterCommit(new Runnable() {
+            @Override
+            public void run() {
+                List<Long> ids =
+                        jdbcTemplate.queryForList(SQL_LOAD_REL,
+                                new Object[] { domainId }, Long.class);
+                long[] nameserverIds = new long[ids.size()];
+                for (int i = 0; i < nameserverIds.length; i++) {
+                    nameserverIds[i] = ids.get(i);
+                }
+                index.putDomain(domainId, ldhName, nameserverIds);
+            }
+        });
+    }
+
+    /**
+     * remove nameserver from index after transaction is committed.
+     * 
+     * @param nameserverId
+     *            nameserver id.
+     */
+    public void deleteNameserver(final Long nameserverId) {
+        if (!isEnabled() || null == nameserverId) {
+            return;
+        }
+        TransactionUtil.runAfterCommit(new Runnable() {
+            @Override
+            public void run() {
+                index.removeNameserver(nameserverId);
+            }
+        });
+    }
+
+    /**
+     * remove domain from index after transaction is committed.
+     * 
+     * @param domainId
+     *            domain id.
+     */
+    public void deleteDomain(final Long domainId) {
+        if (!isEnabled() || null == domainId) {
+            return;
+        }
+        TransactionUtil.runAfterCommit(new Runnable() {
+            @Override
+            public void run() {
+                index.removeDomain(domainId);
+            }
+        });
+    }
+
+}
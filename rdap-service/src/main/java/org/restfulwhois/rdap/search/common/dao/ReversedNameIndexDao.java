@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.search.common.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.lang.StringUtils;
+import org.restfulwhois.rdap.common.index.KeysetPageCollector;
+import org.restfulwhois.rdap.common.index.ReversedNameIndex;
+import org.restfulwhois.rdap.common.model.base.ModelType;
+import org.restfulwhois.rdap.common.support.PageBean;
+import org.restfulwhois.rdap.common.support.RdapProperties;
+import org.restfulwhois.rdap.common.support.SearchCursor;
+import org.restfulwhois.rdap.common.util.StringUtil;
+import org.restfulwhois.rdap.common.util.TransactionUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+/**
+ * <pre>
+ * in-memory reversed name index DAO of LDH_NAME/UNICODE_NAME in RDAP_DOMAIN
+ * and RDAP_NAMESERVER.
+ * It finds ids of suffix search like '*.example.cn' by prefix range scan of
+ * reversed names, instead of 'like' full table scan.
+ * It is loaded at startup if 'reversedNameIndexEnabled' is true, and is
+ * updated by update API after transaction is committed.
+ * </pre>
+ * 
+ * @author jiashuo
+ * 
+ */
+@Repository
+@DependsOn("rdapProperties")
+public class ReversedNameIndexDao {
+    /**
+     * logger.
+     */
+    private static final Logger LOGGER = LoggerFactory
+            .getLogger(ReversedNameIndexDao.class);
+
+    /**
+     * select names of all objects, by model type.
+     */
+    private static final Map<ModelType, String> SQL_LOAD_ALL =
+            new EnumMap<ModelType, String>(ModelType.class);
+
+    static {
+        SQL_LOAD_ALL.put(ModelType.DOMAIN,
+                "select DOMAIN_ID,LDH_NAME,UNICODE_NAME from RDAP_DOMAIN");
+        SQL_LOAD_ALL.put(ModelType.NAMESERVER,
+                "select NAMESERVER_ID,LDH_NAME,UNICODE_NAME from "
+                        + " RDAP_NAMESERVER");
+    }
+
+    /**
+     * JDBC template.
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * indexes, by model type.
+     */
+    private final Map<ModelType, ReversedNameIndex> indexes =
+            new EnumMap<ModelType, ReversedNameIndex>(ModelType.class);
+
+    /**
+     * constructor.
+     */
+    public ReversedNameIndexDao() {
+        super();
+        for (ModelType modelType : SQL_LOAD_ALL.keySet()) {
+            indexes.put(modelType, new ReversedNameIndex());
+        }
+    }
+
+    /**
+     * load index at startup.
+     */
+    @PostConstruct
+    public void init() {
+        if (!isEnabled()) {
+            LOGGER.info("reversed name index is disabled.");
+            return;
+        }
+        reload();
+    }
+
+    /**
+     * check if index is enabled.
+     * 
+     * @return true if enabled, false if not.
+     */
+    public boolean isEnabled() {
+        return RdapProperties.isReversedNameIndexEnabled();
+    }
+
+    /**
+     * reload all names from database.
+     */
+    public void reload() {
+        for (Map.Entry<ModelType, String> entry : SQL_LOAD_ALL.entrySet()) {
+            long start = System.currentTimeMillis();
+            final ReversedNameIndex.Builder builder =
+                    new ReversedNameIndex.Builder();
+            jdbcTemplate.query(entry.getValue(), new RowCallbackHandler() {
+                @Override
+                public void processRow(ResultSet rs) throws SQLException {
+                    builder.add(rs.getLong(1), rs.getString(2),
+                            rs.getString(3));
+                }
+            });
+            ReversedNameIndex index = indexes.get(entry.getKey());
+            index.load(builder);
+            LOGGER.info("reversed name index of {} loaded, names:{},"
+                    + " milliseconds:{}", new Object[] {
+                    entry.getKey().getName(), index.size(),
+                    System.currentTimeMillis() - start });
+        }
+    }
+
+    /**
+     * find ids of one page of names matching any of suffix patterns, like
+     * '*.cn'. The page is selected by (LDH name, id) after cursor of page,
+     * so a large suffix range is paged in index instead of scanned by
+     * 'like'.
+     * 
+     * @param modelType
+     *            DOMAIN or NAMESERVER.
+     * @param page
+     *            page, with cursor and max records.
+     * @param patterns
+     *            patterns, null pattern is ignored.
+     * @return sorted candidate ids of page, null if index is disabled or any
+     *         pattern is not a suffix pattern.
+     */
+    public long[] findCandidateIds(ModelType modelType, PageBean page,
+            String... patterns) {
+        ReversedNameIndex index = indexes.get(modelType);
+        if (!isEnabled() || null == index) {
+            return null;
+        }
+        SearchCursor cursor = page.getCursor();
+        KeysetPageCollector collector =
+                new KeysetPageCollector(null == cursor ? null
+                        : cursor.getSortKey(), null == cursor ? 0
+                        : cursor.getId(), page.getMaxRecords());
+        boolean found = false;
+        for (String pattern : patterns) {
+            if (null == pattern) {
+                continue;
+            }
+            if (!isSuffixPattern(pattern)) {
+                return null;
+            }
+            index.collectBySuffix(collector,
+                    pattern.substring(StringUtil.ASTERISK.length()));
+            found = true;
+        }
+        if (!found) {
+            return null;
+        }
+        return collector.toIds();
+    }
+
+    /**
+     * save or update names in index.
+     * 
+     * @param modelType
+     *            DOMAIN or NAMESERVER.
+     * @param id
+     *            object id.
+     * @param names
+     *            indexed names.
+     */
+    public void save(ModelType modelType, final Long id,
+            final String... names) {
+        final ReversedNameIndex index = indexes.get(modelType);
+        if (!isEnabled() || null == index || null == id) {
+            return;
+        }
+        TransactionUtil.runAfterCommit(new Runnable() {
+            @Override
+            public void run() {
+                index.put(id, names);
+            }
+        });
+    }
+
+    /**
+     * delete names from index.
+     * 
+     * @param modelType
+     *            DOMAIN or NAMESERVER.
+     * @param id
+     *            object id.
+     */
+    public void delete(ModelType modelType, final Long id) {
+        final ReversedNameIndex index = indexes.get(modelType);
+        if (!isEnabled() || null == index || null == id) {
+            return;
+        }
+        TransactionUtil.runAfterCommit(new Runnable() {
+            @Override
+            public void run() {
+                index.remove(id);
+            }
+        });
+    }
+
+    /**
+     * check if pattern is '*' followed by a non-empty suffix without other
+     * wildcards of 'like'.
+     * 
+     * @param pattern
+     *            pattern.
+     * @return true if is, false if not.
+     */
+    private static boolean isSuffixPattern(String pattern) {
+        if (!pattern.startsWith(StringUtil.ASTERISK)) {
+            return false;
+        }
+        String suffix = pattern.substring(StringUtil.ASTERISK.length());
+        return StringUtils.isNotEmpty(suffix)
+                && !StringUtils.containsAny(suffix, "*%_");
+    }
+}
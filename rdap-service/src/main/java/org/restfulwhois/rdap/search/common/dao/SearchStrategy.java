@@ -55,18 +55,7 @@ public interface SearchStrategy<T extends BaseModel> {
     boolean support(QueryParam queryParam);
 
     /**
-     * searchCount.
-     * 
-     * @param queryParam
-     *            queryParam.
-     * @param jdbcTemplate
-     *            jdbcTemplate.
-     * @return search count.
-     */
-    Long searchCount(QueryParam queryParam, JdbcTemplate jdbcTemplate);
-
-    /**
-     * search.
+     * search one page, by keyset paging of queryParam's PageBean.
      * 
      * @param queryParam
      *            queryParam
@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.search.common.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.lang.StringUtils;
+import org.restfulwhois.rdap.common.index.SortedIds;
+import org.restfulwhois.rdap.common.index.TrigramIndex;
+import org.restfulwhois.rdap.common.model.base.ModelType;
+import org.restfulwhois.rdap.common.support.RdapProperties;
+import org.restfulwhois.rdap.common.util.StringUtil;
+import org.restfulwhois.rdap.common.util.TransactionUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+/**
+ * <pre>
+ * in-memory trigram index DAO of LDH_NAME/UNICODE_NAME in RDAP_DOMAIN and
+ * RDAP_NAMESERVER, and FN in RDAP_ENTITY.
+ * It finds candidate ids of wildcard search, so that search strategies
+ * check 'like' condition only on candidates, instead of full table scan.
+ * It is loaded at startup if 'trigramIndexEnabled' is true, and is updated
+ * by update API after transaction is committed.
+ * </pre>
+ * 
+ * @author jiashuo
+ * 
+ */
+@Repository
+@DependsOn("rdapProperties")
+public class TrigramIndexDao {
+    /**
+     * logger.
+     */
+    private static final Logger LOGGER = LoggerFactory
+            .getLogger(TrigramIndexDao.class);
+
+    /**
+     * select names of all objects, by model type.
+     */
+    private static final Map<ModelType, String> SQL_LOAD_ALL =
+            new EnumMap<ModelType, String>(ModelType.class);
+
+    static {
+        SQL_LOAD_ALL.put(ModelType.DOMAIN,
+                "select DOMAIN_ID,LDH_NAME,UNICODE_NAME from RDAP_DOMAIN"
+                        + " order by DOMAIN_ID");
+        SQL_LOAD_ALL.put(ModelType.NAMESERVER,
+                "select NAMESERVER_ID,LDH_NAME,UNICODE_NAME from "
+                        + " RDAP_NAMESERVER order by NAMESERVER_ID");
+        SQL_LOAD_ALL.put(ModelType.ENTITY,
+                "select ENTITY_ID,FN from RDAP_ENTITY order by ENTITY_ID");
+    }
+
+    /**
+     * JDBC template.
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * indexes, by model type.
+     */
+    private final Map<ModelType, TrigramIndex> indexes =
+            new EnumMap<ModelType, TrigramIndex>(ModelType.class);
+
+    /**
+     * constructor.
+     */
+    public TrigramIndexDao() {
+        super();
+        for (ModelType modelType : SQL_LOAD_ALL.keySet()) {
+            indexes.put(modelType, new TrigramIndex());
+        }
+    }
+
+    /**
+     * load index at startup.
+     */
+    @PostConstruct
+    public void init() {
+        if (!isEnabled()) {
+            LOGGER.info("trigram index is disabled.");
+            return;
+        }
+        reload();
+    }
+
+    /**
+     * check if index is enabled.
+     * 
+     * @return true if enabled, false if not.
+     */
+    public boolean isEnabled() {
+        return RdapProperties.isTrigramIndexEnabled();
+    }
+
+    /**
+     * reload all names from database.
+     */
+    public void reload() {
+        for (Map.Entry<ModelType, String> entry : SQL_LOAD_ALL.entrySet()) {
+            long start = System.currentTimeMillis();
+            final TrigramIndex.Builder builder = new TrigramIndex.Builder();
+            jdbcTemplate.query(entry.getValue(), new RowCallbackHandler() {
+                @Override
+                public void processRow(ResultSet rs) throws SQLException {
+                    int columnCount = rs.getMetaData().getColumnCount();
+                    String[] values = new String[columnCount - 1];
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = rs.getString(i + 2);
+                    }
+                    builder.add(rs.getLong(1), values);
+                }
+            });
+            TrigramIndex index = indexes.get(entry.getKey());
+            index.load(builder);
+            LOGGER.info("trigram index of {} loaded, trigrams:{},"
+                    + " milliseconds:{}", new Object[] {
+                    entry.getKey().getName(), index.size(),
+                    System.currentTimeMillis() - start });
+        }
+    }
+
+    /**
+     * find candidate ids which may match any of patterns. Patterns without
+     * '*' are not looked up, because they are matched by database index.
+     * 
+     * @param modelType
+     *            DOMAIN, NAMESERVER or ENTITY.
+     * @param patterns
+     *            patterns, null pattern is ignored.
+     * @return sorted candidate ids, null if index is disabled, no pattern
+     *         has '*', any pattern has no trigram, or candidates exceed
+     *         trigramIndexMaxCandidates.
+     */
+    public long[] findCandidateIds(ModelType modelType, String... patterns) {
+        TrigramIndex index = indexes.get(modelType);
+        if (!isEnabled() || null == index || !hasWildcard(patterns)) {
+            return null;
+        }
+        long[] result = new long[0];
+        for (String pattern : patterns) {
+            if (null == pattern) {
+                continue;
+            }
+            long[] ids = index.findCandidates(pattern);
+            if (null == ids) {
+                return null;
+            }
+            result = SortedIds.union(result, ids);
+            Integer max = RdapProperties.getTrigramIndexMaxCandidates();
+            if (null != max && result.length > max) {
+                LOGGER.debug("too many trigram candidates:{}", result.length);
+                return null;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * save or update names in index.
+     * 
+     * @param modelType
+     *            DOMAIN, NAMESERVER or ENTITY.
+     * @param id
+     *            object id.
+     * @param values
+     *            indexed names.
+     */
+    public void save(ModelType modelType, final Long id,
+            final String... values) {
+        final TrigramIndex index = indexes.get(modelType);
+        if (!isEnabled() || null == index || null == id) {
+            return;
+        }
+        TransactionUtil.runAfterCommit(new Runnable() {
+            @Override
+            public void run() {
+                index.put(id, values);
+            }
+        });
+    }
+
+    /**
+     * delete names from index.
+     * 
+     * @param modelType
+     *            DOMAIN, NAMESERVER or ENTITY.
+     * @param id
+     *            object id.
+     */
+    public void delete(ModelType modelType, final Long id) {
+        final TrigramIndex index = indexes.get(modelType);
+        if (!isEnabled() || null == index || null == id) {
+            return;
+        }
+        TransactionUtil.runAfterCommit(new Runnable() {
+            @Override
+            public void run() {
+                index.remove(id);
+            }
+        });
+    }
+
+    /**
+     * check if any pattern has '*'.
+     * 
+     * @param patterns
+     *            patterns.
+     * @return true if has, false if not.
+     */
+    private static boolean hasWildcard(String... patterns) {
+        for (String pattern : patterns) {
+            if (StringUtils.contains(pattern, StringUtil.ASTERISK)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
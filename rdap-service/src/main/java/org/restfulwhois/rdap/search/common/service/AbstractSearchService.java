@@ -33,15 +33,18 @@ package org.restfulwhois.rdap.search.common.service;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.apache.commons.lang.StringUtils;
 import org.restfulwhois.rdap.common.dao.SearchDao;
+import org.restfulwhois.rdap.common.model.Link;
 import org.restfulwhois.rdap.common.model.base.BaseModel;
 import org.restfulwhois.rdap.common.model.base.BaseSearchModel;
+import org.restfulwhois.rdap.common.model.base.PagingMetadata;
 import org.restfulwhois.rdap.common.model.base.TruncatedInfo;
-import org.restfulwhois.rdap.common.model.base.TruncatedInfo.TruncateReason;
 import org.restfulwhois.rdap.common.service.AccessControlManager;
-import org.restfulwhois.rdap.common.support.PageBean;
 import org.restfulwhois.rdap.common.support.QueryParam;
 import org.restfulwhois.rdap.common.support.RdapProperties;
+import org.restfulwhois.rdap.common.support.SearchCursor;
+import org.restfulwhois.rdap.common.util.RequestUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -52,6 +55,15 @@ import org.springframework.stereotype.Service;
  * 
  * searching for domain/NS/entity.
  * 
+ * Search DAO returns objects without inner objects. Inner objects are only
+ * queried for objects which pass access control and are not truncated.
+ * 
+ * Search is keyset paged without total count. If results are truncated, a
+ * 'next' link with 'cursor' param is returned in paging metadata.
+ * 
+ * If 'searchStreamingEnabled' is true, results are read and written in
+ * batches, see BatchSearchResultStream.
+ * 
  * @author jiashuo
  * 
  */
@@ -85,41 +97,30 @@ public abstract class AbstractSearchService {
         LOGGER.debug("search QueryParam:" + queryParam + ",QueryDao:"
                 + searchDao);
 
-        Long totalCount = searchDao.searchCount(queryParam);
-        LOGGER.debug("search count is " + totalCount);
-        if (totalCount == 0) {
-            return null;
+        BatchSearchResultStream<T> stream =
+                new BatchSearchResultStream<T>(queryParam, searchDao,
+                        accessControlManager, parseCursor(queryParam));
+        if (RdapProperties.isSearchStreamingEnabled()) {
+            return searchInStreamingMode(stream);
         }
         List<T> authedObjects = new ArrayList<T>();
-        PageBean page = new PageBean();
-        page.setMaxRecords(RdapProperties.getBatchsizeSearch().intValue());
-        page.setRecordsCount(totalCount.intValue());
-        queryParam.setPageBean(page);
-        boolean gotEnoughResults = false;
-        TruncatedInfo truncatedInfo = new TruncatedInfo();
-        do {
-            List<T> objects = searchDao.search(queryParam);
-            for (T object : objects) {
-                if (authedObjects.size() == RdapProperties.getMaxsizeSearch()) {
-                    gotEnoughResults = true;
-                    truncatedInfo
-                            .addTruncate(TruncateReason.TRUNCATEREASON_EXLOAD);
-                    break;
-                }
-                if (authedObjects.size() < RdapProperties.getMaxsizeSearch()
-                        && accessControlManager.hasPermission(object)) {
-                    authedObjects.add(object);
-                }
-                if (!accessControlManager.hasPermission(object)) {
-                    truncatedInfo
-                            .addTruncate(TruncateReason.TRUNCATEREASON_AUTH);
-                }
-            }
-            page.incrementCurrentPage();
-        } while (page.isNotLastPage() && !gotEnoughResults
-        // && authedDomains.size() < RdapProperties.getMaxsizeSearch()
-        );
+        List<T> batch = stream.readAuthorized();
+        while (null != batch) {
+            authedObjects.addAll(batch);
+            batch = stream.readAuthorized();
+        }
+        LOGGER.debug("search foundObjects:{}", stream.hasFoundObjects());
+        if (!stream.hasFoundObjects()) {
+            return null;
+        }
         BaseSearchModel<T> searchResult = new BaseSearchModel<T>();
+        SearchCursor nextCursor = stream.createNextCursor();
+        if (null != nextCursor) {
+            searchResult.setPagingMetadata(createPagingMetadata(queryParam,
+                    authedObjects.size(), nextCursor));
+        }
+        searchDao.queryAndSetInnerObjects(authedObjects);
+        TruncatedInfo truncatedInfo = stream.getTruncatedInfo();
         if (authedObjects.size() == 0) {
             truncatedInfo.setHasNoAuthForAllObjects(true);
         }
@@ -130,4 +131,92 @@ public abstract class AbstractSearchService {
         return searchResult;
     }
 
+    /**
+     * search in streaming mode: only the first authorized batch is read, to
+     * decide response code. Other batches are read while response is written,
+     * and truncated info and paging metadata are completed after the last
+     * batch.
+     * 
+     * @param stream
+     *            stream.
+     * @param <T>
+     *            model in the base search.
+     * @return BaseSearchModel, with result stream if there are authorized
+     *         objects.
+     */
+    private <T extends BaseModel> BaseSearchModel<T> searchInStreamingMode(
+            BatchSearchResultStream<T> stream) {
+        boolean hasAuthedObjects = stream.prefetch();
+        LOGGER.debug("search in streaming mode, foundObjects:{}",
+                stream.hasFoundObjects());
+        if (!stream.hasFoundObjects()) {
+            return null;
+        }
+        BaseSearchModel<T> searchResult = new BaseSearchModel<T>();
+        searchResult.setTruncatedInfo(stream.getTruncatedInfo());
+        if (!hasAuthedObjects) {
+            stream.getTruncatedInfo().setHasNoAuthForAllObjects(true);
+            return searchResult;
+        }
+        searchResult.setResultStream(stream);
+        return searchResult;
+    }
+
+    /**
+     * parse cursor from 'cursor' param of request.
+     * 
+     * @param queryParam
+     *            queryParam.
+     * @return cursor, null if not exist.
+     */
+    private SearchCursor parseCursor(QueryParam queryParam) {
+        if (null == queryParam.getRequest()) {
+            return null;
+        }
+        return SearchCursor.decode(RequestUtil.getParameter(
+                queryParam.getRequest(), SearchCursor.PARAM_NAME));
+    }
+
+    /**
+     * create paging metadata with 'next' link, which is the request URL with
+     * 'cursor' param replaced.
+     * 
+     * @param queryParam
+     *            queryParam.
+     * @param pageSize
+     *            object count of current page.
+     * @param nextCursor
+     *            cursor of next page.
+     * @return paging metadata.
+     */
+    static PagingMetadata createPagingMetadata(QueryParam queryParam,
+            int pageSize, SearchCursor nextCursor) {
+        StringBuilder href = new StringBuilder();
+        href.append(RdapProperties.getLocalServiceUrl())
+                .append(queryParam.getQueryUri().getName()).append("?");
+        String queryString = null;
+        if (null != queryParam.getRequest()) {
+            queryString = queryParam.getRequest().getQueryString();
+        }
+        if (StringUtils.isNotBlank(queryString)) {
+            for (String param : StringUtils.split(queryString, "&")) {
+                if (!param.startsWith(SearchCursor.PARAM_NAME + "=")) {
+                    href.append(param).append("&");
+                }
+            }
+        }
+        href.append(SearchCursor.PARAM_NAME).append("=")
+                .append(nextCursor.encode());
+        Link link = new Link();
+        link.setValue(href.toString());
+        link.setRel("next");
+        link.setHref(href.toString());
+        link.setType("application/rdap+json");
+        List<Link> links = new ArrayList<Link>();
+        links.add(link);
+        PagingMetadata pagingMetadata = new PagingMetadata();
+        pagingMetadata.setPageSize(pageSize);
+        pagingMetadata.setLinks(links);
+        return pagingMetadata;
+    }
 }
@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.search.common.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.restfulwhois.rdap.common.dao.SearchDao;
+import org.restfulwhois.rdap.common.model.base.BaseModel;
+import org.restfulwhois.rdap.common.model.base.BaseSearchModel;
+import org.restfulwhois.rdap.common.model.base.SearchResultStream;
+import org.restfulwhois.rdap.common.model.base.TruncatedInfo;
+import org.restfulwhois.rdap.common.model.base.TruncatedInfo.TruncateReason;
+import org.restfulwhois.rdap.common.service.AccessControlManager;
+import org.restfulwhois.rdap.common.support.PageBean;
+import org.restfulwhois.rdap.common.support.QueryParam;
+import org.restfulwhois.rdap.common.support.RdapProperties;
+import org.restfulwhois.rdap.common.support.SearchCursor;
+
+/**
+ * <pre>
+ * search result stream which reads search DAO in keyset paged batches of
+ * 'batchsizeSearch', and stops after 'maxsizeSearch' authorized objects.
+ * 
+ * readAuthorized is used for both modes: search service collects all batches
+ * in normal mode, and nextBatch queries inner objects for each batch in
+ * streaming mode, so only one batch is held in memory.
+ * 
+ * This class is not thread safe, it is used by one request.
+ * </pre>
+ * 
+ * @author jiashuo
+ * @param <T>
+ *            model of search results.
+ */
+public class BatchSearchResultStream<T extends BaseModel> implements
+        SearchResultStream<T> {
+    /**
+     * query param.
+     */
+    private final QueryParam queryParam;
+    /**
+     * search DAO.
+     */
+    private final SearchDao<T> searchDao;
+    /**
+     * access control manager.
+     */
+    private final AccessControlManager accessControlManager;
+    /**
+     * page, with cursor of next batch.
+     */
+    private final PageBean page = new PageBean();
+    /**
+     * batch size.
+     */
+    private final int batchSize;
+    /**
+     * max authorized object count.
+     */
+    private final int maxSize;
+    /**
+     * truncated info.
+     */
+    private final TruncatedInfo truncatedInfo = new TruncatedInfo();
+    /**
+     * listeners.
+     */
+    private final List<Listener> listeners = new ArrayList<Listener>();
+    /**
+     * authorized objects which are read by prefetch.
+     */
+    private List<T> pending;
+    /**
+     * last authorized object.
+     */
+    private T lastAuthorized;
+    /**
+     * authorized object count.
+     */
+    private int authorizedCount;
+    /**
+     * if search DAO returns any object.
+     */
+    private boolean foundObjects;
+    /**
+     * if results are truncated for 'maxsizeSearch'.
+     */
+    private boolean gotEnoughResults;
+    /**
+     * if there are no more batches.
+     */
+    private boolean finished;
+
+    /**
+     * constructor.
+     * 
+     * @param queryParam
+     *            queryParam.
+     * @param searchDao
+     *            searchDao.
+     * @param accessControlManager
+     *            accessControlManager.
+     * @param cursor
+     *            cursor of first batch, may be null.
+     */
+    public BatchSearchResultStream(QueryParam queryParam,
+            SearchDao<T> searchDao, AccessControlManager accessControlManager,
+            SearchCursor cursor) {
+        super();
+        this.queryParam = queryParam;
+        this.searchDao = searchDao;
+        this.accessControlManager = accessControlManager;
+        this.batchSize = RdapProperties.getBatchsizeSearch().intValue();
+        this.maxSize = RdapProperties.getMaxsizeSearch().intValue();
+        page.setMaxRecords(batchSize);
+        page.setCursor(cursor);
+        queryParam.setPageBean(page);
+    }
+
+    /**
+     * read next batch from search DAO, and check permission of objects.
+     * Inner objects are not queried.
+     * 
+     * @return authorized objects of batch, may be empty; null if there are no
+     *         more batches.
+     */
+    public List<T> readAuthorized() {
+        if (finished) {
+            return null;
+        }
+        List<T> objects = searchDao.search(queryParam);
+        if (null == objects || objects.isEmpty()) {
+            finished = true;
+            return null;
+        }
+        foundObjects = true;
+        List<T> authedObjects = new ArrayList<T>();
+        boolean[] permissions = accessControlManager.hasPermission(objects);
+        for (int i = 0; i < objects.size(); i++) {
+            if (authorizedCount == maxSize) {
+                gotEnoughResults = true;
+                truncatedInfo.addTruncate(TruncateReason.TRUNCATEREASON_EXLOAD);
+                break;
+            }
+            if (permissions[i]) {
+                authedObjects.add(objects.get(i));
+                lastAuthorized = objects.get(i);
+                authorizedCount++;
+            } else {
+                truncatedInfo.addTruncate(TruncateReason.TRUNCATEREASON_AUTH);
+            }
+        }
+        page.setCursor(searchDao.createCursor(objects.get(objects.size() - 1)));
+        page.incrementCurrentPage();
+        if (gotEnoughResults || objects.size() != batchSize) {
+            finished = true;
+        }
+        return authedObjects;
+    }
+
+    /**
+     * read batches until there are authorized objects, which are returned by
+     * the first nextBatch.
+     * 
+     * @return true if found authorized objects, false if not.
+     */
+    public boolean prefetch() {
+        List<T> authedObjects = readAuthorized();
+        while (null != authedObjects && authedObjects.isEmpty()) {
+            authedObjects = readAuthorized();
+        }
+        pending = authedObjects;
+        return null != pending;
+    }
+
+    @Override
+    public List<T> nextBatch() {
+        List<T> authedObjects = pending;
+        pending = null;
+        while (null == authedObjects || authedObjects.isEmpty()) {
+            if (finished) {
+                return Collections.emptyList();
+            }
+            authedObjects = readAuthorized();
+        }
+        searchDao.queryAndSetInnerObjects(authedObjects);
+        for (Listener listener : listeners) {
+            listener.onBatch(authedObjects);
+        }
+        return authedObjects;
+    }
+
+    @Override
+    public void complete(BaseSearchModel<T> searchModel) {
+        SearchCursor nextCursor = createNextCursor();
+        if (null != nextCursor) {
+            searchModel.setPagingMetadata(AbstractSearchService
+                    .createPagingMetadata(queryParam, authorizedCount,
+                            nextCursor));
+        }
+        for (Listener listener : listeners) {
+            listener.onComplete(searchModel);
+        }
+    }
+
+    @Override
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * create cursor of next page, if results are truncated for
+     * 'maxsizeSearch'.
+     * 
+     * @return cursor, null if there is no next page.
+     */
+    public SearchCursor createNextCursor() {
+        if (!gotEnoughResults || null == lastAuthorized) {
+            return null;
+        }
+        return searchDao.createCursor(lastAuthorized);
+    }
+
+    /**
+     * get authorizedCount.
+     * 
+     * @return authorizedCount.
+     */
+    public int getAuthorizedCount() {
+        return authorizedCount;
+    }
+
+    /**
+     * check if search DAO returns any object.
+     * 
+     * @return true if found, false if not.
+     */
+    public boolean hasFoundObjects() {
+        return foundObjects;
+    }
+
+    /**
+     * get truncatedInfo.
+     * 
+     * @return truncatedInfo.
+     */
+    public TruncatedInfo getTruncatedInfo() {
+        return truncatedInfo;
+    }
+}
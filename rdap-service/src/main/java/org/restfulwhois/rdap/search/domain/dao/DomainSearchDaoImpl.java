@@ -36,6 +36,7 @@ import javax.annotation.Resource;
 
 import org.restfulwhois.rdap.common.model.Domain;
 import org.restfulwhois.rdap.common.support.QueryParam;
+import org.restfulwhois.rdap.common.support.SearchCursor;
 import org.restfulwhois.rdap.search.common.dao.AbstractSearchDao;
 import org.restfulwhois.rdap.search.common.dao.SearchStrategy;
 import org.springframework.stereotype.Repository;
@@ -59,21 +60,14 @@ public class DomainSearchDaoImpl extends AbstractSearchDao<Domain> {
     public List<Domain> search(QueryParam queryParam) {
         SearchStrategy<Domain> strategy = this.getSearchStrategy(queryParam);
         if (null != strategy) {
-            List<Domain> result =
-                    strategy.search(queryParam, getJdbcTemplate());
-            getQueryDao().queryAndSetInnerObjectsForSearch(result);
-            return result;
+            return strategy.search(queryParam, getJdbcTemplate());
         }
         return null;
     }
 
     @Override
-    public Long searchCount(QueryParam queryParam) {
-        SearchStrategy<Domain> strategy = this.getSearchStrategy(queryParam);
-        if (null != strategy) {
-            return strategy.searchCount(queryParam, getJdbcTemplate());
-        }
-        return null;
+    public SearchCursor createCursor(Domain domain) {
+        return new SearchCursor(domain.getLdhName(), domain.getId());
     }
 
     /**
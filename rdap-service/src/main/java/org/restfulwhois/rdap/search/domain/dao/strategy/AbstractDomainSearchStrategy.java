@@ -30,13 +30,11 @@
  */
 package org.restfulwhois.rdap.search.domain.dao.strategy;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
-
 import org.restfulwhois.rdap.common.dao.AbstractQueryDao;
 import org.restfulwhois.rdap.common.model.Domain;
+import org.restfulwhois.rdap.common.support.PageBean;
+import org.restfulwhois.rdap.search.common.dao.KeysetPagingUtil;
 import org.restfulwhois.rdap.search.common.dao.SearchStrategy;
-import org.springframework.jdbc.core.ResultSetExtractor;
 
 /**
  * abstract domain search strategy.
@@ -48,18 +46,25 @@ public abstract class AbstractDomainSearchStrategy implements
         SearchStrategy<Domain> {
 
     /**
-     * count the number of resultSet.
+     * sort column of domain search.
+     */
+    private static final String SORT_COLUMN = "domain.LDH_NAME";
+
+    /**
+     * id column of domain search.
+     */
+    protected static final String ID_COLUMN = "domain.DOMAIN_ID";
+
+    /**
+     * generate keyset page clause, ordered by LDH_NAME and DOMAIN_ID.
      * 
+     * @param page
+     *            page.
+     * @return clause.
      */
-    class CountResultSetExtractor implements ResultSetExtractor<Long> {
-        @Override
-        public Long extractData(ResultSet rs) throws SQLException {
-            Long result = 0L;
-            if (rs.next()) {
-                result = rs.getLong("COUNT");
-            }
-            return result;
-        }
+    protected String generatePageClause(PageBean page) {
+        return KeysetPagingUtil.generatePageClause(page, SORT_COLUMN,
+                ID_COLUMN);
     }
 
     /**
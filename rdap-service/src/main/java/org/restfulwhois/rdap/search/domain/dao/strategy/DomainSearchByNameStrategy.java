@@ -33,16 +33,23 @@ package org.restfulwhois.rdap.search.domain.dao.strategy;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.restfulwhois.rdap.common.model.Domain;
+import org.restfulwhois.rdap.common.model.base.ModelType;
 import org.restfulwhois.rdap.common.support.PageBean;
 import org.restfulwhois.rdap.common.support.QueryParam;
+import org.restfulwhois.rdap.common.util.SqlUtil;
 import org.restfulwhois.rdap.core.domain.dao.impl.DomainQueryDaoImpl;
 import org.restfulwhois.rdap.core.domain.queryparam.DomainSearchByDomainNameParam;
 import org.restfulwhois.rdap.core.domain.queryparam.DomainSearchParam;
+import org.restfulwhois.rdap.search.common.dao.KeysetPagingUtil;
+import org.restfulwhois.rdap.search.common.dao.ReversedNameIndexDao;
+import org.restfulwhois.rdap.search.common.dao.TrigramIndexDao;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.stereotype.Repository;
@@ -61,34 +68,23 @@ public class DomainSearchByNameStrategy extends AbstractDomainSearchStrategy {
     protected static final Logger LOGGER = LoggerFactory
             .getLogger(DomainSearchByNameStrategy.class);
 
+    /**
+     * trigramIndexDao.
+     */
+    @Autowired
+    private TrigramIndexDao trigramIndexDao;
+
+    /**
+     * reversedNameIndexDao.
+     */
+    @Autowired
+    private ReversedNameIndexDao reversedNameIndexDao;
+
     @Override
     public boolean support(QueryParam queryParam) {
         return queryParam instanceof DomainSearchByDomainNameParam;
     }
 
-    @Override
-    public Long searchCount(QueryParam queryParam, JdbcTemplate jdbcTemplate) {
-        DomainSearchParam domainSearchParam = (DomainSearchParam) queryParam;
-        final String domainName = domainSearchParam.getQ();
-        final String punyName = domainSearchParam.getPunyName();
-        final String domainNameLikeClause = generateLikeClause(domainName);
-        final String punyNameLikeClause = generateLikeClause(punyName);
-        final String sql =
-                "select count(1) as COUNT from RDAP_DOMAIN domain "
-                        + " where LDH_NAME like ? or UNICODE_NAME like ? ";
-        Long domainCount = jdbcTemplate.query(new PreparedStatementCreator() {
-            @Override
-            public PreparedStatement createPreparedStatement(
-                    Connection connection) throws SQLException {
-                PreparedStatement ps = connection.prepareStatement(sql);
-                ps.setString(1, punyNameLikeClause);
-                ps.setString(2, domainNameLikeClause);
-                return ps;
-            }
-        }, new CountResultSetExtractor());
-        return domainCount;
-    }
-
     @Override
     public List<Domain>
             search(QueryParam queryParam, JdbcTemplate jdbcTemplate) {
@@ -97,14 +93,29 @@ public class DomainSearchByNameStrategy extends AbstractDomainSearchStrategy {
         final String punyName = domainSearchParam.getPunyName();
         final String domainNameLikeClause = generateLikeClause(domainName);
         final String punyNameLikeClause = generateLikeClause(punyName);
-        final String sql =
-                "select * from RDAP_DOMAIN domain "
-                        + " where LDH_NAME like ? or UNICODE_NAME like ? "
-                        + " order by domain.LDH_NAME limit ?,? ";
         final PageBean page = domainSearchParam.getPageBean();
-        int startPage = page.getCurrentPage() - 1;
-        startPage = startPage >= 0 ? startPage : 0;
-        final long startRow = startPage * page.getMaxRecords();
+        long[] candidateIds =
+                reversedNameIndexDao.findCandidateIds(ModelType.DOMAIN,
+                        page, punyName, domainName);
+        if (null == candidateIds) {
+            candidateIds =
+                    trigramIndexDao.findCandidateIds(ModelType.DOMAIN,
+                            punyName, domainName);
+        }
+        String candidateClause = "";
+        if (null != candidateIds) {
+            if (0 == candidateIds.length) {
+                return new ArrayList<Domain>();
+            }
+            candidateClause =
+                    SqlUtil.generateIdInClause(ID_COLUMN,
+                            candidateIds);
+        }
+        final String sql =
+                "select " + DomainQueryDaoImpl.DOMAIN_COLUMNS.toSql()
+                        + " from RDAP_DOMAIN domain "
+                        + " where (LDH_NAME like ? or UNICODE_NAME like ?) "
+                        + candidateClause + generatePageClause(page);
         DomainQueryDaoImpl domainDao = new DomainQueryDaoImpl();
         List<Domain> result = null;
         result = jdbcTemplate.query(new PreparedStatementCreator() {
@@ -114,14 +125,11 @@ public class DomainSearchByNameStrategy extends AbstractDomainSearchStrategy {
                 PreparedStatement ps = connection.prepareStatement(sql);
                 ps.setString(1, punyNameLikeClause);
                 ps.setString(2, domainNameLikeClause);
-                ps.setLong(3, startRow);
-                ps.setLong(4, page.getMaxRecords());
+                KeysetPagingUtil.setPageParams(ps, 3, page);
                 return ps;
             }
         }, domainDao.new DomainWithStatusResultSetExtractor());
-        for(Domain domain : result){
-            domainDao.queryDomainStatus(domain, jdbcTemplate);
-        }
+        domainDao.queryDomainStatus(result, jdbcTemplate);
         return result;
     }
 
@@ -33,6 +33,7 @@ package org.restfulwhois.rdap.search.domain.dao.strategy;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.restfulwhois.rdap.common.model.Domain;
@@ -40,11 +41,15 @@ import org.restfulwhois.rdap.common.model.IpVersion;
 import org.restfulwhois.rdap.common.support.PageBean;
 import org.restfulwhois.rdap.common.support.QueryParam;
 import org.restfulwhois.rdap.common.util.IpUtil;
+import org.restfulwhois.rdap.common.util.SqlUtil;
 import org.restfulwhois.rdap.core.domain.dao.impl.DomainQueryDaoImpl;
 import org.restfulwhois.rdap.core.domain.queryparam.DomainSearchByNsIpParam;
 import org.restfulwhois.rdap.core.domain.queryparam.DomainSearchParam;
+import org.restfulwhois.rdap.search.common.dao.KeysetPagingUtil;
+import org.restfulwhois.rdap.search.common.dao.NameserverIpIndexDao;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.stereotype.Repository;
@@ -63,67 +68,63 @@ public class DomainSearchByNsIpStrategy extends AbstractDomainSearchStrategy {
     protected static final Logger LOGGER = LoggerFactory
             .getLogger(DomainSearchByNsIpStrategy.class);
 
+    /**
+     * nameserverIpIndexDao.
+     */
+    @Autowired
+    private NameserverIpIndexDao nameserverIpIndexDao;
+
     @Override
     public boolean support(QueryParam queryParam) {
         return queryParam instanceof DomainSearchByNsIpParam;
     }
 
-    @Override
-    public Long searchCount(QueryParam queryParam, JdbcTemplate jdbcTemplate) {
-        LOGGER.debug("searchCount, queryParam:" + queryParam);
-        final DomainSearchByNsIpParam searchByNsIpParam =
-                (DomainSearchByNsIpParam) queryParam;
-        final String sql =
-                "select COUNT(*) as COUNT" + " from RDAP_DOMAIN t1 "
-                        + " inner join REL_DOMAIN_NAMESERVER t2"
-                        + " on t1.DOMAIN_ID = t2.DOMAIN_ID "
-                        + " inner join RDAP_NAMESERVER_IP t3 on "
-                        + " t2.NAMESERVER_ID = t3.NAMESERVER_ID"
-                        + " where t3.IP = ?";
-        Long recordsCount = jdbcTemplate.query(new PreparedStatementCreator() {
-            public PreparedStatement createPreparedStatement(
-                    Connection connection) throws SQLException {
-                PreparedStatement ps = connection.prepareStatement(sql);
-                ps.setBytes(1, searchByNsIpParam.getIpInBytes().getBytes());
-                return ps;
-            }
-        }, new CountResultSetExtractor());
-        return recordsCount;
-    }
-
     @Override
     public List<Domain>
             search(QueryParam queryParam, JdbcTemplate jdbcTemplate) {
         DomainSearchParam domainQueryParam = (DomainSearchParam) queryParam;
         List<Domain> result = null;
         final PageBean page = domainQueryParam.getPageBean();
-        int startPage = page.getCurrentPage() - 1;
-        startPage = startPage >= 0 ? startPage : 0;
-        final long startRow = startPage * page.getMaxRecords();
         String ipPrefix = domainQueryParam.getQ();
         IpVersion ipVersion = IpUtil.getIpVersionOfIp(ipPrefix);
         final byte[] ipBytes = IpUtil.ipToByteArray(ipPrefix, ipVersion);
         DomainQueryDaoImpl domainDao = new DomainQueryDaoImpl();
-        final String sql =
-                "SELECT distinct domain.* FROM  RDAP_DOMAIN domain "
-                        + " INNER JOIN REL_DOMAIN_NAMESERVER rel "
-                        + " ON domain.DOMAIN_ID = rel.DOMAIN_ID "
-                        + " INNER JOIN RDAP_NAMESERVER_IP nsip "
-                        + " ON rel.NAMESERVER_ID = nsip.NAMESERVER_ID "
-                        + " where nsip.IP = ? order by domain.LDH_NAME limit ?,?";
+        final long[] candidateIds =
+                nameserverIpIndexDao.findDomainIds(ipBytes, page);
+        final String sql;
+        if (null != candidateIds) {
+            if (0 == candidateIds.length) {
+                return new ArrayList<Domain>();
+            }
+            sql =
+                    "select " + DomainQueryDaoImpl.DOMAIN_COLUMNS.toSql()
+                            + " from RDAP_DOMAIN domain where "
+                            + SqlUtil.generateIdInCondition(ID_COLUMN,
+                                    candidateIds) + generatePageClause(page);
+        } else {
+            sql =
+                    "SELECT distinct "
+                            + DomainQueryDaoImpl.DOMAIN_COLUMNS.toSql()
+                            + " FROM  RDAP_DOMAIN domain "
+                            + " INNER JOIN REL_DOMAIN_NAMESERVER rel "
+                            + " ON domain.DOMAIN_ID = rel.DOMAIN_ID "
+                            + " INNER JOIN RDAP_NAMESERVER_IP nsip "
+                            + " ON rel.NAMESERVER_ID = nsip.NAMESERVER_ID "
+                            + " where nsip.IP = ? " + generatePageClause(page);
+        }
         result = jdbcTemplate.query(new PreparedStatementCreator() {
             public PreparedStatement createPreparedStatement(
                     Connection connection) throws SQLException {
                 PreparedStatement ps = connection.prepareStatement(sql);
-                ps.setBytes(1, ipBytes);
-                ps.setLong(2, startRow);
-                ps.setLong(3, page.getMaxRecords());
+                int startIndex = 1;
+                if (null == candidateIds) {
+                    ps.setBytes(startIndex++, ipBytes);
+                }
+                KeysetPagingUtil.setPageParams(ps, startIndex, page);
                 return ps;
             }
         }, domainDao.new DomainWithStatusResultSetExtractor());
-        for(Domain domain : result){
-             domainDao.queryDomainStatus(domain, jdbcTemplate);
-        }
+        domainDao.queryDomainStatus(result, jdbcTemplate);
         return result;
     }
 
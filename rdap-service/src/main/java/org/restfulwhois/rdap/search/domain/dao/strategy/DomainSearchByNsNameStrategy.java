@@ -41,6 +41,7 @@ import org.restfulwhois.rdap.common.support.QueryParam;
 import org.restfulwhois.rdap.core.domain.dao.impl.DomainQueryDaoImpl;
 import org.restfulwhois.rdap.core.domain.queryparam.DomainSearchByNsLdhNameParam;
 import org.restfulwhois.rdap.core.domain.queryparam.DomainSearchParam;
+import org.restfulwhois.rdap.search.common.dao.KeysetPagingUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -66,48 +67,21 @@ public class DomainSearchByNsNameStrategy extends AbstractDomainSearchStrategy {
         return queryParam instanceof DomainSearchByNsLdhNameParam;
     }
 
-    @Override
-    public Long searchCount(QueryParam queryParam, JdbcTemplate jdbcTemplate) {
-        LOGGER.debug("searchCount, queryParam:" + queryParam);
-        DomainSearchParam domainSearchParam = (DomainSearchParam) queryParam;
-        final String punyName = domainSearchParam.getPunyName();
-        final String punyNameLikeClause = super.generateLikeClause(punyName);
-        final String sql =
-                "SELECT COUNT(*) as COUNT from "
-                        + "RDAP_DOMAIN t1 inner join REL_DOMAIN_NAMESERVER t2 "
-                        + "on t1.DOMAIN_ID = t2.DOMAIN_ID inner join RDAP_NAMESERVER t3 "
-                        + "on t2.NAMESERVER_ID = t3.NAMESERVER_ID "
-                        + "where t3.LDH_NAME like ? ";
-        Long domainCount = jdbcTemplate.query(new PreparedStatementCreator() {
-            @Override
-            public PreparedStatement createPreparedStatement(
-                    Connection connection) throws SQLException {
-                PreparedStatement ps = connection.prepareStatement(sql);
-                ps.setString(1, punyNameLikeClause);
-                return ps;
-            }
-        }, new CountResultSetExtractor());
-        LOGGER.debug("searchCount, domainCount:" + domainCount);
-        return domainCount;
-    }
-
     @Override
     public List<Domain>
             search(QueryParam queryParam, JdbcTemplate jdbcTemplate) {
         DomainSearchParam domainQueryParam = (DomainSearchParam) queryParam;
         final String punyName = domainQueryParam.getPunyName();
         final String punyNameLikeClause = generateLikeClause(punyName);
+        final PageBean page = queryParam.getPageBean();
         final String sql =
-                "select distinct domain.* from  RDAP_DOMAIN domain inner join "
+                "select distinct " + DomainQueryDaoImpl.DOMAIN_COLUMNS.toSql()
+                        + " from  RDAP_DOMAIN domain inner join "
                         + " REL_DOMAIN_NAMESERVER rel on domain.DOMAIN_ID = rel.DOMAIN_ID "
                         + " inner join RDAP_NAMESERVER ns "
                         + " on rel.NAMESERVER_ID = ns.NAMESERVER_ID "
                         + " where ns.LDH_NAME LIKE ? "
-                        + " order by domain.LDH_NAME limit ?,? ";
-        final PageBean page = queryParam.getPageBean();
-        int startPage = page.getCurrentPage() - 1;
-        startPage = startPage >= 0 ? startPage : 0;
-        final long startRow = startPage * page.getMaxRecords();
+                        + generatePageClause(page);
         DomainQueryDaoImpl domainDao = new DomainQueryDaoImpl();
         List<Domain> result =
                 jdbcTemplate.query(new PreparedStatementCreator() {
@@ -116,14 +90,11 @@ public class DomainSearchByNsNameStrategy extends AbstractDomainSearchStrategy {
                             Connection connection) throws SQLException {
                         PreparedStatement ps = connection.prepareStatement(sql);
                         ps.setString(1, punyNameLikeClause);
-                        ps.setLong(2, startRow);
-                        ps.setLong(3, page.getMaxRecords());
+                        KeysetPagingUtil.setPageParams(ps, 2, page);
                         return ps;
                     }
                 }, domainDao.new DomainWithStatusResultSetExtractor());
-        for(Domain domain : result){
-            domainDao.queryDomainStatus(domain, jdbcTemplate);
-        }
+        domainDao.queryDomainStatus(result, jdbcTemplate);
         return result;
     }
 
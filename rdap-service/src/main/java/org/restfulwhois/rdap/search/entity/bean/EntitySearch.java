@@ -35,6 +35,8 @@ import java.util.List;
 import org.restfulwhois.rdap.common.model.Entity;
 import org.restfulwhois.rdap.common.model.base.BaseSearchModel;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 /**
  * entity search model.
  * 
@@ -66,4 +68,9 @@ public class EntitySearch extends BaseSearchModel<Entity> {
         this.entitySearchResults = entitySearchResults;
     }
 
+    @Override
+    @JsonIgnore
+    public String getSearchResultsName() {
+        return "entitySearchResults";
+    }
 }
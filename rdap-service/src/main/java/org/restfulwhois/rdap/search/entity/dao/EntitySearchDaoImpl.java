@@ -36,6 +36,7 @@ import javax.annotation.Resource;
 
 import org.restfulwhois.rdap.common.model.Entity;
 import org.restfulwhois.rdap.common.support.QueryParam;
+import org.restfulwhois.rdap.common.support.SearchCursor;
 import org.restfulwhois.rdap.search.common.dao.AbstractSearchDao;
 import org.restfulwhois.rdap.search.common.dao.SearchStrategy;
 import org.springframework.stereotype.Repository;
@@ -58,21 +59,14 @@ public class EntitySearchDaoImpl extends AbstractSearchDao<Entity> {
     public List<Entity> search(QueryParam queryParam) {
         SearchStrategy<Entity> strategy = this.getSearchStrategy(queryParam);
         if (null != strategy) {
-            List<Entity> result =
-                    strategy.search(queryParam, getJdbcTemplate());
-            getQueryDao().queryAndSetInnerObjectsForSearch(result);
-            return result;
+            return strategy.search(queryParam, getJdbcTemplate());
         }
         return null;
     }
 
     @Override
-    public Long searchCount(QueryParam queryParam) {
-        SearchStrategy<Entity> strategy = this.getSearchStrategy(queryParam);
-        if (null != strategy) {
-            return strategy.searchCount(queryParam, getJdbcTemplate());
-        }
-        return null;
+    public SearchCursor createCursor(Entity entity) {
+        return new SearchCursor(entity.getHandle(), entity.getId());
     }
 
     /**
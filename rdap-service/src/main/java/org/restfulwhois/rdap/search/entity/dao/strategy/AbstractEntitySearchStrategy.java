@@ -41,7 +41,9 @@ import org.restfulwhois.rdap.common.dao.AbstractQueryDao;
 import org.restfulwhois.rdap.common.model.Entity;
 import org.restfulwhois.rdap.common.support.PageBean;
 import org.restfulwhois.rdap.common.support.QueryParam;
+import org.restfulwhois.rdap.common.util.SqlUtil;
 import org.restfulwhois.rdap.core.entity.dao.impl.EntityQueryDaoImpl;
+import org.restfulwhois.rdap.search.common.dao.KeysetPagingUtil;
 import org.restfulwhois.rdap.search.common.dao.SearchStrategy;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.PreparedStatementCreator;
@@ -55,36 +57,17 @@ import org.springframework.jdbc.core.ResultSetExtractor;
  */
 public abstract class AbstractEntitySearchStrategy implements
         SearchStrategy<Entity> {
+    /**
+     * sort column of entity search. HANDLE may be null, and null is sorted
+     * and sought as empty string, same as cursor of entity.
+     */
+    private static final String SORT_COLUMN = "coalesce(entity.HANDLE,'')";
 
     /**
-     * searchCount.
-     * 
-     * @param queryParam
-     *            queryParam.
-     * @param jdbcTemplate
-     *            jdbcTemplate.
-     * @param searchColumnName
-     *            searchColumnName.
-     * @return count.
+     * id column of entity search.
      */
-    protected Long searchCount(QueryParam queryParam,
-            JdbcTemplate jdbcTemplate, final String searchColumnName) {
-        final String q = queryParam.getQ();
-        final String qLikeClause = generateLikeClause(q);
-        final String sql =
-                "select count(1) as COUNT from RDAP_ENTITY " + " where "
-                        + searchColumnName + " like ? ";
-        Long entityCount = jdbcTemplate.query(new PreparedStatementCreator() {
-            @Override
-            public PreparedStatement createPreparedStatement(
-                    Connection connection) throws SQLException {
-                PreparedStatement ps = connection.prepareStatement(sql);
-                ps.setString(1, qLikeClause);
-                return ps;
-            }
-        }, new CountResultSetExtractor());
-        return entityCount;
-    }
+    protected static final String ID_COLUMN = "entity.ENTITY_ID";
+
 
     /**
      * search entities.
@@ -101,13 +84,23 @@ public abstract class AbstractEntitySearchStrategy implements
             JdbcTemplate jdbcTemplate, String searchColumnName) {
         final String q = queryParam.getQ();
         final String qLikeClause = generateLikeClause(q);
-        final String sql =
-                "select * from RDAP_ENTITY entity where " + searchColumnName
-                        + " like ? " + " order by entity.HANDLE limit ?,? ";
         final PageBean page = queryParam.getPageBean();
-        int startPage = page.getCurrentPage() - 1;
-        startPage = startPage >= 0 ? startPage : 0;
-        final long startRow = startPage * page.getMaxRecords();
+        long[] candidateIds = findCandidateIds(q);
+        String candidateClause = "";
+        if (null != candidateIds) {
+            if (0 == candidateIds.length) {
+                return new ArrayList<Entity>();
+            }
+            candidateClause =
+                    SqlUtil.generateIdInClause(ID_COLUMN,
+                            candidateIds);
+        }
+        final String sql =
+                "select " + EntityQueryDaoImpl.ENTITY_COLUMNS.toSql()
+                        + " from RDAP_ENTITY entity where " + searchColumnName
+                        + " like ? " + candidateClause
+                        + KeysetPagingUtil.generatePageClause(page,
+                                SORT_COLUMN, ID_COLUMN);
         List<Entity> result =
                 jdbcTemplate.query(new PreparedStatementCreator() {
                     @Override
@@ -115,14 +108,24 @@ public abstract class AbstractEntitySearchStrategy implements
                             Connection connection) throws SQLException {
                         PreparedStatement ps = connection.prepareStatement(sql);
                         ps.setString(1, qLikeClause);
-                        ps.setLong(2, startRow);
-                        ps.setLong(3, page.getMaxRecords());
+                        KeysetPagingUtil.setPageParams(ps, 2, page);
                         return ps;
                     }
                 }, new EntityResultSetExtractor());
         return result;
     }
 
+    /**
+     * find candidate entity ids of q by index.
+     * 
+     * @param q
+     *            q.
+     * @return sorted candidate ids, null if not found by index.
+     */
+    protected long[] findCandidateIds(String q) {
+        return null;
+    }
+
     /**
      * EntityResultSetExtractor extract entity from result set.
      * 
@@ -142,21 +145,6 @@ public abstract class AbstractEntitySearchStrategy implements
         }
     }
 
-    /**
-     * count the number of resultSet.
-     * 
-     */
-    class CountResultSetExtractor implements ResultSetExtractor<Long> {
-        @Override
-        public Long extractData(ResultSet rs) throws SQLException {
-            Long result = 0L;
-            if (rs.next()) {
-                result = rs.getLong("COUNT");
-            }
-            return result;
-        }
-    }
-
     /**
      * searchColumnName.
      * 
@@ -33,10 +33,13 @@ package org.restfulwhois.rdap.search.entity.dao.strategy;
 import java.util.List;
 
 import org.restfulwhois.rdap.common.model.Entity;
+import org.restfulwhois.rdap.common.model.base.ModelType;
 import org.restfulwhois.rdap.common.support.QueryParam;
 import org.restfulwhois.rdap.core.entity.queryparam.EntitySearchByFnParam;
+import org.restfulwhois.rdap.search.common.dao.TrigramIndexDao;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
@@ -60,21 +63,26 @@ public class EntitySearchByFnStrategy extends AbstractEntitySearchStrategy {
      */
     private static final String SEARCH_COLUMN_NAME = "FN";
 
+    /**
+     * trigramIndexDao.
+     */
+    @Autowired
+    private TrigramIndexDao trigramIndexDao;
+
     @Override
     public boolean support(QueryParam queryParam) {
         return queryParam instanceof EntitySearchByFnParam;
     }
 
-    @Override
-    public Long searchCount(QueryParam queryParam, JdbcTemplate jdbcTemplate) {
-        LOGGER.debug("searchCount, queryParam:" + queryParam);
-        return searchCount(queryParam, jdbcTemplate, SEARCH_COLUMN_NAME);
-    }
-
     @Override
     public List<Entity>
             search(QueryParam queryParam, JdbcTemplate jdbcTemplate) {
         return search(queryParam, jdbcTemplate, SEARCH_COLUMN_NAME);
     }
 
+    @Override
+    protected long[] findCandidateIds(String q) {
+        return trigramIndexDao.findCandidateIds(ModelType.ENTITY, q);
+    }
+
 }
@@ -65,12 +65,6 @@ public class EntitySearchByHandleStrategy extends AbstractEntitySearchStrategy {
         return queryParam instanceof EntitySearchByHandleParam;
     }
 
-    @Override
-    public Long searchCount(QueryParam queryParam, JdbcTemplate jdbcTemplate) {
-        LOGGER.debug("searchCount, queryParam:" + queryParam);
-        return searchCount(queryParam, jdbcTemplate, SEARCH_COLUMN_NAME);
-    }
-
     @Override
     public List<Entity>
             search(QueryParam queryParam, JdbcTemplate jdbcTemplate) {
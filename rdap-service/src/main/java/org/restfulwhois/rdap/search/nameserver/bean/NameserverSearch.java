@@ -35,6 +35,8 @@ import java.util.List;
 import org.restfulwhois.rdap.common.model.Nameserver;
 import org.restfulwhois.rdap.common.model.base.BaseSearchModel;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 /**
  * nameserver search model.
  * 
@@ -66,4 +68,10 @@ public class NameserverSearch extends BaseSearchModel<Nameserver> {
             List<Nameserver> nameserverSearchResults) {
         this.nameserverSearchResults = nameserverSearchResults;
     }
+
+    @Override
+    @JsonIgnore
+    public String getSearchResultsName() {
+        return "nameserverSearchResults";
+    }
 }
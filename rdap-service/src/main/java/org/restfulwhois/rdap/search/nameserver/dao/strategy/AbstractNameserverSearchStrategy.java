@@ -36,7 +36,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.restfulwhois.rdap.common.model.Nameserver;
+import org.restfulwhois.rdap.common.support.PageBean;
 import org.restfulwhois.rdap.core.nameserver.dao.impl.NameserverQueryDaoImpl;
+import org.restfulwhois.rdap.search.common.dao.KeysetPagingUtil;
 import org.restfulwhois.rdap.search.common.dao.SearchStrategy;
 import org.springframework.jdbc.core.ResultSetExtractor;
 
@@ -48,22 +50,29 @@ import org.springframework.jdbc.core.ResultSetExtractor;
  */
 public abstract class AbstractNameserverSearchStrategy implements
         SearchStrategy<Nameserver> {
+    /**
+     * sort column of nameserver search.
+     */
+    private static final String SORT_COLUMN = "ns.LDH_NAME";
+
+    /**
+     * id column of nameserver search.
+     */
+    protected static final String ID_COLUMN = "ns.NAMESERVER_ID";
 
     /**
-     * count the number of resultSet.
+     * generate keyset page clause, ordered by LDH_NAME and NAMESERVER_ID.
      * 
+     * @param page
+     *            page.
+     * @return clause.
      */
-    class CountResultSetExtractor implements ResultSetExtractor<Long> {
-        @Override
-        public Long extractData(ResultSet rs) throws SQLException {
-            Long result = 0L;
-            if (rs.next()) {
-                result = rs.getLong("COUNT");
-            }
-            return result;
-        }
+    protected String generatePageClause(PageBean page) {
+        return KeysetPagingUtil.generatePageClause(page, SORT_COLUMN,
+                ID_COLUMN);
     }
 
+
     /**
      * nameserver ResultSetExtractor, extract data from ResultSet.
      * 
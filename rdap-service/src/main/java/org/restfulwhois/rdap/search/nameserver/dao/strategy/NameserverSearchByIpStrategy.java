@@ -33,6 +33,7 @@ package org.restfulwhois.rdap.search.nameserver.dao.strategy;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.restfulwhois.rdap.common.model.IpVersion;
@@ -40,7 +41,12 @@ import org.restfulwhois.rdap.common.model.Nameserver;
 import org.restfulwhois.rdap.common.support.PageBean;
 import org.restfulwhois.rdap.common.support.QueryParam;
 import org.restfulwhois.rdap.common.util.IpUtil;
+import org.restfulwhois.rdap.common.util.SqlUtil;
+import org.restfulwhois.rdap.core.nameserver.dao.impl.NameserverQueryDaoImpl;
 import org.restfulwhois.rdap.core.nameserver.queryparam.NameserverSearchByIpParam;
+import org.restfulwhois.rdap.search.common.dao.KeysetPagingUtil;
+import org.restfulwhois.rdap.search.common.dao.NameserverIpIndexDao;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.stereotype.Repository;
@@ -55,29 +61,17 @@ import org.springframework.stereotype.Repository;
 public class NameserverSearchByIpStrategy extends
         AbstractNameserverSearchStrategy {
 
+    /**
+     * nameserverIpIndexDao.
+     */
+    @Autowired
+    private NameserverIpIndexDao nameserverIpIndexDao;
+
     @Override
     public boolean support(QueryParam queryParam) {
         return queryParam instanceof NameserverSearchByIpParam;
     }
 
-    @Override
-    public Long searchCount(QueryParam queryParam, JdbcTemplate jdbcTemplate) {
-        final NameserverSearchByIpParam searchByIpParam =
-                (NameserverSearchByIpParam) queryParam;
-        final String sql =
-                "select count(1) as COUNT from RDAP_NAMESERVER_IP "
-                        + " where IP = ? ";
-        Long recordsCount = jdbcTemplate.query(new PreparedStatementCreator() {
-            public PreparedStatement createPreparedStatement(
-                    Connection connection) throws SQLException {
-                PreparedStatement ps = connection.prepareStatement(sql);
-                ps.setBytes(1, searchByIpParam.getIpInBytes().getBytes());
-                return ps;
-            }
-        }, new CountResultSetExtractor());
-        return recordsCount;
-    }
-
     @Override
     public List<Nameserver> search(QueryParam queryParam,
             JdbcTemplate jdbcTemplate) {
@@ -87,22 +81,38 @@ public class NameserverSearchByIpStrategy extends
             return result;
         }
         final PageBean page = queryParam.getPageBean();
-        int startPage = page.getCurrentPage() - 1;
-        startPage = startPage >= 0 ? startPage : 0;
-        final long startRow = startPage * page.getMaxRecords();
         final byte[] ipInBytes =
                 IpUtil.ipToByteArray(queryParam.getQ(), ipVersion);
-        final String sql =
-                "select * from RDAP_NAMESERVER ns,RDAP_NAMESERVER_IP ip"
-                        + " where ns.NAMESERVER_ID=ip.NAMESERVER_ID and "
-                        + " IP = ? order by ns.LDH_NAME limit ?,? ";
+        final long[] candidateIds =
+                nameserverIpIndexDao.findNameserverIds(ipInBytes, page);
+        final String sql;
+        if (null != candidateIds) {
+            if (0 == candidateIds.length) {
+                return new ArrayList<Nameserver>();
+            }
+            sql =
+                    "select "
+                            + NameserverQueryDaoImpl.NAMESERVER_COLUMNS.toSql()
+                            + " from RDAP_NAMESERVER ns where "
+                            + SqlUtil.generateIdInCondition(ID_COLUMN,
+                                    candidateIds) + generatePageClause(page);
+        } else {
+            sql =
+                    "select "
+                            + NameserverQueryDaoImpl.NAMESERVER_COLUMNS.toSql()
+                            + " from RDAP_NAMESERVER ns,RDAP_NAMESERVER_IP ip"
+                            + " where ns.NAMESERVER_ID=ip.NAMESERVER_ID and "
+                            + " IP = ? " + generatePageClause(page);
+        }
         result = jdbcTemplate.query(new PreparedStatementCreator() {
             public PreparedStatement createPreparedStatement(
                     Connection connection) throws SQLException {
                 PreparedStatement ps = connection.prepareStatement(sql);
-                ps.setBytes(1, ipInBytes);
-                ps.setLong(2, startRow);
-                ps.setLong(3, page.getMaxRecords());
+                int startIndex = 1;
+                if (null == candidateIds) {
+                    ps.setBytes(startIndex++, ipInBytes);
+                }
+                KeysetPagingUtil.setPageParams(ps, startIndex, page);
                 return ps;
             }
         }, new NameserverResultSetExtractor());
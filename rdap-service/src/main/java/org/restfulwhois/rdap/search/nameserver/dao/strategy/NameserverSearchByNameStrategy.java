@@ -33,14 +33,22 @@ package org.restfulwhois.rdap.search.nameserver.dao.strategy;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.restfulwhois.rdap.common.dao.AbstractQueryDao;
 import org.restfulwhois.rdap.common.model.Nameserver;
+import org.restfulwhois.rdap.common.model.base.ModelType;
 import org.restfulwhois.rdap.common.support.PageBean;
 import org.restfulwhois.rdap.common.support.QueryParam;
+import org.restfulwhois.rdap.common.util.SqlUtil;
+import org.restfulwhois.rdap.core.nameserver.dao.impl.NameserverQueryDaoImpl;
 import org.restfulwhois.rdap.core.nameserver.queryparam.NameserverSearchByNameParam;
 import org.restfulwhois.rdap.core.nameserver.queryparam.NameserverSearchParam;
+import org.restfulwhois.rdap.search.common.dao.KeysetPagingUtil;
+import org.restfulwhois.rdap.search.common.dao.ReversedNameIndexDao;
+import org.restfulwhois.rdap.search.common.dao.TrigramIndexDao;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.stereotype.Repository;
@@ -55,60 +63,63 @@ import org.springframework.stereotype.Repository;
 public class NameserverSearchByNameStrategy extends
         AbstractNameserverSearchStrategy {
 
+    /**
+     * trigramIndexDao.
+     */
+    @Autowired
+    private TrigramIndexDao trigramIndexDao;
+
+    /**
+     * reversedNameIndexDao.
+     */
+    @Autowired
+    private ReversedNameIndexDao reversedNameIndexDao;
+
     @Override
     public boolean support(QueryParam queryParam) {
         return queryParam instanceof NameserverSearchByNameParam;
     }
 
-    @Override
-    public Long searchCount(QueryParam queryParam, JdbcTemplate jdbcTemplate) {
-        NameserverSearchParam nsSearchParam =
-                (NameserverSearchParam) queryParam;
-        final String nameserver = nsSearchParam.getQ();
-        final String punyName = nsSearchParam.getPunyName();
-        final String nameserverLikeClause = generateLikeClause(nameserver);
-        final String punyNameLikeClause = generateLikeClause(punyName);
-        final String sql =
-                "select count(1) as COUNT from RDAP_NAMESERVER "
-                        + " where LDH_NAME like ? or UNICODE_NAME like ? ";
-        Long recordsCount = jdbcTemplate.query(new PreparedStatementCreator() {
-            public PreparedStatement createPreparedStatement(
-                    Connection connection) throws SQLException {
-                PreparedStatement ps = connection.prepareStatement(sql);
-                ps.setString(1, punyNameLikeClause);
-                ps.setString(2, nameserverLikeClause);
-                return ps;
-            }
-        }, new CountResultSetExtractor());
-        return recordsCount;
-    }
-
     @Override
     public List<Nameserver> search(QueryParam queryParam,
             JdbcTemplate jdbcTemplate) {
         List<Nameserver> result = null;
         final PageBean page = queryParam.getPageBean();
-        int startPage = page.getCurrentPage() - 1;
-        startPage = startPage >= 0 ? startPage : 0;
-        final long startRow = startPage * page.getMaxRecords();
         NameserverSearchParam nsSearchParam =
                 (NameserverSearchParam) queryParam;
         final String nsName = nsSearchParam.getQ();
         final String punyName = nsSearchParam.getPunyName();
         final String nsNameLikeClause = generateLikeClause(nsName);
         final String punyNameLikeClause = generateLikeClause(punyName);
+        long[] candidateIds =
+                reversedNameIndexDao.findCandidateIds(ModelType.NAMESERVER,
+                        page, punyName, nsName);
+        if (null == candidateIds) {
+            candidateIds =
+                    trigramIndexDao.findCandidateIds(ModelType.NAMESERVER,
+                            punyName, nsName);
+        }
+        String candidateClause = "";
+        if (null != candidateIds) {
+            if (0 == candidateIds.length) {
+                return new ArrayList<Nameserver>();
+            }
+            candidateClause =
+                    SqlUtil.generateIdInClause(ID_COLUMN,
+                            candidateIds);
+        }
         final String sql =
-                "select * from RDAP_NAMESERVER ns "
-                        + " where LDH_NAME like ? or UNICODE_NAME like ?"
-                        + " order by ns.LDH_NAME limit ?,? ";
+                "select " + NameserverQueryDaoImpl.NAMESERVER_COLUMNS.toSql()
+                        + " from RDAP_NAMESERVER ns "
+                        + " where (LDH_NAME like ? or UNICODE_NAME like ?) "
+                        + candidateClause + generatePageClause(page);
         result = jdbcTemplate.query(new PreparedStatementCreator() {
             public PreparedStatement createPreparedStatement(
                     Connection connection) throws SQLException {
                 PreparedStatement ps = connection.prepareStatement(sql);
                 ps.setString(1, punyNameLikeClause);
                 ps.setString(2, nsNameLikeClause);
-                ps.setLong(3, startRow);
-                ps.setLong(4, page.getMaxRecords());
+                KeysetPagingUtil.setPageParams(ps, 3, page);
                 return ps;
             }
         }, new NameserverResultSetExtractor());
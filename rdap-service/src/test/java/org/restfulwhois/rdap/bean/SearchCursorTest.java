@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.bean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.restfulwhois.rdap.common.support.PageBean;
+import org.restfulwhois.rdap.common.support.SearchCursor;
+import org.restfulwhois.rdap.search.common.dao.KeysetPagingUtil;
+
+/**
+ * test for SearchCursor.
+ * 
+ * @author jiashuo
+ * 
+ */
+public class SearchCursorTest {
+
+    /**
+     * test encode and decode.
+     */
+    @Test
+    public void test_encode_decode() {
+        SearchCursor cursor = new SearchCursor("xn--fiqs8s.cn:a&b=c", 12L);
+        String encoded = cursor.encode();
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"));
+        SearchCursor decoded = SearchCursor.decode(encoded);
+        assertEquals("xn--fiqs8s.cn:a&b=c", decoded.getSortKey());
+        assertEquals(12L, decoded.getId());
+        decoded = SearchCursor.decode(new SearchCursor(null, 1L).encode());
+        assertEquals("", decoded.getSortKey());
+    }
+
+    /**
+     * test decode invalid cursor.
+     */
+    @Test
+    public void test_decode_invalid() {
+        assertNull(SearchCursor.decode(null));
+        assertNull(SearchCursor.decode(" "));
+        assertNull(SearchCursor.decode("not a cursor"));
+        assertNull(SearchCursor.decode("YWJj"));
+    }
+
+    /**
+     * test page clause.
+     */
+    @Test
+    public void test_generatePageClause() {
+        PageBean page = new PageBean(100);
+        String clause =
+                KeysetPagingUtil.generatePageClause(page, "d.LDH_NAME",
+                        "d.DOMAIN_ID");
+        assertFalse(clause.contains(">"));
+        assertTrue(clause.contains("order by d.LDH_NAME,d.DOMAIN_ID limit ?"));
+        page.setCursor(new SearchCursor("a.cn", 1L));
+        clause =
+                KeysetPagingUtil.generatePageClause(page, "d.LDH_NAME",
+                        "d.DOMAIN_ID");
+        assertTrue(clause.contains("and (d.LDH_NAME > ? or "
+                + "(d.LDH_NAME = ? and d.DOMAIN_ID > ?))"));
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+/**
+ * Test for ObjectCache.
+ * 
+ * @author jiashuo
+ * 
+ */
+public class ObjectCacheTest {
+
+    @Test
+    public void test_get_put() {
+        ObjectCache<String, String> cache =
+                new ObjectCache<String, String>(100, 1000);
+        assertNull(cache.get("a", 0));
+        cache.put("a", "A", Collections.<String> emptyList(),
+                cache.generation(), 0);
+        assertEquals("A", cache.get("a", 999));
+        assertNull(cache.get("a", 1000));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getStats().getHits());
+        assertEquals(2, cache.getStats().getMisses());
+    }
+
+    @Test
+    public void test_disabled() {
+        ObjectCache<String, String> cache =
+                new ObjectCache<String, String>(0, 1000);
+        assertFalse(cache.isEnabled());
+        cache.put("a", "A", Collections.<String> emptyList(),
+                cache.generation(), 0);
+        assertNull(cache.get("a", 0));
+    }
+
+    @Test
+    public void test_invalidate() {
+        ObjectCache<String, String> cache =
+                new ObjectCache<String, String>(100, 1000);
+        cache.put("a", "A", Arrays.asList("domain:a", "entity:e"),
+                cache.generation(), 0);
+        cache.put("b", "B", Arrays.asList("domain:b", "entity:e"),
+                cache.generation(), 0);
+        cache.put("c", "C", Arrays.asList("domain:c"), cache.generation(), 0);
+        cache.invalidate("entity:e");
+        assertNull(cache.get("a", 0));
+        assertNull(cache.get("b", 0));
+        assertEquals("C", cache.get("c", 0));
+        assertEquals(2, cache.getStats().getInvalidations());
+    }
+
+    @Test
+    public void test_put_after_invalidate() {
+        ObjectCache<String, String> cache =
+                new ObjectCache<String, String>(100, 1000);
+        long generation = cache.generation();
+        cache.invalidate("domain:a");
+        cache.put("a", "A", Arrays.asList("domain:a"), generation, 0);
+        assertNull(cache.get("a", 0));
+    }
+
+    @Test
+    public void test_admission() {
+        ObjectCache<String, String> cache =
+                new ObjectCache<String, String>(10, 1000);
+        for (int i = 0; i < 9; i++) {
+            String key = "hot" + i;
+            cache.put(key, key, Collections.<String> emptyList(),
+                    cache.generation(), 0);
+            for (int j = 0; j < 3; j++) {
+                cache.get(key, 0);
+            }
+        }
+        for (int i = 0; i < 100; i++) {
+            String key = "cold" + i;
+            cache.get(key, 0);
+            cache.put(key, key, Collections.<String> emptyList(),
+                    cache.generation(), 0);
+        }
+        assertTrue(cache.size() <= 10);
+        for (int i = 0; i < 9; i++) {
+            assertEquals("hot" + i, cache.get("hot" + i, 0));
+        }
+        assertTrue(cache.getStats().getEvictions() >= 90);
+    }
+}
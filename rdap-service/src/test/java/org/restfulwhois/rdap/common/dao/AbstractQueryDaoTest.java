@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.dao;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Test for id helpers of AbstractQueryDao.
+ * 
+ * @author jiashuo
+ * 
+ */
+public class AbstractQueryDaoTest {
+
+    @Test
+    public void test_getDistinctIds() {
+        assertEquals(Arrays.asList(3L, 1L, 2L), AbstractQueryDao
+                .getDistinctIds(Arrays.asList(3L, 1L, null, 3L, 2L)));
+        assertEquals(0, AbstractQueryDao.getDistinctIds(null).size());
+    }
+
+    @Test
+    public void test_splitIds() {
+        assertEquals(0, AbstractQueryDao.splitIds(new ArrayList<Long>())
+                .size());
+        List<Long> ids = new ArrayList<Long>();
+        for (long i = 0; i < AbstractQueryDao.MAX_IDS_IN_CLAUSE * 2 + 1; i++) {
+            ids.add(i);
+        }
+        List<List<Long>> idsList = AbstractQueryDao.splitIds(ids);
+        assertEquals(3, idsList.size());
+        assertEquals(AbstractQueryDao.MAX_IDS_IN_CLAUSE, idsList.get(0)
+                .size());
+        assertEquals(Long.valueOf(AbstractQueryDao.MAX_IDS_IN_CLAUSE),
+                idsList.get(1).get(0));
+        assertEquals(1, idsList.get(2).size());
+        assertEquals("1000", AbstractQueryDao.joinIds(idsList.get(2)));
+    }
+
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSetMetaData;
+
+import org.junit.Test;
+
+/**
+ * Test for ColumnProjection.
+ * 
+ * @author jiashuo
+ * 
+ */
+public class ColumnProjectionTest {
+
+    @Test
+    public void test_toSql_and_index() {
+        ColumnProjection columns =
+                new ColumnProjection("domain", "DOMAIN_ID", "HANDLE");
+        assertEquals("domain.DOMAIN_ID,domain.HANDLE", columns.toSql());
+        assertEquals(1, columns.get("DOMAIN_ID").getIndex());
+        assertEquals(2, columns.get("HANDLE").getIndex());
+        assertEquals("domain.HANDLE", columns.get("HANDLE")
+                .getQualifiedName());
+    }
+
+    @Test
+    public void test_join_keep_index() {
+        ColumnProjection columns =
+                new ColumnProjection("ns", "NAMESERVER_ID", "HANDLE");
+        ColumnProjection joined = columns.join("status", "STATUS");
+        assertEquals("ns.NAMESERVER_ID,ns.HANDLE,status.STATUS",
+                joined.toSql());
+        assertEquals(2, joined.get("HANDLE").getIndex());
+        assertEquals(3, joined.get("STATUS").getIndex());
+        assertEquals("ns.NAMESERVER_ID,ns.HANDLE", columns.toSql());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_get_not_in_projection() {
+        new ColumnProjection("domain", "DOMAIN_ID").get("HANDLE");
+    }
+
+    @Test
+    public void test_optional_column_exists() throws Exception {
+        ColumnProjection columns =
+                new ColumnProjection("t", "ID").optional("t",
+                        "TEST_OPTIONAL_EXISTS", "CUSTOM_PROPERTIES");
+        assertEquals("t.ID,t.CUSTOM_PROPERTIES", columns.toSql());
+        assertTrue(ColumnProjection.getUnresolvedTables().contains(
+                "TEST_OPTIONAL_EXISTS"));
+        ColumnProjection.resolveOptionalColumns("TEST_OPTIONAL_EXISTS",
+                createMetaData("id", "custom_properties"));
+        assertFalse(ColumnProjection.getUnresolvedTables().contains(
+                "TEST_OPTIONAL_EXISTS"));
+        assertEquals("t.ID,t.CUSTOM_PROPERTIES", columns.toSql());
+    }
+
+    @Test
+    public void test_optional_column_not_exists() throws Exception {
+        ColumnProjection columns =
+                new ColumnProjection("t", "ID").optional("t",
+                        "TEST_OPTIONAL_NOT_EXISTS", "CUSTOM_PROPERTIES");
+        ColumnProjection joined = columns.join("s", "STATUS");
+        ColumnProjection.resolveOptionalColumns("TEST_OPTIONAL_NOT_EXISTS",
+                createMetaData("ID"));
+        assertEquals("t.ID,null as CUSTOM_PROPERTIES", columns.toSql());
+        assertEquals("t.ID,null as CUSTOM_PROPERTIES,s.STATUS",
+                joined.toSql());
+        assertEquals(2, joined.get("CUSTOM_PROPERTIES").getIndex());
+        assertEquals(3, joined.get("STATUS").getIndex());
+    }
+
+    /**
+     * create metadata with column labels.
+     * 
+     * @param labels
+     *            column labels.
+     * @return metadata.
+     */
+    private ResultSetMetaData createMetaData(final String... labels) {
+        return (ResultSetMetaData) Proxy.newProxyInstance(getClass()
+                .getClassLoader(), new Class<?>[] {ResultSetMetaData.class},
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method,
+                            Object[] args) {
+                        if ("getColumnCount".equals(method.getName())) {
+                            return labels.length;
+                        }
+                        if ("getColumnLabel".equals(method.getName())) {
+                            return labels[(Integer) args[0] - 1];
+                        }
+                        throw new UnsupportedOperationException(
+                                method.getName());
+                    }
+                });
+    }
+}
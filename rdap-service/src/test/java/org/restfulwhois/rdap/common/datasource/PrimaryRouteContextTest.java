@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.datasource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.restfulwhois.rdap.common.dao.QueryDao;
+import org.restfulwhois.rdap.common.dao.impl.QueryCacheDao;
+import org.restfulwhois.rdap.common.dto.DomainDto;
+import org.restfulwhois.rdap.common.dto.UpdateResponse;
+import org.restfulwhois.rdap.common.model.Domain;
+import org.restfulwhois.rdap.common.model.base.ModelType;
+import org.restfulwhois.rdap.common.service.UpdateService;
+import org.restfulwhois.rdap.common.support.RdapProperties;
+import org.restfulwhois.rdap.core.domain.queryparam.DomainQueryParam;
+import org.springframework.aop.framework.Advised;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Test of data source routing in spring context, with stub primary and
+ * replica.
+ * 
+ * @author jiashuo
+ * 
+ */
+public class PrimaryRouteContextTest {
+
+    private static ClassPathXmlApplicationContext context;
+
+    private static StubDataSource primary;
+
+    private static StubDataSource replica;
+
+    @BeforeClass
+    public static void beforeClass() {
+        context =
+                new ClassPathXmlApplicationContext(
+                        "classpath:spring/spring-dataSource-test.xml");
+        primary =
+                context.getBean("primaryDataSource", StubDataSource.class);
+        replica = context.getBean("replicaDataSource", StubDataSource.class);
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        context.close();
+        RdapProperties properties = new RdapProperties();
+        properties.setQueryCacheMaxEntries(null);
+        properties.setQueryCachePrimaryLoadWindow(null);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void test_updateService_primaryInTransaction() throws Exception {
+        UpdateService<DomainDto, Domain> service =
+                context.getBean("recordingUpdateService", UpdateService.class);
+        int replicaOpened = replica.opened;
+        int primaryCommitted = primary.committed;
+        service.execute(createDto("h1"));
+        RecordingUpdateService target =
+                (RecordingUpdateService) ((Advised) service)
+                        .getTargetSource().getTarget();
+        assertTrue(target.inTransaction);
+        assertSame(primary.lastConnection, target.connection);
+        assertEquals(primaryCommitted + 1, primary.committed);
+        assertEquals(replicaOpened, replica.opened);
+        context.getBean("dataSource", DataSource.class).getConnection()
+                .close();
+        assertEquals(replicaOpened + 1, replica.opened);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void test_cacheMissLoad_fromPrimaryAfterInvalidation() {
+        UpdateService<DomainDto, Domain> service =
+                context.getBean("recordingUpdateService", UpdateService.class);
+        service.execute(createDto("h2"));
+        int primaryOpened = primary.opened;
+        int replicaOpened = replica.opened;
+        QueryCacheDao queryCacheDao = context.getBean(QueryCacheDao.class);
+        queryCacheDao.query(ModelType.DOMAIN, new DomainQueryParam("h2.cn",
+                "h2.cn"), stubQueryDao(), false);
+        assertEquals(primaryOpened + 1, primary.opened);
+        assertEquals(replicaOpened, replica.opened);
+    }
+
+    private static DomainDto createDto(String handle) {
+        DomainDto dto = new DomainDto();
+        dto.setHandle(handle);
+        return dto;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static QueryDao<Domain> stubQueryDao() {
+        final DataSource dataSource =
+                context.getBean("dataSource", DataSource.class);
+        return (QueryDao<Domain>) Proxy.newProxyInstance(
+                QueryDao.class.getClassLoader(),
+                new Class<?>[] { QueryDao.class }, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method,
+                            Object[] args) throws SQLException {
+                        dataSource.getConnection().close();
+                        Domain domain = new Domain();
+                        domain.setHandle("h2");
+                        return domain;
+                    }
+                });
+    }
+
+    /**
+     * update service which records connection in transaction.
+     */
+    public static class RecordingUpdateService implements
+            UpdateService<DomainDto, Domain> {
+        private DataSource dataSource;
+
+        private QueryCacheDao queryCacheDao;
+
+        private Connection connection;
+
+        private boolean inTransaction;
+
+        @Override
+        public UpdateResponse execute(DomainDto dto) {
+            connection = DataSourceUtils.getConnection(dataSource);
+            inTransaction =
+                    TransactionSynchronizationManager
+                            .isActualTransactionActive();
+            DataSourceUtils.releaseConnection(connection, dataSource);
+            Domain domain = new Domain();
+            domain.setHandle(dto.getHandle());
+            queryCacheDao.invalidate(domain);
+            return UpdateResponse.buildSuccessResponse(dto.getHandle());
+        }
+
+        public void setDataSource(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        public void setQueryCacheDao(QueryCacheDao queryCacheDao) {
+            this.queryCacheDao = queryCacheDao;
+        }
+    }
+
+    /**
+     * data source which counts opened connections and commits.
+     */
+    public static class StubDataSource extends AbstractDataSource {
+        private int opened;
+
+        private int committed;
+
+        private Connection lastConnection;
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            opened++;
+            lastConnection =
+                    (Connection) Proxy.newProxyInstance(
+                            Connection.class.getClassLoader(),
+                            new Class<?>[] { Connection.class },
+                            new InvocationHandler() {
+                                @Override
+                                public Object invoke(Object proxy,
+                                        Method method, Object[] args) {
+                                    if ("commit".equals(method.getName())) {
+                                        committed++;
+                                    }
+                                    if (boolean.class == method
+                                            .getReturnType()) {
+                                        return true;
+                                    }
+                                    if (int.class == method.getReturnType()) {
+                                        return 0;
+                                    }
+                                    return null;
+                                }
+                            });
+            return lastConnection;
+        }
+
+        @Override
+        public Connection getConnection(String username, String password)
+                throws SQLException {
+            return getConnection();
+        }
+    }
+}
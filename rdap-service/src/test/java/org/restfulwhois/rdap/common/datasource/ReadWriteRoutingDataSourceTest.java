@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.datasource;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+import javax.sql.DataSource;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+/**
+ * Test for ReadWriteRoutingDataSource.
+ * 
+ * @author jiashuo
+ * 
+ */
+public class ReadWriteRoutingDataSourceTest {
+
+    private StubDataSource primary = new StubDataSource();
+
+    private StubDataSource replica1 = new StubDataSource();
+
+    private StubDataSource replica2 = new StubDataSource();
+
+    @After
+    public void after() {
+        DataSourceRouteHolder.setPrimary(false);
+    }
+
+    @Test
+    public void test_noReplica_readFromPrimary() throws SQLException {
+        ReadWriteRoutingDataSource dataSource =
+                new ReadWriteRoutingDataSource();
+        dataSource.setPrimary(primary);
+        dataSource.setReplicas(null);
+        dataSource.getConnection().close();
+        assertEquals(1, primary.opened);
+    }
+
+    @Test
+    public void test_roundRobin() throws SQLException {
+        ReadWriteRoutingDataSource dataSource = createDataSource(null);
+        for (int i = 0; i < 4; i++) {
+            dataSource.getConnection().close();
+        }
+        assertEquals(0, primary.opened);
+        assertEquals(2, replica1.opened);
+        assertEquals(2, replica2.opened);
+    }
+
+    @Test
+    public void test_primaryRoute() throws SQLException {
+        ReadWriteRoutingDataSource dataSource = createDataSource(null);
+        boolean previous = DataSourceRouteHolder.setPrimary(true);
+        dataSource.getConnection().close();
+        DataSourceRouteHolder.setPrimary(previous);
+        dataSource.getConnection().close();
+        assertEquals(1, primary.opened);
+        assertEquals(1, replica1.opened + replica2.opened);
+    }
+
+    @Test
+    public void test_replicaDown_and_up() throws SQLException {
+        ReadWriteRoutingDataSource dataSource = createDataSource(null);
+        replica1.down = true;
+        for (int i = 0; i < 4; i++) {
+            dataSource.getConnection().close();
+        }
+        assertEquals(0, replica1.opened);
+        assertEquals(4, replica2.opened);
+        replica1.down = false;
+        dataSource.getConnection().close();
+        assertEquals(0, replica1.opened);
+        dataSource.checkReplicas();
+        assertEquals(1, replica1.opened);
+        for (int i = 0; i < 4; i++) {
+            dataSource.getConnection().close();
+        }
+        assertEquals(3, replica1.opened);
+    }
+
+    @Test
+    public void test_failureThreshold() throws SQLException {
+        ReadWriteRoutingDataSource dataSource = createDataSource(null);
+        replica1.down = true;
+        for (int i = 0; i < 2; i++) {
+            dataSource.getConnection().close();
+        }
+        replica1.down = false;
+        dataSource.getConnection().close();
+        assertEquals(1, replica1.opened);
+        dataSource.getConnection().close();
+        replica1.down = true;
+        for (int i = 0; i < 2; i++) {
+            dataSource.getConnection().close();
+        }
+        replica1.down = false;
+        dataSource.getConnection().close();
+        assertEquals(2, replica1.opened);
+        dataSource.setFailureThreshold(1);
+        dataSource.getConnection().close();
+        replica1.down = true;
+        dataSource.getConnection().close();
+        replica1.down = false;
+        for (int i = 0; i < 2; i++) {
+            dataSource.getConnection().close();
+        }
+        assertEquals(2, replica1.opened);
+    }
+
+    @Test
+    public void test_allReplicasDown_readFromPrimary() throws SQLException {
+        ReadWriteRoutingDataSource dataSource = createDataSource(null);
+        replica1.down = true;
+        replica2.down = true;
+        dataSource.getConnection().close();
+        assertEquals(1, primary.opened);
+    }
+
+    @Test
+    public void test_leastConnections() throws SQLException {
+        ReadWriteRoutingDataSource dataSource =
+                createDataSource(
+                        ReadWriteRoutingDataSource.STRATEGY_LEAST_CONNECTIONS);
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+        assertEquals(1, replica1.opened);
+        assertEquals(1, replica2.opened);
+        first.close();
+        first.close();
+        dataSource.getConnection();
+        assertEquals(2, replica1.opened);
+        second.close();
+        dataSource.getConnection();
+        assertEquals(2, replica2.opened);
+    }
+
+    @Test
+    public void test_readYourWritesWindow() throws SQLException {
+        ReadWriteRoutingDataSource dataSource = createDataSource(null);
+        dataSource.markWrite();
+        dataSource.getConnection().close();
+        assertEquals(0, primary.opened);
+        dataSource.setReadYourWritesWindow(60000);
+        dataSource.markWrite();
+        dataSource.getConnection().close();
+        assertEquals(1, primary.opened);
+    }
+
+    private ReadWriteRoutingDataSource createDataSource(String strategy) {
+        ReadWriteRoutingDataSource dataSource =
+                new ReadWriteRoutingDataSource();
+        dataSource.setPrimary(primary);
+        dataSource.setReplicas(Arrays.<DataSource> asList(replica1,
+                replica2));
+        dataSource.setSelectionStrategy(strategy);
+        return dataSource;
+    }
+
+    /**
+     * data source which counts opened connections.
+     */
+    private static class StubDataSource extends AbstractDataSource {
+        private int opened;
+
+        private boolean down;
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) {
+                throw new SQLException("down");
+            }
+            opened++;
+            return (Connection) stub(Connection.class);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password)
+                throws SQLException {
+            return getConnection();
+        }
+
+        private static Object stub(final Class<?> type) {
+            return Proxy.newProxyInstance(type.getClassLoader(),
+                    new Class<?>[] { type }, new InvocationHandler() {
+                        @Override
+                        public Object invoke(Object proxy, Method method,
+                                Object[] args) {
+                            if ("createStatement".equals(method.getName())) {
+                                return stub(Statement.class);
+                            }
+                            if (boolean.class == method.getReturnType()) {
+                                return true;
+                            }
+                            return null;
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test for AclIndex.
+ * 
+ * @author jiashuo
+ * 
+ */
+public class AclIndexTest {
+
+    @Test
+    public void test_hasEntry() {
+        AclIndex index =
+                new AclIndex.Builder().addEntry("domain", 10, 1)
+                        .addEntry("domain", 3, 2).addEntry("domain", 3, 1)
+                        .addEntry("entity", 10, 3).addUserRole(100, 1)
+                        .addUserRole(200, 2).addUserRole(200, 4).build();
+        assertEquals(3, index.size());
+        assertTrue(index.isSecure("domain", 10));
+        assertTrue(index.isSecure("domain", 3));
+        assertFalse(index.isSecure("domain", 4));
+        assertFalse(index.isSecure("nameServer", 10));
+        assertTrue(index.isSecure("entity", 10));
+        assertTrue(index.hasEntry(100, "domain", 10));
+        assertTrue(index.hasEntry(100, "domain", 3));
+        assertFalse(index.hasEntry(200, "domain", 10));
+        assertTrue(index.hasEntry(200, "domain", 3));
+        assertFalse(index.hasEntry(100, "entity", 10));
+        assertFalse(index.hasEntry(0, "domain", 10));
+        assertFalse(index.hasEntry(100, "domain", 4));
+    }
+
+    @Test
+    public void test_fingerprint() {
+        AclIndex index =
+                new AclIndex.Builder().addEntry("domain", 10, 1)
+                        .addEntry("domain", 3, 2).addUserRole(100, 1).build();
+        AclIndex reordered =
+                new AclIndex.Builder().addUserRole(100, 1)
+                        .addEntry("domain", 3, 2).addEntry("domain", 10, 1)
+                        .build();
+        assertEquals(index.getFingerprint(), reordered.getFingerprint());
+        AclIndex changed =
+                new AclIndex.Builder().addEntry("domain", 10, 1)
+                        .addEntry("domain", 3, 2).addUserRole(100, 2).build();
+        assertFalse(index.getFingerprint() == changed.getFingerprint());
+        assertFalse(index.getFingerprint() == AclIndex.EMPTY
+                .getFingerprint());
+    }
+
+    @Test
+    public void test_empty() {
+        assertEquals(0, AclIndex.EMPTY.size());
+        assertFalse(AclIndex.EMPTY.isSecure("domain", 1));
+        assertFalse(AclIndex.EMPTY.hasEntry(1, "domain", 1));
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.index;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Test for AutnumIndex.
+ * 
+ * @author jiashuo
+ * 
+ */
+public class AutnumIndexTest {
+
+    @Test
+    public void test_put_and_remove() {
+        AutnumIndex index = new AutnumIndex();
+        List<long[]> ranges = new ArrayList<long[]>();
+        ranges.add(new long[] { 1, 100, 1 });
+        ranges.add(new long[] { 50, 60, 2 });
+        index.load(ranges);
+        assertEquals(2, index.findSmallest(55));
+        index.put(55, 56, 3);
+        assertEquals(3, index.findSmallest(55));
+        assertEquals(2, index.findSmallest(57));
+        index.put(70, 80, 2);
+        assertEquals(1, index.findSmallest(57));
+        assertEquals(2, index.findSmallest(75));
+        index.remove(3);
+        assertEquals(1, index.findSmallest(55));
+        index.remove(1);
+        assertEquals(LongRangeIndex.NOT_FOUND, index.findSmallest(55));
+        assertEquals(2, index.findSmallest(75));
+    }
+
+    @Test
+    public void test_compact() {
+        AutnumIndex index = new AutnumIndex(2);
+        index.load(new ArrayList<long[]>());
+        for (long i = 1; i <= 5; i++) {
+            index.put(i * 10, i * 10 + 5, i);
+        }
+        assertEquals(5, index.size());
+        for (long i = 1; i <= 5; i++) {
+            assertEquals(i, index.findSmallest(i * 10 + 1));
+        }
+        index.remove(1);
+        index.remove(2);
+        index.remove(3);
+        assertEquals(LongRangeIndex.NOT_FOUND, index.findSmallest(11));
+        assertEquals(5, index.findSmallest(51));
+        assertEquals(4, index.size());
+    }
+}
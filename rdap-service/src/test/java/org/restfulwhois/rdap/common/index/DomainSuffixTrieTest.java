@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Test for DomainSuffixTrie.
+ * 
+ * @author jiashuo
+ * 
+ */
+public class DomainSuffixTrieTest {
+
+    @Test
+    public void test_findLongestSuffix() {
+        Map<String, String> entries = new HashMap<String, String>();
+        entries.put("cn", "url-cn");
+        entries.put("com.cn", "url-com-cn");
+        entries.put("xn--fiqs8s", "url-idn");
+        entries.put(".", "url-root");
+        entries.put("", "url-blank");
+        DomainSuffixTrie<String> trie = new DomainSuffixTrie<String>(entries);
+        assertEquals(4, trie.size());
+        assertEquals("url-cn", trie.findLongestSuffix("cn"));
+        assertEquals("url-cn", trie.findLongestSuffix("net.cn"));
+        assertEquals("url-com-cn", trie.findLongestSuffix("com.cn"));
+        assertEquals("url-com-cn", trie.findLongestSuffix("a.com.cn"));
+        assertEquals("url-cn", trie.findLongestSuffix("acom.cn"));
+        assertEquals("url-com-cn", trie.findLongestSuffix("COM.CN"));
+        assertEquals("url-idn", trie.findLongestSuffix("xn--fiqs8s"));
+        assertEquals("url-root", trie.findLongestSuffix("."));
+        assertNull(trie.findLongestSuffix("ccn"));
+        assertNull(trie.findLongestSuffix("com"));
+        assertNull(trie.findLongestSuffix(""));
+        assertNull(trie.findLongestSuffix(null));
+    }
+}
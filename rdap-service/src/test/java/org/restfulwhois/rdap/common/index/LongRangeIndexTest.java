@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.index;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Test for LongRangeIndex.
+ * 
+ * @author jiashuo
+ * 
+ */
+public class LongRangeIndexTest {
+
+    @Test
+    public void test_findSmallest() {
+        LongRangeIndex index =
+                new LongRangeIndex(new long[] { 1, 50, 5, 200, 300, 9 },
+                        new long[] { 100, 60, 1000, 300, 4294967295L, 8 },
+                        new long[] { 1, 2, 3, 4, 5, 6 });
+        assertEquals(5, index.size());
+        assertEquals(LongRangeIndex.NOT_FOUND, index.findSmallest(0));
+        assertEquals(1, index.findSmallest(1));
+        assertEquals(1, index.findSmallest(7));
+        assertEquals(2, index.findSmallest(50));
+        assertEquals(2, index.findSmallest(60));
+        assertEquals(1, index.findSmallest(61));
+        assertEquals(1, index.findSmallest(100));
+        assertEquals(3, index.findSmallest(101));
+        assertEquals(4, index.findSmallest(200));
+        assertEquals(4, index.findSmallest(300));
+        assertEquals(3, index.findSmallest(301));
+        assertEquals(3, index.findSmallest(1000));
+        assertEquals(5, index.findSmallest(1001));
+        assertEquals(5, index.findSmallest(4294967295L));
+        assertEquals(LongRangeIndex.NOT_FOUND,
+                index.findSmallest(4294967296L));
+    }
+
+    @Test
+    public void test_findSmallest_excluded_and_extra() {
+        LongRangeIndex index =
+                new LongRangeIndex(new long[] { 1, 50, 5 }, new long[] { 100,
+                        60, 1000 }, new long[] { 1, 2, 3 });
+        Set<Long> excluded = new HashSet<Long>();
+        excluded.add(2L);
+        List<long[]> extra = new ArrayList<long[]>();
+        extra.add(new long[] { 55, 56, 4 });
+        assertEquals(1, index.findSmallest(50, excluded, null));
+        assertEquals(4, index.findSmallest(55, excluded, extra));
+        assertEquals(1, index.findSmallest(57, excluded, extra));
+        excluded.add(1L);
+        assertEquals(3, index.findSmallest(50, excluded, extra));
+        assertEquals(LongRangeIndex.NOT_FOUND,
+                index.findSmallest(1, excluded, extra));
+        assertEquals(1, index.getRanges(excluded).size());
+        assertEquals(3, index.getRanges(excluded).get(0)[2]);
+    }
+
+    @Test
+    public void test_findSmallest_empty() {
+        LongRangeIndex index =
+                new LongRangeIndex(new long[0], new long[0], new long[0]);
+        assertEquals(0, index.size());
+        assertEquals(LongRangeIndex.NOT_FOUND, index.findSmallest(1));
+    }
+}
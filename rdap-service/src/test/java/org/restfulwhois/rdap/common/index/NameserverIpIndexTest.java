@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.index;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.restfulwhois.rdap.common.model.IpVersion;
+import org.restfulwhois.rdap.common.util.IpUtil;
+
+/**
+ * Test for NameserverIpIndex.
+ * 
+ * @author jiashuo
+ * 
+ */
+public class NameserverIpIndexTest {
+
+    @Test
+    public void test_find() {
+        NameserverIpIndex index = new NameserverIpIndex();
+        index.load(new NameserverIpIndex.Builder()
+                .addNameserverIp(2, "ns0.b.cn", ip("1.1.1.1"))
+                .addNameserverIp(1, "ns1.a.cn", ip("1.1.1.1"))
+                .addNameserverIp(1, "ns1.a.cn", ip("::1.1.1.1"))
+                .addNameserverIp(3, "ns3.a.cn", ip("2001::1"))
+                .addDomainNameserver(20, "a.cn", 1)
+                .addDomainNameserver(10, "z.cn", 2)
+                .addDomainNameserver(20, "a.cn", 2)
+                .addDomainNameserver(30, "m.cn", 3));
+        assertEquals(3, index.size());
+        assertArrayEquals(new long[] { 1, 2 },
+                index.findNameserverIds(ip("1.1.1.1"), null, 0, 10));
+        assertArrayEquals(new long[] { 2 },
+                index.findNameserverIds(ip("1.1.1.1"), null, 0, 1));
+        assertArrayEquals(new long[] { 1 },
+                index.findNameserverIds(ip("1.1.1.1"), "NS0.b.cn", 2, 1));
+        assertArrayEquals(new long[] { 1 },
+                index.findNameserverIds(ip("::1.1.1.1"), null, 0, 10));
+        assertArrayEquals(new long[] { 10, 20 },
+                index.findDomainIds(ip("1.1.1.1"), null, 0, 10));
+        assertArrayEquals(new long[] { 20 },
+                index.findDomainIds(ip("1.1.1.1"), null, 0, 1));
+        assertArrayEquals(new long[] { 10 },
+                index.findDomainIds(ip("1.1.1.1"), "a.cn", 20, 1));
+        assertArrayEquals(new long[0],
+                index.findDomainIds(ip("1.1.1.1"), "z.cn", 10, 1));
+        assertArrayEquals(new long[] { 30 },
+                index.findDomainIds(ip("2001::1"), null, 0, 10));
+        assertArrayEquals(new long[0],
+                index.findDomainIds(ip("1.1.1.2"), null, 0, 10));
+        assertArrayEquals(new long[0],
+                index.findNameserverIds(new byte[3], null, 0, 10));
+    }
+
+    @Test
+    public void test_put() {
+        NameserverIpIndex index = new NameserverIpIndex();
+        index.load(new NameserverIpIndex.Builder()
+                .addNameserverIp(1, "ns1.cn", ip("1.1.1.1"))
+                .addDomainNameserver(10, "b.cn", 1));
+        index.putNameserver(2, "ns2.cn",
+                Arrays.asList(ip("1.1.1.1"), ip("2.2.2.2")));
+        index.putDomain(20, "a.cn", new long[] { 2, 2 });
+        assertArrayEquals(new long[] { 1, 2 },
+                index.findNameserverIds(ip("1.1.1.1"), null, 0, 10));
+        assertArrayEquals(new long[] { 10, 20 },
+                index.findDomainIds(ip("1.1.1.1"), null, 0, 10));
+        assertArrayEquals(new long[] { 20 },
+                index.findDomainIds(ip("1.1.1.1"), null, 0, 1));
+        index.putDomain(20, "c.cn", new long[] { 1, 2 });
+        assertArrayEquals(new long[] { 10 },
+                index.findDomainIds(ip("1.1.1.1"), null, 0, 1));
+        assertArrayEquals(new long[] { 20 },
+                index.findDomainIds(ip("1.1.1.1"), "b.cn", 10, 10));
+        index.putNameserver(1, "ns1.cn", Arrays.asList(ip("3.3.3.3")));
+        assertArrayEquals(new long[] { 2 },
+                index.findNameserverIds(ip("1.1.1.1"), null, 0, 10));
+        assertArrayEquals(new long[] { 20 },
+                index.findDomainIds(ip("1.1.1.1"), null, 0, 10));
+        assertArrayEquals(new long[] { 10, 20 },
+                index.findDomainIds(ip("3.3.3.3"), null, 0, 10));
+        index.removeDomain(20);
+        index.removeNameserver(2);
+        assertArrayEquals(new long[0],
+                index.findNameserverIds(ip("2.2.2.2"), null, 0, 10));
+        assertArrayEquals(new long[0],
+                index.findDomainIds(ip("1.1.1.1"), null, 0, 10));
+        assertArrayEquals(new long[] { 10 },
+                index.findDomainIds(ip("3.3.3.3"), null, 0, 10));
+        assertEquals(1, index.size());
+    }
+
+    /**
+     * get IP bytes.
+     * 
+     * @param ip
+     *            ip.
+     * @return bytes.
+     */
+    private static byte[] ip(String ip) {
+        IpVersion ipVersion = IpUtil.getIpVersionOfIp(ip);
+        return IpUtil.ipToByteArray(ip, ipVersion);
+    }
+}
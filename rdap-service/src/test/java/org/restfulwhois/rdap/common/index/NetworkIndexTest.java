@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.index;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.restfulwhois.rdap.common.model.IpVersion;
+import org.restfulwhois.rdap.common.util.IpUtil;
+import org.restfulwhois.rdap.common.util.NetworkInBytes;
+
+/**
+ * Test for NetworkIndex.
+ * 
+ * @author jiashuo
+ * 
+ */
+public class NetworkIndexTest {
+
+    @Test
+    public void test_findMostSpecific_v4() {
+        NetworkIndex index = new NetworkIndex();
+        List<NetworkRange> ranges = new ArrayList<NetworkRange>();
+        ranges.add(range("1.0.0.0", "1.255.255.255", 1L));
+        ranges.add(range("1.1.0.0", "1.1.255.255", 2L));
+        ranges.add(range("1.1.1.0", "1.1.1.255", 3L));
+        ranges.add(range("1.2.0.0", "1.2.255.255", 4L));
+        ranges.add(range("200.0.0.0", "255.255.255.255", 5L));
+        index.load(ranges);
+        assertEquals(3L, index.findMostSpecific(network("1.1.1.1/32")));
+        assertEquals(2L, index.findMostSpecific(network("1.1.2.0/24")));
+        assertEquals(1L, index.findMostSpecific(network("1.3.0.0/16")));
+        assertEquals(4L, index.findMostSpecific(network("1.2.3.4/32")));
+        assertEquals(1L, index.findMostSpecific(network("1.1.0.0/15")));
+        assertEquals(5L, index.findMostSpecific(network("255.1.1.1/32")));
+        assertEquals(NetworkRangeIndex.NOT_FOUND,
+                index.findMostSpecific(network("2.0.0.0/8")));
+        assertEquals(NetworkRangeIndex.NOT_FOUND,
+                index.findMostSpecific(network("0.0.0.0/0")));
+        assertEquals(NetworkRangeIndex.NOT_FOUND,
+                index.findMostSpecific(network("1::/64")));
+    }
+
+    @Test
+    public void test_findMostSpecific_v6() {
+        NetworkIndex index = new NetworkIndex();
+        List<NetworkRange> ranges = new ArrayList<NetworkRange>();
+        ranges.add(range("2001::", "2001:ffff:ffff:ffff:ffff:ffff:ffff:ffff",
+                1L));
+        ranges.add(range("2001:db8::",
+                "2001:db8:ffff:ffff:ffff:ffff:ffff:ffff", 2L));
+        ranges.add(range("8000::", "ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff",
+                3L));
+        index.load(ranges);
+        assertEquals(2L, index.findMostSpecific(network("2001:db8::1/128")));
+        assertEquals(1L, index.findMostSpecific(network("2001:1::/32")));
+        assertEquals(3L, index.findMostSpecific(network("fe80::/10")));
+        assertEquals(NetworkRangeIndex.NOT_FOUND,
+                index.findMostSpecific(network("2002::/16")));
+    }
+
+    @Test
+    public void test_put_and_remove() {
+        NetworkIndex index = new NetworkIndex(2);
+        List<NetworkRange> ranges = new ArrayList<NetworkRange>();
+        ranges.add(range("1.0.0.0", "1.255.255.255", 1L));
+        ranges.add(range("1.1.0.0", "1.1.255.255", 2L));
+        index.load(ranges);
+        index.put(range("1.1.1.0", "1.1.1.255", 3L));
+        assertEquals(3L, index.findMostSpecific(network("1.1.1.1/32")));
+        index.remove(3L);
+        assertEquals(2L, index.findMostSpecific(network("1.1.1.1/32")));
+        index.put(range("1.2.0.0", "1.2.255.255", 2L));
+        assertEquals(1L, index.findMostSpecific(network("1.1.1.1/32")));
+        assertEquals(2L, index.findMostSpecific(network("1.2.1.1/32")));
+        index.remove(1L);
+        assertEquals(NetworkRangeIndex.NOT_FOUND,
+                index.findMostSpecific(network("1.1.1.1/32")));
+        assertEquals(2L, index.findMostSpecific(network("1.2.1.1/32")));
+    }
+
+    /**
+     * create range.
+     * 
+     * @param start
+     *            start.
+     * @param end
+     *            end.
+     * @param value
+     *            value.
+     * @return range.
+     */
+    private NetworkRange range(String start, String end, long value) {
+        return new NetworkRange(IpUtil.getIpVersionOfIp(start),
+                IpUtil.ipToByteArray(start), IpUtil.ipToByteArray(end), value);
+    }
+
+    /**
+     * parse network.
+     * 
+     * @param cidr
+     *            cidr.
+     * @return network.
+     */
+    private NetworkInBytes network(String cidr) {
+        return IpUtil.parseNetwork(cidr, IpUtil.getIpVersionOfNetwork(cidr));
+    }
+}
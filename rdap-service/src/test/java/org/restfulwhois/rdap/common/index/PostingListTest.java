@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.index;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Test for PostingList.
+ * 
+ * @author jiashuo
+ * 
+ */
+public class PostingListTest {
+
+    @Test
+    public void test_toArray() {
+        PostingList list =
+                PostingList.of(new long[] { 300, 1, 5, 5, 0, 4294967296L });
+        assertEquals(5, list.size());
+        assertArrayEquals(new long[] { 0, 1, 5, 300, 4294967296L },
+                list.toArray());
+        assertEquals(0, PostingList.EMPTY.toArray().length);
+    }
+
+    @Test
+    public void test_intersect() {
+        PostingList list = PostingList.of(new long[] { 1, 3, 5, 200, 1000 });
+        assertArrayEquals(new long[] { 3, 200 },
+                list.intersect(new long[] { 2, 3, 4, 200, 999 }));
+        assertArrayEquals(new long[0], list.intersect(new long[0]));
+        assertArrayEquals(new long[0],
+                PostingList.EMPTY.intersect(new long[] { 1 }));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_add_not_ascending() {
+        new PostingList.Builder().add(5).add(4);
+    }
+}
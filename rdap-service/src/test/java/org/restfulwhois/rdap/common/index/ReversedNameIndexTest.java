@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.index;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * Test for ReversedNameIndex.
+ * 
+ * @author jiashuo
+ * 
+ */
+public class ReversedNameIndexTest {
+
+    @Test
+    public void test_findBySuffix() {
+        ReversedNameIndex index =
+                createIndex(ReversedNameIndex.DEFAULT_COMPACT_THRESHOLD);
+        assertEquals(5, index.size());
+        assertArrayEquals(new long[] { 1, 2, 4 }, index.findBySuffix(".cn"));
+        assertArrayEquals(new long[] { 1, 4 },
+                index.findBySuffix(".Example.CN"));
+        assertArrayEquals(new long[] { 1, 4 }, index.findBySuffix("example.cn"));
+        assertArrayEquals(new long[] { 2 }, index.findBySuffix("中国.cn"));
+        assertArrayEquals(new long[0], index.findBySuffix(".net"));
+        assertNull(index.findBySuffix(".cn", 2));
+    }
+
+    @Test
+    public void test_collectBySuffix() {
+        ReversedNameIndex index =
+                createIndex(ReversedNameIndex.DEFAULT_COMPACT_THRESHOLD);
+        assertArrayEquals(new long[] { 1, 4 }, collect(index, null, 0, 2));
+        assertArrayEquals(new long[] { 2 },
+                collect(index, "www.example.cn", 4, 2));
+        index.put(5, "B.example.cn", null);
+        assertArrayEquals(new long[] { 5 },
+                collect(index, "a.example.cn", 1, 1));
+        assertArrayEquals(new long[] { 1, 5 }, collect(index, null, 0, 2));
+    }
+
+    /**
+     * collect a page of '.cn' names.
+     * 
+     * @param index
+     *            index.
+     * @param afterSortKey
+     *            sort key of cursor.
+     * @param afterId
+     *            id of cursor.
+     * @param limit
+     *            limit.
+     * @return ids.
+     */
+    private long[] collect(ReversedNameIndex index, String afterSortKey,
+            long afterId, int limit) {
+        KeysetPageCollector collector =
+                new KeysetPageCollector(afterSortKey, afterId, limit);
+        index.collectBySuffix(collector, ".cn");
+        return collector.toIds();
+    }
+
+    @Test
+    public void test_put_remove() {
+        test_put_remove(ReversedNameIndex.DEFAULT_COMPACT_THRESHOLD);
+    }
+
+    @Test
+    public void test_put_remove_compact() {
+        test_put_remove(0);
+    }
+
+    /**
+     * test put and remove.
+     * 
+     * @param compactThreshold
+     *            compactThreshold.
+     */
+    private void test_put_remove(int compactThreshold) {
+        ReversedNameIndex index = createIndex(compactThreshold);
+        index.put(1, "a.example.net", null);
+        index.put(5, "b.example.cn", "b.example.cn");
+        index.remove(4);
+        assertArrayEquals(new long[] { 5 }, index.findBySuffix(".example.cn"));
+        assertArrayEquals(new long[] { 1 }, index.findBySuffix(".net"));
+        index.remove(5);
+        assertArrayEquals(new long[0], index.findBySuffix(".example.cn"));
+    }
+
+    /**
+     * create index.
+     * 
+     * @param compactThreshold
+     *            compactThreshold.
+     * @return index.
+     */
+    private ReversedNameIndex createIndex(int compactThreshold) {
+        ReversedNameIndex index = new ReversedNameIndex(compactThreshold);
+        index.load(new ReversedNameIndex.Builder()
+                .add(4, "www.example.cn", "www.example.cn")
+                .add(1, "a.example.cn", null)
+                .add(2, "xn--fiqs8s.cn", "中国.cn")
+                .add(3, "example.com", "example.com"));
+        return index;
+    }
+}
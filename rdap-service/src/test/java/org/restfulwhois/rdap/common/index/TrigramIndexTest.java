@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.index;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * Test for TrigramIndex.
+ * 
+ * @author jiashuo
+ * 
+ */
+public class TrigramIndexTest {
+
+    @Test
+    public void test_findCandidates() {
+        TrigramIndex index = createIndex(TrigramIndex.DEFAULT_COMPACT_THRESHOLD);
+        assertArrayEquals(new long[] { 1, 2 },
+                index.findCandidates("*example*"));
+        assertArrayEquals(new long[] { 1 }, index.findCandidates("EXAM*.cn"));
+        assertArrayEquals(new long[] { 3 }, index.findCandidates("*中国.*"));
+        assertArrayEquals(new long[] { 3 }, index.findCandidates("*xn--fiq*"));
+        assertArrayEquals(new long[0], index.findCandidates("*notexist*"));
+        assertNull(index.findCandidates("ex*"));
+        assertNull(index.findCandidates("*"));
+    }
+
+    @Test
+    public void test_put_remove() {
+        test_put_remove(TrigramIndex.DEFAULT_COMPACT_THRESHOLD);
+    }
+
+    @Test
+    public void test_put_remove_compact() {
+        test_put_remove(0);
+    }
+
+    /**
+     * test put and remove.
+     * 
+     * @param compactThreshold
+     *            compactThreshold.
+     */
+    private void test_put_remove(int compactThreshold) {
+        TrigramIndex index = createIndex(compactThreshold);
+        index.put(2, "other.cn", null);
+        index.put(0, "example.org", null);
+        index.put(10, "examples.net", null);
+        index.remove(1);
+        assertArrayEquals(new long[] { 0, 10 },
+                index.findCandidates("*example*"));
+        assertArrayEquals(new long[] { 2 }, index.findCandidates("*other*"));
+        index.remove(10);
+        assertArrayEquals(new long[] { 0 }, index.findCandidates("*example*"));
+    }
+
+    /**
+     * create index.
+     * 
+     * @param compactThreshold
+     *            compactThreshold.
+     * @return index.
+     */
+    private TrigramIndex createIndex(int compactThreshold) {
+        TrigramIndex index = new TrigramIndex(compactThreshold);
+        index.load(new TrigramIndex.Builder().add(1, "example.cn", null)
+                .add(2, "example.com", "example.com")
+                .add(3, "xn--fiqs8s.cn", "中国.cn").add(4, "ab", null));
+        return index;
+    }
+}
@@ -30,6 +30,8 @@
  */
 package org.restfulwhois.rdap.common.util;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 
@@ -96,4 +98,42 @@ public class BaseCustomModelTest {
         assertThat(entityJson, StringContains.containsString("customHandle"));
     }
 
+    @Test
+    public void test_custom_serialize_fromJsonVal()
+            throws JsonProcessingException {
+        Entity entity = new Entity();
+        entity.setHandle("entityHandle");
+        entity.setCustomPropertyPrefix("custom_");
+        entity.setCustomPropertiesJsonVal("{\"key1\":\"value1\",\"key2\":null,"
+                + "\"key3\":3,\"key4\":{\"a\":\"b\"},\"key5\":true}");
+        String entityJson = new ObjectMapper().writeValueAsString(entity);
+        assertThat(entityJson, StringContains
+                .containsString("\"custom_key1\":\"value1\""));
+        assertThat(entityJson,
+                StringContains.containsString("\"custom_key3\":\"3\""));
+        assertThat(entityJson,
+                StringContains.containsString("\"custom_key5\":\"true\""));
+        assertFalse(entityJson.contains("custom_key2"));
+        assertFalse(entityJson.contains("custom_key4"));
+        Map<String, String> expected = new LinkedHashMap<String, String>();
+        expected.put("key1", "value1");
+        expected.put("key3", "3");
+        expected.put("key5", "true");
+        assertEquals(expected, entity.getCustomProperties());
+    }
+
+    @Test
+    public void test_custom_serialize_invalidJsonVal()
+            throws JsonProcessingException {
+        Entity entity = new Entity();
+        entity.setHandle("entityHandle");
+        entity.setCustomPropertyPrefix("custom_");
+        entity.setCustomPropertiesJsonVal("{\"key1\":\"value1\",");
+        String entityJson = new ObjectMapper().writeValueAsString(entity);
+        assertThat(entityJson, StringContains.containsString("entityHandle"));
+        entity.setCustomPropertiesJsonVal("[1]");
+        entityJson = new ObjectMapper().writeValueAsString(entity);
+        assertFalse(entityJson.contains("custom_"));
+    }
+
 }
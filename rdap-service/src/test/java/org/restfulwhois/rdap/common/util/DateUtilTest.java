@@ -39,6 +39,15 @@ public class DateUtilTest {
         c.set(Calendar.SECOND, 1);
         assertEquals("2015-01-01 01:01:01", DateUtil.formatUTC(c.getTime()));
     }
+
+    @Test
+    public void test_formatUTCString() {
+        Calendar c = Calendar.getInstance();
+        c.set(2015, 0, 22, 1, 44, 50);
+        assertEquals("2015-01-22T01:44:50Z",
+                DateUtil.formatUTCString(c.getTime()));
+        assertEquals(null, DateUtil.formatUTCString(null));
+    }
     
     @Test
     public void test_parse_noerror(){
@@ -30,6 +30,7 @@
  */
 package org.restfulwhois.rdap.common.util;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 
@@ -42,6 +43,7 @@ import org.junit.Test;
 import org.restfulwhois.rdap.common.model.Entity;
 import org.restfulwhois.rdap.common.model.EntityAddress;
 import org.restfulwhois.rdap.common.model.EntityTelephone;
+import org.restfulwhois.rdap.core.entity.model.jcard.EzvcardJcard;
 import org.restfulwhois.rdap.core.entity.model.jcard.Jcard;
 
 import ezvcard.Ezvcard;
@@ -133,4 +135,80 @@ public class JcardTest {
         assertThat(jcardString, new IsNot(new StringContains("@#-().")));
         assertThat(jcardString, new IsNot(new StringContains(" +9981-().")));
     }
+
+    /**
+     * test output is the same as ezvcard.
+     */
+    @Test
+    public void testSameAsEzvcard() {
+        assertSameAsEzvcard(null);
+        Entity entity = new Entity();
+        assertSameAsEzvcard(entity);
+        String[] texts =
+                { null, "", " ", "Jonathan \"Doe\"\\ \u00e9/<>",
+                        "a\nb\tc\b\f\r\u001f\u007f ", " individual " };
+        for (String text : texts) {
+            entity = new Entity();
+            entity.setKind(text);
+            entity.setFn(text);
+            entity.setEmail(text);
+            entity.setTitle(text);
+            entity.setOrg(text);
+            entity.setUrl(text);
+            entity.setLang(text);
+            assertSameAsEzvcard(entity);
+        }
+        String[] types =
+                { null, "", ";", "home", "WORK", "home;text;voice;bogus;FAX",
+                        "pref", "pReF;home", "home;pref;pref", "X-Custom;dom",
+                        " home ;;intl", "cell;Pager;textphone;video;msg;bbs",
+                        "car;isdn;modem;pcs;postal;parcel" };
+        Integer[] prefs = { null, -1, 0, 1, 50, 100, 101 };
+        for (String type : types) {
+            for (Integer pref : prefs) {
+                entity = new Entity();
+                EntityAddress address = new EntityAddress();
+                address.setTypes(type);
+                address.setPref(pref);
+                address.setPoBox(type);
+                address.setStreetAddress("123, Wall; St.");
+                address.setCountry("USA");
+                List<EntityAddress> addresses = new ArrayList<EntityAddress>();
+                addresses.add(address);
+                addresses.add(new EntityAddress());
+                entity.setAddresses(addresses);
+                EntityTelephone tel =
+                        EntityTelephone.buildTextTel("+1-555-555-1234", "102");
+                tel.setTypes(type);
+                tel.setPref(pref);
+                List<EntityTelephone> telephones =
+                        new ArrayList<EntityTelephone>();
+                telephones.add(tel);
+                entity.setTelephones(telephones);
+                assertSameAsEzvcard(entity);
+            }
+        }
+        String[] numbers =
+                { null, "", " ", "+", "+-", "+()", "1234", "+1", "+0",
+                        "+1(2)3.4-5", "+-1", "1+2", "+1 2", " +1", "+1;",
+                        "+1#", "+1a", "tel:+1" };
+        String[] exts =
+                { null, "", " ", "a", "1.2", "+1", "1 2", "()-.", "#", "102" };
+        for (String number : numbers) {
+            for (String ext : exts) {
+                entity = new Entity();
+                List<EntityTelephone> telephones =
+                        new ArrayList<EntityTelephone>();
+                telephones.add(EntityTelephone.buildTextTel(number, ext));
+                telephones.add(new EntityTelephone());
+                entity.setTelephones(telephones);
+                assertSameAsEzvcard(entity);
+            }
+        }
+    }
+
+    private void assertSameAsEzvcard(Entity entity) {
+        assertEquals(EzvcardJcard.build(entity).toJSON(), Jcard.build(entity)
+                .toJSON());
+    }
 }
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.common.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.restfulwhois.rdap.common.model.Domain;
+import org.restfulwhois.rdap.common.model.Entity;
+import org.restfulwhois.rdap.common.model.Nameserver;
+import org.restfulwhois.rdap.common.model.base.BaseModel;
+
+/**
+ * Test for ModelCopyUtil.
+ * 
+ * @author jiashuo
+ * 
+ */
+public class ModelCopyUtilTest {
+
+    @Test
+    public void test_copy() {
+        Domain domain = new Domain();
+        domain.setId(1L);
+        domain.setHandle("h1");
+        domain.setLdhName("cnnic.cn");
+        domain.addStatus("active");
+        Entity entity = new Entity();
+        entity.setHandle("e1");
+        List<Entity> entities = new ArrayList<Entity>();
+        entities.add(entity);
+        domain.setEntities(entities);
+        Nameserver nameserver = new Nameserver();
+        nameserver.setHandle("n1");
+        nameserver.setEntities(entities);
+        List<Nameserver> nameservers = new ArrayList<Nameserver>();
+        nameservers.add(nameserver);
+        domain.setNameservers(nameservers);
+
+        List<BaseModel> models = new ArrayList<BaseModel>();
+        Domain copy = ModelCopyUtil.copy(domain, models);
+        assertNotSame(domain, copy);
+        assertEquals(Long.valueOf(1L), copy.getId());
+        assertEquals("cnnic.cn", copy.getLdhName());
+        assertEquals(domain.getStatus(), copy.getStatus());
+        assertNotSame(domain.getStatus(), copy.getStatus());
+        assertNotSame(entity, copy.getEntities().get(0));
+        assertEquals("e1", copy.getEntities().get(0).getHandle());
+        assertEquals(3, models.size());
+
+        copy.setLdhName(null);
+        copy.getEntities().get(0).setHandle(null);
+        copy.getNameservers().clear();
+        assertEquals("cnnic.cn", domain.getLdhName());
+        assertEquals("e1", entity.getHandle());
+        assertEquals(1, domain.getNameservers().size());
+        assertNull(ModelCopyUtil.copy(null, null));
+    }
+}
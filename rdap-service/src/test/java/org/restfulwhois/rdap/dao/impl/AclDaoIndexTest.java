@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.dao.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.restfulwhois.rdap.acl.bean.Principal;
+import org.restfulwhois.rdap.acl.bean.SecureObject;
+import org.restfulwhois.rdap.acl.dao.impl.AclDaoImpl;
+import org.restfulwhois.rdap.common.support.RdapProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Test for acl dao with in-memory ACL index, without database.
+ * 
+ * @author jiashuo
+ * 
+ */
+public class AclDaoIndexTest {
+
+    private final RdapProperties properties = new RdapProperties();
+
+    private final AclTables tables = new AclTables();
+
+    private final AclDaoImpl aclDao = new AclDaoImpl();
+
+    private final Principal user = new Principal(100L);
+
+    private final SecureObject secured = new SecureObject(1L, "domain");
+
+    private final SecureObject unsecured = new SecureObject(2L, "domain");
+
+    @Before
+    public void setUp() {
+        properties.setAclIndexEnabled(true);
+        tables.addEntry(1, "domain", 1, 10);
+        tables.addUserRole(1, 200, 10);
+        ReflectionTestUtils.setField(aclDao, "jdbcTemplate", tables);
+        aclDao.init();
+    }
+
+    @After
+    public void tearDown() {
+        properties.setAclIndexEnabled(false);
+    }
+
+    @Test
+    public void test_lookup_and_search_without_database() {
+        int queries = tables.queries;
+        assertTrue(aclDao.hasEntry(user, unsecured));
+        assertFalse(aclDao.hasEntry(user, secured));
+        assertTrue(aclDao.hasEntry(new Principal(200L), secured));
+        assertFalse(aclDao.hasEntry(new Principal(null), secured));
+        assertEquals("[false, true]", search(secured, unsecured));
+        assertEquals(queries, tables.queries);
+    }
+
+    @Test
+    public void test_changed_acl_takes_effect_for_lookup_and_search() {
+        tables.addEntry(2, "domain", 2, 10);
+        assertTrue(aclDao.hasEntry(user, unsecured));
+        assertEquals("[true]", search(unsecured));
+        aclDao.reload();
+        assertFalse(aclDao.hasEntry(user, unsecured));
+        assertEquals("[false]", search(unsecured));
+
+        tables.addUserRole(2, 100, 10);
+        aclDao.reload();
+        assertTrue(aclDao.hasEntry(user, unsecured));
+        assertEquals("[true]", search(unsecured));
+    }
+
+    @Test
+    public void test_reload_only_if_changed() {
+        long generation = aclDao.getGeneration();
+        int queries = tables.queries;
+        aclDao.reload();
+        assertEquals(queries + 1, tables.queries);
+        assertEquals(generation, aclDao.getGeneration());
+
+        tables.updateEntryRole(1, 11);
+        aclDao.reload();
+        assertEquals(queries + 4, tables.queries);
+        assertFalse(generation == aclDao.getGeneration());
+        assertFalse(aclDao.hasEntry(new Principal(200L), secured));
+    }
+
+    private String search(SecureObject... secureObjects) {
+        return Arrays.toString(aclDao.hasEntries(user,
+                Arrays.asList(secureObjects)));
+    }
+
+    /**
+     * in-memory RDAP_IDENTITY_ACL and RDAP_IDENTITY_USER_REL_ROLE.
+     */
+    private static class AclTables extends JdbcTemplate {
+
+        private final List<Map<String, Object>> entries =
+                new ArrayList<Map<String, Object>>();
+
+        private final List<Map<String, Object>> userRoles =
+                new ArrayList<Map<String, Object>>();
+
+        private int queries;
+
+        void addEntry(long id, String type, long objectId, long roleId) {
+            entries.add(row("ID", id, "OBJECT_TYPE", type, "OBJECT_ID",
+                    objectId, "ROLE_ID", roleId));
+        }
+
+        void addUserRole(long id, long userId, long roleId) {
+            userRoles.add(row("ID", id, "USER_ID", userId, "ROLE_ID",
+                    roleId));
+        }
+
+        void updateEntryRole(long id, long roleId) {
+            for (Map<String, Object> entry : entries) {
+                if (entry.get("ID").equals(id)) {
+                    entry.put("ROLE_ID", roleId);
+                }
+            }
+        }
+
+        @Override
+        public void query(String sql, RowCallbackHandler rch) {
+            queries++;
+            List<Map<String, Object>> rows;
+            if (sql.contains("count(1)")) {
+                rows = new ArrayList<Map<String, Object>>();
+                rows.add(stamp(entries, "OBJECT_ID"));
+                rows.add(stamp(userRoles, "USER_ID"));
+            } else if (sql.contains("RDAP_IDENTITY_USER_REL_ROLE")) {
+                rows = userRoles;
+            } else {
+                rows = entries;
+            }
+            try {
+                for (Map<String, Object> row : rows) {
+                    rch.processRow(resultSet(row));
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private static Map<String, Object> stamp(
+                List<Map<String, Object>> rows, String idColumn) {
+            long maxId = 0;
+            long checksum = 0;
+            for (Map<String, Object> row : rows) {
+                maxId = Math.max(maxId, (Long) row.get("ID"));
+                checksum +=
+                        (Long) row.get(idColumn) + (Long) row.get("ROLE_ID");
+            }
+            return row("COUNT", (long) rows.size(), "MAX_ID", maxId,
+                    "CHECKSUM", checksum);
+        }
+
+        private static Map<String, Object> row(Object... keyValues) {
+            Map<String, Object> row = new HashMap<String, Object>();
+            for (int i = 0; i < keyValues.length; i += 2) {
+                row.put((String) keyValues[i], keyValues[i + 1]);
+            }
+            return row;
+        }
+
+        private ResultSet resultSet(final Map<String, Object> row) {
+            return (ResultSet) Proxy.newProxyInstance(getClass()
+                    .getClassLoader(), new Class<?>[] {ResultSet.class },
+                    new InvocationHandler() {
+                        @Override
+                        public Object invoke(Object proxy, Method method,
+                                Object[] args) {
+                            if ("getLong".equals(method.getName())
+                                    || "getString".equals(method.getName())) {
+                                return row.get(args[0]);
+                            }
+                            throw new UnsupportedOperationException(
+                                    method.getName());
+                        }
+                    });
+        }
+    }
+}
@@ -37,6 +37,7 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
 import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -57,8 +58,10 @@ import org.restfulwhois.rdap.common.model.SecureDns;
 import org.restfulwhois.rdap.common.model.Variant;
 import org.restfulwhois.rdap.common.model.Variants;
 import org.restfulwhois.rdap.common.util.DomainUtil;
+import org.restfulwhois.rdap.core.domain.dao.impl.DomainQueryDaoImpl;
 import org.restfulwhois.rdap.core.domain.queryparam.DomainQueryParam;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import com.github.springtestdbunit.annotation.DatabaseTearDown;
 
@@ -75,6 +78,11 @@ public class DomainQueryDaoTest extends BaseTest {
      */
     @Autowired
     private QueryDao<Domain> domainQueryDao;
+    /**
+     * jdbcTemplate.
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
 
     /**
      * test query exist domain.
@@ -328,6 +336,27 @@ public class DomainQueryDaoTest extends BaseTest {
         assertNull(domain);
     }
 
+    /**
+     * test query status of domains in batch.
+     */
+    @Test
+    @DatabaseTearDown("teardown.xml")
+    public void testQueryDomainStatusOfDomains() {
+        Domain domain1 = new Domain();
+        domain1.setId(1L);
+        Domain domain2 = new Domain();
+        domain2.setId(2L);
+        Domain domainWithoutStatus = new Domain();
+        domainWithoutStatus.setId(21L);
+        new DomainQueryDaoImpl().queryDomainStatus(
+                Arrays.asList(domain1, domain2, domainWithoutStatus),
+                jdbcTemplate);
+        assertThat(domain1.getStatus(),
+                CoreMatchers.hasItems("validated", "update prohibited"));
+        assertEquals(Arrays.asList("validated"), domain2.getStatus());
+        assertNull(domainWithoutStatus.getStatus());
+    }
+
     @Override
     public void before() throws Exception {
         databaseSetupWithBinaryColumns("domain.xml");
@@ -33,7 +33,9 @@ package org.restfulwhois.rdap.dao.impl;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.Test;
 import org.restfulwhois.rdap.BaseTest;
@@ -97,4 +99,19 @@ public class EntityAddressDaoTest extends BaseTest {
         assertEquals(addresses.size(), 0);
     }
 
+    /**
+     * test query by entity ids.
+     */
+    @Test
+    @DatabaseTearDown("teardown.xml")
+    @DatabaseSetup("entityAddress.xml")
+    public void testQueryByEntityIds() {
+        Map<Long, List<EntityAddress>> addressesMap =
+                entityAddressDao.query(Arrays.asList(1L, 100000L, 1L));
+        assertEquals(2, addressesMap.size());
+        assertEquals(2, addressesMap.get(1L).size());
+        assertEquals(Integer.valueOf(1), addressesMap.get(1L).get(0).getPref());
+        assertEquals(0, addressesMap.get(100000L).size());
+    }
+
 }
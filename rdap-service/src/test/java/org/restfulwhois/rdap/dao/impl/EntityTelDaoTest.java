@@ -33,7 +33,9 @@ package org.restfulwhois.rdap.dao.impl;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.Test;
 import org.restfulwhois.rdap.BaseTest;
@@ -92,4 +94,20 @@ public class EntityTelDaoTest extends BaseTest {
         assertEquals(telephones.size(), 0);
     }
 
+    /**
+     * test query by entity ids.
+     */
+    @Test
+    @DatabaseTearDown("teardown.xml")
+    @DatabaseSetup("entityTel.xml")
+    public void testQueryByEntityIds() {
+        Map<Long, List<EntityTelephone>> telephonesMap =
+                entityTelDao.query(Arrays.asList(1L, 100000L, 1L));
+        assertEquals(2, telephonesMap.size());
+        assertEquals(2, telephonesMap.get(1L).size());
+        assertEquals(Integer.valueOf(1), telephonesMap.get(1L).get(0)
+                .getPref());
+        assertEquals(0, telephonesMap.get(100000L).size());
+    }
+
 }
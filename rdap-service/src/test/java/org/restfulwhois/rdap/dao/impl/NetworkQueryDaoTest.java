@@ -35,6 +35,7 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -213,4 +214,24 @@ public class NetworkQueryDaoTest extends BaseTest {
         assertNotNull(networks);
         assertTrue(networks.size() == 0);
     }
+
+    /**
+     * test query networks of arpa domains in one batch.
+     */
+    @Test
+    @DatabaseTearDown("teardown.xml")
+    public void testQueryNetworksOfArpaDomains() {
+        super.databaseSetupWithBinaryColumns("domain.xml");
+        Map<Long, List<Network>> networksMap =
+                networkQueryDao.queryAsInnerObjects(
+                        Arrays.asList(21L, 22L, 23L, 1L), ModelType.DOMAIN);
+        assertEquals(4, networksMap.size());
+        assertEquals("h1", networksMap.get(21L).get(0).getHandle());
+        assertEquals("h2", networksMap.get(22L).get(0).getHandle());
+        assertEquals("h3", networksMap.get(23L).get(0).getHandle());
+        assertTrue(networksMap.get(1L).isEmpty());
+        List<Link> links = networksMap.get(22L).get(0).getLinks();
+        assertNotNull(links);
+        assertTrue(links.size() > 0);
+    }
 }
@@ -33,7 +33,9 @@ package org.restfulwhois.rdap.dao.impl;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.Test;
 import org.restfulwhois.rdap.BaseTest;
@@ -120,4 +122,25 @@ public class SecureDnsQueryDaoTest extends BaseTest {
         assertEquals(0, secureDnsList.size());
     }
 
+    /**
+     * test query SecureDNS of domains in batch.
+     */
+    @Test
+    @DatabaseTearDown("teardown.xml")
+    @DatabaseSetup(value = "secureDns.xml")
+    public void testQueryByDomainIds() {
+        Map<Long, List<SecureDns>> secureDnsMap =
+                secureDnsQueryDao.queryAsInnerObjects(
+                        Arrays.asList(1L, 10000L), ModelType.DOMAIN);
+        assertEquals(2, secureDnsMap.size());
+        assertEquals(0, secureDnsMap.get(10000L).size());
+        List<SecureDns> secureDnsList = secureDnsMap.get(1L);
+        assertEquals(1, secureDnsList.size());
+        SecureDns secureDns = secureDnsList.get(0);
+        assertEquals(1, secureDns.getDsData().size());
+        assertEquals(1, secureDns.getDsData().get(0).getKeyTag().intValue());
+        assertEquals(1, secureDns.getKeyData().size());
+        assertEquals(1, secureDns.getKeyData().get(0).getFlags().intValue());
+    }
+
 }
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.service.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.restfulwhois.rdap.common.dao.SearchDao;
+import org.restfulwhois.rdap.common.model.Domain;
+import org.restfulwhois.rdap.common.model.Notice;
+import org.restfulwhois.rdap.common.model.base.BaseModel;
+import org.restfulwhois.rdap.common.model.base.BaseSearchModel;
+import org.restfulwhois.rdap.common.model.base.SearchResultStream;
+import org.restfulwhois.rdap.common.service.AccessControlManager;
+import org.restfulwhois.rdap.common.support.QueryParam;
+import org.restfulwhois.rdap.common.support.RdapProperties;
+import org.restfulwhois.rdap.common.support.SearchCursor;
+import org.restfulwhois.rdap.common.support.StreamingJackson2HttpMessageConverter;
+import org.restfulwhois.rdap.core.domain.model.DomainSearch;
+import org.restfulwhois.rdap.core.domain.queryparam.DomainSearchByDomainNameParam;
+import org.restfulwhois.rdap.search.common.service.BatchSearchResultStream;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Test for BatchSearchResultStream and StreamingJackson2HttpMessageConverter,
+ * without database.
+ * 
+ * @author jiashuo
+ * 
+ */
+public class BatchSearchResultStreamTest {
+
+    private final RdapProperties properties = new RdapProperties();
+
+    private Long oldBatchSize;
+
+    private Long oldMaxSize;
+
+    @Before
+    public void setUp() {
+        oldBatchSize = RdapProperties.getBatchsizeSearch();
+        oldMaxSize = RdapProperties.getMaxsizeSearch();
+        properties.setBatchsizeSearch(3L);
+        properties.setMaxsizeSearch(5L);
+    }
+
+    @After
+    public void tearDown() {
+        properties.setBatchsizeSearch(oldBatchSize);
+        properties.setMaxsizeSearch(oldMaxSize);
+    }
+
+    @Test
+    public void test_nextBatch() {
+        FakeSearchDao searchDao = new FakeSearchDao(8);
+        BatchSearchResultStream<Domain> stream = newStream(searchDao, 2L);
+        assertTrue(stream.prefetch());
+        assertEquals(0, searchDao.hydratedCount);
+        List<Long> ids = new ArrayList<Long>();
+        List<Domain> batch = stream.nextBatch();
+        while (!batch.isEmpty()) {
+            assertTrue(batch.size() <= 3);
+            for (Domain domain : batch) {
+                ids.add(domain.getId());
+            }
+            batch = stream.nextBatch();
+        }
+        assertEquals("[1, 3, 4, 5, 6]", ids.toString());
+        assertEquals(5, searchDao.hydratedCount);
+        assertTrue(stream.getTruncatedInfo().getResultsTruncated());
+        assertEquals(2, stream.getTruncatedInfo().getTruncateReasons().size());
+        DomainSearch searchModel = new DomainSearch();
+        stream.complete(searchModel);
+        assertNotNull(searchModel.getPagingMetadata());
+        assertEquals(Integer.valueOf(5), searchModel.getPagingMetadata()
+                .getPageSize());
+        assertEquals(6, stream.createNextCursor().getId());
+    }
+
+    @Test
+    public void test_prefetch_noAuth() {
+        BatchSearchResultStream<Domain> stream =
+                newStream(new FakeSearchDao(2), 1L, 2L);
+        assertFalse(stream.prefetch());
+        assertTrue(stream.hasFoundObjects());
+        assertTrue(stream.nextBatch().isEmpty());
+        assertNull(stream.createNextCursor());
+    }
+
+    @Test
+    public void test_write() throws Exception {
+        BatchSearchResultStream<Domain> stream =
+                newStream(new FakeSearchDao(4));
+        stream.prefetch();
+        final DomainSearch searchModel = new DomainSearch();
+        searchModel.setResultStream(stream);
+        stream.addListener(new SearchResultStream.Listener() {
+            @Override
+            public void onBatch(List<? extends BaseModel> results) {
+            }
+
+            @Override
+            public void onComplete(BaseSearchModel<?> model) {
+                Notice notice = new Notice();
+                notice.setTitle("notice");
+                List<Notice> notices = new ArrayList<Notice>();
+                notices.add(notice);
+                model.setNotices(notices);
+            }
+        });
+        List<String> conformance = new ArrayList<String>();
+        conformance.add("rdap_level_0");
+        searchModel.setRdapConformance(conformance);
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        new StreamingJackson2HttpMessageConverter().write(searchModel,
+                MediaType.APPLICATION_JSON, outputMessage);
+        JsonNode json =
+                new ObjectMapper().readTree(outputMessage.getBodyAsString());
+        assertEquals(4, json.get("domainSearchResults").size());
+        assertEquals("d4", json.get("domainSearchResults").get(3)
+                .get("handle").asText());
+        assertEquals("rdap_level_0", json.get("rdapConformance").get(0)
+                .asText());
+        assertEquals("notice", json.get("notices").get(0).get("title")
+                .asText());
+        assertNull(json.get("paging_metadata"));
+    }
+
+    private BatchSearchResultStream<Domain> newStream(SearchDao<Domain> dao,
+            Long... deniedIds) {
+        final List<Long> denied = new ArrayList<Long>();
+        for (Long id : deniedIds) {
+            denied.add(id);
+        }
+        AccessControlManager accessControlManager = new AccessControlManager() {
+            @Override
+            public boolean hasPermission(BaseModel object) {
+                return !denied.contains(object.getId());
+            }
+
+            @Override
+            public boolean[] hasPermission(List<? extends BaseModel> objects) {
+                boolean[] result = new boolean[objects.size()];
+                for (int i = 0; i < objects.size(); i++) {
+                    result[i] = hasPermission(objects.get(i));
+                }
+                return result;
+            }
+        };
+        QueryParam queryParam = new DomainSearchByDomainNameParam();
+        return new BatchSearchResultStream<Domain>(queryParam, dao,
+                accessControlManager, null);
+    }
+
+    /**
+     * search DAO of domains with id from 1 to count, paged by cursor id.
+     */
+    private static class FakeSearchDao implements SearchDao<Domain> {
+        private final int count;
+
+        private int hydratedCount;
+
+        private QueryParam lastQueryParam;
+
+        FakeSearchDao(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public List<Domain> search(QueryParam queryParam) {
+            lastQueryParam = queryParam;
+            SearchCursor cursor = queryParam.getPageBean().getCursor();
+            long start = null == cursor ? 1 : cursor.getId() + 1;
+            List<Domain> result = new ArrayList<Domain>();
+            for (long id = start; id <= count
+                    && result.size() < queryParam.getPageBean()
+                            .getMaxRecords(); id++) {
+                Domain domain = new Domain();
+                domain.setId(id);
+                domain.setHandle("d" + id);
+                result.add(domain);
+            }
+            return result;
+        }
+
+        @Override
+        public void queryAndSetInnerObjects(List<Domain> objects) {
+            assertNotNull(lastQueryParam);
+            hydratedCount += objects.size();
+        }
+
+        @Override
+        public SearchCursor createCursor(Domain object) {
+            return new SearchCursor(object.getHandle(), object.getId());
+        }
+    }
+}
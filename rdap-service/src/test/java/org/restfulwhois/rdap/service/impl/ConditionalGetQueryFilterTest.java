@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.service.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.restfulwhois.rdap.acl.bean.Principal;
+import org.restfulwhois.rdap.acl.bean.SecureObject;
+import org.restfulwhois.rdap.acl.dao.AclDao;
+import org.restfulwhois.rdap.common.dao.impl.QueryCacheDao;
+import org.restfulwhois.rdap.common.filter.QueryFilterResult;
+import org.restfulwhois.rdap.common.model.Domain;
+import org.restfulwhois.rdap.common.model.Event;
+import org.restfulwhois.rdap.common.support.RdapProperties;
+import org.restfulwhois.rdap.common.support.RestResponse;
+import org.restfulwhois.rdap.core.domain.queryparam.DomainQueryParam;
+import org.restfulwhois.rdap.filters.queryFilter.ConditionalGetQueryFilter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Test for ConditionalGetQueryFilter, without database.
+ * 
+ * @author jiashuo
+ * 
+ */
+@SuppressWarnings("rawtypes")
+public class ConditionalGetQueryFilterTest {
+
+    private static final String URI = "/.well-known/rdap/domain/cnnic.cn";
+
+    private ConditionalGetQueryFilter filter;
+
+    private QueryCacheDao queryCacheDao;
+
+    private long aclGeneration;
+
+    private final RdapProperties properties = new RdapProperties();
+
+    @Before
+    public void setUp() {
+        properties.setConditionalGetEnabled(true);
+        properties.setEtagCacheMaxEntries(100);
+        properties.setQueryCacheTtl(60000L);
+        queryCacheDao = new QueryCacheDao();
+        queryCacheDao.init();
+        filter = new ConditionalGetQueryFilter();
+        ReflectionTestUtils.setField(filter, "queryCacheDao", queryCacheDao);
+        ReflectionTestUtils.setField(filter, "aclDao", new AclDao() {
+            @Override
+            public boolean hasEntry(Principal principal,
+                    SecureObject secureObject) {
+                return true;
+            }
+
+            @Override
+            public boolean[] hasEntries(Principal principal,
+                    List<SecureObject> secureObjects) {
+                return new boolean[secureObjects.size()];
+            }
+
+            @Override
+            public void reload() {
+            }
+
+            @Override
+            public long getGeneration() {
+                return aclGeneration;
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        properties.setConditionalGetEnabled(false);
+    }
+
+    @Test
+    public void test_etag() {
+        ResponseEntity response = query(newRequest(), newDomain());
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        String etag = response.getHeaders().getETag();
+        assertNotNull(etag);
+        assertEquals("no-cache", response.getHeaders().getCacheControl());
+
+        MockHttpServletRequest request = newRequest();
+        request.addHeader("If-None-Match", etag);
+        QueryFilterResult result =
+                filter.postParamValidate(new DomainQueryParam(request));
+        assertEquals(HttpStatus.NOT_MODIFIED, result.getResult()
+                .getStatusCode());
+
+        request = newRequest();
+        request.addHeader("If-None-Match", etag);
+        response = query(request, newDomain());
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+
+        Domain changed = newDomain();
+        changed.setPort43("whois.cnnic.cn");
+        queryCacheDao.invalidate(changed);
+        request = newRequest();
+        request.addHeader("If-None-Match", etag);
+        assertNull(filter.postParamValidate(new DomainQueryParam(request)));
+        response = query(request, changed);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(changed, response.getBody());
+        assertFalse(etag.equals(response.getHeaders().getETag()));
+    }
+
+    @Test
+    public void test_etag_aclGeneration() {
+        String etag = query(newRequest(), newDomain()).getHeaders().getETag();
+        aclGeneration++;
+        MockHttpServletRequest request = newRequest();
+        request.addHeader("If-None-Match", etag);
+        assertNull(filter.postParamValidate(new DomainQueryParam(request)));
+    }
+
+    @Test
+    public void test_etag_updatedWhileQueried() {
+        DomainQueryParam queryParam = new DomainQueryParam(newRequest());
+        assertNull(filter.postParamValidate(queryParam));
+        queryCacheDao.invalidate(newDomain());
+        String etag =
+                filter.postQuery(queryParam,
+                        RestResponse.createResponse200(newDomain()))
+                        .getResult().getHeaders().getETag();
+        assertNotNull(etag);
+        MockHttpServletRequest request = newRequest();
+        request.addHeader("If-None-Match", etag);
+        assertNull(filter.postParamValidate(new DomainQueryParam(request)));
+    }
+
+    @Test
+    public void test_etag_updatedByOtherInstance() {
+        properties.setEtagCacheMaxEntries(0);
+        queryCacheDao.init();
+        String etag = query(newRequest(), newDomain()).getHeaders().getETag();
+        assertEquals(etag, query(newRequest(), newDomain()).getHeaders()
+                .getETag());
+        Domain changed = newDomain();
+        changed.setPort43("whois.cnnic.cn");
+        MockHttpServletRequest request = newRequest();
+        request.addHeader("If-None-Match", etag);
+        ResponseEntity response = query(request, changed);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertFalse(etag.equals(response.getHeaders().getETag()));
+    }
+
+    @Test
+    public void test_lastModified() {
+        ResponseEntity response = query(newRequest(), newDomain());
+        long lastModified = response.getHeaders().getLastModified();
+        MockHttpServletRequest request = newRequest();
+        request.addHeader("If-Modified-Since", lastModified);
+        assertEquals(HttpStatus.NOT_MODIFIED, query(request, newDomain())
+                .getStatusCode());
+        request = newRequest();
+        request.addHeader("If-Modified-Since", lastModified - 1000);
+        assertEquals(HttpStatus.OK, query(request, newDomain())
+                .getStatusCode());
+    }
+
+    @Test
+    public void test_disabled() {
+        properties.setConditionalGetEnabled(false);
+        MockHttpServletRequest request = newRequest();
+        DomainQueryParam queryParam = new DomainQueryParam(request);
+        assertNull(filter.postParamValidate(queryParam));
+        assertNull(filter.postQuery(queryParam,
+                RestResponse.createResponse200(newDomain())));
+    }
+
+    private ResponseEntity query(MockHttpServletRequest request, Domain domain) {
+        DomainQueryParam queryParam = new DomainQueryParam(request);
+        QueryFilterResult result = filter.postParamValidate(queryParam);
+        if (null != result) {
+            return result.getResult();
+        }
+        return filter.postQuery(queryParam,
+                RestResponse.createResponse200(domain)).getResult();
+    }
+
+    private MockHttpServletRequest newRequest() {
+        return new MockHttpServletRequest("GET", URI);
+    }
+
+    private Domain newDomain() {
+        Domain domain = new Domain();
+        domain.setHandle("h-cnnic");
+        domain.setLdhName("cnnic.cn");
+        Event event = new Event();
+        event.setEventAction("last changed");
+        event.setEventDate("2015-01-01T08:00:00Z");
+        List<Event> events = new ArrayList<Event>();
+        events.add(event);
+        domain.setEvents(events);
+        return domain;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.service.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import org.restfulwhois.rdap.acl.bean.User;
+import org.restfulwhois.rdap.authenticate.service.impl.CredentialCache;
+
+/**
+ * test for CredentialCache.
+ * 
+ * @author jiashuo
+ * 
+ */
+public class CredentialCacheTest {
+
+    /**
+     * test get and expire.
+     */
+    @Test
+    public void testGet() {
+        CredentialCache cache = new CredentialCache(10, 1000);
+        String digest = CredentialCache.digest("user1", "pwd");
+        assertEquals(64, digest.length());
+        assertFalse(digest.equals(CredentialCache.digest("user1", "pwd2")));
+        assertNull(cache.get(digest, 0));
+        cache.put(digest, "user1", createUser(1, "hash1"), 0);
+        assertEquals(Long.valueOf(1), cache.get(digest, 999));
+        assertNull(cache.get(digest, 1000));
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * test entry count is bounded.
+     */
+    @Test
+    public void testBounded() {
+        CredentialCache cache = new CredentialCache(2, 1000);
+        cache.put("a", "user1", createUser(1, "hash1"), 0);
+        cache.put("b", "user2", createUser(2, "hash2"), 0);
+        cache.get("a", 0);
+        cache.put("c", "user3", createUser(3, "hash3"), 0);
+        assertEquals(2, cache.size());
+        assertEquals(Long.valueOf(1), cache.get("a", 0));
+        assertNull(cache.get("b", 0));
+        assertEquals(Long.valueOf(3), cache.get("c", 0));
+    }
+
+    /**
+     * test changed users are dropped.
+     */
+    @Test
+    public void testRetainUnchanged() {
+        CredentialCache cache = new CredentialCache(10, 1000);
+        cache.put("a", "user1", createUser(1, "hash1"), 0);
+        cache.put("b", "user2", createUser(2, "hash2"), 0);
+        cache.put("c", "user3", createUser(3, "hash3"), 0);
+        Map<String, User> users = new HashMap<String, User>();
+        users.put("user1", createUser(1, "HASH1"));
+        users.put("user2", createUser(2, "changed"));
+        assertEquals(2, cache.retainUnchanged(users, 0));
+        assertEquals(Long.valueOf(1), cache.get("a", 0));
+        assertNull(cache.get("b", 0));
+        assertNull(cache.get("c", 0));
+    }
+
+    /**
+     * test disabled cache.
+     */
+    @Test
+    public void testDisabled() {
+        CredentialCache cache = new CredentialCache(0, 1000);
+        assertFalse(cache.isEnabled());
+        cache.put("a", "user1", createUser(1, "hash1"), 0);
+        assertEquals(0, cache.size());
+        assertTrue(new CredentialCache(1, 1000).isEnabled());
+    }
+
+    /**
+     * create user.
+     * 
+     * @param userId
+     *            userId.
+     * @param userPwd
+     *            userPwd.
+     * @return user.
+     */
+    private User createUser(long userId, String userPwd) {
+        User user = new User();
+        user.setUserId(userId);
+        user.setUserPwd(userPwd);
+        return user;
+    }
+}
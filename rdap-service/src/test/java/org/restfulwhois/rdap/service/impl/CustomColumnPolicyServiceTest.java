@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.service.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.restfulwhois.rdap.common.model.Domain;
+import org.restfulwhois.rdap.common.model.Entity;
+import org.restfulwhois.rdap.common.model.Nameserver;
+import org.restfulwhois.rdap.filters.queryFilter.dao.CustomColumnPolicyDao;
+import org.restfulwhois.rdap.filters.queryFilter.service.CustomColumnPolicyService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Test for CustomColumnPolicyService, without database.
+ * 
+ * @author jiashuo
+ * 
+ */
+public class CustomColumnPolicyServiceTest {
+
+    private CustomColumnPolicyService service;
+
+    private final Map<String, Set<String>> policy =
+            new HashMap<String, Set<String>>();
+
+    @Before
+    public void setUp() {
+        service = new CustomColumnPolicyService();
+        ReflectionTestUtils.setField(service, "policyDao",
+                new CustomColumnPolicyDao() {
+                    @Override
+                    public Map<String, Set<String>> loadAllPolicyMap() {
+                        return policy;
+                    }
+                });
+    }
+
+    @After
+    public void tearDown() {
+        if (null != service.loadPolicyFieldsByMap()) {
+            service.clearPolicy();
+        }
+    }
+
+    @Test
+    public void test_applyPolicy_inner_objects() {
+        policy.put("domain", newSet("port43", "LANG"));
+        policy.put("entity", newSet("handle"));
+        policy.put("nameServer", newSet("ldhName"));
+        service.init();
+        Domain domain = newDomain();
+        service.applyPolicy(domain);
+        assertNull(domain.getPort43());
+        assertNull(domain.getLang());
+        assertEquals("example.cn", domain.getLdhName());
+        assertNull(domain.getEntities().get(0).getHandle());
+        assertEquals("en", domain.getEntities().get(0).getLang());
+        assertNull(domain.getNameservers().get(0).getLdhName());
+        assertEquals("h-ns", domain.getNameservers().get(0).getHandle());
+        // plan is cached, apply again to a new object.
+        domain = newDomain();
+        service.applyPolicy(domain);
+        assertNull(domain.getPort43());
+        assertNull(domain.getEntities().get(0).getHandle());
+    }
+
+    @Test
+    public void test_applyPolicy_reload() {
+        policy.put("domain", newSet("port43"));
+        service.init();
+        Domain domain = newDomain();
+        service.applyPolicy(domain);
+        assertNull(domain.getPort43());
+        assertEquals("en", domain.getLang());
+        policy.put("domain", newSet("lang"));
+        service.init();
+        domain = newDomain();
+        service.applyPolicy(domain);
+        assertEquals("whois.example.cn", domain.getPort43());
+        assertNull(domain.getLang());
+    }
+
+    private Domain newDomain() {
+        Domain domain = new Domain();
+        domain.setLdhName("example.cn");
+        domain.setLang("en");
+        domain.setPort43("whois.example.cn");
+        Entity entity = new Entity();
+        entity.setHandle("h-entity");
+        entity.setLang("en");
+        List<Entity> entities = new ArrayList<Entity>();
+        entities.add(entity);
+        domain.setEntities(entities);
+        Nameserver ns = new Nameserver();
+        ns.setHandle("h-ns");
+        ns.setLdhName("ns.example.cn");
+        List<Nameserver> nameservers = new ArrayList<Nameserver>();
+        nameservers.add(ns);
+        domain.setNameservers(nameservers);
+        return domain;
+    }
+
+    private Set<String> newSet(String... fields) {
+        Set<String> set = new HashSet<String>();
+        for (String field : fields) {
+            set.add(field);
+        }
+        return set;
+    }
+}
@@ -41,6 +41,7 @@ import org.restfulwhois.rdap.core.domain.model.DomainSearch;
 import org.restfulwhois.rdap.core.domain.queryparam.DomainSearchByDomainNameParam;
 import org.restfulwhois.rdap.core.domain.queryparam.DomainSearchParam;
 import org.restfulwhois.rdap.core.domain.service.DomainSearchService;
+import org.restfulwhois.rdap.core.entity.queryparam.EntitySearchByFnParam;
 import org.restfulwhois.rdap.core.entity.queryparam.EntitySearchByHandleParam;
 import org.restfulwhois.rdap.core.entity.service.EntitySearchService;
 import org.restfulwhois.rdap.core.nameserver.queryparam.NameserverSearchByNameParam;
@@ -116,6 +117,26 @@ public class SearchServiceImplTest extends BaseTest {
         assertTrue(!entitySearch.getTruncatedInfo().getResultsTruncated());
     }
 
+    /**
+     * test search entity by fn, batches seek over entities without handle.
+     */
+    @Test
+    @DatabaseTearDown("classpath:org/restfulwhois/rdap/dao/impl/teardown.xml")
+    @DatabaseSetup("classpath:org/restfulwhois/rdap/dao/impl/entity-search-null-handle.xml")
+    public
+            void testSearchEntityWithNullHandle() {
+        EntitySearchByFnParam queryParam = new EntitySearchByFnParam();
+        queryParam.setQ("nullHandle*");
+        RdapProperties prop = new RdapProperties();
+        ReflectionTestUtils.setField(prop, "maxsizeSearch", 10L);
+        ReflectionTestUtils.setField(prop, "batchsizeSearch", 2L);
+        EntitySearch entitySearch =
+                entitySearchService.searchEntity(queryParam);
+        assertNotNull(entitySearch);
+        assertEquals(5L, entitySearch.getEntitySearchResults().size());
+        assertTrue(!entitySearch.getTruncatedInfo().getResultsTruncated());
+    }
+
     /**
      * test search domain.
      */
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2012 - 2015, Internet Corporation for Assigned Names and
+ * Numbers (ICANN) and China Internet Network Information Center (CNNIC)
+ * 
+ * All rights reserved.
+ *  
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *  
+ * * Redistributions of source code must retain the above copyright notice,
+ *  this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *  this list of conditions and the following disclaimer in the documentation
+ *  and/or other materials provided with the distribution.
+ * * Neither the name of the ICANN, CNNIC nor the names of its contributors may
+ *  be used to endorse or promote products derived from this software without
+ *  specific prior written permission.
+ *  
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL ICANN OR CNNIC BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH
+ * DAMAGE.
+ */
+package org.restfulwhois.rdap.service.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.restfulwhois.rdap.filters.httpFilter.service.TokenBucketRateLimiter;
+
+/**
+ * test for TokenBucketRateLimiter.
+ * 
+ * @author jiashuo
+ * 
+ */
+public class TokenBucketRateLimiterTest {
+
+    /**
+     * test tryAcquire.
+     */
+    @Test
+    public void testTryAcquire() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(100, 4);
+        assertTrue(limiter.tryAcquire("ip:1", 1000, 2, 0));
+        assertTrue(limiter.tryAcquire("ip:1", 1000, 2, 1));
+        assertFalse(limiter.tryAcquire("ip:1", 1000, 2, 2));
+        assertTrue(limiter.tryAcquire("ip:2", 1000, 2, 2));
+        assertFalse(limiter.tryAcquire("ip:1", 1000, 2, 999));
+        assertTrue(limiter.tryAcquire("ip:1", 1000, 2, 1000));
+        assertFalse(limiter.tryAcquire("ip:1", 1000, 2, 1001));
+        assertTrue(limiter.tryAcquire("ip:1", 1000, 2, 5000));
+        assertTrue(limiter.tryAcquire("ip:1", 1000, 2, 5000));
+        assertFalse(limiter.tryAcquire("ip:1", 1000, 2, 5000));
+    }
+
+    /**
+     * test tryAcquire without limit.
+     */
+    @Test
+    public void testTryAcquireNotLimit() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(100, 4);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire("ip:1", -1, 1, 0));
+        }
+        assertEquals(0, limiter.size());
+    }
+
+    /**
+     * test bucket count is bounded.
+     */
+    @Test
+    public void testBounded() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(8, 2);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(limiter.tryAcquire("ip:" + i, 1000, 1, 0));
+        }
+        assertTrue(limiter.size() <= 8);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(limiter.tryAcquire("ip:" + i, 1000, 1, 2000));
+        }
+        assertTrue(limiter.size() <= 8);
+    }
+}